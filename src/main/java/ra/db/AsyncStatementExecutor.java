@@ -0,0 +1,204 @@
+package ra.db;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import ra.db.record.LastInsertId;
+import ra.db.record.RecordCursor;
+import ra.exception.RaConnectException;
+
+/**
+ * Executes SQL statements of {@link DatabaseConnections} on a bounded thread pool, the caller is
+ * not blocked while the statements are executing. Independent queries can be executed concurrently
+ * and combined by {@link CompletableFuture}.
+ *
+ * <pre>
+ * AsyncStatementExecutor async = new AsyncStatementExecutor(connections, 4, 100);
+ *
+ * CompletableFuture&lt;RecordCursor&gt; users = async.executeQuery("SELECT ...");
+ * CompletableFuture&lt;RecordCursor&gt; orders = async.executeQuery("SELECT ...");
+ *
+ * users.thenCombine(orders, (user, order) -&gt; ...);
+ * </pre>
+ *
+ * @author Ray Li
+ */
+public class AsyncStatementExecutor implements AutoCloseable {
+  private final DatabaseConnections connections;
+  private final ThreadPoolExecutor threadPool;
+  private final String name;
+
+  /**
+   * Initialize.
+   *
+   * @param connections database connections, the statements are executed by {@link
+   *     DatabaseConnections#next()}.
+   * @param threads maximum count of statements are executing at the same time, it should not be
+   *     greater than the connections can serve.
+   * @param queueDepth maximum count of statements are waiting for a thread, the statement is
+   *     rejected when the queue is full.
+   */
+  public AsyncStatementExecutor(DatabaseConnections connections, int threads, int queueDepth) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be greater than 0.");
+    }
+    if (queueDepth < 0) {
+      throw new IllegalArgumentException("queueDepth must not be negative.");
+    }
+    this.connections = connections;
+    name = "AsyncStatementExecutor-" + connections.getName();
+
+    BlockingQueue<Runnable> queue =
+        queueDepth == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueDepth);
+    AtomicInteger count = new AtomicInteger();
+    ThreadFactory factory =
+        runnable -> {
+          Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+
+          thread.setDaemon(true);
+          return thread;
+        };
+
+    threadPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, queue, factory);
+    threadPool.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Execute query, ex : SELECT * FROM table.
+   *
+   * @param sql SQL statement
+   * @return the future of RecordCursor
+   */
+  public CompletableFuture<RecordCursor> executeQuery(String sql) {
+    return supply(executor -> executor.executeQuery(sql));
+  }
+
+  /**
+   * Execute prepared query.
+   *
+   * @param prepared prepared
+   * @return the future of RecordCursor
+   */
+  public CompletableFuture<RecordCursor> prepareExecuteQuery(Prepared prepared) {
+    return supply(executor -> executor.prepareExecuteQuery(prepared));
+  }
+
+  /**
+   * Executes the given SQL statement, which may be an INSERT, UPDATE, or DELETE statement or an SQL
+   * statement that returns nothing, such as an SQL DDL statement.
+   *
+   * @param sql SQL statement
+   * @return the future of affected rows
+   */
+  public CompletableFuture<Integer> executeUpdate(String sql) {
+    return supply(executor -> executor.executeUpdate(sql));
+  }
+
+  /**
+   * Executes the prepared SQL statement, such as INSERT, UPDATE or DELETE.
+   *
+   * @param prepared prepared
+   * @return the future of affected rows
+   */
+  public CompletableFuture<Integer> prepareExecuteUpdate(Prepared prepared) {
+    return supply(executor -> executor.prepareExecuteUpdate(prepared));
+  }
+
+  /**
+   * Return the last id after executing SQL statement.
+   *
+   * @param sql SQL statement
+   * @return the future of last id
+   */
+  public CompletableFuture<LastInsertId> insert(String sql) {
+    return supply(executor -> executor.insert(sql));
+  }
+
+  /**
+   * Execute transaction, the transaction runs on a thread of the executor.
+   *
+   * @param transaction transaction
+   * @return the future is completed after the transaction is committed or rolled back.
+   */
+  public CompletableFuture<Void> executeTransaction(TransactionExecutor transaction) {
+    return supply(
+        executor -> {
+          executor.executeTransaction(transaction);
+          return null;
+        });
+  }
+
+  private <T> CompletableFuture<T> supply(Function<StatementExecutor, T> function) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+
+    try {
+      threadPool.execute(
+          () -> {
+            if (future.isDone()) {
+              // Cancelled by the caller while waiting in the queue.
+              return;
+            }
+            try {
+              future.complete(function.apply(connections.next()));
+            } catch (Throwable e) {
+              future.completeExceptionally(e);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(
+          new RaConnectException(
+              name
+                  + " rejects the statement, active="
+                  + threadPool.getActiveCount()
+                  + ",queue="
+                  + threadPool.getQueue().size()
+                  + ",shutdown="
+                  + threadPool.isShutdown(),
+              e));
+    }
+    return future;
+  }
+
+  /**
+   * Returns count of statements are waiting for a thread.
+   *
+   * @return count
+   */
+  public int getQueueSize() {
+    return threadPool.getQueue().size();
+  }
+
+  /**
+   * Returns count of statements are executing.
+   *
+   * @return count
+   */
+  public int getActiveCount() {
+    return threadPool.getActiveCount();
+  }
+
+  /**
+   * Returns the connections which execute the statements.
+   *
+   * @return DatabaseConnections
+   */
+  public DatabaseConnections getConnections() {
+    return connections;
+  }
+
+  /**
+   * Stop accepting statements, the statements are waiting in the queue are still executed. The
+   * connections are not closed.
+   */
+  @Override
+  public void close() {
+    threadPool.shutdown();
+  }
+}
@@ -0,0 +1,649 @@
+package ra.db;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import ra.exception.RaSqlException;
+import ra.util.compression.StringInput;
+
+/**
+ * Loads rows into a table by the fastest way of the database. MySQL reads the rows by LOAD DATA
+ * LOCAL INFILE from a stream which encodes the rows while the driver sends them, the connection
+ * requires {@link ra.db.parameter.MysqlParameters.Builder#setAllowLoadLocalInfile(boolean)}. The
+ * other databases insert the rows by batches, each batch is committed when it completes.
+ *
+ * <p>The values are written as {@link PreparedStatement#setObject(int, Object)} binds them,
+ * booleans are 1 or 0, dates are in JDBC escape format and the values of binary columns are sent in
+ * hex. MySQL skips the duplicate and invalid rows of LOAD DATA LOCAL with warnings, the count of
+ * loaded rows excludes them and the warnings are reported by {@link Progress#getWarnings()}.
+ *
+ * <p>Rows are pulled from the source only when the database is ready to take them, so a lazy
+ * source is never read ahead of the database and the memory is bounded by one batch.
+ *
+ * <pre>
+ * BulkLoader loader =
+ *     BulkLoader.newBuilder("user").setColumns("id", "name").setProgressListener(..).build();
+ *
+ * loader.load(connection, rows);
+ * </pre>
+ *
+ * @author Ray Li
+ */
+public class BulkLoader {
+  private String table;
+  private String[] columns;
+  private int batchSize;
+  private long progressInterval;
+  private Consumer<Progress> progressListener;
+  private Pattern delimiter;
+  private String nullValue;
+
+  private BulkLoader() {}
+
+  public static Builder newBuilder(String table) {
+    return new Builder(table);
+  }
+
+  /**
+   * Load the rows.
+   *
+   * @param connection database connection
+   * @param rows rows, the values of a row are in the order of columns.
+   * @return count of loaded rows, the rows skipped by MySQL are excluded.
+   * @throws RaSqlException RaSqlException, the rows which were committed before the failure
+   *     remain loaded.
+   */
+  public long load(DatabaseConnection connection, Iterator<Object[]> rows) throws RaSqlException {
+    Objects.requireNonNull(rows, "rows must not be null");
+    Progress progress = new Progress();
+
+    connection.getConnection(
+        dbConnection -> {
+          try {
+            if (connection.getParam().getCategory() == DatabaseCategory.MYSQL) {
+              loadData(dbConnection, rows, progress);
+            } else {
+              insertBatch(dbConnection, rows, progress);
+            }
+          } catch (SQLException e) {
+            throw new RaSqlException(
+                "Bulk load failed, table=" + table + ",loaded=" + progress.getRows(), e);
+          }
+          return 0;
+        });
+
+    progress.report(true);
+    return progress.getRows();
+  }
+
+  /**
+   * Load the rows, the stream is closed after loading.
+   *
+   * @param connection database connection
+   * @param rows rows, the values of a row are in the order of columns.
+   * @return count of loaded rows
+   * @throws RaSqlException RaSqlException
+   */
+  public long load(DatabaseConnection connection, Stream<Object[]> rows) throws RaSqlException {
+    try (Stream<Object[]> stream = rows) {
+      return load(connection, stream.iterator());
+    }
+  }
+
+  /**
+   * Load the lines of text, such as {@link ra.util.compression.StringFileInput}, {@link
+   * ra.util.compression.GzipFileStringInput} or {@link ra.util.compression.SnappyFileStringInput}.
+   * Each line is a row which values are separated by the delimiter.
+   *
+   * @param connection database connection
+   * @param input input, it is not closed.
+   * @return count of loaded rows
+   * @throws RaSqlException RaSqlException
+   */
+  public long load(DatabaseConnection connection, StringInput input) throws RaSqlException {
+    return load(connection, new LineIterator(input));
+  }
+
+  private void loadData(Connection dbConnection, Iterator<Object[]> rows, Progress progress)
+      throws SQLException {
+    StringBuilder sql =
+        new StringBuilder("LOAD DATA LOCAL INFILE 'stream' INTO TABLE ")
+            .append(table)
+            .append(" CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'")
+            .append(" LINES TERMINATED BY '\\n'");
+    String[] names = columns;
+    boolean[] hex;
+
+    dbConnection.setAutoCommit(true);
+
+    try (Statement statement = dbConnection.createStatement();
+        ResultSet result =
+            statement.executeQuery(
+                "SELECT "
+                    + (columns == null ? "*" : String.join(",", columns))
+                    + " FROM "
+                    + table
+                    + " WHERE 1=0")) {
+      ResultSetMetaData meta = result.getMetaData();
+
+      hex = new boolean[meta.getColumnCount()];
+      for (int i = 0; i < hex.length; i++) {
+        hex[i] = isBinary(meta.getColumnType(i + 1));
+      }
+      if (names == null) {
+        names = new String[hex.length];
+        for (int i = 0; i < names.length; i++) {
+          names[i] = meta.getColumnName(i + 1);
+        }
+      }
+    }
+
+    List<String> fields = new ArrayList<>();
+    List<String> sets = new ArrayList<>();
+
+    for (int i = 0; i < names.length; i++) {
+      if (i < hex.length && hex[i]) {
+        // Binary values are sent in hex, because the file is decoded by the character set.
+        fields.add("@hex" + i);
+        sets.add(names[i] + "=UNHEX(@hex" + i + ")");
+      } else {
+        fields.add(names[i]);
+      }
+    }
+
+    if (columns != null || !sets.isEmpty()) {
+      sql.append(" (").append(String.join(",", fields)).append(")");
+    }
+    if (!sets.isEmpty()) {
+      sql.append(" SET ").append(String.join(",", sets));
+    }
+
+    try (Statement statement = dbConnection.createStatement()) {
+      statement
+          .unwrap(JdbcStatement.class)
+          .setLocalInfileInputStream(new TabSeparatedInputStream(rows, progress, hex));
+      statement.execute(sql.toString());
+
+      List<String> warnings = new ArrayList<>();
+
+      for (SQLWarning warning = statement.getWarnings();
+          warning != null;
+          warning = warning.getNextWarning()) {
+        warnings.add(warning.getMessage());
+      }
+      progress.complete(statement.getUpdateCount(), warnings);
+    }
+  }
+
+  private static boolean isBinary(int sqlType) {
+    switch (sqlType) {
+      case Types.BINARY:
+      case Types.VARBINARY:
+      case Types.LONGVARBINARY:
+      case Types.BLOB:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private void insertBatch(Connection dbConnection, Iterator<Object[]> rows, Progress progress)
+      throws SQLException {
+    if (!rows.hasNext()) {
+      return;
+    }
+
+    Object[] first = rows.next();
+    int count = columns == null ? first.length : columns.length;
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(table);
+
+    if (columns != null) {
+      sql.append(" (").append(String.join(",", columns)).append(")");
+    }
+
+    String[] marks = new String[count];
+
+    Arrays.fill(marks, "?");
+    sql.append(" VALUES (").append(String.join(",", marks)).append(")");
+
+    dbConnection.setAutoCommit(false);
+
+    try (PreparedStatement statement = dbConnection.prepareStatement(sql.toString())) {
+      Object[] row = first;
+      int batch = 0;
+
+      while (row != null) {
+        for (int i = 0; i < count; i++) {
+          statement.setObject(i + 1, i < row.length ? row[i] : null);
+        }
+        statement.addBatch();
+        batch++;
+
+        if (batch == batchSize) {
+          statement.executeBatch();
+          dbConnection.commit();
+          progress.add(batch);
+          batch = 0;
+        }
+        row = rows.hasNext() ? rows.next() : null;
+      }
+
+      if (batch > 0) {
+        statement.executeBatch();
+        dbConnection.commit();
+        progress.add(batch);
+      }
+    } catch (SQLException | RuntimeException e) {
+      try {
+        dbConnection.rollback();
+      } catch (SQLException rollbackFailure) {
+        e.addSuppressed(rollbackFailure);
+      }
+      throw e;
+    } finally {
+      dbConnection.setAutoCommit(true);
+    }
+  }
+
+  /** Count and speed of loaded rows. */
+  public class Progress {
+    private final long startTime = System.currentTimeMillis();
+    private long rows = 0;
+    private long reported = 0;
+    private long skipped = 0;
+    private List<String> warnings = Collections.emptyList();
+    private boolean done = false;
+
+    private void add(long count) {
+      rows += count;
+      report(false);
+    }
+
+    private void complete(long loaded, List<String> warnings) {
+      if (loaded >= 0) {
+        skipped = Math.max(0, rows - loaded);
+        rows = loaded;
+      }
+      this.warnings = Collections.unmodifiableList(warnings);
+    }
+
+    private void report(boolean complete) {
+      done = complete;
+
+      if (progressListener != null && (complete || rows - reported >= progressInterval)) {
+        reported = rows;
+        progressListener.accept(this);
+      }
+    }
+
+    /**
+     * Returns count of loaded rows, the rows of MySQL are counted when they are sent until all rows
+     * have been loaded, then the rows skipped by MySQL are excluded.
+     *
+     * @return rows
+     */
+    public long getRows() {
+      return rows;
+    }
+
+    /**
+     * Returns count of rows which were sent to MySQL but skipped, such as duplicate keys.
+     *
+     * @return rows
+     */
+    public long getSkippedRows() {
+      return skipped;
+    }
+
+    /**
+     * Returns the warnings of MySQL after all rows have been loaded, such as skipped or truncated
+     * values.
+     *
+     * @return warnings
+     */
+    public List<String> getWarnings() {
+      return warnings;
+    }
+
+    /**
+     * Returns time (milliseconds) since loading started.
+     *
+     * @return elapsed time
+     */
+    public long getElapsedTime() {
+      return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * Returns average loaded rows per second.
+     *
+     * @return rows per second
+     */
+    public double getRowsPerSecond() {
+      return rows * 1000d / Math.max(1, getElapsedTime());
+    }
+
+    /**
+     * Returns true if all rows have been loaded.
+     *
+     * @return done
+     */
+    public boolean isDone() {
+      return done;
+    }
+
+    @Override
+    public String toString() {
+      return "table=" + table + ",rows=" + rows + ",rowsPerSecond=" + (long) getRowsPerSecond();
+    }
+  }
+
+  /**
+   * Encodes rows as the default format of LOAD DATA, values are separated by tab and lines are
+   * terminated by newline. NULL is written as \N and the special characters are escaped by
+   * backslash. A row is encoded only when the previous row has been read.
+   */
+  static class TabSeparatedInputStream extends InputStream {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final Iterator<Object[]> rows;
+    private final Progress progress;
+    private final boolean[] hex;
+    private final StringBuilder line = new StringBuilder();
+    private byte[] buffer = new byte[0];
+    private int position = 0;
+
+    /**
+     * Initialize.
+     *
+     * @param rows rows
+     * @param progress progress, it may be null.
+     * @param hex the columns which values are written in hex, it may be null.
+     */
+    TabSeparatedInputStream(Iterator<Object[]> rows, Progress progress, boolean[] hex) {
+      this.rows = rows;
+      this.progress = progress;
+      this.hex = hex;
+    }
+
+    private boolean fill() {
+      while (position >= buffer.length) {
+        if (!rows.hasNext()) {
+          return false;
+        }
+        encode(rows.next());
+        if (progress != null) {
+          progress.add(1);
+        }
+      }
+      return true;
+    }
+
+    private void encode(Object[] row) {
+      line.setLength(0);
+
+      for (int i = 0; i < row.length; i++) {
+        if (i > 0) {
+          line.append('\t');
+        }
+        if (row[i] == null) {
+          line.append("\\N");
+          continue;
+        }
+        if (row[i] instanceof byte[] || (hex != null && i < hex.length && hex[i])) {
+          // Hex digits never need escaping.
+          appendHex(
+              row[i] instanceof byte[]
+                  ? (byte[]) row[i]
+                  : toText(row[i]).getBytes(StandardCharsets.UTF_8));
+          continue;
+        }
+
+        String value = toText(row[i]);
+
+        for (int j = 0; j < value.length(); j++) {
+          char c = value.charAt(j);
+
+          switch (c) {
+            case '\\':
+              line.append("\\\\");
+              break;
+            case '\t':
+              line.append("\\t");
+              break;
+            case '\n':
+              line.append("\\n");
+              break;
+            case '\r':
+              line.append("\\r");
+              break;
+            case '\0':
+              line.append("\\0");
+              break;
+            default:
+              line.append(c);
+          }
+        }
+      }
+      line.append('\n');
+      buffer = line.toString().getBytes(StandardCharsets.UTF_8);
+      position = 0;
+    }
+
+    private void appendHex(byte[] bytes) {
+      for (byte b : bytes) {
+        line.append(HEX_DIGITS[(b >> 4) & 0xf]).append(HEX_DIGITS[b & 0xf]);
+      }
+    }
+
+    private static String toText(Object value) {
+      if (value instanceof Boolean) {
+        return (Boolean) value ? "1" : "0";
+      }
+      if (value instanceof BigDecimal) {
+        return ((BigDecimal) value).toPlainString();
+      }
+      if (value.getClass() == Date.class) {
+        // java.sql.Date, Time and Timestamp are already in JDBC escape format.
+        return new Timestamp(((Date) value).getTime()).toString();
+      }
+      if (value instanceof LocalDateTime) {
+        return Timestamp.valueOf((LocalDateTime) value).toString();
+      }
+      return String.valueOf(value);
+    }
+
+    @Override
+    public int read() {
+      if (!fill()) {
+        return -1;
+      }
+      return buffer[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+
+      int count = 0;
+
+      while (count < length && fill()) {
+        int size = Math.min(length - count, buffer.length - position);
+
+        System.arraycopy(buffer, position, bytes, offset + count, size);
+        position += size;
+        count += size;
+      }
+      return count == 0 ? -1 : count;
+    }
+  }
+
+  /** Splits the lines of text into rows. */
+  private class LineIterator implements Iterator<Object[]> {
+    private final StringInput input;
+    private String next;
+
+    LineIterator(StringInput input) {
+      this.input = Objects.requireNonNull(input, "input must not be null");
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null) {
+        try {
+          next = input.readLine();
+        } catch (IOException e) {
+          throw new RaSqlException("Read line failed, table=" + table, e);
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public Object[] next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      String[] values = delimiter.split(next, -1);
+
+      next = null;
+      for (int i = 0; i < values.length; i++) {
+        if (values[i].equals(nullValue)) {
+          values[i] = null;
+        }
+      }
+      return values;
+    }
+  }
+
+  /** Builder. */
+  public static class Builder {
+    private String table;
+    private String[] columns;
+    private int batchSize = 1000;
+    private long progressInterval = 100000;
+    private Consumer<Progress> progressListener;
+    private String delimiter = "\t";
+    private String nullValue = "\\N";
+
+    public Builder(String table) {
+      this.table = table;
+    }
+
+    /**
+     * Set the columns of the values of a row, all columns of the table in order if it is not set.
+     *
+     * @param columns column names
+     * @return Builder
+     */
+    public Builder setColumns(String... columns) {
+      this.columns = columns;
+      return this;
+    }
+
+    /**
+     * Set count of rows are inserted and committed together, it is not used by MySQL.
+     *
+     * @param size batch size
+     * @return Builder
+     */
+    public Builder setBatchSize(int size) {
+      batchSize = size;
+      return this;
+    }
+
+    /**
+     * Set the listener which is notified every interval of rows and after all rows have been
+     * loaded.
+     *
+     * @param interval count of rows between notifications
+     * @param listener listener
+     * @return Builder
+     */
+    public Builder setProgressListener(long interval, Consumer<Progress> listener) {
+      progressInterval = interval;
+      progressListener = listener;
+      return this;
+    }
+
+    /**
+     * Set the delimiter of the values of a line, the default is tab.
+     *
+     * @param delimiter delimiter
+     * @return Builder
+     */
+    public Builder setDelimiter(String delimiter) {
+      this.delimiter = delimiter;
+      return this;
+    }
+
+    /**
+     * Set the text of NULL in a line, the default is \N.
+     *
+     * @param nullValue text of NULL
+     * @return Builder
+     */
+    public Builder setNullValue(String nullValue) {
+      this.nullValue = nullValue;
+      return this;
+    }
+
+    /**
+     * Build.
+     *
+     * @return BulkLoader
+     */
+    public BulkLoader build() {
+      if (table == null) {
+        throw new NullPointerException("table is required.");
+      }
+      if (batchSize < 1) {
+        throw new IllegalArgumentException("batchSize must be greater than 0.");
+      }
+      if (progressInterval < 1) {
+        throw new IllegalArgumentException("progressInterval must be greater than 0.");
+      }
+      if (delimiter == null || delimiter.isEmpty()) {
+        throw new IllegalArgumentException("delimiter must not be empty.");
+      }
+
+      BulkLoader obj = new BulkLoader();
+
+      obj.table = table;
+      obj.columns = columns == null ? null : columns.clone();
+      obj.batchSize = batchSize;
+      obj.progressInterval = progressInterval;
+      obj.progressListener = progressListener;
+      obj.delimiter = Pattern.compile(Pattern.quote(delimiter));
+      obj.nullValue = nullValue;
+
+      return obj;
+    }
+  }
+}
@@ -0,0 +1,313 @@
+package ra.db;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import ra.db.record.LastInsertId;
+import ra.db.record.RecordCursor;
+import ra.db.record.RecordSet;
+import ra.db.record.StreamingRecordCursor;
+import ra.exception.RaConnectException;
+import ra.exception.RaSqlException;
+
+/**
+ * Caches the results of queries in {@link QueryCache}, the statements are executed by the
+ * delegate. The writes which are executed by this executor invalidate the cached results of the
+ * tables they touch, a committed transaction invalidates all results because its statements are
+ * not visible to the executor. Each query returns an independent RecordCursor which shares the
+ * cached values.
+ *
+ * <p>The writes which are not executed through the executors of the cache are not seen, so the
+ * results may be stale until they expire.
+ *
+ * @author Ray Li
+ */
+public class CachedStatementExecutor implements StatementExecutor {
+  private final StatementExecutor delegate;
+  private final QueryCache cache;
+
+  /**
+   * Initialize.
+   *
+   * @param delegate the executor which executes the statements.
+   * @param cache the cache, it can be shared by the executors of the same database.
+   */
+  public CachedStatementExecutor(StatementExecutor delegate, QueryCache cache) {
+    if (delegate == null) {
+      throw new NullPointerException("delegate must not be null");
+    }
+    if (cache == null) {
+      throw new NullPointerException("cache must not be null");
+    }
+    this.delegate = delegate;
+    this.cache = cache;
+  }
+
+  /**
+   * Returns the cache.
+   *
+   * @return QueryCache
+   */
+  public QueryCache getQueryCache() {
+    return cache;
+  }
+
+  /**
+   * Returns an executor which shares the cache, the statements of the delegate are executed with
+   * the deadline.
+   *
+   * @param timeout timeout of each call, 0 if the statements have no deadline.
+   * @param unit unit of timeout
+   * @return CachedStatementExecutor
+   */
+  @Override
+  public CachedStatementExecutor withTimeout(long timeout, TimeUnit unit) {
+    return new CachedStatementExecutor(delegate.withTimeout(timeout, unit), cache);
+  }
+
+  @Override
+  public boolean isLive() {
+    return delegate.isLive();
+  }
+
+  @Override
+  public int getInFlightCount() {
+    return delegate.getInFlightCount();
+  }
+
+  @Override
+  public int executeUpdate(String sql) throws RaConnectException, RaSqlException {
+    try {
+      return delegate.executeUpdate(sql);
+    } finally {
+      cache.invalidate(sql);
+    }
+  }
+
+  @Override
+  public int tryExecuteUpdate(String sql) throws RaConnectException, RaSqlException {
+    try {
+      return delegate.tryExecuteUpdate(sql);
+    } finally {
+      cache.invalidate(sql);
+    }
+  }
+
+  @Override
+  public void executeTransaction(TransactionExecutor executor)
+      throws RaConnectException, RaSqlException {
+    AtomicBoolean commit = new AtomicBoolean(false);
+
+    try {
+      delegate.executeTransaction(
+          transaction -> {
+            Boolean ret = executor.apply(transaction);
+
+            commit.set(Boolean.TRUE.equals(ret));
+            return ret;
+          });
+    } finally {
+      if (commit.get()) {
+        cache.invalidateAll();
+      }
+    }
+  }
+
+  @Override
+  public LastInsertId insert(String sql) throws RaConnectException, RaSqlException {
+    try {
+      return delegate.insert(sql);
+    } finally {
+      cache.invalidate(sql);
+    }
+  }
+
+  /**
+   * Executes the query, the result is cached for the default TTL of the cache.
+   *
+   * @param sql SQL statement
+   * @return RecordCursor
+   */
+  @Override
+  public RecordCursor executeQuery(String sql) throws RaConnectException, RaSqlException {
+    return executeQuery(sql, cache.getTtl());
+  }
+
+  /**
+   * Executes the query, the result is cached for the TTL.
+   *
+   * @param sql SQL statement
+   * @param ttl time to live (milliseconds), the cache is bypassed if it is not greater than 0.
+   * @return RecordCursor
+   */
+  public RecordCursor executeQuery(String sql, long ttl) throws RaConnectException, RaSqlException {
+    if (ttl <= 0) {
+      return delegate.executeQuery(sql);
+    }
+
+    QueryCache.Key key = QueryCache.key(sql, null);
+    RecordSet cached = cache.get(key);
+
+    if (cached != null) {
+      return cached;
+    }
+
+    long generation = cache.getGeneration();
+
+    return store(key, delegate.executeQuery(sql), ttl, generation);
+  }
+
+  /**
+   * Executes the queries, the cached results are returned and only the other queries are sent to
+   * database. The results are cached for the default TTL of the cache.
+   *
+   * @param sqls SQL statements
+   * @return RecordCursor of each query
+   */
+  @Override
+  public List<RecordCursor> executeQueries(List<String> sqls)
+      throws RaConnectException, RaSqlException {
+    long ttl = cache.getTtl();
+
+    if (ttl <= 0) {
+      return delegate.executeQueries(sqls);
+    }
+
+    List<RecordCursor> records = new ArrayList<>(sqls.size());
+    List<QueryCache.Key> missKeys = new ArrayList<>();
+    List<String> misses = new ArrayList<>();
+    List<Integer> missIndexes = new ArrayList<>();
+
+    for (int i = 0; i < sqls.size(); i++) {
+      QueryCache.Key key = QueryCache.key(sqls.get(i), null);
+      RecordSet cached = cache.get(key);
+
+      records.add(cached);
+      if (cached == null) {
+        missKeys.add(key);
+        misses.add(sqls.get(i));
+        missIndexes.add(i);
+      }
+    }
+
+    if (misses.isEmpty()) {
+      return records;
+    }
+
+    long generation = cache.getGeneration();
+    List<RecordCursor> results = delegate.executeQueries(misses);
+
+    for (int i = 0; i < results.size(); i++) {
+      records.set(missIndexes.get(i), store(missKeys.get(i), results.get(i), ttl, generation));
+    }
+    return records;
+  }
+
+  @Override
+  public int prepareExecuteUpdate(Prepared prepared) throws RaConnectException, RaSqlException {
+    try {
+      return delegate.prepareExecuteUpdate(prepared);
+    } finally {
+      cache.invalidate(prepared.getSql());
+    }
+  }
+
+  /**
+   * Executes the prepared query, the result is cached for the default TTL of the cache.
+   *
+   * @param prepared prepared
+   * @return RecordCursor
+   */
+  @Override
+  public RecordCursor prepareExecuteQuery(Prepared prepared)
+      throws RaConnectException, RaSqlException {
+    return prepareExecuteQuery(prepared, cache.getTtl());
+  }
+
+  /**
+   * Executes the prepared query, the result is cached for the TTL.
+   *
+   * @param prepared prepared
+   * @param ttl time to live (milliseconds), the cache is bypassed if it is not greater than 0.
+   * @return RecordCursor
+   */
+  public RecordCursor prepareExecuteQuery(Prepared prepared, long ttl)
+      throws RaConnectException, RaSqlException {
+    if (ttl <= 0) {
+      return delegate.prepareExecuteQuery(prepared);
+    }
+
+    QueryCache.Key key = QueryCache.key(prepared.getSql(), prepared.getValues());
+    RecordSet cached = cache.get(key);
+
+    if (cached != null) {
+      return cached;
+    }
+
+    long generation = cache.getGeneration();
+
+    return store(key, delegate.prepareExecuteQuery(prepared), ttl, generation);
+  }
+
+  private RecordCursor store(QueryCache.Key key, RecordCursor record, long ttl, long generation) {
+    if (!(record instanceof RecordSet)) {
+      return record;
+    }
+    RecordSet result = (RecordSet) record;
+
+    cache.put(key, result, ttl, generation);
+    return result.duplicate();
+  }
+
+  @Override
+  public int[] executeBatch(List<String> sqls) throws RaConnectException, RaSqlException {
+    try {
+      return delegate.executeBatch(sqls);
+    } finally {
+      new LinkedHashSet<>(sqls).forEach(cache::invalidate);
+    }
+  }
+
+  @Override
+  public int[] prepareExecuteBatch(List<Prepared> prepared)
+      throws RaConnectException, RaSqlException {
+    try {
+      return delegate.prepareExecuteBatch(prepared);
+    } finally {
+      Set<String> sqls = new LinkedHashSet<>();
+
+      prepared.forEach(p -> sqls.add(p.getSql()));
+      sqls.forEach(cache::invalidate);
+    }
+  }
+
+  @Override
+  public long[] prepareInsertBatch(List<Prepared> prepared)
+      throws RaConnectException, RaSqlException {
+    try {
+      return delegate.prepareInsertBatch(prepared);
+    } finally {
+      Set<String> sqls = new LinkedHashSet<>();
+
+      prepared.forEach(p -> sqls.add(p.getSql()));
+      sqls.forEach(cache::invalidate);
+    }
+  }
+
+  /** Streaming queries are not cached. */
+  @Override
+  public StreamingRecordCursor executeStreamingQuery(String sql)
+      throws RaConnectException, RaSqlException {
+    return delegate.executeStreamingQuery(sql);
+  }
+
+  /** Streaming queries are not cached. */
+  @Override
+  public StreamingRecordCursor prepareExecuteStreamingQuery(Prepared prepared)
+      throws RaConnectException, RaSqlException {
+    return delegate.prepareExecuteStreamingQuery(prepared);
+  }
+}
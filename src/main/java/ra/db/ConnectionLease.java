@@ -0,0 +1,28 @@
+package ra.db;
+
+/**
+ * A connection leased exclusively from {@link ConnectionPool}, the connection returns to the pool
+ * when the lease is closed.
+ *
+ * @author Ray Li
+ */
+public interface ConnectionLease extends AutoCloseable {
+
+  /**
+   * Returns the executor of the leased connection.
+   *
+   * @return StatementExecutor
+   */
+  public StatementExecutor getStatementExecutor();
+
+  /**
+   * Returns the leased connection.
+   *
+   * @return DatabaseConnection
+   */
+  public DatabaseConnection getDatabaseConnection();
+
+  /** Return the connection to the pool. */
+  @Override
+  public void close();
+}
@@ -0,0 +1,675 @@
+package ra.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import ra.db.record.LastInsertId;
+import ra.db.record.RecordCursor;
+import ra.db.record.StreamingRecordCursor;
+import ra.exception.RaConnectException;
+import ra.exception.RaSqlException;
+
+/**
+ * Elastic pool of database connections. A connection is leased exclusively to one caller and
+ * returns to the pool when the lease is closed, the pool grows up to the maximum size under load
+ * and shrinks back to the minimum size when connections stay idle.
+ *
+ * @author Ray Li
+ */
+public class ConnectionPool implements AutoCloseable {
+  private static final long VALIDATION_INTERVAL = 5000;
+  private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+  private static final long MIN_MAINTENANCE_INTERVAL = 100;
+
+  private String name;
+  private PoolSettings settings;
+  private Callable<DatabaseConnection> connectionMode;
+  private ReentrantLock lock;
+  private Condition available;
+  private Deque<PooledEntry> idle;
+  private Set<Lease> leased;
+  private int total = 0;
+  private int waiting = 0;
+  private volatile boolean closed = false;
+  private ScheduledExecutorService maintenance;
+  private StatementExecutor statementExecutor;
+
+  /**
+   * Initialize and open the minimum number of connections.
+   *
+   * @param name pool alias
+   * @param settings pool settings
+   * @param connectionMode Need to be used database connect Object, the connection will be used by
+   *     a single caller at a time.
+   * @throws RaConnectException Throw the RaConnectException when connect fail.
+   */
+  public ConnectionPool(
+      String name, PoolSettings settings, Callable<DatabaseConnection> connectionMode)
+      throws RaConnectException {
+    Objects.requireNonNull(settings, "settings == null, settings is required");
+    Objects.requireNonNull(connectionMode, "connectionMode == null, connectionMode is required");
+    this.name = name;
+    this.settings = settings;
+    this.connectionMode = connectionMode;
+    lock = new ReentrantLock();
+    available = lock.newCondition();
+    idle = new ArrayDeque<>();
+    leased = ConcurrentHashMap.newKeySet();
+    statementExecutor = new PooledStatementExecutor();
+
+    fill();
+
+    long interval = settings.getIdleTimeout();
+
+    if (settings.getLeakDetectionThreshold() > 0) {
+      interval = Math.min(interval, settings.getLeakDetectionThreshold());
+    }
+    interval = Math.max(MIN_MAINTENANCE_INTERVAL, interval / 2);
+
+    maintenance =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "ConnectionPool-" + name);
+              thread.setDaemon(true);
+              return thread;
+            });
+    maintenance.scheduleWithFixedDelay(
+        this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns pool alias.
+   *
+   * @return name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns pool settings.
+   *
+   * @return PoolSettings
+   */
+  public PoolSettings getSettings() {
+    return settings;
+  }
+
+  /**
+   * Returns an executor that leases a connection for each statement and returns it after the
+   * statement has been executed.
+   *
+   * @return StatementExecutor
+   */
+  public StatementExecutor getStatementExecutor() {
+    return statementExecutor;
+  }
+
+  /**
+   * Lease a connection exclusively, waits up to the acquire timeout of the settings.
+   *
+   * @return ConnectionLease, it must be closed after use.
+   * @throws RaConnectException Pool is closed, wait queue is full, timeout or connect failure.
+   */
+  public ConnectionLease borrow() throws RaConnectException {
+    return borrow(settings.getAcquireTimeout(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Lease a connection exclusively.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit the time unit of the timeout argument
+   * @return ConnectionLease, it must be closed after use.
+   * @throws RaConnectException Pool is closed, wait queue is full, timeout or connect failure.
+   */
+  public ConnectionLease borrow(long timeout, TimeUnit unit) throws RaConnectException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+    while (true) {
+      PooledEntry entry = take(deadline);
+
+      if (entry == null) {
+        entry = create();
+      } else if (!validate(entry)) {
+        discard(entry);
+        continue;
+      }
+
+      Lease lease = new Lease(entry);
+
+      leased.add(lease);
+      return lease;
+    }
+  }
+
+  /**
+   * Returns count of open connections.
+   *
+   * @return count
+   */
+  public int getTotalCount() {
+    lock.lock();
+    try {
+      return total;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns count of idle connections.
+   *
+   * @return count
+   */
+  public int getIdleCount() {
+    lock.lock();
+    try {
+      return idle.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns count of leased connections.
+   *
+   * @return count
+   */
+  public int getLeasedCount() {
+    return leased.size();
+  }
+
+  /**
+   * Returns count of callers waiting for a connection.
+   *
+   * @return count
+   */
+  public int getWaitingCount() {
+    lock.lock();
+    try {
+      return waiting;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns whether the pool was closed.
+   *
+   * @return If closed returns true.
+   */
+  public boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Take an idle connection or reserve a slot to open a new one.
+   *
+   * @param deadline deadline of System.nanoTime()
+   * @return idle connection, returns null if a slot has been reserved.
+   */
+  private PooledEntry take(long deadline) throws RaConnectException {
+    lock.lock();
+    try {
+      while (true) {
+        checkOpen();
+
+        // LIFO keeps the warmest connections busy and lets the others idle out.
+        PooledEntry entry = idle.pollLast();
+
+        if (entry != null) {
+          return entry;
+        }
+
+        if (total < settings.getMaxSize()) {
+          total++;
+          return null;
+        }
+
+        if (waiting >= settings.getMaxWaiting()) {
+          throw new RaConnectException(
+              "Connection pool[" + name + "] wait queue is full, waiting=" + waiting);
+        }
+
+        long remaining = deadline - System.nanoTime();
+
+        if (remaining <= 0) {
+          throw new RaConnectException(
+              "Connection pool["
+                  + name
+                  + "] acquire timeout, total="
+                  + total
+                  + ",waiting="
+                  + waiting);
+        }
+
+        waiting++;
+        try {
+          available.awaitNanos(remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RaConnectException(e);
+        } finally {
+          waiting--;
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Open a new connection into a reserved slot.
+   *
+   * @return PooledEntry
+   */
+  private PooledEntry create() throws RaConnectException {
+    try {
+      DatabaseConnection db = connectionMode.call();
+
+      if (!db.connect()) {
+        throw new RaConnectException("Connection pool[" + name + "] connect failure!");
+      }
+
+      return new PooledEntry(db);
+    } catch (RaConnectException e) {
+      releaseSlot();
+      throw e;
+    } catch (Exception e) {
+      releaseSlot();
+      throw new RaConnectException("Connection pool[" + name + "] connect failure!", e);
+    }
+  }
+
+  private boolean validate(PooledEntry entry) {
+    if (!entry.connection.isLive()) {
+      return false;
+    }
+
+    if (System.currentTimeMillis() - entry.lastUsed < VALIDATION_INTERVAL) {
+      return true;
+    }
+
+    Connection connection = entry.connection.getConnection();
+
+    try {
+      return connection != null && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private void release(Lease lease) {
+    if (!leased.remove(lease)) {
+      return;
+    }
+    PooledEntry entry = lease.entry;
+
+    if (closed || !entry.connection.isLive()) {
+      discard(entry);
+      return;
+    }
+
+    lock.lock();
+    try {
+      // The pool may be closed after the check above, then the idle entries have been drained.
+      if (!closed) {
+        entry.lastUsed = System.currentTimeMillis();
+        idle.addLast(entry);
+        available.signal();
+        return;
+      }
+    } finally {
+      lock.unlock();
+    }
+    discard(entry);
+  }
+
+  private void discard(PooledEntry entry) {
+    closeQuietly(entry);
+    releaseSlot();
+  }
+
+  private void releaseSlot() {
+    lock.lock();
+    try {
+      total--;
+      available.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void closeQuietly(PooledEntry entry) {
+    try {
+      if (entry.connection.getConnection() != null) {
+        entry.connection.close();
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  private void checkOpen() throws RaConnectException {
+    if (closed) {
+      throw new RaConnectException("Connection pool[" + name + "] is closed.");
+    }
+  }
+
+  /** Open connections until the minimum size is reached. */
+  private void fill() throws RaConnectException {
+    while (true) {
+      lock.lock();
+      try {
+        if (closed || total >= settings.getMinSize()) {
+          return;
+        }
+        total++;
+      } finally {
+        lock.unlock();
+      }
+
+      PooledEntry entry = create();
+
+      lock.lock();
+      try {
+        idle.addFirst(entry);
+        available.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** Close idle connections, refill the minimum size and report leaked connections. */
+  private void maintain() {
+    List<PooledEntry> expired = new ArrayList<>();
+    long now = System.currentTimeMillis();
+
+    lock.lock();
+    try {
+      Iterator<PooledEntry> iterator = idle.iterator();
+
+      // The head of the deque is the least recently used connection.
+      while (iterator.hasNext() && total - expired.size() > settings.getMinSize()) {
+        PooledEntry entry = iterator.next();
+
+        if (now - entry.lastUsed < settings.getIdleTimeout()) {
+          break;
+        }
+        iterator.remove();
+        expired.add(entry);
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    expired.forEach(this::discard);
+
+    try {
+      fill();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+
+    long threshold = settings.getLeakDetectionThreshold();
+
+    if (threshold > 0) {
+      for (Lease lease : leased) {
+        if (!lease.leakReported && now - lease.leasedAt > threshold) {
+          lease.leakReported = true;
+          lease.trace.printStackTrace();
+        }
+      }
+    }
+  }
+
+  /** Close the pool, leased connections are closed when they are returned. */
+  @Override
+  public void close() {
+    List<PooledEntry> entries = new ArrayList<>();
+
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      entries.addAll(idle);
+      idle.clear();
+      available.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    maintenance.shutdownNow();
+    entries.forEach(this::discard);
+  }
+
+  @Override
+  public String toString() {
+    return "ConnectionPool[" + name + "], " + settings;
+  }
+
+  private static class PooledEntry {
+    private DatabaseConnection connection;
+    private StatementExecutor executor;
+    private volatile long lastUsed;
+
+    PooledEntry(DatabaseConnection connection) {
+      this.connection = connection;
+      executor = connection.createStatementExecutor();
+      lastUsed = System.currentTimeMillis();
+    }
+  }
+
+  private class Lease implements ConnectionLease {
+    private PooledEntry entry;
+    private AtomicBoolean returned;
+    private long leasedAt;
+    private Exception trace;
+    private volatile boolean leakReported = false;
+
+    Lease(PooledEntry entry) {
+      this.entry = entry;
+      returned = new AtomicBoolean(false);
+      leasedAt = System.currentTimeMillis();
+
+      if (settings.getLeakDetectionThreshold() > 0) {
+        trace =
+            new Exception(
+                "Connection leak detected, pool["
+                    + name
+                    + "], the connection was leased by thread["
+                    + Thread.currentThread().getName()
+                    + "] and not returned within "
+                    + settings.getLeakDetectionThreshold()
+                    + " ms.");
+      }
+    }
+
+    @Override
+    public StatementExecutor getStatementExecutor() {
+      checkReturned();
+      return entry.executor;
+    }
+
+    @Override
+    public DatabaseConnection getDatabaseConnection() {
+      checkReturned();
+      return entry.connection;
+    }
+
+    private void checkReturned() {
+      if (returned.get()) {
+        throw new IllegalStateException("The connection has been returned to the pool.");
+      }
+    }
+
+    @Override
+    public void close() {
+      if (returned.compareAndSet(false, true)) {
+        release(this);
+      }
+    }
+  }
+
+  /** Lease a connection for each statement. */
+  private class PooledStatementExecutor implements StatementExecutor {
+    private final long timeout;
+
+    PooledStatementExecutor() {
+      this(-1);
+    }
+
+    /**
+     * Initialize.
+     *
+     * @param timeout deadline of the statements in milliseconds, -1 if uses the default of the
+     *     connections.
+     */
+    PooledStatementExecutor(long timeout) {
+      this.timeout = timeout;
+    }
+
+    private StatementExecutor executor(ConnectionLease lease) {
+      StatementExecutor executor = lease.getStatementExecutor();
+
+      return timeout < 0 ? executor : executor.withTimeout(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    private <T> T apply(Function<StatementExecutor, T> function) {
+      try (ConnectionLease lease = borrow()) {
+        return function.apply(executor(lease));
+      }
+    }
+
+    @Override
+    public StatementExecutor withTimeout(long timeout, TimeUnit unit) {
+      if (timeout < 0) {
+        throw new IllegalArgumentException("timeout must be greater than or equal to 0.");
+      }
+      return new PooledStatementExecutor(unit.toMillis(timeout));
+    }
+
+    @Override
+    public boolean isLive() {
+      return !closed;
+    }
+
+    @Override
+    public int getInFlightCount() {
+      return getLeasedCount() + getWaitingCount();
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws RaConnectException, RaSqlException {
+      return apply(executor -> executor.executeUpdate(sql));
+    }
+
+    @Override
+    public int tryExecuteUpdate(String sql) throws RaConnectException, RaSqlException {
+      return apply(executor -> executor.tryExecuteUpdate(sql));
+    }
+
+    @Override
+    public void executeTransaction(TransactionExecutor transaction)
+        throws RaConnectException, RaSqlException {
+      apply(
+          executor -> {
+            executor.executeTransaction(transaction);
+            return null;
+          });
+    }
+
+    @Override
+    public LastInsertId insert(String sql) throws RaConnectException, RaSqlException {
+      return apply(executor -> executor.insert(sql));
+    }
+
+    @Override
+    public RecordCursor executeQuery(String sql) throws RaConnectException, RaSqlException {
+      return apply(executor -> executor.executeQuery(sql));
+    }
+
+    @Override
+    public List<RecordCursor> executeQueries(List<String> sqls)
+        throws RaConnectException, RaSqlException {
+      return apply(executor -> executor.executeQueries(sqls));
+    }
+
+    @Override
+    public int prepareExecuteUpdate(Prepared prepared) throws RaConnectException, RaSqlException {
+      return apply(executor -> executor.prepareExecuteUpdate(prepared));
+    }
+
+    @Override
+    public RecordCursor prepareExecuteQuery(Prepared prepared)
+        throws RaConnectException, RaSqlException {
+      return apply(executor -> executor.prepareExecuteQuery(prepared));
+    }
+
+    @Override
+    public StreamingRecordCursor executeStreamingQuery(String sql)
+        throws RaConnectException, RaSqlException {
+      return stream(executor -> executor.executeStreamingQuery(sql));
+    }
+
+    @Override
+    public StreamingRecordCursor prepareExecuteStreamingQuery(Prepared prepared)
+        throws RaConnectException, RaSqlException {
+      return stream(executor -> executor.prepareExecuteStreamingQuery(prepared));
+    }
+
+    /**
+     * The lease is held by the cursor, it is returned when the cursor is closed.
+     *
+     * @param function function
+     * @return StreamingRecordCursor
+     */
+    private StreamingRecordCursor stream(
+        Function<StatementExecutor, StreamingRecordCursor> function) {
+      ConnectionLease lease = borrow();
+
+      try {
+        return function.apply(executor(lease)).onClose(lease::close);
+      } catch (RuntimeException e) {
+        lease.close();
+        throw e;
+      }
+    }
+
+    @Override
+    public int[] executeBatch(List<String> sqls) throws RaConnectException, RaSqlException {
+      return apply(executor -> executor.executeBatch(sqls));
+    }
+
+    @Override
+    public int[] prepareExecuteBatch(List<Prepared> prepared)
+        throws RaConnectException, RaSqlException {
+      return apply(executor -> executor.prepareExecuteBatch(prepared));
+    }
+
+    @Override
+    public long[] prepareInsertBatch(List<Prepared> prepared)
+        throws RaConnectException, RaSqlException {
+      return apply(executor -> executor.prepareInsertBatch(prepared));
+    }
+  }
+}
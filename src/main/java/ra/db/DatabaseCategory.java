@@ -7,23 +7,25 @@ package ra.db;
  */
 public enum DatabaseCategory {
   /** The driver that MySQL database. */
-  MYSQL("jdbc:mysql://", "com.mysql.cj.jdbc.Driver"),
+  MYSQL("jdbc:mysql://", "com.mysql.cj.jdbc.Driver", Integer.MIN_VALUE),
 
   /** The driver that H2 database. */
-  H2("jdbc:h2:", "org.h2.Driver"),
+  H2("jdbc:h2:", "org.h2.Driver", 100),
 
   /** BigQuery driver. */
-  BIGQUERY("jdbc:bigquery:", "com.simba.googlebigquery.jdbc42.Driver"),
+  BIGQUERY("jdbc:bigquery:", "com.simba.googlebigquery.jdbc42.Driver", 0),
 
   /** Google Spanner driver. */
-  SPANNER("jdbc:cloudspanner:", "com.google.cloud.spanner.jdbc.JdbcDriver");
+  SPANNER("jdbc:cloudspanner:", "com.google.cloud.spanner.jdbc.JdbcDriver", 0);
 
   private final String schema;
   private final String driver;
+  private final int streamingFetchSize;
 
-  private DatabaseCategory(String schema, String driver) {
+  private DatabaseCategory(String schema, String driver, int streamingFetchSize) {
     this.schema = schema;
     this.driver = driver;
+    this.streamingFetchSize = streamingFetchSize;
   }
 
   /**
@@ -43,4 +45,14 @@ public enum DatabaseCategory {
   public String getDriver() {
     return driver;
   }
+
+  /**
+   * Fetch size of streaming query, MySQL streams rows one by one when the size is {@link
+   * Integer#MIN_VALUE}, and 0 uses the default of driver.
+   *
+   * @return fetch size
+   */
+  public int getStreamingFetchSize() {
+    return streamingFetchSize;
+  }
 }
@@ -131,6 +131,53 @@ public interface DatabaseConnection extends AutoCloseable {
    */
   public abstract boolean isLive();
 
+  /**
+   * Acquire the connection exclusively until {@link #unlock()}, it is used when a result is read
+   * after the statement returns, such as streaming query. The lock is reentrant for the current
+   * thread, and it can be released by another thread, such as a cursor closed by a writer thread.
+   */
+  public default void lock() {}
+
+  /** Release the connection which is acquired by {@link #lock()}. */
+  public default void unlock() {}
+
+  /**
+   * Record that a statement has completed successfully on the connection, the health check skips
+   * the connection which is used recently.
+   */
+  public default void touch() {}
+
+  /**
+   * Returns the time (milliseconds) of the last statement which completed successfully.
+   *
+   * @return time, 0 if it is not recorded.
+   */
+  public default long getLastActiveTime() {
+    return 0;
+  }
+
+  /**
+   * Returns cache of PreparedStatement of the current connection.
+   *
+   * @return StatementCache, returns null if the cache is disabled.
+   */
+  public default StatementCache getStatementCache() {
+    return null;
+  }
+
+  /**
+   * Create cache of PreparedStatement by the settings of parameters.
+   *
+   * @param param The parameters of database connect setting.
+   * @return StatementCache, returns null if the cache is disabled.
+   */
+  public default StatementCache createStatementCache(DatabaseParameters param) {
+    if (param == null || param.getStatementCacheSize() <= 0) {
+      return null;
+    }
+    return new StatementCache(param.getStatementCacheSize());
+  }
+
   /** Get current database connection. */
   public static interface ConnectionFunction {
     /**
@@ -6,13 +6,15 @@ import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.locks.StampedLock;
 import ra.db.connection.ConcurrentConnection;
+import ra.db.connection.OnceConnection;
 import ra.db.connection.OriginalConnection;
 import ra.db.parameter.DatabaseParameters;
 import ra.exception.RaConnectException;
 
 /**
  * Provider multi connections to a single database, which connections are kept connected. Take
- * connection is round-robin.
+ * connection is round-robin, or leased exclusively from a {@link ConnectionPool} when connected by
+ * {@link #connectPool(DatabaseParameters, PoolSettings)}.
  *
  * @author Ray Li
  */
@@ -21,6 +23,7 @@ public class DatabaseConnections {
   private List<DatabaseConnectionHolder> connectionPool;
   private int index = 0;
   private StampedLock lock;
+  private volatile ConnectionPool pool;
 
   /** Create database connection. */
   public DatabaseConnections() {
@@ -75,6 +78,68 @@ public class DatabaseConnections {
     }
   }
 
+  /**
+   * Create an elastic pool, each connection is leased exclusively to one caller at a time, so
+   * callers never wait for a connection which is used by another caller while idle connections are
+   * available.
+   *
+   * @param param The parameters of database connect setting.
+   * @param settings pool settings
+   * @throws RaConnectException Throw the RaConnectException when connect fail.
+   */
+  public void connectPool(DatabaseParameters param, PoolSettings settings)
+      throws RaConnectException {
+    connectPool(param, settings, () -> new OnceConnection(param));
+  }
+
+  /**
+   * Create an elastic pool, each connection is leased exclusively to one caller at a time.
+   *
+   * @param param The parameters of database connect setting.
+   * @param settings pool settings
+   * @param connectionMode Need to be used database connect Object.
+   * @throws RaConnectException Throw the RaConnectException when connect fail.
+   * @throws IllegalStateException if the pool has been created and isn't closed by {@link #close()}.
+   */
+  public synchronized void connectPool(
+      DatabaseParameters param, PoolSettings settings, Callable<DatabaseConnection> connectionMode)
+      throws RaConnectException {
+    if (pool != null) {
+      throw new IllegalStateException("Database name[" + name + "] has been in pool mode.");
+    }
+    if (name == null) {
+      name = param.getDatabaseUrl();
+    }
+
+    pool = new ConnectionPool(name, settings, connectionMode);
+  }
+
+  /**
+   * Returns the pool which is created by {@link #connectPool(DatabaseParameters, PoolSettings)}.
+   *
+   * @return ConnectionPool, returns null if pool mode is not used.
+   */
+  public ConnectionPool getPool() {
+    return pool;
+  }
+
+  /**
+   * Lease a connection exclusively from the pool, the lease must be closed after use.
+   *
+   * @return ConnectionLease
+   * @throws RaConnectException Pool is closed, wait queue is full, timeout or connect failure.
+   */
+  public ConnectionLease lease() throws RaConnectException {
+    ConnectionPool pool = this.pool;
+
+    if (pool == null) {
+      throw new IllegalStateException(
+          "Database name[" + name + "] is not in pool mode, invoke connectPool(..) first.");
+    }
+
+    return pool.borrow();
+  }
+
   /**
    * Create Kept connections.
    *
@@ -104,16 +169,25 @@ public class DatabaseConnections {
   }
 
   /**
-   * Take StatementExecutor by round-robin, It's practical when had multi connections.
+   * Take StatementExecutor by round-robin, It's practical when had multi connections. Connections
+   * that are down or reconnecting are skipped, and the connection with the fewest in-flight
+   * statements is preferred. In pool mode the returned executor leases a connection for each
+   * statement.
    *
    * @return {@link StatementExecutor}
    */
   public StatementExecutor next() {
-    int index = 0;
+    ConnectionPool pool = this.pool;
+
+    if (pool != null) {
+      return pool.getStatementExecutor();
+    }
+
+    int start = 0;
     long stamp = lock.writeLock();
 
     try {
-      index = this.index;
+      start = index;
       index++;
       if (index >= connectionPool.size()) {
         index = 0;
@@ -122,7 +196,73 @@ public class DatabaseConnections {
       lock.unlockWrite(stamp);
     }
 
-    return connectionPool.get(index).statementExecutor;
+    int size = connectionPool.size();
+    StatementExecutor selected = null;
+    int selectedInFlight = Integer.MAX_VALUE;
+
+    // Start from the round-robin index, so connections with the same load take turns.
+    for (int i = 0; i < size && selectedInFlight > 0; i++) {
+      StatementExecutor executor = connectionPool.get((start + i) % size).statementExecutor;
+
+      if (!executor.isLive()) {
+        continue;
+      }
+
+      int inFlight = executor.getInFlightCount();
+
+      if (inFlight < selectedInFlight) {
+        selected = executor;
+        selectedInFlight = inFlight;
+      }
+    }
+
+    if (selected == null) {
+      // None of the connections is available, the executor reports the failure.
+      return connectionPool.get(start).statementExecutor;
+    }
+
+    return selected;
+  }
+
+  /**
+   * Returns true if any connection is live, the round-robin of {@link #next()} isn't advanced.
+   *
+   * @return live
+   */
+  public boolean isLive() {
+    ConnectionPool pool = this.pool;
+
+    if (pool != null) {
+      return pool.getStatementExecutor().isLive();
+    }
+
+    for (int i = 0; i < connectionPool.size(); i++) {
+      if (connectionPool.get(i).statementExecutor.isLive()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns count of in-flight statements of all connections, the round-robin of {@link #next()}
+   * isn't advanced.
+   *
+   * @return count
+   */
+  public int getInFlightCount() {
+    ConnectionPool pool = this.pool;
+
+    if (pool != null) {
+      return pool.getStatementExecutor().getInFlightCount();
+    }
+
+    int count = 0;
+
+    for (int i = 0; i < connectionPool.size(); i++) {
+      count += connectionPool.get(i).statementExecutor.getInFlightCount();
+    }
+    return count;
   }
 
   /**
@@ -147,6 +287,13 @@ public class DatabaseConnections {
 
   /** Close all database connection. */
   public void close() {
+    ConnectionPool pool = this.pool;
+
+    if (pool != null) {
+      pool.close();
+      this.pool = null;
+    }
+
     for (DatabaseConnectionHolder db : connectionPool) {
       try {
         db.dbConnection.close();
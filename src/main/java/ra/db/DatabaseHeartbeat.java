@@ -1,6 +1,12 @@
 package ra.db;
 
-/** Verify the database connection is alive. */
+/**
+ * Verify the database connection is alive.
+ *
+ * @deprecated a thread per connection, use {@link HealthCheckScheduler} which is shared by the
+ *     connections.
+ */
+@Deprecated
 public class DatabaseHeartbeat extends Thread {
   private boolean isRunning = true;
 
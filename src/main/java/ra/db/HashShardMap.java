@@ -0,0 +1,92 @@
+package ra.db;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maps the keys to the shards by hash, the integer keys are hashed by value and the other keys by
+ * {@link String#hashCode()} of their text, so a key is mapped to the same shard by every JVM.
+ * Changing the shards moves most keys to other shards.
+ *
+ * @author Ray Li
+ */
+public class HashShardMap implements ShardMap {
+  private final String[] shards;
+  private final Set<String> names;
+
+  /**
+   * Initialize.
+   *
+   * @param shards shard names, the order of the names decides the shard of each key.
+   */
+  public HashShardMap(String... shards) {
+    this(Arrays.asList(shards));
+  }
+
+  /**
+   * Initialize.
+   *
+   * @param shards shard names, the order of the names decides the shard of each key.
+   */
+  public HashShardMap(List<String> shards) {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("shards must not be empty.");
+    }
+    if (shards.contains(null)) {
+      throw new NullPointerException("shard name must not be null.");
+    }
+    this.shards = shards.toArray(new String[0]);
+    names = Collections.unmodifiableSet(new LinkedHashSet<>(shards));
+
+    if (names.size() != this.shards.length) {
+      throw new IllegalArgumentException("Duplicate shard names, shards=" + shards);
+    }
+  }
+
+  @Override
+  public String getShard(Object key) {
+    if (key == null) {
+      throw new IllegalArgumentException("The shard key must not be null.");
+    }
+    return shards[(int) Math.floorMod(mix(hash(key)), (long) shards.length)];
+  }
+
+  @Override
+  public Set<String> getShardNames() {
+    return names;
+  }
+
+  private static long hash(Object key) {
+    if (key instanceof Long
+        || key instanceof Integer
+        || key instanceof Short
+        || key instanceof Byte) {
+      return ((Number) key).longValue();
+    }
+    if (key instanceof BigInteger && ((BigInteger) key).bitLength() < 64) {
+      return ((BigInteger) key).longValue();
+    }
+    return key.toString().hashCode();
+  }
+
+  /** Spread the sequential keys over the shards. */
+  private static long mix(long value) {
+    long h = value;
+
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  @Override
+  public String toString() {
+    return "HashShardMap" + names;
+  }
+}
@@ -0,0 +1,167 @@
+package ra.db;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedules {@link KeepAlive#keep()} of many connections on a few shared threads, instead of one
+ * {@link DatabaseHeartbeat} thread per connection. The first check of each connection is delayed by
+ * a random part of its interval, so the checks of connections which are created together are spread
+ * over the interval.
+ *
+ * <p>The checks run on a bounded pool of worker threads, so a check which blocks, such as a
+ * reconnection to an unreachable host waiting for the connect timeout, doesn't delay the checks of
+ * the other connections while a worker is free. The next check of a connection is skipped while its
+ * previous check is running, or while all workers are busy and the queue of the checks is full.
+ *
+ * @author Ray Li
+ */
+public class HealthCheckScheduler implements AutoCloseable {
+  private static HealthCheckScheduler defaultScheduler;
+
+  private final ScheduledThreadPoolExecutor scheduler;
+  private final ThreadPoolExecutor workers;
+
+  /**
+   * Initialize.
+   *
+   * @param name prefix of thread names
+   * @param threads count of threads which schedule the checks, it also bounds count of threads
+   *     which run the checks.
+   */
+  public HealthCheckScheduler(String name, int threads) {
+    this(name, threads, threads);
+  }
+
+  /**
+   * Initialize.
+   *
+   * @param name prefix of thread names
+   * @param threads count of threads which schedule the checks.
+   * @param workers maximum count of threads which run the checks, it also bounds count of checks
+   *     which wait for a worker.
+   */
+  public HealthCheckScheduler(String name, int threads, int workers) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be greater than 0.");
+    }
+    if (workers < 1) {
+      throw new IllegalArgumentException("workers must be greater than 0.");
+    }
+
+    scheduler = new ScheduledThreadPoolExecutor(threads, newThreadFactory(name));
+    scheduler.setRemoveOnCancelPolicy(true);
+    this.workers =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(workers),
+            newThreadFactory(name + "-check"));
+    this.workers.allowCoreThreadTimeOut(true);
+  }
+
+  private static ThreadFactory newThreadFactory(String name) {
+    AtomicInteger count = new AtomicInteger();
+
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Returns the scheduler which is shared by the connections, it has 2 threads and 8 workers if it
+   * isn't set by {@link #setDefault(HealthCheckScheduler)}.
+   *
+   * @return HealthCheckScheduler
+   */
+  public static synchronized HealthCheckScheduler getDefault() {
+    if (defaultScheduler == null) {
+      defaultScheduler = new HealthCheckScheduler("HealthCheckScheduler", 2, 8);
+    }
+    return defaultScheduler;
+  }
+
+  /**
+   * Set the scheduler which is shared by the connections created afterwards, the previous
+   * scheduler keeps checking the connections registered to it.
+   *
+   * @param scheduler scheduler
+   */
+  public static synchronized void setDefault(HealthCheckScheduler scheduler) {
+    if (scheduler == null) {
+      throw new NullPointerException("scheduler must not be null");
+    }
+    defaultScheduler = scheduler;
+  }
+
+  /**
+   * Run the keep-alive event every interval until the registration is cancelled.
+   *
+   * @param keepAlive keep-alive
+   * @return the registration, cancel it when the connection is closed.
+   */
+  public ScheduledFuture<?> register(KeepAlive keepAlive) {
+    long interval = keepAlive.interval();
+
+    if (interval <= 0) {
+      throw new IllegalArgumentException("interval must be greater than 0.");
+    }
+
+    AtomicBoolean running = new AtomicBoolean(false);
+    Runnable check =
+        () -> {
+          try {
+            keepAlive.keep();
+          } catch (Throwable e) {
+            e.printStackTrace();
+          } finally {
+            running.set(false);
+          }
+        };
+
+    return scheduler.scheduleWithFixedDelay(
+        () -> {
+          if (!running.compareAndSet(false, true)) {
+            return;
+          }
+          try {
+            workers.execute(check);
+          } catch (RejectedExecutionException e) {
+            // The scheduler is closed, or all workers are busy and the queue is full.
+            running.set(false);
+          }
+        },
+        ThreadLocalRandom.current().nextLong(interval) + 1,
+        interval,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns count of registered keep-alive which are waiting for the next check.
+   *
+   * @return count
+   */
+  public int size() {
+    return scheduler.getQueue().size();
+  }
+
+  /** Stop running the checks. */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    workers.shutdownNow();
+  }
+}
@@ -1,20 +1,26 @@
 package ra.db;
 
-import java.math.BigDecimal;
-import java.sql.Array;
-import java.sql.Blob;
+import java.io.IOException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import ra.db.StatementMetrics.Sample;
+import ra.db.parameter.DatabaseParameters;
 import ra.db.record.LastInsertId;
 import ra.db.record.Record;
 import ra.db.record.RecordCursor;
 import ra.db.record.RecordSet;
+import ra.db.record.SpillableRecordSet;
+import ra.db.record.StreamingRecordCursor;
 import ra.exception.RaConnectException;
 import ra.exception.RaSqlException;
-import ra.ref.BiReference;
 import ra.ref.Reference;
 
 /**
@@ -23,7 +29,12 @@ import ra.ref.Reference;
  * @author Ray Li
  */
 public class JdbcExecutor implements StatementExecutor {
+  private static final int DEFAULT_BATCH_SIZE = 1000;
   private DatabaseConnection connection;
+  private AtomicInteger inFlight;
+  private StatementMetrics metrics = StatementMetrics.getDefault();
+  private long recordMemoryBudget = 0;
+  private long queryTimeout = -1;
 
   /**
    * Initialize.
@@ -32,6 +43,7 @@ public class JdbcExecutor implements StatementExecutor {
    */
   public JdbcExecutor(DatabaseConnection db) {
     connection = db;
+    inFlight = new AtomicInteger(0);
   }
 
   @Override
@@ -39,6 +51,131 @@ public class JdbcExecutor implements StatementExecutor {
     return connection.isLive();
   }
 
+  @Override
+  public int getInFlightCount() {
+    return inFlight.get();
+  }
+
+  /**
+   * Set the metrics which the time of statements is recorded to, the default is {@link
+   * StatementMetrics#getDefault()}.
+   *
+   * @param metrics metrics, null if the time is not recorded.
+   */
+  public void setMetrics(StatementMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the metrics which the time of statements is recorded to.
+   *
+   * @return StatementMetrics, null if the time is not recorded.
+   */
+  public StatementMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Set the estimated bytes of the rows which a query result keeps in memory, the rows after the
+   * budget are spilled to a temporary file by {@link SpillableRecordSet}. The default is 0, the
+   * rows are always kept in memory.
+   *
+   * <p>The records of the queries must be closed after use when it is set, a spilled record keeps
+   * its temporary file and an open file channel until it is closed. The file of a record which is
+   * never closed is deleted only after the record is garbage collected.
+   *
+   * @param bytes memory budget, 0 if disables spilling.
+   */
+  public void setRecordMemoryBudget(long bytes) {
+    if (bytes < 0) {
+      throw new IllegalArgumentException("bytes must be greater than or equal to 0.");
+    }
+    recordMemoryBudget = bytes;
+  }
+
+  /**
+   * Set the default deadline of each call, such as {@link #executeQuery(String)} or a whole
+   * transaction. It is applied to the statements as the query timeout, and the running statement is
+   * cancelled when the deadline passes, then {@link ra.exception.RaTimeoutException} is thrown. The
+   * time of waiting for the connection is included, but the wait itself is not interrupted. The
+   * default is {@link DatabaseParameters#getQueryTimeout()}.
+   *
+   * @param timeout timeout, 0 if the statements have no deadline.
+   * @param unit unit of timeout
+   */
+  public void setQueryTimeout(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout must be greater than or equal to 0.");
+    }
+    queryTimeout = unit.toMillis(timeout);
+  }
+
+  /**
+   * Returns the default deadline of each call.
+   *
+   * @return timeout in milliseconds, 0 if the statements have no deadline.
+   */
+  public long getQueryTimeout() {
+    if (queryTimeout >= 0) {
+      return queryTimeout;
+    }
+
+    DatabaseParameters param = connection.getParam();
+
+    return param == null ? 0 : param.getQueryTimeout();
+  }
+
+  @Override
+  public JdbcExecutor withTimeout(long timeout, TimeUnit unit) {
+    JdbcExecutor executor = new JdbcExecutor(connection);
+
+    executor.inFlight = inFlight;
+    executor.metrics = metrics;
+    executor.recordMemoryBudget = recordMemoryBudget;
+    executor.setQueryTimeout(timeout, unit);
+    return executor;
+  }
+
+  /**
+   * Execute on the database connection and count the statement as in-flight until it completes,
+   * including the time of waiting for the connection. The time is recorded to the metrics, and the
+   * statements of the function are cancelled when the deadline of the call passes.
+   *
+   * @param sql SQL statement which the time is recorded as, null if it is a transaction.
+   * @param function function
+   * @return result
+   * @throws RaSqlException RaSqlException
+   * @throws RaConnectException RaConnectException
+   */
+  private int execute(String sql, TimedFunction function)
+      throws RaSqlException, RaConnectException {
+    Sample sample = new Sample(metrics, sql);
+    StatementDeadline deadline = StatementDeadline.after(getQueryTimeout());
+    boolean failed = true;
+
+    inFlight.incrementAndGet();
+    try {
+      int ret =
+          connection.getConnection(
+              dbConnection -> {
+                sample.acquired();
+                try {
+                  deadline.start();
+                  return function.apply(dbConnection, sample, deadline);
+                } finally {
+                  deadline.finish();
+                }
+              });
+
+      connection.touch();
+      failed = false;
+      return ret;
+    } finally {
+      inFlight.decrementAndGet();
+      sample.end(failed);
+    }
+  }
+
   /**
    * Executes the given SQL statement, which may be an INSERT, UPDATE, or DELETE statement or an SQL
    * statement that returns nothing, such as an SQL DDL statement.
@@ -51,15 +188,21 @@ public class JdbcExecutor implements StatementExecutor {
     checkClosed(sql);
 
     int ret =
-        this.connection.getConnection(
-            dbConnection -> {
+        execute(
+            sql,
+            (dbConnection, sample, deadline) -> {
               try {
                 dbConnection.setAutoCommit(true);
                 try (Statement st = dbConnection.createStatement()) {
-                  return st.executeUpdate(sql);
+                  deadline.watch(st);
+
+                  int count = st.executeUpdate(sql);
+
+                  sample.executed(count);
+                  return count;
                 }
               } catch (SQLException e) {
-                throw new RaSqlException("SQL Syntax Error, sql=" + sql, e);
+                throw deadline.error("SQL Syntax Error, sql=" + sql, e);
               }
             });
 
@@ -77,17 +220,20 @@ public class JdbcExecutor implements StatementExecutor {
   public int tryExecuteUpdate(String sql) throws RaConnectException, RaSqlException {
     checkClosed(sql);
 
-    return connection.getConnection(
-        dbConnection -> {
+    return execute(
+        sql,
+        (dbConnection, sample, deadline) -> {
           int ret = 0;
           try {
             dbConnection.setAutoCommit(false);
             try (Statement st = dbConnection.createStatement()) {
+              deadline.watch(st);
               ret = st.executeUpdate(sql);
             }
+            sample.executed(ret);
             dbConnection.rollback();
           } catch (SQLException e) {
-            throw new RaSqlException("SQL Syntax Error, sql=" + sql, e);
+            throw deadline.error("SQL Syntax Error, sql=" + sql, e);
           }
 
           return ret;
@@ -109,18 +255,26 @@ public class JdbcExecutor implements StatementExecutor {
     checkClosed(prepared.getSql());
 
     int ret =
-        this.connection.getConnection(
-            dbConnection -> {
+        execute(
+            prepared.getSql(),
+            (dbConnection, sample, deadline) -> {
               try {
                 dbConnection.setAutoCommit(true);
-                try (PreparedStatement st = dbConnection.prepareStatement(prepared.getSql())) {
+                PreparedStatement st = prepareStatement(dbConnection, prepared.getSql());
+
+                try {
+                  deadline.watch(st);
+                  prepared.bind(st);
 
-                  setParametersPreparedStatement(prepared, st);
+                  int count = st.executeUpdate();
 
-                  return st.executeUpdate();
+                  sample.executed(count);
+                  return count;
+                } finally {
+                  releaseStatement(prepared.getSql(), st);
                 }
               } catch (SQLException e) {
-                throw new RaSqlException(
+                throw deadline.error(
                     "SQL Syntax Error, sql="
                         + prepared.getSql()
                         + ",values="
@@ -148,20 +302,28 @@ public class JdbcExecutor implements StatementExecutor {
 
     Record record = buildRecord();
 
-    connection.getConnection(
-        dbConnection -> {
+    execute(
+        prepared.getSql(),
+        (dbConnection, sample, deadline) -> {
           try {
             dbConnection.setAutoCommit(true);
 
-            try (PreparedStatement st = dbConnection.prepareStatement(prepared.getSql())) {
-              setParametersPreparedStatement(prepared, st);
+            PreparedStatement st = prepareStatement(dbConnection, prepared.getSql());
+
+            try {
+              deadline.watch(st);
+              prepared.bind(st);
 
               try (ResultSet rs = st.executeQuery()) {
+                sample.executed(0);
                 record.convert(rs);
               }
+              sample.rows(record.getRecordCount());
+            } finally {
+              releaseStatement(prepared.getSql(), st);
             }
           } catch (SQLException e) {
-            throw new RaSqlException(
+            throw deadline.error(
                 "SQL Syntax Error, sql=" + prepared.getSql() + ",values=" + prepared.getValues(),
                 e);
           }
@@ -172,45 +334,39 @@ public class JdbcExecutor implements StatementExecutor {
   }
 
   /**
-   * Put parameter values ​​into PreparedStatement.
+   * Returns PreparedStatement from the statement cache of the connection, or prepares a new one if
+   * the cache is disabled.
    *
-   * @param prepared prepared
-   * @param statement statement
+   * @param dbConnection database connection
+   * @param sql SQL statement
+   * @return PreparedStatement, it must be released by {@link #releaseStatement(String,
+   *     PreparedStatement)}.
    * @throws SQLException SQLException
    */
-  private void setParametersPreparedStatement(Prepared prepared, PreparedStatement statement)
+  private PreparedStatement prepareStatement(Connection dbConnection, String sql)
       throws SQLException {
-    for (Entry<Integer, ParameterValue> element : prepared.getValues().entrySet()) {
-      ParameterValue paramter = element.getValue();
-
-      if (String.class.isAssignableFrom(paramter.getType())) {
-        statement.setString(element.getKey(), String.class.cast(paramter.getValue()));
-      } else if (Integer.class.isAssignableFrom(paramter.getType())) {
-        statement.setInt(element.getKey(), Integer.class.cast(paramter.getValue()));
-      } else if (Long.class.isAssignableFrom(paramter.getType())) {
-        statement.setLong(element.getKey(), Long.class.cast(paramter.getValue()));
-      } else if (Double.class.isAssignableFrom(paramter.getType())) {
-        statement.setDouble(element.getKey(), Double.class.cast(paramter.getValue()));
-      } else if (Float.class.isAssignableFrom(paramter.getType())) {
-        statement.setFloat(element.getKey(), Float.class.cast(paramter.getValue()));
-      } else if (BigDecimal.class.isAssignableFrom(paramter.getType())) {
-        statement.setBigDecimal(element.getKey(), BigDecimal.class.cast(paramter.getValue()));
-      } else if (Boolean.class.isAssignableFrom(paramter.getType())) {
-        statement.setBoolean(element.getKey(), Boolean.class.cast(paramter.getValue()));
-      } else if (byte[].class.isAssignableFrom(paramter.getType())) {
-        statement.setBytes(element.getKey(), byte[].class.cast(paramter.getValue()));
-      } else if (Blob.class.isAssignableFrom(paramter.getType())) {
-        statement.setBlob(element.getKey(), Blob.class.cast(paramter.getValue()));
-      } else if (Array.class.isAssignableFrom(paramter.getType())) {
-        @SuppressWarnings("unchecked")
-        BiReference<String, Object[]> value = (BiReference<String, Object[]>) paramter.getValue();
-        Array array = statement.getConnection().createArrayOf(value.getLeft(), value.getRight());
-
-        statement.setArray(element.getKey(), array);
-      } else {
-        throw new IllegalArgumentException(
-            "Unsupported object type for QueryParameter: " + paramter.getType());
-      }
+    StatementCache cache = connection.getStatementCache();
+
+    if (cache == null) {
+      return dbConnection.prepareStatement(sql);
+    }
+    return cache.prepare(dbConnection, sql);
+  }
+
+  /**
+   * Return the statement to the statement cache, or close it if the cache is disabled.
+   *
+   * @param sql SQL statement
+   * @param statement statement
+   * @throws SQLException SQLException
+   */
+  private void releaseStatement(String sql, PreparedStatement statement) throws SQLException {
+    StatementCache cache = connection.getStatementCache();
+
+    if (cache == null) {
+      statement.close();
+    } else {
+      cache.release(sql, statement);
     }
   }
 
@@ -227,34 +383,25 @@ public class JdbcExecutor implements StatementExecutor {
       throw new RaConnectException("Connect to database failed.");
     }
 
-    this.connection.getConnection(
-        dbConnection -> {
+    execute(
+        null,
+        (dbConnection, sample, deadline) -> {
           boolean ret = false;
           try {
             dbConnection.setAutoCommit(false);
 
             Transaction tran =
                 new Transaction(
-                    new StatementFactory() {
-
-                      @SuppressWarnings("unchecked")
-                      @Override
-                      public <T extends Statement> T create(String sql)
-                          throws RaConnectException, SQLException {
-                        return sql == null
-                            ? (T) dbConnection.createStatement()
-                            : (T) dbConnection.prepareStatement(sql);
-                      }
-                    });
+                    newStatementFactory(dbConnection, deadline), dbConnection, deadline);
             ret = executor.apply(tran);
           } catch (SQLException e) {
-            throw new RaSqlException(e);
+            throw deadline.error(null, e);
           } finally {
             if (ret) {
               try {
                 dbConnection.commit();
               } catch (SQLException e) {
-                throw new RaSqlException(e);
+                throw deadline.error(null, e);
               }
             } else {
               try {
@@ -268,6 +415,313 @@ public class JdbcExecutor implements StatementExecutor {
         });
   }
 
+  /**
+   * Returns the factory which creates statements on the database connection, prepared statements
+   * are taken from the statement cache.
+   *
+   * @param dbConnection database connection
+   * @param deadline deadline which is applied to the statements
+   * @return StatementFactory
+   */
+  private StatementFactory newStatementFactory(
+      Connection dbConnection, StatementDeadline deadline) {
+    return new StatementFactory() {
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public <T extends Statement> T create(String sql) throws RaConnectException, SQLException {
+        Statement statement =
+            sql == null ? dbConnection.createStatement() : prepareStatement(dbConnection, sql);
+
+        try {
+          deadline.watch(statement);
+        } catch (SQLException | RuntimeException e) {
+          if (sql == null) {
+            statement.close();
+          } else {
+            releaseStatement(sql, (PreparedStatement) statement);
+          }
+          throw e;
+        }
+        return (T) statement;
+      }
+    };
+  }
+
+  @Override
+  public int[] executeBatch(List<String> sqls) throws RaConnectException, RaSqlException {
+    if (sqls.isEmpty()) {
+      return new int[0];
+    }
+    checkClosed(sqls.get(0));
+
+    int[] ret = new int[sqls.size()];
+
+    execute(
+        sqls.get(0),
+        (dbConnection, sample, deadline) -> {
+          try {
+            dbConnection.setAutoCommit(false);
+            runBatch(newStatementFactory(dbConnection, deadline), sqls, ret, dbConnection);
+            sample.executed(sum(ret));
+          } catch (SQLException e) {
+            rollback(dbConnection);
+            throw deadline.error("Execute batch failed, size=" + sqls.size(), e);
+          }
+          return 0;
+        });
+
+    return ret;
+  }
+
+  @Override
+  public int[] prepareExecuteBatch(List<Prepared> prepared)
+      throws RaConnectException, RaSqlException {
+    if (prepared.isEmpty()) {
+      return new int[0];
+    }
+    checkClosed(prepared.get(0).getSql());
+
+    int[] ret = new int[prepared.size()];
+
+    execute(
+        prepared.get(0).getSql(),
+        (dbConnection, sample, deadline) -> {
+          try {
+            dbConnection.setAutoCommit(false);
+            runPreparedBatch(
+                newStatementFactory(dbConnection, deadline), prepared, ret, dbConnection);
+            sample.executed(sum(ret));
+          } catch (SQLException e) {
+            rollback(dbConnection);
+            throw deadline.error("Execute batch failed, size=" + prepared.size(), e);
+          }
+          return 0;
+        });
+
+    return ret;
+  }
+
+  @Override
+  public long[] prepareInsertBatch(List<Prepared> prepared)
+      throws RaConnectException, RaSqlException {
+    long[] keys = new long[prepared.size()];
+
+    if (prepared.isEmpty()) {
+      return keys;
+    }
+    checkClosed(prepared.get(0).getSql());
+
+    execute(
+        prepared.get(0).getSql(),
+        (dbConnection, sample, deadline) -> {
+          try {
+            dbConnection.setAutoCommit(false);
+            runInsertBatch(dbConnection, prepared, keys, deadline);
+            dbConnection.commit();
+            sample.executed(keys.length);
+          } catch (SQLException | RuntimeException e) {
+            rollback(dbConnection);
+            if (e instanceof RaSqlException) {
+              throw (RaSqlException) e;
+            }
+
+            String message = "Insert batch failed, size=" + prepared.size();
+
+            if (e instanceof SQLException) {
+              throw deadline.error(message, (SQLException) e);
+            }
+            throw new RaSqlException(message, e);
+          }
+          return 0;
+        });
+
+    return keys;
+  }
+
+  /**
+   * Sends the INSERT statements to database by batches and reads the generated keys of each batch.
+   * The statements are not taken from the statement cache, because they are prepared to return
+   * generated keys.
+   *
+   * @param dbConnection database connection
+   * @param prepared INSERT statements
+   * @param keys generated keys
+   * @param deadline deadline which is applied to the statements
+   * @throws SQLException SQLException
+   */
+  private void runInsertBatch(
+      Connection dbConnection, List<Prepared> prepared, long[] keys, StatementDeadline deadline)
+      throws SQLException {
+    int batchSize = getBatchSize();
+    int offset = 0;
+    int i = 0;
+
+    while (i < prepared.size()) {
+      String sql = prepared.get(i).getSql();
+
+      try (PreparedStatement statement =
+          dbConnection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        deadline.watch(statement);
+        do {
+          prepared.get(i).bind(statement);
+          statement.addBatch();
+          i++;
+
+          if (i - offset == batchSize
+              || i == prepared.size()
+              || !sql.equals(prepared.get(i).getSql())) {
+            statement.executeBatch();
+            offset = readGeneratedKeys(statement, keys, offset, i);
+          }
+        } while (i < prepared.size() && sql.equals(prepared.get(i).getSql()));
+      }
+    }
+  }
+
+  private static int readGeneratedKeys(Statement statement, long[] keys, int offset, int end)
+      throws SQLException {
+    int index = offset;
+
+    try (ResultSet rs = statement.getGeneratedKeys()) {
+      while (rs.next()) {
+        if (index >= end) {
+          throw new RaSqlException(
+              "Generated keys are more than rows, rows=" + (end - offset) + ",offset=" + offset);
+        }
+        keys[index++] = rs.getLong(1);
+      }
+    }
+    if (index != end) {
+      throw new RaSqlException(
+          "Generated keys are fewer than rows, keys="
+              + (index - offset)
+              + ",rows="
+              + (end - offset)
+              + ",offset="
+              + offset);
+    }
+    return end;
+  }
+
+  /**
+   * Sends the SQL statements to database by batches.
+   *
+   * @param factory statement factory
+   * @param sqls SQL statements
+   * @param results affected rows of each statement
+   * @param commit commit the connection after each batch, null if the caller commits.
+   * @throws SQLException SQLException
+   */
+  private void runBatch(
+      StatementFactory factory, List<String> sqls, int[] results, Connection commit)
+      throws SQLException {
+    int batchSize = getBatchSize();
+    int offset = 0;
+
+    try (Statement statement = factory.create(null)) {
+      for (int i = 0; i < sqls.size(); i++) {
+        statement.addBatch(sqls.get(i));
+
+        if (i + 1 - offset == batchSize || i + 1 == sqls.size()) {
+          offset = flush(statement, results, offset, commit);
+        }
+      }
+    }
+  }
+
+  /**
+   * Sends the Prepared objects to database by batches, consecutive Prepared objects which have the
+   * same SQL share one statement.
+   *
+   * @param factory statement factory
+   * @param prepared parameter sets of SQL templates
+   * @param results affected rows of each Prepared
+   * @param commit commit the connection after each batch, null if the caller commits.
+   * @throws SQLException SQLException
+   */
+  private void runPreparedBatch(
+      StatementFactory factory, List<Prepared> prepared, int[] results, Connection commit)
+      throws SQLException {
+    int batchSize = getBatchSize();
+    int offset = 0;
+    int i = 0;
+
+    while (i < prepared.size()) {
+      String sql = prepared.get(i).getSql();
+      PreparedStatement statement = factory.create(sql);
+
+      try {
+        do {
+          prepared.get(i).bind(statement);
+          statement.addBatch();
+          i++;
+
+          if (i - offset == batchSize) {
+            offset = flush(statement, results, offset, commit);
+          }
+        } while (i < prepared.size() && sql.equals(prepared.get(i).getSql()));
+
+        if (i > offset) {
+          offset = flush(statement, results, offset, commit);
+        }
+      } finally {
+        releaseStatement(sql, statement);
+      }
+    }
+  }
+
+  /**
+   * Executes the pending batch of the statement.
+   *
+   * @param statement statement
+   * @param results affected rows
+   * @param offset index of the first pending statement in results
+   * @param commit commit the connection after the batch, null if the caller commits.
+   * @return index of the next statement
+   * @throws SQLException SQLException
+   */
+  private int flush(Statement statement, int[] results, int offset, Connection commit)
+      throws SQLException {
+    int[] counts = statement.executeBatch();
+
+    System.arraycopy(counts, 0, results, offset, counts.length);
+
+    if (commit != null) {
+      commit.commit();
+    }
+    return offset + counts.length;
+  }
+
+  private static long sum(int[] counts) {
+    long sum = 0;
+
+    for (int count : counts) {
+      // Statement.SUCCESS_NO_INFO and EXECUTE_FAILED are negative.
+      sum += Math.max(0, count);
+    }
+    return sum;
+  }
+
+  private void rollback(Connection dbConnection) {
+    try {
+      dbConnection.rollback();
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Returns count of statements are sent in one round trip.
+   *
+   * @return batch size
+   */
+  private int getBatchSize() {
+    DatabaseParameters param = connection.getParam();
+
+    return param == null ? DEFAULT_BATCH_SIZE : param.getBatchSize();
+  }
+
   /**
    * Return the last id after executing SQL statement.
    *
@@ -280,19 +734,24 @@ public class JdbcExecutor implements StatementExecutor {
 
     Reference<LastInsertId> ref = new Reference<>();
 
-    this.connection.getConnection(
-        dbConnection -> {
+    execute(
+        sql,
+        (dbConnection, sample, deadline) -> {
           try {
             dbConnection.setAutoCommit(true);
             try (Statement st = dbConnection.createStatement()) {
+              deadline.watch(st);
               synchronized (st) {
-                if (st.executeUpdate(sql, Statement.RETURN_GENERATED_KEYS) > 0) {
+                int count = st.executeUpdate(sql, Statement.RETURN_GENERATED_KEYS);
+
+                sample.executed(count);
+                if (count > 0) {
                   ref.set(buildRecord().getLastInsertId(st));
                 }
               }
             }
           } catch (SQLException e) {
-            throw new RaSqlException("SQL Syntax Error, sql=" + sql, e);
+            throw deadline.error("SQL Syntax Error, sql=" + sql, e);
           }
           return 0;
         });
@@ -311,17 +770,22 @@ public class JdbcExecutor implements StatementExecutor {
     checkClosed(sql);
 
     Record record = buildRecord();
-    connection.getConnection(
-        dbConnection -> {
+    execute(
+        sql,
+        (dbConnection, sample, deadline) -> {
           try {
             dbConnection.setAutoCommit(true);
 
-            try (Statement st = dbConnection.createStatement();
-                ResultSet rs = st.executeQuery(sql)) {
-              record.convert(rs);
+            try (Statement st = dbConnection.createStatement()) {
+              deadline.watch(st);
+              try (ResultSet rs = st.executeQuery(sql)) {
+                sample.executed(0);
+                record.convert(rs);
+              }
             }
+            sample.rows(record.getRecordCount());
           } catch (SQLException e) {
-            throw new RaSqlException("SQL Syntax Error, sql=" + sql, e);
+            throw deadline.error("SQL Syntax Error, sql=" + sql, e);
           }
 
           return 0;
@@ -330,6 +794,218 @@ public class JdbcExecutor implements StatementExecutor {
     return record;
   }
 
+  @Override
+  public List<RecordCursor> executeQueries(List<String> sqls)
+      throws RaConnectException, RaSqlException {
+    List<RecordCursor> records = new ArrayList<>(sqls.size());
+
+    if (sqls.isEmpty()) {
+      return records;
+    }
+    checkClosed(sqls.get(0));
+
+    DatabaseParameters param = connection.getParam();
+    boolean multiStatements = param != null && param.isMultiStatementsEnabled();
+    String joined = joinStatements(sqls);
+
+    try {
+      runQueries(sqls, joined, multiStatements, records);
+    } catch (RuntimeException e) {
+      // The records which have been read are discarded, the spill files are deleted.
+      records.forEach(JdbcExecutor::closeQuietly);
+      throw e;
+    }
+    return records;
+  }
+
+  private void runQueries(
+      List<String> sqls, String joined, boolean multiStatements, List<RecordCursor> records) {
+    execute(
+        joined,
+        (dbConnection, sample, deadline) -> {
+          try {
+            dbConnection.setAutoCommit(true);
+
+            try (Statement st = dbConnection.createStatement()) {
+              deadline.watch(st);
+              if (multiStatements) {
+                readResults(st, st.execute(joined), records);
+              } else {
+                for (String sql : sqls) {
+                  readResults(st, st.execute(sql), records);
+                }
+              }
+              sample.executed(0);
+            }
+          } catch (SQLException e) {
+            throw deadline.error("SQL Syntax Error, sql=" + joined, e);
+          }
+
+          long rows = 0;
+
+          for (RecordCursor record : records) {
+            rows += record.getRecordCount();
+          }
+          sample.rows(rows);
+          return 0;
+        });
+
+    if (records.size() != sqls.size()) {
+      throw new RaSqlException(
+          "Expected " + sqls.size() + " result sets but " + records.size() + ", sql=" + joined);
+    }
+  }
+
+  private static void closeQuietly(RecordCursor record) {
+    try {
+      record.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Read all results of the statement, the update counts are skipped.
+   *
+   * @param statement statement
+   * @param hasResultSet true if the first result is a ResultSet.
+   * @param records records
+   * @throws SQLException SQLException
+   */
+  private void readResults(Statement statement, boolean hasResultSet, List<RecordCursor> records)
+      throws SQLException {
+    boolean resultSet = hasResultSet;
+
+    while (resultSet || statement.getUpdateCount() != -1) {
+      if (resultSet) {
+        Record record = buildRecord();
+
+        try (ResultSet rs = statement.getResultSet()) {
+          record.convert(rs);
+        }
+        records.add(record);
+      }
+      resultSet = statement.getMoreResults();
+    }
+  }
+
+  private static String joinStatements(List<String> sqls) {
+    StringBuilder str = new StringBuilder();
+
+    for (String sql : sqls) {
+      String statement = sql.trim();
+
+      while (statement.endsWith(";")) {
+        statement = statement.substring(0, statement.length() - 1).trim();
+      }
+      if (str.length() > 0) {
+        str.append(';');
+      }
+      str.append(statement);
+    }
+    return str.toString();
+  }
+
+  @Override
+  public StreamingRecordCursor executeStreamingQuery(String sql)
+      throws RaConnectException, RaSqlException {
+    return executeStreaming(sql, null);
+  }
+
+  @Override
+  public StreamingRecordCursor prepareExecuteStreamingQuery(Prepared prepared)
+      throws RaConnectException, RaSqlException {
+    return executeStreaming(prepared.getSql(), prepared);
+  }
+
+  /**
+   * Open a forward-only ResultSet, the connection is locked and the statement is counted as
+   * in-flight until the cursor is closed. The statement is cancelled if the cursor is still open
+   * when the deadline passes.
+   *
+   * @param sql SQL statement
+   * @param prepared prepared, null if executes the SQL statement directly.
+   * @return StreamingRecordCursor
+   */
+  private StreamingRecordCursor executeStreaming(String sql, Prepared prepared) {
+    checkClosed(sql);
+
+    Reference<Statement> statement = new Reference<>();
+    StatementDeadline deadline = StatementDeadline.after(getQueryTimeout());
+    AtomicBoolean released = new AtomicBoolean(false);
+    Runnable release =
+        () -> {
+          if (!released.compareAndSet(false, true)) {
+            return;
+          }
+          deadline.finish();
+          try {
+            if (!statement.isNull()) {
+              statement.get().close();
+            }
+          } catch (SQLException e) {
+            e.printStackTrace();
+          } finally {
+            connection.unlock();
+            inFlight.decrementAndGet();
+          }
+        };
+
+    inFlight.incrementAndGet();
+    connection.lock();
+
+    try {
+      Connection dbConnection = connection.getConnection();
+      ResultSet rs;
+
+      deadline.start();
+      dbConnection.setAutoCommit(true);
+
+      if (prepared == null) {
+        Statement st =
+            dbConnection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+
+        statement.set(st);
+        deadline.watch(st);
+        st.setFetchSize(getStreamingFetchSize());
+        rs = st.executeQuery(sql);
+      } else {
+        PreparedStatement st =
+            dbConnection.prepareStatement(
+                sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+
+        statement.set(st);
+        deadline.watch(st);
+        st.setFetchSize(getStreamingFetchSize());
+        prepared.bind(st);
+        rs = st.executeQuery();
+      }
+
+      return new StreamingRecordCursor(rs, release);
+    } catch (SQLException e) {
+      release.run();
+      throw deadline.error(
+          "SQL Syntax Error, sql="
+              + sql
+              + (prepared == null ? "" : ",values=" + prepared.getValues()),
+          e);
+    } catch (RuntimeException e) {
+      release.run();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns fetch size of streaming query which depends on category of database.
+   *
+   * @return fetch size
+   */
+  private int getStreamingFetchSize() {
+    DatabaseParameters param = connection.getParam();
+
+    return param == null ? 0 : param.getCategory().getStreamingFetchSize();
+  }
+
   private void checkClosed(String sql) throws RaConnectException {
     if (!isLive()) {
       String msg =
@@ -350,9 +1026,22 @@ public class JdbcExecutor implements StatementExecutor {
    * @return Record
    */
   public Record buildRecord() {
+    if (recordMemoryBudget > 0) {
+      return new SpillableRecordSet(
+          this.connection.getParam().getCategory(), recordMemoryBudget);
+    }
     return new RecordSet(this.connection.getParam().getCategory());
   }
 
+  /**
+   * ConnectionFunction which marks the phases of the statement on the sample, the statements must
+   * be watched by the deadline.
+   */
+  private interface TimedFunction {
+    int apply(Connection dbConnection, Sample sample, StatementDeadline deadline)
+        throws RaSqlException, RaConnectException;
+  }
+
   /**
    * Transaction.
    *
@@ -360,11 +1049,20 @@ public class JdbcExecutor implements StatementExecutor {
    */
   public class Transaction {
     private StatementFactory statementFactory;
+    private Connection dbConnection;
+    private StatementDeadline deadline = StatementDeadline.NONE;
 
     public Transaction(StatementFactory factory) throws SQLException {
       this.statementFactory = factory;
     }
 
+    Transaction(StatementFactory factory, Connection dbConnection, StatementDeadline deadline)
+        throws SQLException {
+      this(factory);
+      this.dbConnection = dbConnection;
+      this.deadline = deadline;
+    }
+
     /**
      * Execute a SQL using a batch.
      *
@@ -377,7 +1075,7 @@ public class JdbcExecutor implements StatementExecutor {
 
         return statement.executeUpdate(sql);
       } catch (SQLException e) {
-        throw new RaSqlException("SQL Syntax Error, sql=" + sql, e);
+        throw deadline.error("SQL Syntax Error, sql=" + sql, e);
       }
     }
 
@@ -396,7 +1094,7 @@ public class JdbcExecutor implements StatementExecutor {
           return buildRecord().getLastInsertId(statement);
         }
       } catch (SQLException e) {
-        throw new RaSqlException("SQL Syntax Error, sql=" + sql, e);
+        throw deadline.error("SQL Syntax Error, sql=" + sql, e);
       }
       return new LastInsertId(null);
     }
@@ -416,11 +1114,71 @@ public class JdbcExecutor implements StatementExecutor {
 
         record.convert(rs);
       } catch (SQLException e) {
-        throw new RaSqlException("SQL Syntax Error, sql=" + sql, e);
+        throw deadline.error("SQL Syntax Error, sql=" + sql, e);
       }
       return record;
     }
 
+    /**
+     * Executes the SQL statements as batches in the transaction.
+     *
+     * @param sqls SQL statements
+     * @return affected rows of each statement
+     * @throws RaSqlException RaSqlException
+     */
+    public int[] executeBatch(List<String> sqls) throws RaSqlException {
+      int[] ret = new int[sqls.size()];
+
+      try {
+        runBatch(statementFactory, sqls, ret, null);
+      } catch (SQLException e) {
+        throw deadline.error("Execute batch failed, size=" + sqls.size(), e);
+      }
+      return ret;
+    }
+
+    /**
+     * Executes the Prepared objects as batches in the transaction.
+     *
+     * @param prepared parameter sets of SQL templates
+     * @return affected rows of each Prepared
+     * @throws RaSqlException RaSqlException
+     */
+    public int[] prepareExecuteBatch(List<Prepared> prepared) throws RaSqlException {
+      int[] ret = new int[prepared.size()];
+
+      try {
+        runPreparedBatch(statementFactory, prepared, ret, null);
+      } catch (SQLException e) {
+        throw deadline.error("Execute batch failed, size=" + prepared.size(), e);
+      }
+      return ret;
+    }
+
+    /**
+     * Executes the INSERT statements as batches in the transaction and returns the auto-generated
+     * keys.
+     *
+     * @param prepared INSERT statements, each inserts one row.
+     * @return generated key of each row
+     * @throws RaSqlException RaSqlException, or if count of generated keys is not count of rows.
+     * @throws IllegalStateException if the transaction isn't created by the executor.
+     */
+    public long[] prepareInsertBatch(List<Prepared> prepared) throws RaSqlException {
+      if (dbConnection == null) {
+        throw new IllegalStateException("The transaction has no database connection.");
+      }
+
+      long[] keys = new long[prepared.size()];
+
+      try {
+        runInsertBatch(dbConnection, prepared, keys, deadline);
+      } catch (SQLException e) {
+        throw deadline.error("Insert batch failed, size=" + prepared.size(), e);
+      }
+      return keys;
+    }
+
     /**
      * Executes the given SQL statement, which may be an INSERT, UPDATE, or DELETE statement or an
      * SQL statement that returns nothing, such as an SQL DDL statement.
@@ -431,13 +1189,18 @@ public class JdbcExecutor implements StatementExecutor {
      * @throws RaSqlException RaSqlException
      */
     public int prepareExecuteUpdate(Prepared prepared) throws RaConnectException, RaSqlException {
-      try (PreparedStatement statement = statementFactory.create(prepared.getSql())) {
+      try {
+        PreparedStatement statement = statementFactory.create(prepared.getSql());
 
-        setParametersPreparedStatement(prepared, statement);
+        try {
+          prepared.bind(statement);
 
-        return statement.executeUpdate();
+          return statement.executeUpdate();
+        } finally {
+          releaseStatement(prepared.getSql(), statement);
+        }
       } catch (SQLException e) {
-        throw new RaSqlException(
+        throw deadline.error(
             "SQL Syntax Error, sql=" + prepared.getSql() + ",values=" + prepared.getValues(), e);
       }
     }
@@ -455,15 +1218,20 @@ public class JdbcExecutor implements StatementExecutor {
         throws RaConnectException, RaSqlException {
       Record record = buildRecord();
 
-      try (PreparedStatement statement = statementFactory.create(prepared.getSql())) {
+      try {
+        PreparedStatement statement = statementFactory.create(prepared.getSql());
 
-        setParametersPreparedStatement(prepared, statement);
+        try {
+          prepared.bind(statement);
 
-        try (ResultSet rs = statement.executeQuery()) {
-          record.convert(rs);
+          try (ResultSet rs = statement.executeQuery()) {
+            record.convert(rs);
+          }
+        } finally {
+          releaseStatement(prepared.getSql(), statement);
         }
       } catch (SQLException e) {
-        throw new RaSqlException(
+        throw deadline.error(
             "SQL Syntax Error, sql=" + prepared.getSql() + ",values=" + prepared.getValues(), e);
       }
 
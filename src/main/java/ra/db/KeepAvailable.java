@@ -1,5 +1,8 @@
 package ra.db;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+
 /**
  * Keep the database connection permanently connected.
  *
@@ -11,4 +14,24 @@ public interface KeepAvailable extends DatabaseConnection, KeepAlive {
   public default long interval() {
     return 5000;
   }
+
+  /**
+   * Verify the connection by {@link Connection#isValid(int)}, the driver checks the connection
+   * without executing a query (MySQL sends a ping), and no result is read.
+   *
+   * @return true if the connection is valid.
+   */
+  public default boolean ping() {
+    Connection connection = getConnection();
+
+    if (connection == null) {
+      return false;
+    }
+
+    try {
+      return connection.isValid((int) Math.max(1, interval() / 1000));
+    } catch (SQLException e) {
+      return false;
+    }
+  }
 }
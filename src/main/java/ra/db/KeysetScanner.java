@@ -0,0 +1,384 @@
+package ra.db;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import ra.db.record.RecordCursor;
+import ra.db.record.RowSet;
+
+/**
+ * Scans a table page by page in order of a unique key, each page is queried by the last key of
+ * the previous page (WHERE key &gt; ?) instead of OFFSET, so every page costs the same. The next
+ * page is fetched in background while the current page is consumed, and a scan can be resumed
+ * from the last key it returned.
+ *
+ * <pre>
+ * KeysetScanner scanner = KeysetScanner.newBuilder("orders", "id").setPageSize(5000).build();
+ *
+ * try (KeysetScanner.Scan scan = scanner.open(executor)) {
+ *   while (scan.hasNext()) {
+ *     RowSet row = scan.next();
+ *     ...
+ *   }
+ * }
+ * </pre>
+ *
+ * @author Ray Li
+ */
+public class KeysetScanner {
+  private static final ExecutorService PREFETCH =
+      Executors.newCachedThreadPool(
+          new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+              Thread thread = new Thread(runnable, "KeysetScanner-" + count.incrementAndGet());
+
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+
+  private String firstPageSql;
+  private String nextPageSql;
+  private String keyLabel;
+  private int pageSize;
+  private Object startAfter;
+  private boolean prefetch;
+  private Executor prefetchExecutor;
+
+  private KeysetScanner() {}
+
+  public static Builder newBuilder(String from, String key) {
+    return new Builder(from, key);
+  }
+
+  /**
+   * Returns the query of the pages after the first page.
+   *
+   * @return SQL statement
+   */
+  public String getSql() {
+    return nextPageSql;
+  }
+
+  /**
+   * Start scanning from the start key of the builder.
+   *
+   * @param executor executor which queries the pages.
+   * @return Scan
+   */
+  public Scan open(StatementExecutor executor) {
+    return new Scan(executor, startAfter);
+  }
+
+  /**
+   * Start scanning after the key, such as {@link Scan#getLastKey()} of the previous scan.
+   *
+   * @param executor executor which queries the pages.
+   * @param startAfter the rows which keys are greater than the key are scanned, null if scans from
+   *     the first row.
+   * @return Scan
+   */
+  public Scan open(StatementExecutor executor, Object startAfter) {
+    return new Scan(executor, startAfter);
+  }
+
+  /**
+   * Returns lazy stream of the rows, close the stream to stop fetching the next page.
+   *
+   * @param executor executor which queries the pages.
+   * @return Stream
+   */
+  public Stream<RowSet> stream(StatementExecutor executor) {
+    Scan scan = open(executor);
+
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                scan, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(scan::close);
+  }
+
+  /** Rows of a scan. */
+  public class Scan implements Iterator<RowSet>, AutoCloseable {
+    private final StatementExecutor executor;
+    private final Object startKey;
+    private Iterator<RowSet> rows;
+    private CompletableFuture<RecordCursor> prefetched;
+    private Object nextAfter;
+    private boolean more = true;
+    private RowSet lastRow;
+    private int keyIndex = -1;
+    private int pageCount = 0;
+    private boolean closed = false;
+
+    private Scan(StatementExecutor executor, Object startAfter) {
+      this.executor = executor;
+      startKey = startAfter;
+      nextAfter = startAfter;
+    }
+
+    private RecordCursor fetch(Object after) {
+      if (after == null) {
+        return executor.executeQuery(firstPageSql);
+      }
+      // The key may be any type of the column, such as Timestamp or BigInteger, so the driver maps it.
+      return executor.prepareExecuteQuery(
+          Prepared.newBuilder(nextPageSql).set(1, ParameterValue.object(after)).build());
+    }
+
+    /**
+     * Take the next page and start fetching the page after it.
+     *
+     * @return false if there is no more row.
+     */
+    private boolean nextPage() {
+      if (!more || closed) {
+        return false;
+      }
+      more = false;
+
+      RecordCursor page;
+
+      if (prefetched == null) {
+        page = fetch(nextAfter);
+      } else {
+        try {
+          page = prefetched.join();
+        } catch (CompletionException e) {
+          throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        } finally {
+          prefetched = null;
+        }
+      }
+      pageCount++;
+
+      int count = page.getRecordCount();
+
+      if (count == 0) {
+        return false;
+      }
+      if (keyIndex < 0) {
+        keyIndex = page.findColumn(keyLabel);
+      }
+      if (count >= pageSize) {
+        // A full page, there may be more rows after its last key.
+        page.end();
+        nextAfter = page.fieldObject(keyIndex);
+        page.first();
+        more = true;
+
+        if (prefetch) {
+          Object after = nextAfter;
+
+          prefetched = CompletableFuture.supplyAsync(() -> fetch(after), prefetchExecutor);
+        }
+      }
+      rows = page.stream().iterator();
+      return true;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (rows != null && rows.hasNext()) {
+        return true;
+      }
+      rows = null;
+      return nextPage() && rows.hasNext();
+    }
+
+    @Override
+    public RowSet next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      lastRow = rows.next();
+      return lastRow;
+    }
+
+    /**
+     * Returns the key of the last returned row, the scan can be resumed from it by {@link
+     * KeysetScanner#open(StatementExecutor, Object)}.
+     *
+     * @return key, or the start key if no row is returned.
+     */
+    public Object getLastKey() {
+      return lastRow == null ? startKey : lastRow.getObject(keyIndex);
+    }
+
+    /**
+     * Returns count of fetched pages, including the empty last page.
+     *
+     * @return count
+     */
+    public int getPageCount() {
+      return pageCount;
+    }
+
+    /** Stop scanning, the prefetching page is discarded and closed after it is fetched. */
+    @Override
+    public void close() {
+      closed = true;
+      rows = null;
+      if (prefetched != null) {
+        prefetched.thenAccept(
+            page -> {
+              try {
+                page.close();
+              } catch (IOException e) {
+                e.printStackTrace();
+              }
+            });
+        prefetched = null;
+      }
+    }
+  }
+
+  /** Builder. */
+  public static class Builder {
+    private String from;
+    private String key;
+    private String columns = "*";
+    private String where;
+    private int pageSize = 1000;
+    private Object startAfter;
+    private boolean prefetch = true;
+    private Executor prefetchExecutor = PREFETCH;
+
+    /**
+     * Initialize.
+     *
+     * @param from table name, or a SELECT statement which is scanned as a derived table.
+     * @param key the unique key which orders the rows, it must be a column of the result.
+     */
+    public Builder(String from, String key) {
+      this.from = from;
+      this.key = key;
+    }
+
+    /**
+     * Set the selected columns, the default is *.
+     *
+     * @param columns columns
+     * @return Builder
+     */
+    public Builder setColumns(String columns) {
+      this.columns = columns;
+      return this;
+    }
+
+    /**
+     * Set the condition which the scanned rows match, such as status=1.
+     *
+     * @param where condition
+     * @return Builder
+     */
+    public Builder setWhere(String where) {
+      this.where = where;
+      return this;
+    }
+
+    /**
+     * Set count of rows are fetched in one page, the default is 1000.
+     *
+     * @param pageSize page size
+     * @return Builder
+     */
+    public Builder setPageSize(int pageSize) {
+      this.pageSize = pageSize;
+      return this;
+    }
+
+    /**
+     * Scan the rows which keys are greater than the key.
+     *
+     * @param startAfter key, null if scans from the first row.
+     * @return Builder
+     */
+    public Builder setStartAfter(Object startAfter) {
+      this.startAfter = startAfter;
+      return this;
+    }
+
+    /**
+     * Enable/disable fetching the next page while the current page is consumed, the default is
+     * enabled.
+     *
+     * @param prefetch prefetch
+     * @return Builder
+     */
+    public Builder setPrefetch(boolean prefetch) {
+      this.prefetch = prefetch;
+      return this;
+    }
+
+    /**
+     * Set the executor which fetches the next page, the default is a shared pool of daemon
+     * threads.
+     *
+     * @param executor executor
+     * @return Builder
+     */
+    public Builder setPrefetchExecutor(Executor executor) {
+      prefetchExecutor = executor;
+      return this;
+    }
+
+    /**
+     * Build.
+     *
+     * @return KeysetScanner
+     */
+    public KeysetScanner build() {
+      if (from == null) {
+        throw new NullPointerException("from is required.");
+      }
+      if (key == null) {
+        throw new NullPointerException("key is required.");
+      }
+      if (prefetchExecutor == null) {
+        throw new NullPointerException("prefetchExecutor is required.");
+      }
+      if (pageSize < 1) {
+        throw new IllegalArgumentException("pageSize must be greater than 0.");
+      }
+
+      String source = from.trim();
+
+      if (source.regionMatches(true, 0, "SELECT", 0, 6)) {
+        source = "(" + source + ") AS keyset_scan";
+      }
+
+      String select = "SELECT " + columns + " FROM " + source + " WHERE ";
+      String condition = where == null ? "" : "(" + where + ") AND ";
+      String order = " ORDER BY " + key + " LIMIT " + pageSize;
+      KeysetScanner obj = new KeysetScanner();
+
+      obj.firstPageSql =
+          where == null
+              ? "SELECT " + columns + " FROM " + source + order
+              : select + "(" + where + ")" + order;
+      obj.nextPageSql = select + condition + key + " > ?" + order;
+      obj.keyLabel = key.substring(key.lastIndexOf('.') + 1);
+      obj.pageSize = pageSize;
+      obj.startAfter = startAfter;
+      obj.prefetch = prefetch;
+      obj.prefetchExecutor = prefetchExecutor;
+
+      return obj;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package ra.db;
 
+import java.sql.Connection;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -9,11 +10,18 @@ import ra.db.parameter.DatabaseParameters;
 /**
  * Get connection use asynchronous mode.
  *
+ * <p>In pooled mode the connections are leased from a bounded set of warm connections instead of
+ * connecting for each call, the connection is reset after use and closed when it stays idle
+ * longer than the idle timeout of the settings.
+ *
  * @author Ray Li
  */
-public class OnceDatabaseFactory {
+public class OnceDatabaseFactory implements AutoCloseable {
   private Supplier<DatabaseParameters> databaseParam;
   private AtomicLong databaseCount;
+  private PoolSettings poolSettings;
+  private volatile ConnectionPool pool;
+  private volatile boolean closed = false;
 
   /**
    * Initialize.
@@ -35,11 +43,41 @@ public class OnceDatabaseFactory {
   }
 
   /**
-   * Get once database connection, It will be close after use.
+   * Initialize pooled mode, the connections are opened at the first call.
+   *
+   * @param param database settings.
+   * @param settings pool settings, minimum size 0 lets all idle connections be closed.
+   */
+  public OnceDatabaseFactory(Supplier<DatabaseParameters> param, PoolSettings settings) {
+    this(param);
+    if (settings == null) {
+      throw new NullPointerException("settings is required.");
+    }
+    poolSettings = settings;
+  }
+
+  /**
+   * Initialize pooled mode, the connections are opened at the first call.
+   *
+   * @param param database settings.
+   * @param settings pool settings, minimum size 0 lets all idle connections be closed.
+   */
+  public OnceDatabaseFactory(DatabaseParameters param, PoolSettings settings) {
+    this(() -> param, settings);
+  }
+
+  /**
+   * Get once database connection, It will be close after use. In pooled mode the connection is
+   * returned to the pool instead.
    *
    * @param comsumer Get {@link StatementExecutor}
    */
   public void getAndClose(Consumer<StatementExecutor> comsumer) {
+    if (poolSettings != null) {
+      lease(comsumer);
+      return;
+    }
+
     try (DatabaseConnection mydb = new OnceConnection(databaseParam.get())) {
       databaseCount.incrementAndGet();
 
@@ -52,6 +90,73 @@ public class OnceDatabaseFactory {
     }
   }
 
+  private void lease(Consumer<StatementExecutor> comsumer) {
+    databaseCount.incrementAndGet();
+
+    try (ConnectionLease lease = getPool().borrow()) {
+      try {
+        comsumer.accept(lease.getStatementExecutor());
+      } finally {
+        reset(lease.getDatabaseConnection());
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+    } finally {
+      databaseCount.decrementAndGet();
+    }
+  }
+
+  private ConnectionPool getPool() {
+    ConnectionPool current = pool;
+
+    if (current == null) {
+      synchronized (this) {
+        if (closed) {
+          throw new IllegalStateException("OnceDatabaseFactory is closed.");
+        }
+        current = pool;
+        if (current == null) {
+          current =
+              new ConnectionPool(
+                  "OnceDatabaseFactory",
+                  poolSettings,
+                  () -> new OnceConnection(databaseParam.get()));
+          pool = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Roll back the transaction which the caller left open and restore auto-commit, the connection
+   * is closed if it can't be reset, so the pool discards it.
+   *
+   * @param db leased connection
+   */
+  private void reset(DatabaseConnection db) {
+    Connection connection = db.getConnection();
+
+    if (connection == null) {
+      return;
+    }
+
+    try {
+      if (!connection.getAutoCommit()) {
+        connection.rollback();
+        connection.setAutoCommit(true);
+      }
+      connection.clearWarnings();
+    } catch (Exception e) {
+      e.printStackTrace();
+      try {
+        db.close();
+      } catch (Exception closeException) {
+        e.addSuppressed(closeException);
+      }
+    }
+  }
+
   /**
    * Get current connection count.
    *
@@ -60,4 +165,27 @@ public class OnceDatabaseFactory {
   public long getCount() {
     return databaseCount.get();
   }
+
+  /**
+   * Returns the pool of pooled mode.
+   *
+   * @return ConnectionPool, null if it isn't pooled mode or no connection has been opened.
+   */
+  public ConnectionPool getConnectionPool() {
+    return pool;
+  }
+
+  /** Close the warm connections of pooled mode, does nothing in the other mode. */
+  @Override
+  public void close() {
+    ConnectionPool current;
+
+    synchronized (this) {
+      closed = true;
+      current = pool;
+    }
+    if (current != null) {
+      current.close();
+    }
+  }
 }
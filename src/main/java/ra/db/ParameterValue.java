@@ -3,16 +3,52 @@ package ra.db;
 import java.math.BigDecimal;
 import java.sql.Array;
 import java.sql.Blob;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import ra.ref.BiReference;
 
 /**
- * Parameter value.
+ * Parameter value, the setter of PreparedStatement is resolved from the type when the value is
+ * built, so binding the value does not check the type again.
  *
  * @author Ray Li
  */
 public class ParameterValue {
+  private static final Map<Class<?>, Binder> BINDERS = new IdentityHashMap<>();
+
+  static {
+    BINDERS.put(
+        String.class, nullable(Types.VARCHAR, (st, i, v) -> st.setString(i, (String) v)));
+    BINDERS.put(Integer.class, nullable(Types.INTEGER, (st, i, v) -> st.setInt(i, (Integer) v)));
+    BINDERS.put(Long.class, nullable(Types.BIGINT, (st, i, v) -> st.setLong(i, (Long) v)));
+    BINDERS.put(Double.class, nullable(Types.DOUBLE, (st, i, v) -> st.setDouble(i, (Double) v)));
+    BINDERS.put(Float.class, nullable(Types.REAL, (st, i, v) -> st.setFloat(i, (Float) v)));
+    BINDERS.put(
+        BigDecimal.class,
+        nullable(Types.DECIMAL, (st, i, v) -> st.setBigDecimal(i, (BigDecimal) v)));
+    BINDERS.put(
+        Boolean.class, nullable(Types.BOOLEAN, (st, i, v) -> st.setBoolean(i, (Boolean) v)));
+    BINDERS.put(
+        byte[].class, nullable(Types.VARBINARY, (st, i, v) -> st.setBytes(i, (byte[]) v)));
+    BINDERS.put(Blob.class, nullable(Types.BLOB, (st, i, v) -> st.setBlob(i, (Blob) v)));
+    BINDERS.put(
+        Array.class,
+        nullable(
+            Types.ARRAY,
+            (st, i, v) -> {
+              @SuppressWarnings("unchecked")
+              BiReference<String, Object[]> value = (BiReference<String, Object[]>) v;
+
+              st.setArray(i, st.getConnection().createArrayOf(value.getLeft(), value.getRight()));
+            }));
+  }
+
   private Class<?> type;
   private Object value;
+  private Binder binder;
 
   public Class<?> getType() {
     return type;
@@ -27,10 +63,78 @@ public class ParameterValue {
     return type + ", value=" + value;
   }
 
+  /**
+   * Put the value into the statement.
+   *
+   * @param statement statement
+   * @param index parameter index, the first parameter is 1.
+   * @throws SQLException SQLException
+   */
+  void bind(PreparedStatement statement, int index) throws SQLException {
+    binder.bind(statement, index, value);
+  }
+
+  /** Puts a value into PreparedStatement. */
+  interface Binder {
+    void bind(PreparedStatement statement, int index, Object value) throws SQLException;
+  }
+
+  private static Binder nullable(int sqlType, Binder binder) {
+    return (statement, index, value) -> {
+      if (value == null) {
+        statement.setNull(index, sqlType);
+      } else {
+        binder.bind(statement, index, value);
+      }
+    };
+  }
+
+  /**
+   * Returns the setter of the type, the exact type is looked up first and then the supertypes,
+   * such as an implementation of Blob.
+   *
+   * @param type type
+   * @return Binder
+   */
+  static Binder binderOf(Class<?> type) {
+    Binder binder = BINDERS.get(type);
+
+    if (binder != null) {
+      return binder;
+    }
+
+    for (Map.Entry<Class<?>, Binder> entry : BINDERS.entrySet()) {
+      if (entry.getKey().isAssignableFrom(type)) {
+        return entry.getValue();
+      }
+    }
+
+    return (statement, index, value) -> {
+      throw new IllegalArgumentException("Unsupported object type for QueryParameter: " + type);
+    };
+  }
+
   public static Builder newBuilder() {
     return new Builder();
   }
 
+  /**
+   * Creates a {@code ParameterValue} object which is put into the statement by {@link
+   * PreparedStatement#setObject(int, Object)}, so the driver maps the type of the value, such as
+   * Timestamp, LocalDateTime or BigInteger.
+   *
+   * @param value value, must not be null.
+   * @return ParameterValue
+   */
+  static ParameterValue object(Object value) {
+    ParameterValue obj = new ParameterValue();
+
+    obj.type = value.getClass();
+    obj.value = value;
+    obj.binder = (statement, index, v) -> statement.setObject(index, v);
+    return obj;
+  }
+
   /**
    * Creates a {@code ParameterValue} object with the given value and type.
    *
@@ -173,6 +277,7 @@ public class ParameterValue {
 
       obj.type = type;
       obj.value = value;
+      obj.binder = binderOf(type);
 
       return obj;
     }
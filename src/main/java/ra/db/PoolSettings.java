@@ -0,0 +1,199 @@
+package ra.db;
+
+/**
+ * Settings of {@link ConnectionPool}.
+ *
+ * @author Ray Li
+ */
+public class PoolSettings {
+  private int minSize;
+  private int maxSize;
+  private long idleTimeout;
+  private long acquireTimeout;
+  private int maxWaiting;
+  private long leakDetectionThreshold;
+
+  private PoolSettings() {}
+
+  /**
+   * Returns the number of connections are kept even when they are idle.
+   *
+   * @return minimum size
+   */
+  public int getMinSize() {
+    return minSize;
+  }
+
+  /**
+   * Returns the maximum number of connections.
+   *
+   * @return maximum size
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Returns how long (milliseconds) a connection may stay idle before it is closed, connections
+   * below the minimum size are never closed.
+   *
+   * @return idle timeout
+   */
+  public long getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  /**
+   * Returns how long (milliseconds) a caller waits for a connection before giving up.
+   *
+   * @return acquire timeout
+   */
+  public long getAcquireTimeout() {
+    return acquireTimeout;
+  }
+
+  /**
+   * Returns the maximum number of callers that may wait for a connection at the same time.
+   *
+   * @return maximum waiting
+   */
+  public int getMaxWaiting() {
+    return maxWaiting;
+  }
+
+  /**
+   * Returns how long (milliseconds) a connection may be leased before it is reported as a leak, 0
+   * means disabled.
+   *
+   * @return leak detection threshold
+   */
+  public long getLeakDetectionThreshold() {
+    return leakDetectionThreshold;
+  }
+
+  @Override
+  public String toString() {
+    return "minSize="
+        + minSize
+        + ",maxSize="
+        + maxSize
+        + ",idleTimeout="
+        + idleTimeout
+        + ",acquireTimeout="
+        + acquireTimeout
+        + ",maxWaiting="
+        + maxWaiting
+        + ",leakDetectionThreshold="
+        + leakDetectionThreshold;
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /** Builder. */
+  public static class Builder {
+    private int minSize = 1;
+    private int maxSize = 10;
+    private long idleTimeout = 600000;
+    private long acquireTimeout = 30000;
+    private int maxWaiting = Integer.MAX_VALUE;
+    private long leakDetectionThreshold = 0;
+
+    /**
+     * Set the number of connections are kept even when they are idle.
+     *
+     * @param size minimum size
+     * @return Builder
+     */
+    public Builder setMinSize(int size) {
+      minSize = size;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of connections.
+     *
+     * @param size maximum size
+     * @return Builder
+     */
+    public Builder setMaxSize(int size) {
+      maxSize = size;
+      return this;
+    }
+
+    /**
+     * Set how long (milliseconds) a connection may stay idle before it is closed.
+     *
+     * @param timeout idle timeout
+     * @return Builder
+     */
+    public Builder setIdleTimeout(long timeout) {
+      idleTimeout = timeout;
+      return this;
+    }
+
+    /**
+     * Set how long (milliseconds) a caller waits for a connection before giving up.
+     *
+     * @param timeout acquire timeout
+     * @return Builder
+     */
+    public Builder setAcquireTimeout(long timeout) {
+      acquireTimeout = timeout;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of callers that may wait for a connection at the same time.
+     *
+     * @param count maximum waiting
+     * @return Builder
+     */
+    public Builder setMaxWaiting(int count) {
+      maxWaiting = count;
+      return this;
+    }
+
+    /**
+     * Set how long (milliseconds) a connection may be leased before it is reported as a leak, 0
+     * means disabled.
+     *
+     * @param threshold leak detection threshold
+     * @return Builder
+     */
+    public Builder setLeakDetectionThreshold(long threshold) {
+      leakDetectionThreshold = threshold;
+      return this;
+    }
+
+    /**
+     * Build.
+     *
+     * @return PoolSettings
+     */
+    public PoolSettings build() {
+      if (minSize < 0) {
+        throw new IllegalArgumentException("minSize must be greater than or equal to 0.");
+      }
+      if (maxSize < 1 || maxSize < minSize) {
+        throw new IllegalArgumentException(
+            "maxSize must be greater than 0 and greater than or equal to minSize.");
+      }
+      if (maxWaiting < 0) {
+        throw new IllegalArgumentException("maxWaiting must be greater than or equal to 0.");
+      }
+
+      PoolSettings obj = new PoolSettings();
+
+      obj.minSize = minSize;
+      obj.maxSize = maxSize;
+      obj.idleTimeout = idleTimeout;
+      obj.acquireTimeout = acquireTimeout;
+      obj.maxWaiting = maxWaiting;
+      obj.leakDetectionThreshold = leakDetectionThreshold;
+
+      return obj;
+    }
+  }
+}
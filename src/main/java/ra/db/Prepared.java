@@ -1,29 +1,117 @@
 package ra.db;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Prepared.
+ * Prepared, the parameters are stored in arrays which are indexed by parameter index. Numeric and
+ * boolean parameters which are set by the primitive setters of {@link Builder} are not boxed.
  *
  * @author Ray Li
  */
 public class Prepared {
+  private static final byte UNSET = 0;
+  private static final byte VALUE = 1;
+  private static final byte LONG = 2;
+  private static final byte INT = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte BOOLEAN = 5;
+
   private String sql;
-  private Map<Integer, ParameterValue> values;
+  private byte[] kinds;
+  private ParameterValue[] values;
+  private long[] longs;
+  private double[] doubles;
+  private Map<Integer, ParameterValue> others;
 
   public static Builder newBuilder(String sql) {
     return new Builder(sql);
   }
 
+  /**
+   * Returns the parameters, the primitive parameters are converted to ParameterValue.
+   *
+   * @return parameters which are keyed by parameter index, empty if there is no parameter.
+   */
   public Map<Integer, ParameterValue> getValues() {
-    return values;
+    if (kinds.length == 0 && others == null) {
+      return Collections.emptyMap();
+    }
+
+    Map<Integer, ParameterValue> map = others == null ? new HashMap<>() : new HashMap<>(others);
+
+    for (int i = 0; i < kinds.length; i++) {
+      if (kinds[i] != UNSET) {
+        map.put(i + 1, getValue(i));
+      }
+    }
+    return map;
+  }
+
+  private ParameterValue getValue(int i) {
+    switch (kinds[i]) {
+      case LONG:
+        return ParameterValue.int64(longs[i]);
+      case INT:
+        return ParameterValue.int64((int) longs[i]);
+      case DOUBLE:
+        return ParameterValue.float64(doubles[i]);
+      case BOOLEAN:
+        return ParameterValue.bool(longs[i] != 0);
+      default:
+        return values[i];
+    }
   }
 
   public String getSql() {
     return sql;
   }
 
+  /**
+   * Put the parameters into the statement.
+   *
+   * @param statement statement
+   * @throws SQLException SQLException
+   */
+  void bind(PreparedStatement statement) throws SQLException {
+    for (int i = 0; i < kinds.length; i++) {
+      switch (kinds[i]) {
+        case VALUE:
+          values[i].bind(statement, i + 1);
+          break;
+        case LONG:
+          statement.setLong(i + 1, longs[i]);
+          break;
+        case INT:
+          statement.setInt(i + 1, (int) longs[i]);
+          break;
+        case DOUBLE:
+          statement.setDouble(i + 1, doubles[i]);
+          break;
+        case BOOLEAN:
+          statement.setBoolean(i + 1, longs[i] != 0);
+          break;
+        default:
+          break;
+      }
+    }
+
+    if (others != null) {
+      for (Map.Entry<Integer, ParameterValue> e : others.entrySet()) {
+        e.getValue().bind(statement, e.getKey());
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "sql=" + sql + ",values=" + getValues();
+  }
+
   /**
    * Clone a new builder with the current Prepared state.
    *
@@ -32,8 +120,13 @@ public class Prepared {
   public Builder toBuilder() {
     Builder builder = new Builder(sql);
 
-    if (values != null) {
-      values.entrySet().forEach(e -> builder.set(e.getKey(), e.getValue()));
+    builder.size = kinds.length;
+    builder.kinds = kinds.clone();
+    builder.values = values.clone();
+    builder.longs = longs.clone();
+    builder.doubles = doubles.clone();
+    if (others != null) {
+      builder.others = new HashMap<>(others);
     }
 
     return builder;
@@ -41,26 +134,139 @@ public class Prepared {
 
   /** Builder. */
   public static class Builder {
+    private static final int INITIAL_CAPACITY = 8;
+
     private String sql;
-    private Map<Integer, ParameterValue> values;
+    private int size = 0;
+    private byte[] kinds = new byte[0];
+    private ParameterValue[] values = new ParameterValue[0];
+    private long[] longs = new long[0];
+    private double[] doubles = new double[0];
+    private Map<Integer, ParameterValue> others;
 
     public Builder(String sql) {
       this.sql = sql;
     }
 
-    private Map<Integer, ParameterValue> getValues() {
-      if (values == null) {
-        values = new HashMap<>();
-      }
+    private int slot(int index, byte kind) {
+      int i = index - 1;
+
+      if (i >= kinds.length) {
+        int capacity = Math.max(INITIAL_CAPACITY, kinds.length);
 
-      return values;
+        while (capacity <= i) {
+          capacity = capacity << 1;
+        }
+        kinds = Arrays.copyOf(kinds, capacity);
+        values = Arrays.copyOf(values, capacity);
+        longs = Arrays.copyOf(longs, capacity);
+        doubles = Arrays.copyOf(doubles, capacity);
+      }
+      kinds[i] = kind;
+      values[i] = null;
+      size = Math.max(size, index);
+      return i;
     }
 
     public Builder set(int index, ParameterValue value) {
-      getValues().put(index, value);
+      if (index < 1) {
+        // Invalid index is kept as it is, the driver throws SQLException when it is bound.
+        if (others == null) {
+          others = new HashMap<>();
+        }
+        others.put(index, value);
+        return this;
+      }
+
+      int i = slot(index, VALUE);
+
+      values[i] = value;
+      return this;
+    }
+
+    /**
+     * Set a BIGINT parameter without boxing.
+     *
+     * @param index parameter index, the first parameter is 1.
+     * @param value value
+     * @return Builder
+     */
+    public Builder setLong(int index, long value) {
+      if (index < 1) {
+        return set(index, ParameterValue.int64(value));
+      }
+
+      int i = slot(index, LONG);
+
+      longs[i] = value;
+      return this;
+    }
+
+    /**
+     * Set an INTEGER parameter without boxing.
+     *
+     * @param index parameter index, the first parameter is 1.
+     * @param value value
+     * @return Builder
+     */
+    public Builder setInt(int index, int value) {
+      if (index < 1) {
+        return set(index, ParameterValue.int64(value));
+      }
+
+      int i = slot(index, INT);
+
+      longs[i] = value;
+      return this;
+    }
+
+    /**
+     * Set a DOUBLE parameter without boxing.
+     *
+     * @param index parameter index, the first parameter is 1.
+     * @param value value
+     * @return Builder
+     */
+    public Builder setDouble(int index, double value) {
+      if (index < 1) {
+        return set(index, ParameterValue.float64(value));
+      }
+
+      int i = slot(index, DOUBLE);
+
+      doubles[i] = value;
+      return this;
+    }
+
+    /**
+     * Set a BOOLEAN parameter without boxing.
+     *
+     * @param index parameter index, the first parameter is 1.
+     * @param value value
+     * @return Builder
+     */
+    public Builder setBoolean(int index, boolean value) {
+      if (index < 1) {
+        return set(index, ParameterValue.bool(value));
+      }
+
+      int i = slot(index, BOOLEAN);
+
+      longs[i] = value ? 1 : 0;
       return this;
     }
 
+    /**
+     * Set a VARCHAR parameter.
+     *
+     * @param index parameter index, the first parameter is 1.
+     * @param value value
+     * @return Builder
+     */
+    public Builder setString(int index, String value) {
+      return set(index, ParameterValue.string(value));
+    }
+
     /**
      * Build.
      *
@@ -75,7 +281,11 @@ public class Prepared {
       Prepared obj = new Prepared();
 
       obj.sql = sql;
-      obj.values = values;
+      obj.kinds = Arrays.copyOf(kinds, size);
+      obj.values = Arrays.copyOf(values, size);
+      obj.longs = Arrays.copyOf(longs, size);
+      obj.doubles = Arrays.copyOf(doubles, size);
+      obj.others = others == null ? null : new HashMap<>(others);
 
       return obj;
     }
@@ -0,0 +1,337 @@
+package ra.db;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import ra.db.record.RecordSet;
+
+/**
+ * LRU cache of query results which is keyed by SQL and the values of Prepared, it is bounded by
+ * count of entries and estimated bytes of the results. Each entry expires after its TTL and is
+ * invalidated when one of the tables it reads is written, the tables are parsed from the SQL.
+ *
+ * @author Ray Li
+ */
+public class QueryCache {
+  private static final Pattern FROM =
+      Pattern.compile(
+          "\\bFROM\\s+(.+?)(?=\\b(?:SELECT|FROM|WHERE|GROUP|ORDER|LIMIT|HAVING|UNION|JOIN"
+              + "|INNER|LEFT|RIGHT|CROSS|FULL|NATURAL|ON|FOR|WINDOW)\\b|\\)|;|$)",
+          Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+  private static final Pattern TABLE =
+      Pattern.compile(
+          "\\b(?:JOIN|INTO|UPDATE|TABLE)\\s+(?:IF\\s+(?:NOT\\s+)?EXISTS\\s+)?([\\w.$`\"\\[\\]]+)",
+          Pattern.CASE_INSENSITIVE);
+
+  private final int maxEntries;
+  private final long maxBytes;
+  private final long ttl;
+  private final LinkedHashMap<Key, Entry> entries;
+  private final Map<String, Set<Key>> tableIndex;
+  private long sizeInBytes = 0;
+  private long generation = 0;
+  private long hitCount = 0;
+  private long missCount = 0;
+  private long evictionCount = 0;
+
+  /**
+   * Initialize.
+   *
+   * @param maxEntries maximum count of cached results.
+   * @param maxBytes maximum estimated bytes of cached results.
+   * @param ttl default time to live (milliseconds) of a cached result.
+   */
+  public QueryCache(int maxEntries, long maxBytes, long ttl) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries must be greater than 0.");
+    }
+    if (maxBytes < 1) {
+      throw new IllegalArgumentException("maxBytes must be greater than 0.");
+    }
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.ttl = ttl;
+    entries = new LinkedHashMap<>(16, 0.75f, true);
+    tableIndex = new HashMap<>();
+  }
+
+  /**
+   * Returns the key of the query.
+   *
+   * @param sql SQL statement
+   * @param values values of Prepared, it can be null.
+   * @return Key
+   */
+  static Key key(String sql, Map<Integer, ParameterValue> values) {
+    if (values == null || values.isEmpty()) {
+      return new Key(sql, new Object[0]);
+    }
+
+    Object[] params = new Object[values.size() * 3];
+    int i = 0;
+
+    for (Map.Entry<Integer, ParameterValue> e : new TreeMap<>(values).entrySet()) {
+      params[i++] = e.getKey();
+      params[i++] = e.getValue() == null ? null : e.getValue().getType();
+      params[i++] = e.getValue() == null ? null : e.getValue().getValue();
+    }
+    return new Key(sql, params);
+  }
+
+  /**
+   * Returns a copy of the cached result, the copy has its own cursor.
+   *
+   * @param key key
+   * @return RecordSet, null if the result is not cached or has expired.
+   */
+  synchronized RecordSet get(Key key) {
+    Entry entry = entries.get(key);
+
+    if (entry == null) {
+      missCount++;
+      return null;
+    }
+    if (entry.expireAt <= System.currentTimeMillis()) {
+      remove(key);
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    return entry.record.duplicate();
+  }
+
+  /**
+   * Returns the count of invalidations, a result which is read before an invalidation is not
+   * cached because it may be stale.
+   *
+   * @return generation
+   */
+  synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Cache the result, the least recently used results are evicted when the cache is full.
+   *
+   * @param key key
+   * @param record result of the query
+   * @param ttl time to live (milliseconds)
+   * @param generation the generation before the query is executed.
+   */
+  synchronized void put(Key key, RecordSet record, long ttl, long generation) {
+    if (generation != this.generation) {
+      return;
+    }
+
+    long bytes = record.getSizeInBytes() + 2L * key.sql.length();
+
+    if (bytes > maxBytes) {
+      return;
+    }
+    remove(key);
+
+    Entry entry = new Entry(record, tables(key.sql), bytes, System.currentTimeMillis() + ttl);
+
+    entries.put(key, entry);
+    sizeInBytes += bytes;
+
+    for (String table : entry.tables) {
+      tableIndex.computeIfAbsent(table, k -> new HashSet<>()).add(key);
+    }
+
+    Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+
+    while (entries.size() > maxEntries || sizeInBytes > maxBytes) {
+      Map.Entry<Key, Entry> evicted = eldest.next();
+
+      eldest.remove();
+      unlink(evicted.getKey(), evicted.getValue());
+      evictionCount++;
+    }
+  }
+
+  private void remove(Key key) {
+    Entry entry = entries.remove(key);
+
+    if (entry != null) {
+      unlink(key, entry);
+    }
+  }
+
+  private void unlink(Key key, Entry entry) {
+    sizeInBytes -= entry.bytes;
+
+    for (String table : entry.tables) {
+      Set<Key> keys = tableIndex.get(table);
+
+      if (keys != null) {
+        keys.remove(key);
+
+        if (keys.isEmpty()) {
+          tableIndex.remove(table);
+        }
+      }
+    }
+  }
+
+  /**
+   * Invalidate the results which read the tables are written by the SQL statement, all results are
+   * invalidated if the tables can't be parsed.
+   *
+   * @param sql SQL statement, such as INSERT, UPDATE or DELETE.
+   */
+  public void invalidate(String sql) {
+    Set<String> tables = tables(sql);
+
+    if (tables.isEmpty()) {
+      invalidateAll();
+    } else {
+      invalidateTables(tables);
+    }
+  }
+
+  /**
+   * Invalidate the results which read the tables.
+   *
+   * @param tables table names
+   */
+  public synchronized void invalidateTables(Set<String> tables) {
+    generation++;
+
+    for (String table : tables) {
+      Set<Key> keys = tableIndex.get(normalize(table));
+
+      if (keys != null) {
+        for (Key key : keys.toArray(new Key[0])) {
+          remove(key);
+        }
+      }
+    }
+  }
+
+  /** Invalidate all results. */
+  public synchronized void invalidateAll() {
+    generation++;
+    entries.clear();
+    tableIndex.clear();
+    sizeInBytes = 0;
+  }
+
+  /**
+   * Returns the tables which are read or written by the SQL statement.
+   *
+   * @param sql SQL statement
+   * @return table names in lower case
+   */
+  static Set<String> tables(String sql) {
+    Set<String> tables = new HashSet<>();
+    Matcher matcher = FROM.matcher(sql);
+
+    while (matcher.find()) {
+      for (String part : matcher.group(1).split(",")) {
+        String name = part.trim();
+
+        if (!name.isEmpty() && name.charAt(0) != '(') {
+          tables.add(normalize(name.split("\\s+")[0]));
+        }
+      }
+    }
+
+    matcher = TABLE.matcher(sql);
+
+    while (matcher.find()) {
+      tables.add(normalize(matcher.group(1)));
+    }
+    tables.remove("");
+    return tables.isEmpty() ? Collections.emptySet() : tables;
+  }
+
+  private static String normalize(String table) {
+    String name = table.replaceAll("[`\"\\[\\]]", "");
+
+    return name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Returns the default time to live (milliseconds) of a cached result.
+   *
+   * @return ttl
+   */
+  public long getTtl() {
+    return ttl;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long getSizeInBytes() {
+    return sizeInBytes;
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /** Key of a query, SQL and the values of Prepared. */
+  static final class Key {
+    private final String sql;
+    private final Object[] params;
+    private final int hash;
+
+    Key(String sql, Object[] params) {
+      this.sql = sql;
+      this.params = params;
+      hash = 31 * sql.hashCode() + Arrays.deepHashCode(params);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+
+      return hash == other.hash && sql.equals(other.sql) && Arrays.deepEquals(params, other.params);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private static final class Entry {
+    private final RecordSet record;
+    private final Set<String> tables;
+    private final long bytes;
+    private final long expireAt;
+
+    Entry(RecordSet record, Set<String> tables, long bytes, long expireAt) {
+      this.record = record;
+      this.tables = tables;
+      this.bytes = bytes;
+      this.expireAt = expireAt;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package ra.db;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Maps the keys to the shards by ranges, each range starts at its lower bound and ends at the
+ * lower bound of the next range. The integer keys and bounds are compared as long, so an Integer
+ * key is found in the ranges of Long bounds.
+ *
+ * <pre>
+ * RangeShardMap map =
+ *     RangeShardMap.newBuilder().addRange(0L, "shard0").addRange(1000000L, "shard1").build();
+ * </pre>
+ *
+ * @author Ray Li
+ */
+public class RangeShardMap implements ShardMap {
+  private NavigableMap<Comparable<Object>, String> ranges;
+  private Set<String> names;
+
+  private RangeShardMap() {}
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public String getShard(Object key) {
+    if (key == null) {
+      throw new IllegalArgumentException("The shard key must not be null.");
+    }
+
+    Map.Entry<Comparable<Object>, String> range;
+
+    try {
+      range = ranges.floorEntry((Comparable<Object>) normalize(key));
+    } catch (ClassCastException e) {
+      throw new IllegalArgumentException(
+          "The shard key can't be compared with the ranges, key=" + key, e);
+    }
+    if (range == null) {
+      throw new IllegalArgumentException("No shard keeps the key, key=" + key);
+    }
+    return range.getValue();
+  }
+
+  /** Returns the integer as Long, the other keys are returned as they are. */
+  private static Object normalize(Object key) {
+    if (key instanceof Integer || key instanceof Short || key instanceof Byte) {
+      return ((Number) key).longValue();
+    }
+    if (key instanceof BigInteger && ((BigInteger) key).bitLength() < 64) {
+      return ((BigInteger) key).longValue();
+    }
+    return key;
+  }
+
+  @Override
+  public Set<String> getShardNames() {
+    return names;
+  }
+
+  @Override
+  public String toString() {
+    return "RangeShardMap" + ranges;
+  }
+
+  /** Builder. */
+  public static class Builder {
+    private TreeMap<Comparable<Object>, String> ranges = new TreeMap<>();
+
+    /**
+     * Add a range which starts at the lower bound.
+     *
+     * @param lowerBound the smallest key of the range, the bounds of a map must be the same type
+     *     except the integers, which are compared as long.
+     * @param shard shard name
+     * @return Builder
+     */
+    @SuppressWarnings("unchecked")
+    public Builder addRange(Comparable<?> lowerBound, String shard) {
+      if (lowerBound == null) {
+        throw new NullPointerException("lowerBound must not be null.");
+      }
+      if (shard == null) {
+        throw new NullPointerException("shard must not be null.");
+      }
+      ranges.put((Comparable<Object>) normalize(lowerBound), shard);
+      return this;
+    }
+
+    /**
+     * Build.
+     *
+     * @return RangeShardMap
+     */
+    public RangeShardMap build() {
+      if (ranges.isEmpty()) {
+        throw new IllegalArgumentException("At least one range is required.");
+      }
+
+      RangeShardMap obj = new RangeShardMap();
+
+      obj.ranges = new TreeMap<>(ranges);
+      obj.names = Collections.unmodifiableSet(new LinkedHashSet<>(ranges.values()));
+
+      return obj;
+    }
+  }
+}
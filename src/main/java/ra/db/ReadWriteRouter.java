@@ -0,0 +1,393 @@
+package ra.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import ra.db.record.LastInsertId;
+import ra.db.record.RecordCursor;
+import ra.db.record.StreamingRecordCursor;
+import ra.exception.RaConnectException;
+import ra.exception.RaSqlException;
+
+/**
+ * Routes queries to the replicas and the other statements to the primary. The replica is chosen
+ * by weight or by fewest in-flight statements per weight, a replica which is not live is skipped
+ * and the queries are executed by the primary when no replica is live.
+ *
+ * <p>Replicas may lag behind the primary, if the read-your-writes window is set the queries of a
+ * thread are executed by the primary within the window after the thread writes.
+ *
+ * @author Ray Li
+ */
+public class ReadWriteRouter implements StatementExecutor {
+  private DatabaseConnections primary;
+  private List<Replica> replicas;
+  private Selection selection;
+  private long readYourWritesWindow;
+  private ThreadLocal<long[]> lastWrite;
+  private long timeout = -1;
+
+  private ReadWriteRouter() {}
+
+  /** How the replica of a query is chosen. */
+  public enum Selection {
+    /** Smooth weighted round-robin. */
+    WEIGHTED,
+    /** The replica which has the fewest in-flight statements per weight. */
+    LEAST_IN_FLIGHT
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the primary.
+   *
+   * @return DatabaseConnections
+   */
+  public DatabaseConnections getPrimary() {
+    return primary;
+  }
+
+  /**
+   * Returns count of replicas.
+   *
+   * @return count
+   */
+  public int getReplicaCount() {
+    return replicas.size();
+  }
+
+  /**
+   * Returns the replica.
+   *
+   * @param index index
+   * @return DatabaseConnections
+   */
+  public DatabaseConnections getReplica(int index) {
+    return replicas.get(index).connections;
+  }
+
+  /**
+   * Returns the executor which executes the queries of the current thread.
+   *
+   * @return StatementExecutor, the primary if the thread has written within the read-your-writes
+   *     window or no replica is live.
+   */
+  public StatementExecutor nextReader() {
+    if (readYourWritesWindow > 0
+        && System.currentTimeMillis() - lastWrite.get()[0] < readYourWritesWindow) {
+      return withDeadline(primary.next());
+    }
+
+    StatementExecutor executor =
+        selection == Selection.WEIGHTED ? nextWeighted() : nextLeastInFlight();
+
+    return withDeadline(executor == null ? primary.next() : executor);
+  }
+
+  /**
+   * Returns the executor of the primary.
+   *
+   * @return StatementExecutor
+   */
+  public StatementExecutor nextWriter() {
+    return withDeadline(primary.next());
+  }
+
+  private StatementExecutor withDeadline(StatementExecutor executor) {
+    return timeout < 0 ? executor : executor.withTimeout(timeout, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns a router which applies the deadline to the executors of the primary and the replicas,
+   * the router shares the connections and the replica selection with this router.
+   *
+   * @param timeout timeout of each call, 0 if the statements have no deadline.
+   * @param unit unit of timeout
+   * @return ReadWriteRouter
+   */
+  @Override
+  public ReadWriteRouter withTimeout(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout must be greater than or equal to 0.");
+    }
+
+    ReadWriteRouter obj = new ReadWriteRouter();
+
+    obj.primary = primary;
+    obj.replicas = replicas;
+    obj.selection = selection;
+    obj.readYourWritesWindow = readYourWritesWindow;
+    obj.lastWrite = lastWrite;
+    obj.timeout = unit.toMillis(timeout);
+
+    return obj;
+  }
+
+  private StatementExecutor nextWeighted() {
+    boolean[] live = new boolean[replicas.size()];
+    Replica selected = null;
+    int total = 0;
+
+    for (int i = 0; i < live.length; i++) {
+      live[i] = replicas.get(i).connections.isLive();
+    }
+
+    // The replicas are shared by the routers of withTimeout.
+    synchronized (replicas) {
+      for (int i = 0; i < live.length; i++) {
+        Replica replica = replicas.get(i);
+
+        if (!live[i]) {
+          continue;
+        }
+        replica.current += replica.weight;
+        total += replica.weight;
+
+        if (selected == null || replica.current > selected.current) {
+          selected = replica;
+        }
+      }
+
+      if (selected != null) {
+        selected.current -= total;
+      }
+    }
+    // Only the chosen replica advances its round-robin.
+    return selected == null ? null : selected.connections.next();
+  }
+
+  private StatementExecutor nextLeastInFlight() {
+    Replica selected = null;
+    double selectedLoad = Double.MAX_VALUE;
+
+    for (Replica replica : replicas) {
+      if (!replica.connections.isLive()) {
+        continue;
+      }
+
+      double load = (replica.connections.getInFlightCount() + 1) / (double) replica.weight;
+
+      if (load < selectedLoad) {
+        selected = replica;
+        selectedLoad = load;
+      }
+    }
+    return selected == null ? null : selected.connections.next();
+  }
+
+  private <T> T write(Function<StatementExecutor, T> function) {
+    try {
+      return function.apply(nextWriter());
+    } finally {
+      if (readYourWritesWindow > 0) {
+        lastWrite.get()[0] = System.currentTimeMillis();
+      }
+    }
+  }
+
+  /** Returns true if the primary is live. */
+  @Override
+  public boolean isLive() {
+    return primary.isLive();
+  }
+
+  /** Returns in-flight count of the primary. */
+  @Override
+  public int getInFlightCount() {
+    return primary.getInFlightCount();
+  }
+
+  @Override
+  public int executeUpdate(String sql) throws RaConnectException, RaSqlException {
+    return write(executor -> executor.executeUpdate(sql));
+  }
+
+  @Override
+  public int tryExecuteUpdate(String sql) throws RaConnectException, RaSqlException {
+    return write(executor -> executor.tryExecuteUpdate(sql));
+  }
+
+  @Override
+  public void executeTransaction(TransactionExecutor transaction)
+      throws RaConnectException, RaSqlException {
+    write(
+        executor -> {
+          executor.executeTransaction(transaction);
+          return null;
+        });
+  }
+
+  @Override
+  public LastInsertId insert(String sql) throws RaConnectException, RaSqlException {
+    return write(executor -> executor.insert(sql));
+  }
+
+  @Override
+  public RecordCursor executeQuery(String sql) throws RaConnectException, RaSqlException {
+    return nextReader().executeQuery(sql);
+  }
+
+  @Override
+  public List<RecordCursor> executeQueries(List<String> sqls)
+      throws RaConnectException, RaSqlException {
+    return nextReader().executeQueries(sqls);
+  }
+
+  @Override
+  public int prepareExecuteUpdate(Prepared prepared) throws RaConnectException, RaSqlException {
+    return write(executor -> executor.prepareExecuteUpdate(prepared));
+  }
+
+  @Override
+  public RecordCursor prepareExecuteQuery(Prepared prepared)
+      throws RaConnectException, RaSqlException {
+    return nextReader().prepareExecuteQuery(prepared);
+  }
+
+  @Override
+  public int[] executeBatch(List<String> sqls) throws RaConnectException, RaSqlException {
+    return write(executor -> executor.executeBatch(sqls));
+  }
+
+  @Override
+  public int[] prepareExecuteBatch(List<Prepared> prepared)
+      throws RaConnectException, RaSqlException {
+    return write(executor -> executor.prepareExecuteBatch(prepared));
+  }
+
+  @Override
+  public long[] prepareInsertBatch(List<Prepared> prepared)
+      throws RaConnectException, RaSqlException {
+    return write(executor -> executor.prepareInsertBatch(prepared));
+  }
+
+  @Override
+  public StreamingRecordCursor executeStreamingQuery(String sql)
+      throws RaConnectException, RaSqlException {
+    return nextReader().executeStreamingQuery(sql);
+  }
+
+  @Override
+  public StreamingRecordCursor prepareExecuteStreamingQuery(Prepared prepared)
+      throws RaConnectException, RaSqlException {
+    return nextReader().prepareExecuteStreamingQuery(prepared);
+  }
+
+  /** Close the primary and the replicas. */
+  public void close() {
+    primary.close();
+    replicas.forEach(replica -> replica.connections.close());
+  }
+
+  private static class Replica {
+    private final DatabaseConnections connections;
+    private final int weight;
+    private int current = 0;
+
+    Replica(DatabaseConnections connections, int weight) {
+      this.connections = connections;
+      this.weight = weight;
+    }
+  }
+
+  /** Builder. */
+  public static class Builder {
+    private DatabaseConnections primary;
+    private List<Replica> replicas = new ArrayList<>();
+    private Selection selection = Selection.WEIGHTED;
+    private long readYourWritesWindow = 0;
+
+    /**
+     * Set the primary which executes the writes and the transactions.
+     *
+     * @param primary primary
+     * @return Builder
+     */
+    public Builder setPrimary(DatabaseConnections primary) {
+      this.primary = primary;
+      return this;
+    }
+
+    /**
+     * Add a replica which weight is 1.
+     *
+     * @param replica replica
+     * @return Builder
+     */
+    public Builder addReplica(DatabaseConnections replica) {
+      return addReplica(replica, 1);
+    }
+
+    /**
+     * Add a replica.
+     *
+     * @param replica replica
+     * @param weight share of queries relative to the other replicas.
+     * @return Builder
+     */
+    public Builder addReplica(DatabaseConnections replica, int weight) {
+      if (replica == null) {
+        throw new NullPointerException("replica must not be null");
+      }
+      if (weight < 1) {
+        throw new IllegalArgumentException("weight must be greater than 0.");
+      }
+      replicas.add(new Replica(replica, weight));
+      return this;
+    }
+
+    /**
+     * Set how the replica of a query is chosen, the default is {@link Selection#WEIGHTED}.
+     *
+     * @param selection selection
+     * @return Builder
+     */
+    public Builder setSelection(Selection selection) {
+      this.selection = selection;
+      return this;
+    }
+
+    /**
+     * Set how long (milliseconds) the queries of a thread are executed by the primary after the
+     * thread writes, 0 means disabled.
+     *
+     * @param window read-your-writes window
+     * @return Builder
+     */
+    public Builder setReadYourWritesWindow(long window) {
+      readYourWritesWindow = window;
+      return this;
+    }
+
+    /**
+     * Build.
+     *
+     * @return ReadWriteRouter
+     */
+    public ReadWriteRouter build() {
+      if (primary == null) {
+        throw new NullPointerException("primary is required.");
+      }
+      if (selection == null) {
+        throw new NullPointerException("selection is required.");
+      }
+      if (readYourWritesWindow < 0) {
+        throw new IllegalArgumentException("readYourWritesWindow must not be negative.");
+      }
+
+      ReadWriteRouter obj = new ReadWriteRouter();
+
+      obj.primary = primary;
+      obj.replicas = new ArrayList<>(replicas);
+      obj.selection = selection;
+      obj.readYourWritesWindow = readYourWritesWindow;
+      obj.lastWrite = ThreadLocal.withInitial(() -> new long[1]);
+
+      return obj;
+    }
+  }
+}
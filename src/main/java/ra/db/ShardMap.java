@@ -0,0 +1,28 @@
+package ra.db;
+
+import java.util.Set;
+
+/**
+ * Maps a shard key to the name of the shard which keeps the rows of the key, used by {@link
+ * ShardRouter}.
+ *
+ * @author Ray Li
+ */
+public interface ShardMap {
+
+  /**
+   * Returns the shard of the key.
+   *
+   * @param key shard key
+   * @return shard name
+   * @throws IllegalArgumentException if no shard keeps the key.
+   */
+  public String getShard(Object key);
+
+  /**
+   * Returns the names of all shards which the keys are mapped to.
+   *
+   * @return shard names
+   */
+  public Set<String> getShardNames();
+}
@@ -0,0 +1,301 @@
+package ra.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import ra.db.record.RecordCursor;
+
+/**
+ * Routes the statements to the shards by a shard key, each shard is a {@link DatabaseConnections}
+ * which is named by the shard name. The shard of a key is decided by the {@link ShardMap}, which
+ * can be replaced at runtime, such as after rows have been moved to a new shard.
+ *
+ * <pre>
+ * ShardRouter router =
+ *     ShardRouter.newBuilder()
+ *         .addShard(shard0)
+ *         .addShard(shard1)
+ *         .setShardMap(new HashShardMap("shard0", "shard1"))
+ *         .build();
+ *
+ * router.shard(userId).executeUpdate("UPDATE user SET ...");
+ * List&lt;RecordCursor&gt; counts = router.executeQueryAll("SELECT COUNT(*) FROM user");
+ * </pre>
+ *
+ * @author Ray Li
+ */
+public class ShardRouter {
+  private static final ExecutorService FAN_OUT =
+      Executors.newCachedThreadPool(
+          new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+              Thread thread = new Thread(runnable, "ShardRouter-" + count.incrementAndGet());
+
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+
+  private Map<String, DatabaseConnections> shards;
+  private volatile ShardMap shardMap;
+  private Executor fanOutExecutor;
+
+  private ShardRouter() {}
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the names of the shards.
+   *
+   * @return shard names
+   */
+  public Set<String> getShardNames() {
+    return shards.keySet();
+  }
+
+  /**
+   * Returns the shard.
+   *
+   * @param name shard name
+   * @return DatabaseConnections
+   * @throws IllegalArgumentException if the shard does not exist.
+   */
+  public DatabaseConnections getShard(String name) {
+    DatabaseConnections shard = shards.get(name);
+
+    if (shard == null) {
+      throw new IllegalArgumentException("Shard '" + name + "' does not exist.");
+    }
+    return shard;
+  }
+
+  /**
+   * Returns the map of the shard keys.
+   *
+   * @return ShardMap
+   */
+  public ShardMap getShardMap() {
+    return shardMap;
+  }
+
+  /**
+   * Replace the map of the shard keys, the following statements are routed by the new map.
+   *
+   * @param shardMap shard map, the keys must be mapped to the shards of this router.
+   */
+  public void setShardMap(ShardMap shardMap) {
+    this.shardMap = verify(shardMap, shards);
+  }
+
+  /**
+   * Returns the name of the shard which keeps the key.
+   *
+   * @param key shard key
+   * @return shard name
+   */
+  public String getShardName(Object key) {
+    return shardMap.getShard(key);
+  }
+
+  /**
+   * Returns the executor of the shard which keeps the key, all statements of the executor are
+   * executed by the shard.
+   *
+   * @param key shard key
+   * @return StatementExecutor
+   */
+  public StatementExecutor shard(Object key) {
+    return getShard(getShardName(key)).next();
+  }
+
+  /**
+   * Execute the function with the executor of every shard in parallel and wait for all of them.
+   *
+   * @param <T> type of result
+   * @param function function
+   * @return results by shard name, in the order of the shards.
+   * @throws RuntimeException the exception of the first failed shard, after all shards are done.
+   */
+  public <T> Map<String, T> fanOut(Function<StatementExecutor, T> function) {
+    Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+
+    shards.forEach(
+        (name, shard) ->
+            futures.put(
+                name,
+                CompletableFuture.supplyAsync(
+                    () -> function.apply(shard.next()), fanOutExecutor)));
+
+    Map<String, T> results = new LinkedHashMap<>();
+    RuntimeException failure = null;
+
+    for (Map.Entry<String, CompletableFuture<T>> entry : futures.entrySet()) {
+      try {
+        results.put(entry.getKey(), entry.getValue().join());
+      } catch (CompletionException e) {
+        if (failure == null) {
+          failure =
+              e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+      }
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+    return results;
+  }
+
+  /**
+   * Execute the query on every shard.
+   *
+   * @param sql SQL statement
+   * @return results in the order of the shards.
+   */
+  public List<RecordCursor> executeQueryAll(String sql) {
+    return new ArrayList<>(fanOut(executor -> executor.executeQuery(sql)).values());
+  }
+
+  /**
+   * Execute the query on every shard.
+   *
+   * @param prepared prepared statement
+   * @return results in the order of the shards.
+   */
+  public List<RecordCursor> prepareExecuteQueryAll(Prepared prepared) {
+    return new ArrayList<>(fanOut(executor -> executor.prepareExecuteQuery(prepared)).values());
+  }
+
+  /**
+   * Execute the statement on every shard, such as DDL statements. The statement is not atomic
+   * across the shards.
+   *
+   * @param sql SQL statement
+   * @return sum of affected rows
+   */
+  public int executeUpdateAll(String sql) {
+    return fanOut(executor -> executor.executeUpdate(sql)).values().stream()
+        .mapToInt(Integer::intValue)
+        .sum();
+  }
+
+  /** Close the connections of all shards. */
+  public void close() {
+    shards.values().forEach(DatabaseConnections::close);
+  }
+
+  private static ShardMap verify(ShardMap shardMap, Map<String, DatabaseConnections> shards) {
+    if (shardMap == null) {
+      throw new NullPointerException("shardMap is required.");
+    }
+    for (String name : shardMap.getShardNames()) {
+      if (!shards.containsKey(name)) {
+        throw new IllegalArgumentException(
+            "Shard '" + name + "' of the shard map does not exist, shards=" + shards.keySet());
+      }
+    }
+    return shardMap;
+  }
+
+  /** Builder. */
+  public static class Builder {
+    private Map<String, DatabaseConnections> shards = new LinkedHashMap<>();
+    private ShardMap shardMap;
+    private Executor fanOutExecutor = FAN_OUT;
+
+    /**
+     * Add a shard, the shard name is the name of the connections.
+     *
+     * @param shard shard
+     * @return Builder
+     */
+    public Builder addShard(DatabaseConnections shard) {
+      if (shard == null) {
+        throw new NullPointerException("shard must not be null");
+      }
+      return addShard(shard.getName(), shard);
+    }
+
+    /**
+     * Add a shard.
+     *
+     * @param name shard name
+     * @param shard shard
+     * @return Builder
+     */
+    public Builder addShard(String name, DatabaseConnections shard) {
+      if (name == null) {
+        throw new NullPointerException("name must not be null");
+      }
+      if (shard == null) {
+        throw new NullPointerException("shard must not be null");
+      }
+      if (shards.containsKey(name)) {
+        throw new IllegalArgumentException("Shard '" + name + "' already exists.");
+      }
+      shards.put(name, shard);
+      return this;
+    }
+
+    /**
+     * Set the map of the shard keys.
+     *
+     * @param shardMap shard map
+     * @return Builder
+     */
+    public Builder setShardMap(ShardMap shardMap) {
+      this.shardMap = shardMap;
+      return this;
+    }
+
+    /**
+     * Set the executor which executes the statements of fan-out, the default is a shared pool of
+     * daemon threads.
+     *
+     * @param executor executor
+     * @return Builder
+     */
+    public Builder setFanOutExecutor(Executor executor) {
+      fanOutExecutor = executor;
+      return this;
+    }
+
+    /**
+     * Build.
+     *
+     * @return ShardRouter
+     */
+    public ShardRouter build() {
+      if (shards.isEmpty()) {
+        throw new IllegalArgumentException("At least one shard is required.");
+      }
+      if (fanOutExecutor == null) {
+        throw new NullPointerException("fanOutExecutor is required.");
+      }
+
+      ShardRouter obj = new ShardRouter();
+
+      obj.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+      obj.shardMap = verify(shardMap, obj.shards);
+      obj.fanOutExecutor = fanOutExecutor;
+
+      return obj;
+    }
+  }
+}
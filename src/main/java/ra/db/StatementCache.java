@@ -0,0 +1,190 @@
+package ra.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LRU cache of PreparedStatement which is keyed by SQL, one cache belongs to a single database
+ * connection. A cached statement is checked out while it is in use, so it is never shared by two
+ * callers at the same time.
+ *
+ * @author Ray Li
+ */
+public class StatementCache {
+  private final int capacity;
+  private final LinkedHashMap<String, PreparedStatement> statements;
+  private final Set<PreparedStatement> checkedOut;
+  private long hitCount = 0;
+  private long missCount = 0;
+  private long evictionCount = 0;
+
+  /**
+   * Initialize.
+   *
+   * @param capacity maximum count of cached statements.
+   */
+  public StatementCache(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be greater than 0.");
+    }
+    this.capacity = capacity;
+    statements = new LinkedHashMap<>(16, 0.75f, true);
+    checkedOut = Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  /**
+   * Returns the cached statement of the SQL, or prepares a new one if it is not cached.
+   *
+   * @param connection database connection
+   * @param sql SQL statement
+   * @return PreparedStatement, it must be returned by {@link #release(String, PreparedStatement)}.
+   * @throws SQLException SQLException
+   */
+  public PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+    synchronized (this) {
+      PreparedStatement statement = statements.remove(sql);
+
+      if (statement != null) {
+        hitCount++;
+        checkedOut.add(statement);
+        return statement;
+      }
+      missCount++;
+    }
+
+    PreparedStatement statement = connection.prepareStatement(sql);
+
+    synchronized (this) {
+      checkedOut.add(statement);
+    }
+    return statement;
+  }
+
+  /**
+   * Return the statement to the cache, the statement is closed if it was not prepared by the cache
+   * or the cache has been cleared since.
+   *
+   * @param sql SQL statement
+   * @param statement statement
+   * @throws SQLException SQLException
+   */
+  public void release(String sql, PreparedStatement statement) throws SQLException {
+    List<PreparedStatement> discard = new ArrayList<>(1);
+    boolean reusable = true;
+
+    try {
+      statement.clearParameters();
+      statement.clearBatch();
+    } catch (SQLException e) {
+      reusable = false;
+    }
+
+    synchronized (this) {
+      if (!checkedOut.remove(statement) || !reusable || statements.containsKey(sql)) {
+        discard.add(statement);
+      } else {
+        statements.put(sql, statement);
+
+        Iterator<Map.Entry<String, PreparedStatement>> iterator =
+            statements.entrySet().iterator();
+
+        while (statements.size() > capacity && iterator.hasNext()) {
+          discard.add(iterator.next().getValue());
+          iterator.remove();
+          evictionCount++;
+        }
+      }
+    }
+
+    for (PreparedStatement element : discard) {
+      element.close();
+    }
+  }
+
+  /** Close all cached statements, the statements in use are closed when they are returned. */
+  public void clear() {
+    List<PreparedStatement> discard;
+
+    synchronized (this) {
+      discard = new ArrayList<>(statements.values());
+      statements.clear();
+      checkedOut.clear();
+    }
+
+    for (PreparedStatement statement : discard) {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        // The connection has been closed before the statements.
+      }
+    }
+  }
+
+  /**
+   * Returns maximum count of cached statements.
+   *
+   * @return capacity
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns count of cached statements.
+   *
+   * @return count
+   */
+  public synchronized int size() {
+    return statements.size();
+  }
+
+  /**
+   * Returns count of statements are taken from the cache.
+   *
+   * @return count
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns count of statements are prepared because they were not cached.
+   *
+   * @return count
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns count of statements are closed because the cache was full.
+   *
+   * @return count
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "size="
+        + statements.size()
+        + ",capacity="
+        + capacity
+        + ",hit="
+        + hitCount
+        + ",miss="
+        + missCount
+        + ",eviction="
+        + evictionCount;
+  }
+}
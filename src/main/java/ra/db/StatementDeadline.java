@@ -0,0 +1,212 @@
+package ra.db;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import ra.exception.RaSqlException;
+import ra.exception.RaTimeoutException;
+
+/**
+ * Deadline of one call of {@link JdbcExecutor}. The remaining time is applied to each statement of
+ * the call as the query timeout, and a watchdog cancels the running statement when the deadline
+ * passes, because the query timeout is in whole seconds and some drivers don't enforce it. The
+ * statements are cancelled on other threads than the watchdog, because a driver may open a new
+ * connection to cancel a statement, such as KILL QUERY of MySQL.
+ *
+ * @author Ray Li
+ */
+class StatementDeadline {
+  /** The statements have no deadline. */
+  static final StatementDeadline NONE = new StatementDeadline(0, 0);
+
+  private static final ScheduledThreadPoolExecutor WATCHDOG;
+  private static final ExecutorService CANCELLER =
+      Executors.newCachedThreadPool(
+          runnable -> {
+            Thread thread = new Thread(runnable, "StatementCanceller");
+
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  static {
+    WATCHDOG =
+        new ScheduledThreadPoolExecutor(
+            1,
+            runnable -> {
+              Thread thread = new Thread(runnable, "StatementWatchdog");
+
+              thread.setDaemon(true);
+              return thread;
+            });
+    WATCHDOG.setRemoveOnCancelPolicy(true);
+  }
+
+  private final long timeout;
+  private final long deadline;
+  private Statement current;
+  private boolean expired = false;
+  private boolean finished = false;
+  private boolean cancelling = false;
+  private ScheduledFuture<?> watchdog;
+
+  private StatementDeadline(long timeout, long deadline) {
+    this.timeout = timeout;
+    this.deadline = deadline;
+  }
+
+  /**
+   * Returns the deadline which passes after the timeout from now.
+   *
+   * @param timeout timeout in milliseconds, 0 if the statements have no deadline.
+   * @return StatementDeadline
+   */
+  static StatementDeadline after(long timeout) {
+    if (timeout <= 0) {
+      return NONE;
+    }
+    return new StatementDeadline(
+        timeout, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout));
+  }
+
+  /**
+   * Start the watchdog, it is called after the connection is acquired.
+   *
+   * @throws RaTimeoutException if the deadline has passed while waiting for the connection.
+   */
+  void start() throws RaTimeoutException {
+    if (this == NONE) {
+      return;
+    }
+
+    long remaining = deadline - System.nanoTime();
+
+    synchronized (this) {
+      if (remaining <= 0) {
+        expired = true;
+        throw new RaTimeoutException(
+            "The deadline passed before the statement started, timeout=" + timeout + "ms");
+      }
+      watchdog = WATCHDOG.schedule(this::expire, remaining, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Apply the remaining time to the statement as the query timeout, the statement is cancelled by
+   * the watchdog if it is running when the deadline passes.
+   *
+   * @param statement statement
+   * @throws SQLException SQLException
+   * @throws RaTimeoutException if the deadline has passed.
+   */
+  void watch(Statement statement) throws SQLException, RaTimeoutException {
+    if (this == NONE) {
+      // The statement may be reused from the statement cache with a previous timeout.
+      if (statement.getQueryTimeout() != 0) {
+        statement.setQueryTimeout(0);
+      }
+      return;
+    }
+
+    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+
+    synchronized (this) {
+      if (expired || remaining <= 0) {
+        expired = true;
+        throw new RaTimeoutException(
+            "The deadline passed, the statement was not executed, timeout=" + timeout + "ms");
+      }
+      current = statement;
+    }
+    // Rounded up, so the watchdog cancels the statement first.
+    statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, (remaining + 999) / 1000));
+  }
+
+  /** Stop the watchdog, a statement of the call is never cancelled after it returns. */
+  void finish() {
+    if (this == NONE) {
+      return;
+    }
+    synchronized (this) {
+      finished = true;
+      current = null;
+      if (watchdog != null) {
+        watchdog.cancel(false);
+      }
+
+      boolean interrupted = false;
+
+      // The statement may be reused after it returns, so wait until the cancel completes.
+      while (cancelling) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Returns true if the deadline has passed.
+   *
+   * @return expired
+   */
+  synchronized boolean isExpired() {
+    return expired;
+  }
+
+  /**
+   * Returns the exception of the failed statement, it is RaTimeoutException if the statement was
+   * cancelled by the deadline or timed out in database.
+   *
+   * @param message message
+   * @param e SQLException
+   * @return RaSqlException
+   */
+  RaSqlException error(String message, SQLException e) {
+    if (e instanceof SQLTimeoutException || isExpired()) {
+      return new RaTimeoutException(
+          (message == null ? "" : message + ",") + "timeout=" + timeout + "ms", e);
+    }
+    return new RaSqlException(message, e);
+  }
+
+  private void expire() {
+    Statement statement;
+
+    synchronized (this) {
+      if (finished) {
+        return;
+      }
+      expired = true;
+      statement = current;
+      if (statement == null) {
+        return;
+      }
+      cancelling = true;
+    }
+    CANCELLER.execute(() -> cancel(statement));
+  }
+
+  private void cancel(Statement statement) {
+    try {
+      statement.cancel();
+    } catch (SQLException e) {
+      e.printStackTrace();
+    } finally {
+      synchronized (this) {
+        cancelling = false;
+        notifyAll();
+      }
+    }
+  }
+}
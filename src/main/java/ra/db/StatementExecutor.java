@@ -1,7 +1,11 @@
 package ra.db;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import ra.db.record.LastInsertId;
 import ra.db.record.RecordCursor;
+import ra.db.record.StreamingRecordCursor;
 import ra.exception.RaConnectException;
 import ra.exception.RaSqlException;
 
@@ -19,6 +23,34 @@ public interface StatementExecutor {
    */
   public boolean isLive();
 
+  /**
+   * Returns count of statements which are executing or waiting for the connection, the default
+   * doesn't count them.
+   *
+   * @return in-flight statements
+   */
+  public default int getInFlightCount() {
+    return 0;
+  }
+
+  /**
+   * Returns an executor which executes the statements with the deadline of each call, such as
+   * <code>executor.withTimeout(500, TimeUnit.MILLISECONDS).executeQuery(sql)</code>. The running
+   * statement is cancelled when the deadline passes and {@link ra.exception.RaTimeoutException} is
+   * thrown.
+   *
+   * @param timeout timeout of each call, 0 if the statements have no deadline.
+   * @param unit unit of timeout
+   * @return StatementExecutor, the default returns this executor if timeout is 0.
+   * @throws UnsupportedOperationException if the executor doesn't support deadlines.
+   */
+  public default StatementExecutor withTimeout(long timeout, TimeUnit unit) {
+    if (timeout == 0) {
+      return this;
+    }
+    throw new UnsupportedOperationException("Deadlines are not supported by " + getClass());
+  }
+
   /**
    * Executes the given SQL statement, which may be an INSERT, UPDATE, or DELETE statement or an SQL
    * statement that returns nothing, such as an SQL DDL statement.
@@ -63,6 +95,28 @@ public interface StatementExecutor {
    */
   public RecordCursor executeQuery(String sql) throws RaConnectException, RaSqlException;
 
+  /**
+   * Executes the queries in one round trip if the database enables multiple statements, such as
+   * {@link ra.db.parameter.MysqlParameters.Builder#setAllowMultiQueries(boolean)}, otherwise the
+   * queries are executed one by one while the connection is acquired once. The default executes
+   * them by {@link #executeQuery(String)} one by one. Multiple statements are enabled for every
+   * statement of the connection, see the security note of the parameter.
+   *
+   * @param sqls SQL statements, each returns a result set.
+   * @return RecordCursor of each query, in order of the queries.
+   * @throws RaConnectException RaConnectException
+   * @throws RaSqlException RaSqlException
+   */
+  public default List<RecordCursor> executeQueries(List<String> sqls)
+      throws RaConnectException, RaSqlException {
+    List<RecordCursor> records = new ArrayList<>(sqls.size());
+
+    for (String sql : sqls) {
+      records.add(executeQuery(sql));
+    }
+    return records;
+  }
+
   /**
    * Executes the given SQL statement, which may be an INSERT, UPDATE, or DELETE statement or an SQL
    * statement that returns nothing, such as an SQL DDL statement.
@@ -85,4 +139,107 @@ public interface StatementExecutor {
    */
   public RecordCursor prepareExecuteQuery(Prepared prepared)
       throws RaConnectException, RaSqlException;
+
+  /**
+   * Executes the SQL statements as batches, each batch is sent to database in one round trip and
+   * committed when it completes. The size of a batch is {@link
+   * ra.db.parameter.DatabaseParameters#getBatchSize()}. The default executes all batches in one
+   * transaction by {@link #executeTransaction(TransactionExecutor)}.
+   *
+   * @param sqls SQL statements, such as INSERT, UPDATE or DELETE.
+   * @return affected rows of each statement, in the same order as the statements.
+   * @throws RaConnectException RaConnectException
+   * @throws RaSqlException RaSqlException, the failed batch is rolled back and the previous batches
+   *     remain committed.
+   */
+  public default int[] executeBatch(List<String> sqls) throws RaConnectException, RaSqlException {
+    int[] ret = new int[sqls.size()];
+
+    executeTransaction(
+        transaction -> {
+          System.arraycopy(transaction.executeBatch(sqls), 0, ret, 0, ret.length);
+          return true;
+        });
+    return ret;
+  }
+
+  /**
+   * Executes the Prepared objects as batches, consecutive Prepared objects which have the same SQL
+   * template share one PreparedStatement. Each batch is sent to database in one round trip and
+   * committed when it completes. The size of a batch is {@link
+   * ra.db.parameter.DatabaseParameters#getBatchSize()}. The default executes all batches in one
+   * transaction by {@link #executeTransaction(TransactionExecutor)}.
+   *
+   * @param prepared parameter sets of SQL templates
+   * @return affected rows of each Prepared, in the same order as the Prepared objects.
+   * @throws RaConnectException RaConnectException
+   * @throws RaSqlException RaSqlException, the failed batch is rolled back and the previous batches
+   *     remain committed.
+   */
+  public default int[] prepareExecuteBatch(List<Prepared> prepared)
+      throws RaConnectException, RaSqlException {
+    int[] ret = new int[prepared.size()];
+
+    executeTransaction(
+        transaction -> {
+          System.arraycopy(transaction.prepareExecuteBatch(prepared), 0, ret, 0, ret.length);
+          return true;
+        });
+    return ret;
+  }
+
+  /**
+   * Executes the INSERT statements as batches and returns the auto-generated keys, which are read
+   * by {@link java.sql.Statement#getGeneratedKeys()} after each batch instead of querying the last
+   * insert id of each row. All batches are committed together, or rolled back if a batch fails.
+   * The default executes them by {@link #executeTransaction(TransactionExecutor)}.
+   *
+   * @param prepared INSERT statements, each inserts one row.
+   * @return generated key of each row, in the same order as the Prepared objects.
+   * @throws RaConnectException RaConnectException
+   * @throws RaSqlException RaSqlException, or if count of generated keys is not count of rows.
+   */
+  public default long[] prepareInsertBatch(List<Prepared> prepared)
+      throws RaConnectException, RaSqlException {
+    long[] keys = new long[prepared.size()];
+
+    executeTransaction(
+        transaction -> {
+          System.arraycopy(transaction.prepareInsertBatch(prepared), 0, keys, 0, keys.length);
+          return true;
+        });
+    return keys;
+  }
+
+  /**
+   * Execute query and read rows one by one while the cursor moves forward, rows are not kept in
+   * memory. The connection is held by the cursor until it passes the last row or is closed, so the
+   * cursor must always be consumed or closed, it can be closed by another thread. The default reads
+   * the rows of {@link #executeQuery(String)}, which are kept in memory.
+   *
+   * @param sql SQL statement
+   * @return StreamingRecordCursor
+   * @throws RaConnectException RaConnectException
+   * @throws RaSqlException RaSqlException
+   */
+  public default StreamingRecordCursor executeStreamingQuery(String sql)
+      throws RaConnectException, RaSqlException {
+    return StreamingRecordCursor.of(executeQuery(sql));
+  }
+
+  /**
+   * Execute prepared query and read rows one by one while the cursor moves forward, rows are not
+   * kept in memory. The connection is held by the cursor until it passes the last row or is closed,
+   * so the cursor must always be consumed or closed, it can be closed by another thread. The
+   * default reads the rows of {@link #prepareExecuteQuery(Prepared)}, which are kept in memory.
+   *
+   * @param prepared prepared
+   * @return StreamingRecordCursor
+   * @throws RaConnectException RaConnectException
+   * @throws RaSqlException RaSqlException
+   */
+  public default StreamingRecordCursor prepareExecuteStreamingQuery(Prepared prepared)
+      throws RaConnectException, RaSqlException {
+    return StreamingRecordCursor.of(prepareExecuteQuery(prepared));
+  }
 }
@@ -0,0 +1,405 @@
+package ra.db;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import ra.util.LatencyHistogram;
+import ra.util.logging.LogEveryDay;
+
+/**
+ * Latency of statements which are executed by {@link JdbcExecutor}, recorded per SQL fingerprint.
+ * The fingerprint is the SQL which literals are replaced by ?, so the statements which differ only
+ * in values share the histograms. The time of waiting for the connection, executing the statement
+ * and reading the rows is recorded separately, in microseconds.
+ *
+ * <p>The statements which take longer than the threshold are written to the slow query log.
+ *
+ * @author Ray Li
+ */
+public class StatementMetrics {
+  private static final StatementMetrics DEFAULT = new StatementMetrics(1000);
+  private static final String OTHERS = "(others)";
+  private static final String TRANSACTION = "(transaction)";
+
+  private final int maxFingerprints;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private volatile LogEveryDay slowQueryLog;
+  private volatile long slowQueryThreshold = Long.MAX_VALUE;
+
+  /**
+   * Initialize.
+   *
+   * @param maxFingerprints maximum count of fingerprints, the statements of other fingerprints are
+   *     recorded together as "(others)".
+   */
+  public StatementMetrics(int maxFingerprints) {
+    if (maxFingerprints < 1) {
+      throw new IllegalArgumentException("maxFingerprints must be greater than 0.");
+    }
+    this.maxFingerprints = maxFingerprints;
+  }
+
+  /**
+   * Returns the metrics which the executors record by default.
+   *
+   * @return StatementMetrics
+   */
+  public static StatementMetrics getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Write the statements which take longer than the threshold to the log.
+   *
+   * @param log log, null if disables the slow query log.
+   * @param threshold threshold (milliseconds)
+   */
+  public void setSlowQueryLog(LogEveryDay log, long threshold) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException("threshold must not be negative.");
+    }
+    slowQueryThreshold = TimeUnit.MILLISECONDS.toNanos(threshold);
+    slowQueryLog = log;
+  }
+
+  private void record(Sample sample, long end, boolean failed) {
+    String fingerprint = sample.sql == null ? TRANSACTION : fingerprint(sample.sql);
+    Entry entry = entries.get(fingerprint);
+
+    if (entry == null) {
+      if (entries.size() >= maxFingerprints) {
+        fingerprint = OTHERS;
+      }
+      entry = entries.computeIfAbsent(fingerprint, Entry::new);
+    }
+
+    long acquired = sample.acquired == 0 ? end : sample.acquired;
+    long executed = sample.executed == 0 ? end : sample.executed;
+
+    entry.wait.record((acquired - sample.start) / 1000);
+    entry.execute.record((executed - acquired) / 1000);
+    entry.materialize.record((end - executed) / 1000);
+    entry.total.record((end - sample.start) / 1000);
+    entry.rows.add(sample.rows);
+    if (failed) {
+      entry.errors.increment();
+    }
+
+    LogEveryDay log = slowQueryLog;
+
+    if (log != null && end - sample.start >= slowQueryThreshold) {
+      log.writeln(
+          "elapsed="
+              + TimeUnit.NANOSECONDS.toMillis(end - sample.start)
+              + "ms,wait="
+              + TimeUnit.NANOSECONDS.toMillis(acquired - sample.start)
+              + "ms,execute="
+              + TimeUnit.NANOSECONDS.toMillis(executed - acquired)
+              + "ms,materialize="
+              + TimeUnit.NANOSECONDS.toMillis(end - executed)
+              + "ms,rows="
+              + sample.rows
+              + ",failed="
+              + failed
+              + ",sql="
+              + sample.sql);
+    }
+  }
+
+  /**
+   * Returns the metrics of each fingerprint, ordered by total time descending.
+   *
+   * @return snapshots
+   */
+  public List<Snapshot> snapshot() {
+    List<Snapshot> list = new ArrayList<>(entries.size());
+
+    entries.values().forEach(entry -> list.add(new Snapshot(entry)));
+    list.sort(Comparator.comparingLong((Snapshot s) -> s.getTotal().getSum()).reversed());
+    return list;
+  }
+
+  /**
+   * Returns the metrics of the SQL statement.
+   *
+   * @param sql SQL statement, or its fingerprint.
+   * @return Snapshot, null if the statement is not recorded.
+   */
+  public Snapshot snapshot(String sql) {
+    Entry entry = entries.get(fingerprint(sql));
+
+    return entry == null ? null : new Snapshot(entry);
+  }
+
+  /** Clear the recorded metrics. */
+  public void reset() {
+    entries.clear();
+  }
+
+  /**
+   * Returns the SQL statement which literals are replaced by ?, the whitespaces are collapsed and
+   * the lists of literals, such as IN (1, 2, 3), become (?).
+   *
+   * @param sql SQL statement
+   * @return fingerprint
+   */
+  public static String fingerprint(String sql) {
+    StringBuilder str = new StringBuilder(sql.length());
+    int length = sql.length();
+    int i = 0;
+
+    while (i < length) {
+      char c = sql.charAt(i);
+
+      if (Character.isWhitespace(c)) {
+        while (i < length && Character.isWhitespace(sql.charAt(i))) {
+          i++;
+        }
+        if (str.length() > 0) {
+          str.append(' ');
+        }
+      } else if (c == '\'') {
+        i++;
+        while (i < length) {
+          char q = sql.charAt(i++);
+
+          if (q == '\\') {
+            i++;
+          } else if (q == '\'') {
+            if (i < length && sql.charAt(i) == '\'') {
+              i++;
+            } else {
+              break;
+            }
+          }
+        }
+        appendParameter(str);
+      } else if (Character.isDigit(c) && !isIdentifierEnd(str)) {
+        while (i < length
+            && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+          i++;
+        }
+        appendParameter(str);
+      } else if (c == '?') {
+        i++;
+        appendParameter(str);
+      } else {
+        str.append(c);
+        i++;
+      }
+    }
+
+    int end = str.length();
+
+    while (end > 0 && (str.charAt(end - 1) == ' ' || str.charAt(end - 1) == ';')) {
+      end--;
+    }
+    str.setLength(end);
+    return str.toString();
+  }
+
+  private static boolean isIdentifierEnd(StringBuilder str) {
+    if (str.length() == 0) {
+      return false;
+    }
+
+    char c = str.charAt(str.length() - 1);
+
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '`' || c == '"';
+  }
+
+  private static void appendParameter(StringBuilder str) {
+    int end = str.length();
+
+    if (end > 0 && str.charAt(end - 1) == ' ') {
+      end--;
+    }
+    if (end > 1 && str.charAt(end - 1) == ',' && str.charAt(end - 2) == '?') {
+      // Collapse a list of parameters into one.
+      str.setLength(end - 1);
+      return;
+    }
+    str.append('?');
+  }
+
+  /** Timing of a statement, the timing starts when it is created. */
+  static final class Sample {
+    private final StatementMetrics metrics;
+    private final String sql;
+    private final long start = System.nanoTime();
+    private long acquired;
+    private long executed;
+    private long rows;
+
+    /**
+     * Initialize.
+     *
+     * @param metrics metrics, null if the timing is not recorded.
+     * @param sql SQL statement, null if it is a transaction.
+     */
+    Sample(StatementMetrics metrics, String sql) {
+      this.metrics = metrics;
+      this.sql = sql;
+    }
+
+    /** The connection is acquired. */
+    void acquired() {
+      acquired = System.nanoTime();
+    }
+
+    /**
+     * The statement is executed, the following time is counted as reading rows.
+     *
+     * @param rows affected rows, or 0 if the rows are counted when they are read.
+     */
+    void executed(long rows) {
+      executed = System.nanoTime();
+      this.rows = rows;
+    }
+
+    /**
+     * Set count of rows which are read.
+     *
+     * @param rows rows
+     */
+    void rows(long rows) {
+      this.rows = rows;
+    }
+
+    /**
+     * The statement is completed.
+     *
+     * @param failed true if the statement fails.
+     */
+    void end(boolean failed) {
+      if (metrics != null) {
+        metrics.record(this, System.nanoTime(), failed);
+      }
+    }
+  }
+
+  private static class Entry {
+    private final String fingerprint;
+    private final LatencyHistogram wait = new LatencyHistogram();
+    private final LatencyHistogram execute = new LatencyHistogram();
+    private final LatencyHistogram materialize = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    Entry(String fingerprint) {
+      this.fingerprint = fingerprint;
+    }
+  }
+
+  /** Metrics of a fingerprint, the times are in microseconds. */
+  public static class Snapshot {
+    private final String fingerprint;
+    private final LatencyHistogram.Snapshot wait;
+    private final LatencyHistogram.Snapshot execute;
+    private final LatencyHistogram.Snapshot materialize;
+    private final LatencyHistogram.Snapshot total;
+    private final long rows;
+    private final long errors;
+
+    private Snapshot(Entry entry) {
+      fingerprint = entry.fingerprint;
+      wait = entry.wait.snapshot();
+      execute = entry.execute.snapshot();
+      materialize = entry.materialize.snapshot();
+      total = entry.total.snapshot();
+      rows = entry.rows.sum();
+      errors = entry.errors.sum();
+    }
+
+    public String getFingerprint() {
+      return fingerprint;
+    }
+
+    /**
+     * Returns count of statements.
+     *
+     * @return count
+     */
+    public long getCount() {
+      return total.getCount();
+    }
+
+    /**
+     * Returns count of failed statements.
+     *
+     * @return count
+     */
+    public long getErrorCount() {
+      return errors;
+    }
+
+    /**
+     * Returns count of rows which are read or affected.
+     *
+     * @return rows
+     */
+    public long getRows() {
+      return rows;
+    }
+
+    /**
+     * Returns time of waiting for the connection.
+     *
+     * @return histogram
+     */
+    public LatencyHistogram.Snapshot getWait() {
+      return wait;
+    }
+
+    /**
+     * Returns time of executing the statement.
+     *
+     * @return histogram
+     */
+    public LatencyHistogram.Snapshot getExecute() {
+      return execute;
+    }
+
+    /**
+     * Returns time of reading the rows.
+     *
+     * @return histogram
+     */
+    public LatencyHistogram.Snapshot getMaterialize() {
+      return materialize;
+    }
+
+    /**
+     * Returns time from calling the executor to returning.
+     *
+     * @return histogram
+     */
+    public LatencyHistogram.Snapshot getTotal() {
+      return total;
+    }
+
+    @Override
+    public String toString() {
+      return "fingerprint="
+          + fingerprint
+          + ",rows="
+          + rows
+          + ",errors="
+          + errors
+          + ",total=["
+          + total
+          + "],wait=["
+          + wait
+          + "],execute=["
+          + execute
+          + "],materialize=["
+          + materialize
+          + "]";
+    }
+  }
+}
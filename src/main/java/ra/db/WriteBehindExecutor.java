@@ -0,0 +1,385 @@
+package ra.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import ra.db.JdbcExecutor.Transaction;
+import ra.exception.RaConnectException;
+
+/**
+ * Queues small independent updates and commits them in batched transactions, many statements
+ * share one commit instead of one commit per statement. A batch is committed when it reaches the
+ * maximum batch size or when the linger time of its first statement passes.
+ *
+ * <p>The future of a statement is completed after the batch is committed. If a statement of the
+ * batch fails the batch is rolled back and its statements are executed one by one, so only the
+ * future of the failed statement is completed exceptionally.
+ *
+ * <pre>
+ * WriteBehindExecutor writer = WriteBehindExecutor.newBuilder(executor)
+ *     .setMaxBatchSize(200)
+ *     .setLingerTime(5)
+ *     .build();
+ *
+ * writer.executeUpdate("UPDATE counter SET hits=hits+1 WHERE id=1");
+ * </pre>
+ *
+ * @author Ray Li
+ */
+public class WriteBehindExecutor implements AutoCloseable {
+  private static final Write STOP = new Write(null, null);
+
+  private StatementExecutor executor;
+  private int maxBatchSize;
+  private long lingerTime;
+  private OverflowPolicy overflowPolicy;
+  private BlockingQueue<Write> queue;
+  private Thread worker;
+  private volatile boolean closed = false;
+  // Statements are queued under the read lock, so none is queued after close.
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+  private final AtomicLong batchCount = new AtomicLong();
+  private final AtomicLong statementCount = new AtomicLong();
+
+  private WriteBehindExecutor() {}
+
+  /** What to do when the queue is full. */
+  public enum OverflowPolicy {
+    /** The caller waits until the queue has room. */
+    BLOCK,
+    /** The future is completed exceptionally by RaConnectException. */
+    FAIL,
+    /** The statement is executed by the caller thread without batching. */
+    CALLER_RUNS
+  }
+
+  public static Builder newBuilder(StatementExecutor executor) {
+    return new Builder(executor);
+  }
+
+  /**
+   * Queue the SQL statement, such as INSERT, UPDATE or DELETE.
+   *
+   * @param sql SQL statement
+   * @return the future of affected rows, it is completed after the statement is committed.
+   */
+  public CompletableFuture<Integer> executeUpdate(String sql) {
+    return submit(new Write(sql, null));
+  }
+
+  /**
+   * Queue the prepared statement, such as INSERT, UPDATE or DELETE.
+   *
+   * @param prepared prepared
+   * @return the future of affected rows, it is completed after the statement is committed.
+   */
+  public CompletableFuture<Integer> prepareExecuteUpdate(Prepared prepared) {
+    return submit(new Write(null, prepared));
+  }
+
+  private CompletableFuture<Integer> submit(Write write) {
+    boolean queued;
+
+    closeLock.readLock().lock();
+    try {
+      if (closed) {
+        write.future.completeExceptionally(
+            new RaConnectException("WriteBehindExecutor is closed."));
+        return write.future;
+      }
+
+      if (overflowPolicy == OverflowPolicy.BLOCK) {
+        queue.put(write);
+        queued = true;
+      } else {
+        queued = queue.offer(write);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      write.future.completeExceptionally(e);
+      return write.future;
+    } finally {
+      closeLock.readLock().unlock();
+    }
+
+    if (!queued) {
+      if (overflowPolicy == OverflowPolicy.FAIL) {
+        write.future.completeExceptionally(
+            new RaConnectException(
+                "WriteBehindExecutor rejects the statement, queue=" + queue.size()));
+      } else {
+        write.executeAlone(executor);
+      }
+    }
+    return write.future;
+  }
+
+  private void run() {
+    List<Write> batch = new ArrayList<>(maxBatchSize);
+    boolean running = true;
+
+    while (running) {
+      try {
+        Write write = queue.take();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerTime);
+
+        while (write != null) {
+          if (write == STOP) {
+            running = false;
+            break;
+          }
+          batch.add(write);
+          if (batch.size() >= maxBatchSize) {
+            break;
+          }
+
+          long remaining = deadline - System.nanoTime();
+
+          write = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+        }
+      } catch (InterruptedException e) {
+        running = false;
+      }
+      commit(batch);
+    }
+
+    // The statements which are queued while closing.
+    queue.drainTo(batch);
+    batch.remove(STOP);
+    while (!batch.isEmpty()) {
+      commit(batch.subList(0, Math.min(batch.size(), maxBatchSize)));
+    }
+  }
+
+  private void commit(List<Write> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    int[] counts = new int[batch.size()];
+
+    try {
+      executor.executeTransaction(
+          transaction -> {
+            for (int i = 0; i < counts.length; i++) {
+              counts[i] = batch.get(i).execute(transaction);
+            }
+            return true;
+          });
+
+      batchCount.incrementAndGet();
+      statementCount.addAndGet(counts.length);
+      for (int i = 0; i < counts.length; i++) {
+        batch.get(i).future.complete(counts[i]);
+      }
+    } catch (Throwable e) {
+      // The batch is rolled back, execute the statements one by one to find the failed statement.
+      for (Write write : batch) {
+        write.executeAlone(executor);
+      }
+    }
+    batch.clear();
+  }
+
+  /**
+   * Returns count of statements are waiting for commit.
+   *
+   * @return count
+   */
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  /**
+   * Returns count of committed batches.
+   *
+   * @return count
+   */
+  public long getBatchCount() {
+    return batchCount.get();
+  }
+
+  /**
+   * Returns count of statements which are committed in batches.
+   *
+   * @return count
+   */
+  public long getStatementCount() {
+    return statementCount.get();
+  }
+
+  /**
+   * Stop accepting statements and wait until the queued statements are committed. The executor is
+   * not closed.
+   */
+  @Override
+  public void close() {
+    closeLock.writeLock().lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+
+    try {
+      queue.put(STOP);
+      worker.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    // The statements which the worker didn't commit, such as after the worker is interrupted.
+    List<Write> leftover = new ArrayList<>();
+
+    queue.drainTo(leftover);
+    for (Write write : leftover) {
+      if (write != STOP) {
+        write.future.completeExceptionally(
+            new RaConnectException("WriteBehindExecutor is closed before commit."));
+      }
+    }
+  }
+
+  private static class Write {
+    private final String sql;
+    private final Prepared prepared;
+    private final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+    Write(String sql, Prepared prepared) {
+      this.sql = sql;
+      this.prepared = prepared;
+    }
+
+    int execute(Transaction transaction) {
+      return prepared == null
+          ? transaction.executeUpdate(sql)
+          : transaction.prepareExecuteUpdate(prepared);
+    }
+
+    void executeAlone(StatementExecutor executor) {
+      try {
+        future.complete(
+            prepared == null
+                ? executor.executeUpdate(sql)
+                : executor.prepareExecuteUpdate(prepared));
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    }
+  }
+
+  /** Builder. */
+  public static class Builder {
+    private StatementExecutor executor;
+    private int maxBatchSize = 100;
+    private long lingerTime = 5;
+    private int queueCapacity = 10000;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private String name = "WriteBehindExecutor";
+
+    public Builder(StatementExecutor executor) {
+      this.executor = executor;
+    }
+
+    /**
+     * Set the maximum count of statements are committed in a transaction, the default is 100.
+     *
+     * @param maxBatchSize maximum batch size
+     * @return Builder
+     */
+    public Builder setMaxBatchSize(int maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    /**
+     * Set how long (milliseconds) the first statement of a batch waits for the following
+     * statements, the default is 5.
+     *
+     * @param lingerTime linger time
+     * @return Builder
+     */
+    public Builder setLingerTime(long lingerTime) {
+      this.lingerTime = lingerTime;
+      return this;
+    }
+
+    /**
+     * Set the maximum count of statements are waiting for commit, the default is 10000.
+     *
+     * @param queueCapacity queue capacity
+     * @return Builder
+     */
+    public Builder setQueueCapacity(int queueCapacity) {
+      this.queueCapacity = queueCapacity;
+      return this;
+    }
+
+    /**
+     * Set what to do when the queue is full, the default is {@link OverflowPolicy#BLOCK}.
+     *
+     * @param overflowPolicy overflow policy
+     * @return Builder
+     */
+    public Builder setOverflowPolicy(OverflowPolicy overflowPolicy) {
+      this.overflowPolicy = overflowPolicy;
+      return this;
+    }
+
+    /**
+     * Set name of the thread which commits the batches.
+     *
+     * @param name name
+     * @return Builder
+     */
+    public Builder setName(String name) {
+      this.name = name;
+      return this;
+    }
+
+    /**
+     * Build and start the thread which commits the batches.
+     *
+     * @return WriteBehindExecutor
+     */
+    public WriteBehindExecutor build() {
+      if (executor == null) {
+        throw new NullPointerException("executor is required.");
+      }
+      if (overflowPolicy == null) {
+        throw new NullPointerException("overflowPolicy is required.");
+      }
+      if (maxBatchSize < 1) {
+        throw new IllegalArgumentException("maxBatchSize must be greater than 0.");
+      }
+      if (lingerTime < 0) {
+        throw new IllegalArgumentException("lingerTime must not be negative.");
+      }
+      if (queueCapacity < 1) {
+        throw new IllegalArgumentException("queueCapacity must be greater than 0.");
+      }
+
+      WriteBehindExecutor obj = new WriteBehindExecutor();
+
+      obj.executor = executor;
+      obj.maxBatchSize = maxBatchSize;
+      obj.lingerTime = lingerTime;
+      obj.overflowPolicy = overflowPolicy;
+      obj.queue = new ArrayBlockingQueue<>(queueCapacity);
+      obj.worker = new Thread(obj::run, name);
+      obj.worker.setDaemon(true);
+      obj.worker.start();
+
+      return obj;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package ra.db.connection;
+
+/**
+ * Reentrant lock of a connection which can be released by any thread. The thread which acquires
+ * the lock can acquire it again, and a hold can be handed over to a cursor which releases it from
+ * another thread, such as a streaming query which is closed by a writer thread.
+ *
+ * @author Ray Li
+ */
+class ConnectionLock {
+  private Thread owner;
+  private int holds = 0;
+
+  /** Acquire the lock, waits until the other threads release it. */
+  synchronized void lock() {
+    Thread current = Thread.currentThread();
+    boolean interrupted = false;
+
+    while (owner != null && owner != current) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    owner = current;
+    holds++;
+
+    if (interrupted) {
+      current.interrupt();
+    }
+  }
+
+  /**
+   * Acquire the lock only if it is free or held by the current thread.
+   *
+   * @return true if the lock is acquired.
+   */
+  synchronized boolean tryLock() {
+    Thread current = Thread.currentThread();
+
+    if (owner != null && owner != current) {
+      return false;
+    }
+    owner = current;
+    holds++;
+    return true;
+  }
+
+  /**
+   * Release a hold of the lock, it may be called by any thread.
+   *
+   * @throws IllegalStateException if the lock isn't held.
+   */
+  synchronized void unlock() {
+    if (holds == 0) {
+      throw new IllegalStateException("The connection isn't locked.");
+    }
+    if (--holds == 0) {
+      owner = null;
+      notifyAll();
+    }
+  }
+
+  /**
+   * Returns true if the lock is held.
+   *
+   * @return locked
+   */
+  synchronized boolean isLocked() {
+    return holds > 0;
+  }
+}
@@ -3,6 +3,7 @@ package ra.db.connection;
 import java.sql.Connection;
 import java.sql.SQLException;
 import ra.db.DatabaseConnection;
+import ra.db.StatementCache;
 import ra.db.parameter.DatabaseParameters;
 import ra.exception.RaConnectException;
 import ra.exception.RaSqlException;
@@ -16,6 +17,7 @@ import ra.exception.RaSqlException;
 public class OnceConnection implements DatabaseConnection {
   private DatabaseParameters param;
   private Connection connection = null;
+  private StatementCache statementCache;
   private volatile boolean isLive = false;
 
   /**
@@ -26,6 +28,7 @@ public class OnceConnection implements DatabaseConnection {
   public OnceConnection(DatabaseParameters param) {
     this.param = param;
     loadDriveInstance(param);
+    statementCache = createStatementCache(param);
   }
 
   @Override
@@ -38,6 +41,11 @@ public class OnceConnection implements DatabaseConnection {
     return connection;
   }
 
+  @Override
+  public StatementCache getStatementCache() {
+    return statementCache;
+  }
+
   @Override
   public int getConnection(ConnectionFunction consumer) throws RaSqlException, RaConnectException {
     return consumer.applay(getConnection());
@@ -54,6 +62,11 @@ public class OnceConnection implements DatabaseConnection {
       DatabaseParameters param = getParam();
       Connection connectionTemp = null;
 
+      if (statementCache != null) {
+        // Statements are bound to the previous connection.
+        statementCache.clear();
+      }
+
       if (connection == null) {
         connectionTemp = tryGetConnection(param);
         connection = connectionTemp;
@@ -81,6 +94,9 @@ public class OnceConnection implements DatabaseConnection {
   @Override
   public void close() {
     isLive = false;
+    if (statementCache != null) {
+      statementCache.clear();
+    }
     try {
       getConnection().close();
     } catch (SQLException e) {
@@ -2,9 +2,10 @@ package ra.db.connection;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import ra.db.DatabaseHeartbeat;
+import java.util.concurrent.ScheduledFuture;
+import ra.db.HealthCheckScheduler;
 import ra.db.KeepAvailable;
-import ra.db.StatementExecutor;
+import ra.db.StatementCache;
 import ra.db.parameter.DatabaseParameters;
 import ra.exception.RaConnectException;
 import ra.exception.RaSqlException;
@@ -17,12 +18,14 @@ import ra.exception.RaSqlException;
  */
 public class OriginalConnection implements KeepAvailable {
   private boolean startThread = false;
-  private StatementExecutor executor;
   private DatabaseParameters param;
   private Connection connection = null;
+  private StatementCache statementCache;
   private volatile boolean volatileIsLive = false;
 
-  private DatabaseHeartbeat isLive;
+  private volatile long lastActiveTime = 0;
+  private ReconnectBackoff backoff;
+  private ScheduledFuture<?> healthCheck;
 
   /**
    * Initialize.
@@ -32,9 +35,9 @@ public class OriginalConnection implements KeepAvailable {
   public OriginalConnection(DatabaseParameters param) {
     this.param = param;
     loadDriveInstance(param);
-    executor = createStatementExecutor();
-    isLive = new DatabaseHeartbeat(this);
-    isLive.start();
+    statementCache = createStatementCache(param);
+    backoff = new ReconnectBackoff(interval(), interval() * 12);
+    healthCheck = HealthCheckScheduler.getDefault().register(this);
   }
 
   @Override
@@ -47,6 +50,11 @@ public class OriginalConnection implements KeepAvailable {
     return connection;
   }
 
+  @Override
+  public StatementCache getStatementCache() {
+    return statementCache;
+  }
+
   @Override
   public int getConnection(ConnectionFunction consumer) throws RaSqlException, RaConnectException {
     return consumer.applay(getConnection());
@@ -63,6 +71,11 @@ public class OriginalConnection implements KeepAvailable {
       DatabaseParameters param = getParam();
       Connection connectionTemp = null;
 
+      if (statementCache != null) {
+        // Statements are bound to the previous connection.
+        statementCache.clear();
+      }
+
       if (connection == null) {
         connectionTemp = tryGetConnection(param);
         connection = connectionTemp;
@@ -87,27 +100,58 @@ public class OriginalConnection implements KeepAvailable {
     return volatileIsLive;
   }
 
+  @Override
+  public void touch() {
+    lastActiveTime = System.currentTimeMillis();
+  }
+
+  @Override
+  public long getLastActiveTime() {
+    return lastActiveTime;
+  }
+
+  /**
+   * Verify the connection by {@link #ping()}, the connection is skipped if a statement has
+   * completed successfully within the interval. Reconnections are delayed by a randomized backoff
+   * after they fail.
+   */
   @Override
   public void keep() {
-    if (startThread) {
-      try {
-        executor.executeQuery("SELECT 1");
-      } catch (Exception e) {
+    if (!startThread) {
+      return;
+    }
+    if (!volatileIsLive) {
+      if (backoff.isReady()) {
         reconnect();
       }
+      return;
+    }
+    if (System.currentTimeMillis() - lastActiveTime < interval()) {
+      return;
+    }
+    if (!ping()) {
+      reconnect();
     }
   }
 
   private void reconnect() {
     volatileIsLive = false;
-    connect();
+
+    if (connect()) {
+      backoff.reset();
+    } else {
+      backoff.fail();
+    }
   }
 
   @Override
   public void close() throws RaSqlException {
-    isLive.close();
+    healthCheck.cancel(false);
     volatileIsLive = false;
     startThread = false;
+    if (statementCache != null) {
+      statementCache.clear();
+    }
     try {
       getConnection().close();
     } catch (SQLException e) {
@@ -0,0 +1,58 @@
+package ra.db.connection;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delay of the next reconnection after reconnections fail, the delay is doubled by each failure up
+ * to the maximum and randomized, so connections which lost the database at the same time do not
+ * reconnect at the same time.
+ *
+ * @author Ray Li
+ */
+class ReconnectBackoff {
+  private final long base;
+  private final long max;
+  private int failures = 0;
+  private long nextAttempt = 0;
+
+  /**
+   * Initialize.
+   *
+   * @param base delay (milliseconds) after the first failure.
+   * @param max maximum delay (milliseconds)
+   */
+  ReconnectBackoff(long base, long max) {
+    this.base = base;
+    this.max = max;
+  }
+
+  /**
+   * Returns true if the delay after the last failure has passed.
+   *
+   * @return ready
+   */
+  synchronized boolean isReady() {
+    return System.currentTimeMillis() >= nextAttempt;
+  }
+
+  /** Reconnect failed, delay the next reconnection. */
+  synchronized void fail() {
+    long delay = Math.min(max, base << Math.min(failures, 20));
+
+    failures++;
+    // Equal jitter, the delay is in [delay / 2, delay].
+    long jitter = ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+
+    nextAttempt = System.currentTimeMillis() + delay / 2 + jitter;
+  }
+
+  /** Reconnect succeeded. */
+  synchronized void reset() {
+    failures = 0;
+    nextAttempt = 0;
+  }
+
+  synchronized int getFailures() {
+    return failures;
+  }
+}
@@ -49,4 +49,43 @@ public interface DatabaseParameters {
    * @return URL
    */
   public String getDatabaseUrl();
+
+  /**
+   * Returns maximum count of PreparedStatement are cached by each connection, 0 means the cache is
+   * disabled.
+   *
+   * @return cache size
+   */
+  public default int getStatementCacheSize() {
+    return 0;
+  }
+
+  /**
+   * Returns count of statements are sent to database in one round trip when executes a batch.
+   *
+   * @return batch size
+   */
+  public default int getBatchSize() {
+    return 1000;
+  }
+
+  /**
+   * Returns true if several statements can be sent to database in one round trip, separated by
+   * semicolons.
+   *
+   * @return multiple statements are enabled
+   */
+  public default boolean isMultiStatementsEnabled() {
+    return false;
+  }
+
+  /**
+   * Returns the default deadline of a statement executor call in milliseconds, the running
+   * statement is cancelled when it passes.
+   *
+   * @return query timeout in milliseconds, 0 if the statements have no deadline.
+   */
+  public default long getQueryTimeout() {
+    return 0;
+  }
 }
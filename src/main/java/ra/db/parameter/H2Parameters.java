@@ -2,6 +2,7 @@ package ra.db.parameter;
 
 import java.security.InvalidParameterException;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import ra.db.DatabaseCategory;
 
 /**
@@ -17,6 +18,9 @@ public class H2Parameters implements DatabaseParameters, Accountable {
   private String mode;
   private Integer dbPort;
   private Properties dbProperties;
+  private int statementCacheSize;
+  private int batchSize = 1000;
+  private long queryTimeout;
 
   /** Initialize. */
   private H2Parameters() {}
@@ -65,6 +69,21 @@ public class H2Parameters implements DatabaseParameters, Accountable {
     return dbPort;
   }
 
+  @Override
+  public int getStatementCacheSize() {
+    return statementCacheSize;
+  }
+
+  @Override
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  @Override
+  public long getQueryTimeout() {
+    return queryTimeout;
+  }
+
   /**
    * Returns DbSettings.
    *
@@ -116,6 +135,9 @@ public class H2Parameters implements DatabaseParameters, Accountable {
     private String dbPassword;
     private Integer dbPort;
     private Properties dbProperties;
+    private int statementCacheSize;
+    private int batchSize = 1000;
+    private long queryTimeout;
     private String mode;
     private String dbPath;
 
@@ -174,6 +196,48 @@ public class H2Parameters implements DatabaseParameters, Accountable {
       return this;
     }
 
+    /**
+     * Set maximum count of PreparedStatement are cached by each connection, 0 means the cache is
+     * disabled.
+     *
+     * @param size cache size
+     * @return Builder
+     */
+    public Builder setStatementCacheSize(int size) {
+      statementCacheSize = size;
+      return this;
+    }
+
+    /**
+     * Set count of statements are sent to database in one round trip when executes a batch.
+     *
+     * @param size batch size
+     * @return Builder
+     */
+    public Builder setBatchSize(int size) {
+      if (size < 1) {
+        throw new IllegalArgumentException("batchSize must be greater than 0.");
+      }
+      batchSize = size;
+      return this;
+    }
+
+    /**
+     * Set the default deadline of a statement executor call, the running statement is cancelled
+     * when it passes.
+     *
+     * @param timeout timeout, 0 if the statements have no deadline.
+     * @param unit unit of timeout
+     * @return Builder
+     */
+    public Builder setQueryTimeout(long timeout, TimeUnit unit) {
+      if (timeout < 0) {
+        throw new IllegalArgumentException("timeout must be greater than or equal to 0.");
+      }
+      queryTimeout = unit.toMillis(timeout);
+      return this;
+    }
+
     /**
      * Set connection setting and DbSettings.
      *
@@ -275,6 +339,9 @@ public class H2Parameters implements DatabaseParameters, Accountable {
       param.dbName = dbName;
       param.dbUser = dbUser;
       param.dbPassword = dbPassword;
+      param.statementCacheSize = statementCacheSize;
+      param.batchSize = batchSize;
+      param.queryTimeout = queryTimeout;
 
       if (dbPort != null) {
         param.dbPort = dbPort.intValue();
@@ -1,6 +1,7 @@
 package ra.db.parameter;
 
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import ra.db.DatabaseCategory;
 
 /**
@@ -17,6 +18,9 @@ public class MysqlParameters implements DatabaseParameters, Accountable {
   private static final int SOCKET_TIMEOUT = 60000 * 3;
   private static final int CONNECT_TIMEOUT = 60000 * 3;
   private Properties dbProperties;
+  private int statementCacheSize;
+  private int batchSize = 1000;
+  private long queryTimeout;
 
   private MysqlParameters() {}
 
@@ -73,6 +77,26 @@ public class MysqlParameters implements DatabaseParameters, Accountable {
     return dbPort;
   }
 
+  @Override
+  public int getStatementCacheSize() {
+    return statementCacheSize;
+  }
+
+  @Override
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  @Override
+  public long getQueryTimeout() {
+    return queryTimeout;
+  }
+
+  @Override
+  public boolean isMultiStatementsEnabled() {
+    return dbProperties != null && "true".equals(dbProperties.get("allowMultiQueries"));
+  }
+
   @Override
   public String getDatabaseUrl() {
     Properties properties = dbProperties;
@@ -112,7 +136,10 @@ public class MysqlParameters implements DatabaseParameters, Accountable {
             .setName(dbName)
             .setUser(dbUser)
             .setPassword(dbPassword)
-            .setPort(dbPort);
+            .setPort(dbPort)
+            .setStatementCacheSize(statementCacheSize)
+            .setBatchSize(batchSize)
+            .setQueryTimeout(queryTimeout, TimeUnit.MILLISECONDS);
 
     if (dbProperties != null) {
       dbProperties
@@ -135,6 +162,9 @@ public class MysqlParameters implements DatabaseParameters, Accountable {
     private String dbPassword;
     private Integer dbPort;
     private Properties dbProperties;
+    private int statementCacheSize;
+    private int batchSize = 1000;
+    private long queryTimeout;
 
     /**
      * Set host of databases.
@@ -191,6 +221,48 @@ public class MysqlParameters implements DatabaseParameters, Accountable {
       return this;
     }
 
+    /**
+     * Set maximum count of PreparedStatement are cached by each connection, 0 means the cache is
+     * disabled.
+     *
+     * @param size cache size
+     * @return Builder
+     */
+    public Builder setStatementCacheSize(int size) {
+      statementCacheSize = size;
+      return this;
+    }
+
+    /**
+     * Set count of statements are sent to database in one round trip when executes a batch.
+     *
+     * @param size batch size
+     * @return Builder
+     */
+    public Builder setBatchSize(int size) {
+      if (size < 1) {
+        throw new IllegalArgumentException("batchSize must be greater than 0.");
+      }
+      batchSize = size;
+      return this;
+    }
+
+    /**
+     * Set the default deadline of a statement executor call, the running statement is cancelled
+     * when it passes.
+     *
+     * @param timeout timeout, 0 if the statements have no deadline.
+     * @param unit unit of timeout
+     * @return Builder
+     */
+    public Builder setQueryTimeout(long timeout, TimeUnit unit) {
+      if (timeout < 0) {
+        throw new IllegalArgumentException("timeout must be greater than or equal to 0.");
+      }
+      queryTimeout = unit.toMillis(timeout);
+      return this;
+    }
+
     /**
      * Set connection setting and DbSettings.
      *
@@ -217,6 +289,46 @@ public class MysqlParameters implements DatabaseParameters, Accountable {
       return this;
     }
 
+    /**
+     * enable/disable the driver rewrites a batch of INSERT statements into a multi-value INSERT,
+     * which sends the batch in fewer round trips.
+     *
+     * @param enable enable/disable rewriting batched statements.
+     * @return Builder
+     */
+    public Builder setRewriteBatchedStatements(boolean enable) {
+      getProperties().put("rewriteBatchedStatements", String.valueOf(enable));
+      return this;
+    }
+
+    /**
+     * enable/disable LOAD DATA LOCAL INFILE, it is required by {@link ra.db.BulkLoader}.
+     *
+     * @param enable enable/disable loading local data.
+     * @return Builder
+     */
+    public Builder setAllowLoadLocalInfile(boolean enable) {
+      getProperties().put("allowLoadLocalInfile", String.valueOf(enable));
+      return this;
+    }
+
+    /**
+     * enable/disable sending several statements in one round trip, it is used by {@link
+     * ra.db.StatementExecutor#executeQueries(java.util.List)}.
+     *
+     * <p><b>Security:</b> the driver accepts stacked statements in every SQL of the connection, not
+     * only in executeQueries, so a SQL injection in any executeUpdate or executeQuery can run
+     * arbitrary statements, such as {@code ; DROP TABLE user}. Enable it only for connections which
+     * never concatenate untrusted input into SQL, or use prepared statements for such input.
+     *
+     * @param enable enable/disable multiple statements.
+     * @return Builder
+     */
+    public Builder setAllowMultiQueries(boolean enable) {
+      getProperties().put("allowMultiQueries", String.valueOf(enable));
+      return this;
+    }
+
     private Properties getProperties() {
       if (dbProperties == null) {
         dbProperties = new Properties();
@@ -236,6 +348,9 @@ public class MysqlParameters implements DatabaseParameters, Accountable {
       param.dbName = dbName;
       param.dbUser = dbUser;
       param.dbPassword = dbPassword;
+      param.statementCacheSize = statementCacheSize;
+      param.batchSize = batchSize;
+      param.queryTimeout = queryTimeout;
 
       if (dbPort != null) {
         param.dbPort = dbPort.intValue();
@@ -0,0 +1,620 @@
+package ra.db.record;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Values of one column of {@link RecordSet}, numeric values are stored in primitive arrays, strings
+ * and bytes are stored in one buffer of the column with the offsets of the rows, and the null
+ * values are marked in a bitmap. A SQL NULL of a primitive type is read as 0 or false like
+ * {@link JdbcTypeWrapper#getValue}, and it is reported by {@link #isNull(int)}.
+ *
+ * @author Ray Li
+ */
+abstract class Column {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+  protected final int sqlType;
+  protected final BitSet nulls;
+
+  /**
+   * Initialize.
+   *
+   * @param sqlType type of {@link java.sql.Types}
+   */
+  protected Column(int sqlType) {
+    this.sqlType = sqlType;
+    nulls = new BitSet();
+  }
+
+  /**
+   * Create the column which stores the values of the type, it is chosen from the class of {@link
+   * JdbcTypeWrapper#getClass(int)}.
+   *
+   * @param sqlType type of {@link java.sql.Types}
+   * @return Column
+   */
+  static Column of(int sqlType) {
+    Class<?> cls = JdbcTypeWrapper.getClass(sqlType);
+
+    if (cls == Long.class) {
+      return sqlType == Types.SMALLINT || sqlType == Types.TINYINT
+          ? new IntColumn(sqlType)
+          : new LongColumn(sqlType);
+    }
+    if (cls == Double.class) {
+      return new DoubleColumn(sqlType);
+    }
+    if (cls == Boolean.class) {
+      return new BooleanColumn(sqlType);
+    }
+    if (cls == String.class) {
+      return new StringColumn(sqlType);
+    }
+    if (cls == byte[].class) {
+      return new BytesColumn(sqlType);
+    }
+    return new ObjectColumn(sqlType);
+  }
+
+  /**
+   * Read the value of current row of the result.
+   *
+   * @param result result
+   * @param columnIndex index of column in the result
+   * @param row row index
+   * @throws SQLException SQLException
+   */
+  abstract void read(ResultSet result, int columnIndex, int row) throws SQLException;
+
+  /**
+   * Returns the boxed value.
+   *
+   * @param row row index
+   * @return value, null if the value is a null object.
+   */
+  abstract Object get(int row);
+
+  /**
+   * Release the unused capacity.
+   *
+   * @param size count of rows
+   */
+  abstract void trim(int size);
+
+  /**
+   * Returns estimated heap usage of the values.
+   *
+   * @return bytes
+   */
+  abstract long sizeInBytes();
+
+  /**
+   * Returns true if the value is SQL NULL.
+   *
+   * @param row row index
+   * @return null
+   */
+  boolean isNull(int row) {
+    return nulls.get(row) || get(row) == null;
+  }
+
+  /**
+   * Returns true if the value isn't a null object, the values of primitive types are never null
+   * objects.
+   *
+   * @param row row index
+   * @return has value
+   */
+  boolean hasValue(int row) {
+    return get(row) != null;
+  }
+
+  long getLong(int row) {
+    Object obj = get(row);
+
+    if (obj instanceof Long) {
+      return (long) obj;
+    }
+    return Long.parseLong(obj.toString());
+  }
+
+  int getInt(int row) {
+    return Integer.parseInt(get(row).toString());
+  }
+
+  float getFloat(int row) {
+    return Float.parseFloat(get(row).toString());
+  }
+
+  double getDouble(int row) {
+    Object obj = get(row);
+
+    if (obj instanceof Double) {
+      return (double) obj;
+    }
+    return Double.parseDouble(obj.toString());
+  }
+
+  static int grow(int capacity, int row) {
+    int size = Math.max(capacity, INITIAL_CAPACITY);
+
+    while (size <= row) {
+      size = size << 1;
+    }
+    return size;
+  }
+
+  /**
+   * Returns the capacity of a buffer which holds the required length.
+   *
+   * @param capacity current capacity
+   * @param required required length
+   * @return capacity
+   * @throws OutOfMemoryError if the required length exceeds the maximum size of an array.
+   */
+  static int capacity(int capacity, long required) {
+    if (required > MAX_ARRAY_SIZE) {
+      throw new OutOfMemoryError("Column buffer exceeds the maximum size, required=" + required);
+    }
+
+    long size = Math.max(capacity, INITIAL_CAPACITY);
+
+    while (size < required) {
+      size = size << 1;
+    }
+    return (int) Math.min(size, MAX_ARRAY_SIZE);
+  }
+
+  long nullsInBytes() {
+    return nulls.size() / 8;
+  }
+
+  /** BIGINT and INTEGER. */
+  static final class LongColumn extends Column {
+    private long[] values = new long[0];
+
+    LongColumn(int sqlType) {
+      super(sqlType);
+    }
+
+    @Override
+    void read(ResultSet result, int columnIndex, int row) throws SQLException {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row));
+      }
+      values[row] = result.getLong(columnIndex);
+
+      if (result.wasNull()) {
+        nulls.set(row);
+      }
+    }
+
+    @Override
+    Object get(int row) {
+      return values[row];
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return nulls.get(row);
+    }
+
+    @Override
+    boolean hasValue(int row) {
+      return true;
+    }
+
+    @Override
+    long getLong(int row) {
+      return values[row];
+    }
+
+    @Override
+    int getInt(int row) {
+      long value = values[row];
+
+      if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+        throw new NumberFormatException("For input string: \"" + value + "\"");
+      }
+      return (int) value;
+    }
+
+    @Override
+    float getFloat(int row) {
+      return values[row];
+    }
+
+    @Override
+    double getDouble(int row) {
+      return values[row];
+    }
+
+    @Override
+    void trim(int size) {
+      values = Arrays.copyOf(values, size);
+    }
+
+    @Override
+    long sizeInBytes() {
+      return 8L * values.length + nullsInBytes();
+    }
+  }
+
+  /** SMALLINT and TINYINT, the values are returned as Long as the other integer types. */
+  static final class IntColumn extends Column {
+    private int[] values = new int[0];
+
+    IntColumn(int sqlType) {
+      super(sqlType);
+    }
+
+    @Override
+    void read(ResultSet result, int columnIndex, int row) throws SQLException {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row));
+      }
+      values[row] = (int) result.getLong(columnIndex);
+
+      if (result.wasNull()) {
+        nulls.set(row);
+      }
+    }
+
+    @Override
+    Object get(int row) {
+      return (long) values[row];
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return nulls.get(row);
+    }
+
+    @Override
+    boolean hasValue(int row) {
+      return true;
+    }
+
+    @Override
+    long getLong(int row) {
+      return values[row];
+    }
+
+    @Override
+    int getInt(int row) {
+      return values[row];
+    }
+
+    @Override
+    float getFloat(int row) {
+      return values[row];
+    }
+
+    @Override
+    double getDouble(int row) {
+      return values[row];
+    }
+
+    @Override
+    void trim(int size) {
+      values = Arrays.copyOf(values, size);
+    }
+
+    @Override
+    long sizeInBytes() {
+      return 4L * values.length + nullsInBytes();
+    }
+  }
+
+  /** DOUBLE and FLOAT. */
+  static final class DoubleColumn extends Column {
+    private double[] values = new double[0];
+
+    DoubleColumn(int sqlType) {
+      super(sqlType);
+    }
+
+    @Override
+    void read(ResultSet result, int columnIndex, int row) throws SQLException {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row));
+      }
+      values[row] = result.getDouble(columnIndex);
+
+      if (result.wasNull()) {
+        nulls.set(row);
+      }
+    }
+
+    @Override
+    Object get(int row) {
+      return values[row];
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return nulls.get(row);
+    }
+
+    @Override
+    boolean hasValue(int row) {
+      return true;
+    }
+
+    @Override
+    float getFloat(int row) {
+      return (float) values[row];
+    }
+
+    @Override
+    double getDouble(int row) {
+      return values[row];
+    }
+
+    @Override
+    void trim(int size) {
+      values = Arrays.copyOf(values, size);
+    }
+
+    @Override
+    long sizeInBytes() {
+      return 8L * values.length + nullsInBytes();
+    }
+  }
+
+  /** BOOLEAN, the values are stored in a bitmap. */
+  static final class BooleanColumn extends Column {
+    private final BitSet values = new BitSet();
+    private int size = 0;
+
+    BooleanColumn(int sqlType) {
+      super(sqlType);
+    }
+
+    @Override
+    void read(ResultSet result, int columnIndex, int row) throws SQLException {
+      values.set(row, result.getBoolean(columnIndex));
+
+      if (result.wasNull()) {
+        nulls.set(row);
+      }
+      size = Math.max(size, row + 1);
+    }
+
+    @Override
+    Object get(int row) {
+      if (row < 0 || row >= size) {
+        throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + size);
+      }
+      return values.get(row);
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return nulls.get(row);
+    }
+
+    @Override
+    void trim(int size) {}
+
+    @Override
+    long sizeInBytes() {
+      return values.size() / 8 + nullsInBytes();
+    }
+  }
+
+  /**
+   * CHAR and VARCHAR, the characters of all rows are stored in one buffer, so a row doesn't keep a
+   * String object. The String is created when the value is read.
+   */
+  static final class StringColumn extends Column {
+    private char[] chars = new char[0];
+    private int[] offsets = new int[1];
+    private int size = 0;
+
+    StringColumn(int sqlType) {
+      super(sqlType);
+    }
+
+    @Override
+    void read(ResultSet result, int columnIndex, int row) throws SQLException {
+      String value = result.getString(columnIndex);
+      int length = value == null ? 0 : value.length();
+
+      int start = append(row, length);
+
+      if (value == null) {
+        nulls.set(row);
+      } else {
+        value.getChars(0, length, chars, start);
+      }
+    }
+
+    /** Returns the start of the row in the buffer, the skipped rows are empty. */
+    private int append(int row, int length) {
+      if (row + 1 >= offsets.length) {
+        offsets = Arrays.copyOf(offsets, grow(offsets.length, row + 1));
+      }
+      while (size < row) {
+        offsets[size + 1] = offsets[size];
+        size++;
+      }
+
+      int start = offsets[size];
+
+      if (start + (long) length > chars.length) {
+        chars = Arrays.copyOf(chars, capacity(chars.length, start + (long) length));
+      }
+      offsets[++size] = start + length;
+      return start;
+    }
+
+    @Override
+    Object get(int row) {
+      if (row < 0 || row >= size) {
+        throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + size);
+      }
+      if (nulls.get(row)) {
+        return null;
+      }
+      return new String(chars, offsets[row], offsets[row + 1] - offsets[row]);
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return nulls.get(row);
+    }
+
+    @Override
+    boolean hasValue(int row) {
+      return !nulls.get(row);
+    }
+
+    @Override
+    void trim(int size) {
+      offsets = Arrays.copyOf(offsets, this.size + 1);
+      chars = Arrays.copyOf(chars, offsets[this.size]);
+    }
+
+    @Override
+    long sizeInBytes() {
+      return 2L * chars.length + 4L * offsets.length + nullsInBytes();
+    }
+  }
+
+  /**
+   * BINARY, VARBINARY and BLOB, the bytes of all rows are stored in one buffer. A copy of the bytes
+   * is returned when the value is read.
+   */
+  static final class BytesColumn extends Column {
+    private byte[] bytes = new byte[0];
+    private int[] offsets = new int[1];
+    private int size = 0;
+
+    BytesColumn(int sqlType) {
+      super(sqlType);
+    }
+
+    @Override
+    void read(ResultSet result, int columnIndex, int row) throws SQLException {
+      byte[] value = result.getBytes(columnIndex);
+      int length = value == null ? 0 : value.length;
+
+      int start = append(row, length);
+
+      if (value == null) {
+        nulls.set(row);
+      } else {
+        System.arraycopy(value, 0, bytes, start, length);
+      }
+    }
+
+    /** Returns the start of the row in the buffer, the skipped rows are empty. */
+    private int append(int row, int length) {
+      if (row + 1 >= offsets.length) {
+        offsets = Arrays.copyOf(offsets, grow(offsets.length, row + 1));
+      }
+      while (size < row) {
+        offsets[size + 1] = offsets[size];
+        size++;
+      }
+
+      int start = offsets[size];
+
+      if (start + (long) length > bytes.length) {
+        bytes = Arrays.copyOf(bytes, capacity(bytes.length, start + (long) length));
+      }
+      offsets[++size] = start + length;
+      return start;
+    }
+
+    @Override
+    Object get(int row) {
+      if (row < 0 || row >= size) {
+        throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + size);
+      }
+      if (nulls.get(row)) {
+        return null;
+      }
+      return Arrays.copyOfRange(bytes, offsets[row], offsets[row + 1]);
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return nulls.get(row);
+    }
+
+    @Override
+    boolean hasValue(int row) {
+      return !nulls.get(row);
+    }
+
+    @Override
+    void trim(int size) {
+      offsets = Arrays.copyOf(offsets, this.size + 1);
+      bytes = Arrays.copyOf(bytes, offsets[this.size]);
+    }
+
+    @Override
+    long sizeInBytes() {
+      return bytes.length + 4L * offsets.length + nullsInBytes();
+    }
+  }
+
+  /** The other types are stored as the objects of {@link JdbcTypeWrapper#getValue}. */
+  static final class ObjectColumn extends Column {
+    private Object[] values = new Object[0];
+    private long contentBytes = 0;
+
+    ObjectColumn(int sqlType) {
+      super(sqlType);
+    }
+
+    @Override
+    void read(ResultSet result, int columnIndex, int row) throws SQLException {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row));
+      }
+      Object value = JdbcTypeWrapper.getValue(result, sqlType, columnIndex);
+
+      values[row] = value;
+      contentBytes += estimate(value);
+
+      if (result.wasNull()) {
+        nulls.set(row);
+      }
+    }
+
+    @Override
+    Object get(int row) {
+      return values[row];
+    }
+
+    @Override
+    void trim(int size) {
+      values = Arrays.copyOf(values, size);
+    }
+
+    @Override
+    long sizeInBytes() {
+      return 8L * values.length + contentBytes;
+    }
+
+    private static long estimate(Object value) {
+      if (value == null) {
+        return 0;
+      }
+      if (value instanceof String) {
+        return 40 + 2L * ((String) value).length();
+      }
+      if (value instanceof byte[]) {
+        return 16 + ((byte[]) value).length;
+      }
+      return 32;
+    }
+  }
+}
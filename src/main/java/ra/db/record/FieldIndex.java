@@ -0,0 +1,68 @@
+package ra.db.record;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import ra.exception.RaSqlException;
+
+/**
+ * Resolves the index of a field by the field names, it is used by the default index accessors of
+ * {@link RecordCursor} and {@link RowSet}.
+ *
+ * @author Ray Li
+ */
+final class FieldIndex {
+  private FieldIndex() {}
+
+  /**
+   * Returns the index of the field.
+   *
+   * @param fieldNames field names, such as {@link RecordCursor#fieldNames(Consumer)}.
+   * @param name field name
+   * @return index (range : 1 ~ field count)
+   * @throws RaSqlException if the field does not exist.
+   */
+  static int find(Consumer<Consumer<String>> fieldNames, String name) {
+    Objects.requireNonNull(name, "name must not be null");
+
+    int[] index = {0, 0};
+
+    fieldNames.accept(
+        fieldName -> {
+          index[1]++;
+          if (index[0] == 0 && name.equals(fieldName)) {
+            index[0] = index[1];
+          }
+        });
+
+    if (index[0] == 0) {
+      throw new RaSqlException("fieldName '" + name + "' does not exist.");
+    }
+    return index[0];
+  }
+
+  /**
+   * Returns the name of the field.
+   *
+   * @param fieldNames field names, such as {@link RecordCursor#fieldNames(Consumer)}.
+   * @param index index (range : 1 ~ field count)
+   * @return field name
+   * @throws RaSqlException if the index is out of range.
+   */
+  static String name(Consumer<Consumer<String>> fieldNames, int index) {
+    String[] name = new String[1];
+    int[] count = {0};
+
+    fieldNames.accept(
+        fieldName -> {
+          if (++count[0] == index) {
+            name[0] = fieldName;
+          }
+        });
+
+    if (index < 1 || index > count[0]) {
+      throw new RaSqlException(
+          "Field index " + index + " is out of range, field count is " + count[0] + ".");
+    }
+    return name[0];
+  }
+}
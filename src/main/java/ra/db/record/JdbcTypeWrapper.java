@@ -69,6 +69,31 @@ public class JdbcTypeWrapper {
     return Object.class;
   }
 
+  /**
+   * Returns the value which {@link #getValue(ResultSet, int, int)} returns for a SQL NULL, the
+   * primitive types are read as 0 or false by JDBC.
+   *
+   * @param sqlType sql type
+   * @return value of SQL NULL
+   */
+  public static Object getNullValue(int sqlType) {
+    Class<?> cls = getClass(sqlType);
+
+    if (cls == Long.class) {
+      return 0L;
+    }
+    if (cls == Double.class) {
+      return 0.0;
+    }
+    if (cls == Boolean.class) {
+      return false;
+    }
+    if (cls == Byte.class) {
+      return (byte) 0;
+    }
+    return null;
+  }
+
   /**
    * Get the Java class corresponding to the value from the {@link java.sql.Types} code.
    *
@@ -116,6 +116,99 @@ public interface RecordCursor extends Closeable {
    */
   public Object fieldObject(String name);
 
+  /**
+   * Returns the index of the field, the index can be used to read the field repeatedly without
+   * looking up the name again. The defaults of the index accessors resolve the name of the index
+   * by {@link #fieldNames(Consumer)}, the implementations read the field directly.
+   *
+   * @param name Field name
+   * @return index (range : 1 ~ field count - 1)
+   * @throws ra.exception.RaSqlException if the field does not exist.
+   */
+  public default int findColumn(String name) {
+    return FieldIndex.find(this::fieldNames, name);
+  }
+
+  /**
+   * Verify whether the value of the field index is null.
+   *
+   * @param index Field index
+   * @return boolean
+   */
+  public default boolean isNull(int index) {
+    return isNull(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Get value by specified field index. If field value is null will return null.
+   *
+   * @param index Field index
+   * @return bytes
+   */
+  public default byte[] fieldBytes(int index) {
+    return fieldBytes(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Get value by specified field index, integer values are returned without parsing.
+   *
+   * @param index Field index
+   * @return long
+   */
+  public default long fieldLong(int index) {
+    return fieldLong(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Get value by specified field index, integer values are returned without parsing.
+   *
+   * @param index Field index
+   * @return int
+   */
+  public default int fieldInt(int index) {
+    return fieldInt(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Get value by specified field index.
+   *
+   * @param index Field index
+   * @return float
+   */
+  public default float fieldFloat(int index) {
+    return fieldFloat(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Get value by specified field index, numeric values are returned without parsing.
+   *
+   * @param index Field index
+   * @return double
+   */
+  public default double fieldDouble(int index) {
+    return fieldDouble(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Get value by specified field index. If field value is null will return null.
+   *
+   * @param index Field index
+   * @return BigDecimal
+   */
+  public default BigDecimal fieldBigDecimal(int index) {
+    return fieldBigDecimal(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Get value by specified field index. If field value is null will return null.
+   *
+   * @param index Field index
+   * @return Object
+   */
+  public default Object fieldObject(int index) {
+    return fieldObject(FieldIndex.name(this::fieldNames, index));
+  }
+
   /** Next row. */
   public void next();
 
@@ -176,4 +269,15 @@ public interface RecordCursor extends Closeable {
    * @return Stream
    */
   public Stream<RowSet> parallelStream();
+
+  /**
+   * Returns ordered stream of the objects which are mapped from the rows by {@link RowMapper}.
+   *
+   * @param <T> type of objects
+   * @param type class of objects
+   * @return Stream
+   */
+  public default <T> Stream<T> stream(Class<T> type) {
+    return RowMapper.of(type).stream(this);
+  }
 }
@@ -0,0 +1,134 @@
+package ra.db.record;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes the rows of a {@link RecordCursor} as a JSON array of objects, one row at a time, so the
+ * result is not copied into a JSON tree or a whole string. The fields are written in the order of
+ * the columns, numbers and booleans are written as JSON literals, bytes as Base64 strings and the
+ * other values as strings.
+ *
+ * <pre>
+ * [{"id":1,"name":"ray"},{"id":2,"name":null}]
+ * </pre>
+ *
+ * @author Ray Li
+ */
+public class RecordJsonWriter {
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private RecordJsonWriter() {}
+
+  /**
+   * Write all rows of the record, the current row index of the record is not moved.
+   *
+   * @param record record
+   * @param out output, it isn't flushed or closed.
+   * @throws IOException IOException
+   */
+  public static void write(RecordCursor record, Writer out) throws IOException {
+    List<String> names = new ArrayList<>();
+
+    record.fieldNames(names::add);
+
+    // The keys are escaped once and reused by every row.
+    String[] keys = new String[names.size()];
+
+    for (int i = 0; i < keys.length; i++) {
+      StringBuilder key = new StringBuilder();
+
+      key.append(i == 0 ? "{" : ",");
+      appendString(key, names.get(i));
+      key.append(':');
+      keys[i] = key.toString();
+    }
+
+    out.write('[');
+    try (Stream<RowSet> stream = record.stream()) {
+      Iterator<RowSet> rows = stream.iterator();
+      StringBuilder buffer = new StringBuilder();
+      boolean first = true;
+
+      while (rows.hasNext()) {
+        RowSet row = rows.next();
+
+        buffer.setLength(0);
+        if (!first) {
+          buffer.append(',');
+        }
+        first = false;
+
+        for (int i = 0; i < keys.length; i++) {
+          buffer.append(keys[i]);
+          appendValue(buffer, row.getObject(i + 1));
+        }
+        buffer.append(keys.length == 0 ? "{}" : "}");
+        out.append(buffer);
+      }
+    }
+    out.write(']');
+  }
+
+  private static void appendValue(StringBuilder buffer, Object value) {
+    if (value == null) {
+      buffer.append("null");
+    } else if (value instanceof Double || value instanceof Float) {
+      double number = ((Number) value).doubleValue();
+
+      // JSON has no NaN or Infinity.
+      buffer.append(Double.isNaN(number) || Double.isInfinite(number) ? "null" : value);
+    } else if (value instanceof BigDecimal) {
+      buffer.append(((BigDecimal) value).toString());
+    } else if (value instanceof Number || value instanceof Boolean) {
+      buffer.append(value);
+    } else if (value instanceof byte[]) {
+      buffer.append('"').append(Base64.getEncoder().encodeToString((byte[]) value)).append('"');
+    } else {
+      appendString(buffer, String.valueOf(value));
+    }
+  }
+
+  private static void appendString(StringBuilder buffer, String text) {
+    buffer.append('"');
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+
+      switch (c) {
+        case '"':
+          buffer.append("\\\"");
+          break;
+        case '\\':
+          buffer.append("\\\\");
+          break;
+        case '\n':
+          buffer.append("\\n");
+          break;
+        case '\r':
+          buffer.append("\\r");
+          break;
+        case '\t':
+          buffer.append("\\t");
+          break;
+        default:
+          if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+            buffer
+                .append("\\u")
+                .append(HEX[c >> 12 & 0xF])
+                .append(HEX[c >> 8 & 0xF])
+                .append(HEX[c >> 4 & 0xF])
+                .append(HEX[c & 0xF]);
+          } else {
+            buffer.append(c);
+          }
+      }
+    }
+    buffer.append('"');
+  }
+}
@@ -11,6 +11,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -22,14 +23,16 @@ import ra.db.DatabaseCategory;
 import ra.exception.RaSqlException;
 
 /**
- * The record of query database.
+ * The record of query database, values are stored by columns and numeric values are kept in
+ * primitive arrays.
  *
  * @author Ray Li
  */
 public class RecordSet implements Record {
   private int cursor = 0;
   private int count = 0;
-  private Map<String, List<Object>> table;
+  private Column[] columns = new Column[0];
+  private Map<String, Integer> columnIndex = Collections.emptyMap();
   private String[] columnName;
   private Map<String, Integer> columnTypes;
   private DatabaseCategory dbCategory;
@@ -42,14 +45,16 @@ public class RecordSet implements Record {
   public RecordSet(DatabaseCategory category) {
     dbCategory = category;
     columnTypes = new ConcurrentHashMap<>();
-    table = newTable();
   }
 
   /**
    * Create record table.
    *
    * @return map
+   * @deprecated values are stored by columns of primitive arrays, the table is not used. {@link
+   *     #convert(ResultSet)} no longer calls it, so an override has no effect.
    */
+  @Deprecated
   protected Map<String, List<Object>> newTable() {
     return new ConcurrentHashMap<>();
   }
@@ -58,7 +63,10 @@ public class RecordSet implements Record {
    * Create column container.
    *
    * @return list
+   * @deprecated values are stored by columns of primitive arrays, the container is not used.
+   *     {@link #convert(ResultSet)} no longer calls it, so an override has no effect.
    */
+  @Deprecated
   protected List<Object> newColumnContainer() {
     return Collections.synchronizedList(new ArrayList<Object>());
   }
@@ -83,16 +91,22 @@ public class RecordSet implements Record {
   }
 
   /**
-   * If the query database specifies a field name and its value is null, it will return null.
+   * Returns true if the value of the field is SQL NULL or the field does not exist, the SQL NULL of
+   * a numeric or boolean field is read as 0 or false.
    *
    * @param name Field name
    * @return boolean
    */
   @Override
   public boolean isNull(String name) {
-    Object obj = getObject(name, cursor);
+    Column column = getColumn(name);
 
-    return obj == null;
+    return column == null || column.isNull(cursor);
+  }
+
+  @Override
+  public boolean isNull(int index) {
+    return getColumn(index).isNull(cursor);
   }
 
   /**
@@ -106,26 +120,45 @@ public class RecordSet implements Record {
     ResultSetMetaData meta = result.getMetaData();
     int columnNum = meta.getColumnCount();
     String[] name = new String[columnNum + 1];
-    int[] types = new int[columnNum + 1];
+    Column[] values = new Column[columnNum + 1];
+    Map<String, Integer> index = new HashMap<>();
+    int rows = 0;
 
     for (int i = 1; i <= columnNum; i++) {
       name[i] = meta.getColumnLabel(i);
-      types[i] = meta.getColumnType(i);
-      columnTypes.put(name[i], types[i]);
-
-      table.put(name[i], newColumnContainer());
+      columnTypes.put(name[i], meta.getColumnType(i));
+      values[i] = Column.of(meta.getColumnType(i));
+      index.put(name[i], i);
     }
 
     while (result.next()) {
-      count++;
       for (int i = 1; i <= columnNum; i++) {
-        List<Object> tmp = table.get(name[i]);
-        Object value = JdbcTypeWrapper.getValue(result, types[i], i);
-
-        tmp.add(value);
+        values[i].read(result, i, rows);
       }
+      rows++;
     }
+
+    for (int i = 1; i <= columnNum; i++) {
+      values[i].trim(rows);
+    }
+    columns = values;
+    columnIndex = index;
     columnName = name;
+    count = rows;
+  }
+
+  /**
+   * Returns estimated heap usage of the values.
+   *
+   * @return bytes
+   */
+  public long getSizeInBytes() {
+    long size = 0;
+
+    for (int i = 1; i < columns.length; i++) {
+      size += columns[i].sizeInBytes();
+    }
+    return size;
   }
 
   /**
@@ -135,7 +168,7 @@ public class RecordSet implements Record {
    */
   @Override
   public String field(int index) {
-    return field(columnName[index]);
+    return toString(getColumn(index), cursor);
   }
 
   /**
@@ -147,7 +180,11 @@ public class RecordSet implements Record {
    */
   @Override
   public String field(String name) {
-    Object ret = getObject(name, cursor);
+    return toString(getColumn(name), cursor);
+  }
+
+  private String toString(Column column, int row) {
+    Object ret = column == null ? null : column.get(row);
 
     if (ret == null) {
       return null;
@@ -165,7 +202,16 @@ public class RecordSet implements Record {
    */
   @Override
   public byte[] fieldBytes(String name) {
-    Object obj = getObject(name, cursor);
+    return toBytes(getColumn(name), name, cursor);
+  }
+
+  @Override
+  public byte[] fieldBytes(int index) {
+    return toBytes(getColumn(index), columnName[index], cursor);
+  }
+
+  private byte[] toBytes(Column column, String name, int row) {
+    Object obj = column == null ? null : column.get(row);
 
     if (obj == null) {
       return null;
@@ -179,63 +225,92 @@ public class RecordSet implements Record {
 
   @Override
   public long fieldLong(String name) {
-    Object obj = getObject(name, cursor);
+    return toLong(getColumn(name), name, cursor);
+  }
 
-    if (obj == null) {
+  @Override
+  public long fieldLong(int index) {
+    return toLong(getColumn(index), columnName[index], cursor);
+  }
+
+  private long toLong(Column column, String name, int row) {
+    if (column == null || !column.hasValue(row)) {
       throw new RaSqlException(
           "The value is null, fieldName '" + name + "' cannot be converted to a Long.");
     }
 
-    if (obj instanceof Long) {
-      return (long) obj;
-    }
-
-    return Long.parseLong(obj.toString());
+    return column.getLong(row);
   }
 
   @Override
   public int fieldInt(String name) throws NumberFormatException {
-    Object obj = getObject(name, cursor);
+    return toInt(getColumn(name), name, cursor);
+  }
 
-    if (obj == null) {
+  @Override
+  public int fieldInt(int index) throws NumberFormatException {
+    return toInt(getColumn(index), columnName[index], cursor);
+  }
+
+  private int toInt(Column column, String name, int row) {
+    if (column == null || !column.hasValue(row)) {
       throw new RaSqlException(
           "The value is null, fieldName '" + name + "' cannot be converted to an Integer.");
     }
 
-    return Integer.parseInt(obj.toString());
+    return column.getInt(row);
   }
 
   @Override
   public float fieldFloat(String name) {
-    Object obj = getObject(name, cursor);
+    return toFloat(getColumn(name), name, cursor);
+  }
 
-    if (obj == null) {
+  @Override
+  public float fieldFloat(int index) {
+    return toFloat(getColumn(index), columnName[index], cursor);
+  }
+
+  private float toFloat(Column column, String name, int row) {
+    if (column == null || !column.hasValue(row)) {
       throw new RaSqlException(
           "The value is null, fieldName '" + name + "' cannot be converted to a Float.");
     }
 
-    return Float.parseFloat(obj.toString());
+    return column.getFloat(row);
   }
 
   @Override
   public double fieldDouble(String name) {
-    Object obj = getObject(name, cursor);
+    return toDouble(getColumn(name), name, cursor);
+  }
 
-    if (obj == null) {
+  @Override
+  public double fieldDouble(int index) {
+    return toDouble(getColumn(index), columnName[index], cursor);
+  }
+
+  private double toDouble(Column column, String name, int row) {
+    if (column == null || !column.hasValue(row)) {
       throw new RaSqlException(
           "The value is null, fieldName '" + name + "' cannot be converted to a Double.");
     }
 
-    if (obj instanceof Double) {
-      return (double) obj;
-    }
-
-    return Double.parseDouble(obj.toString());
+    return column.getDouble(row);
   }
 
   @Override
   public BigDecimal fieldBigDecimal(String name) {
-    Object obj = getObject(name, cursor);
+    return toBigDecimal(getColumn(name), cursor);
+  }
+
+  @Override
+  public BigDecimal fieldBigDecimal(int index) {
+    return toBigDecimal(getColumn(index), cursor);
+  }
+
+  private BigDecimal toBigDecimal(Column column, int row) {
+    Object obj = column == null ? null : column.get(row);
 
     if (obj == null) {
       return null;
@@ -250,7 +325,11 @@ public class RecordSet implements Record {
 
   @Override
   public <T> List<T> fieldArray(String name, Class<T[]> castClass) {
-    Array obj = (Array) getObject(name, cursor);
+    return toList(getObject(name, cursor), name, castClass);
+  }
+
+  private <T> List<T> toList(Object value, String name, Class<T[]> castClass) {
+    Array obj = (Array) value;
 
     if (obj == null) {
       return null;
@@ -270,18 +349,47 @@ public class RecordSet implements Record {
     return getObject(name, cursor);
   }
 
+  @Override
+  public Object fieldObject(int index) {
+    return getColumn(index).get(cursor);
+  }
+
+  @Override
+  public int findColumn(String name) {
+    Integer index = columnIndex.get(Objects.requireNonNull(name, "name must not be null"));
+
+    if (index == null) {
+      throw new RaSqlException("fieldName '" + name + "' does not exist.");
+    }
+    return index;
+  }
+
   private Object getObject(String fieldName, int c) {
+    Column column = getColumn(fieldName);
+
+    if (column == null) {
+      return null;
+    }
+
+    return column.get(c);
+  }
+
+  private Column getColumn(String fieldName) {
     if (fieldName == null) {
       throw new RaSqlException("fieldName can't be null");
     }
 
-    List<Object> v = table.get(fieldName);
+    Integer index = columnIndex.get(fieldName);
 
-    if (v == null) {
-      return null;
-    }
+    return index == null ? null : columns[index];
+  }
 
-    return v.get(c);
+  private Column getColumn(int index) {
+    if (index < 1 || index >= columns.length) {
+      throw new RaSqlException(
+          "Field index " + index + " is out of range, field count is " + columns.length + ".");
+    }
+    return columns[index];
   }
 
   /** Add one up the current row index. */
@@ -370,16 +478,54 @@ public class RecordSet implements Record {
     }
   }
 
-  /** Return the serialization stream in SQL statement execute finish. */
+  /**
+   * Return the serialization stream in SQL statement execute finish, the rows are read without
+   * moving the current row index.
+   */
   @Override
   public Stream<RowSet> stream() {
-    return StreamSupport.stream(new RecordSpliterator<RecordSet>(this, 0, count), false);
+    return StreamSupport.stream(
+        new RecordSpliterator<RecordSet>(this, 0, count, this::getRow), false);
   }
 
-  /** Return the parallel stream in SQL statement execute finish. */
+  /**
+   * Return the parallel stream in SQL statement execute finish, each row is read at its own
+   * position so the rows are processed without lock.
+   */
   @Override
   public Stream<RowSet> parallelStream() {
-    return StreamSupport.stream(new RecordSpliterator<RecordSet>(this, 0, count), true);
+    return StreamSupport.stream(
+        new RecordSpliterator<RecordSet>(this, 0, count, this::getRow), true);
+  }
+
+  /**
+   * Returns the row of the index, the row does not depend on the current row index.
+   *
+   * @param index row index (range : 0 ~ record count - 1)
+   * @return RowSet
+   */
+  public RowSet getRow(int index) {
+    if (index < 0 || index >= count) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+    }
+    return new PositionRow(columns, columnIndex, index);
+  }
+
+  /**
+   * Returns a new record which shares the values with this record, the new record has its own
+   * current row index and closing one of them does not affect the other.
+   *
+   * @return RecordSet
+   */
+  public RecordSet duplicate() {
+    RecordSet record = new RecordSet(dbCategory);
+
+    record.columns = columns;
+    record.columnIndex = columnIndex;
+    record.columnName = columnName;
+    record.columnTypes.putAll(columnTypes);
+    record.count = count;
+    return record;
   }
 
   @Override
@@ -459,7 +605,8 @@ public class RecordSet implements Record {
   /** Clear the catch data. */
   @Override
   public void close() {
-    table.clear();
+    columns = new Column[0];
+    columnIndex = Collections.emptyMap();
     count = 0;
     cursor = 0;
   }
@@ -512,4 +659,149 @@ public class RecordSet implements Record {
       return new LastInsertId(lastId);
     }
   }
+
+  /** The row of a fixed position, it keeps the columns when the record is closed. */
+  private class PositionRow implements RowSet {
+    private final Column[] columns;
+    private final Map<String, Integer> columnIndex;
+    private final int row;
+
+    PositionRow(Column[] columns, Map<String, Integer> columnIndex, int row) {
+      this.columns = columns;
+      this.columnIndex = columnIndex;
+      this.row = row;
+    }
+
+    private Column column(String columnName) {
+      if (columnName == null) {
+        throw new RaSqlException("fieldName can't be null");
+      }
+
+      Integer index = columnIndex.get(columnName);
+
+      return index == null ? null : columns[index];
+    }
+
+    private Column column(int index) {
+      if (index < 1 || index >= columns.length) {
+        throw new RaSqlException(
+            "Field index " + index + " is out of range, field count is " + columns.length + ".");
+      }
+      return columns[index];
+    }
+
+    @Override
+    public byte[] getBytes(String columnName) {
+      return toBytes(column(columnName), columnName, row);
+    }
+
+    @Override
+    public String getString(String columnName) {
+      return RecordSet.this.toString(column(columnName), row);
+    }
+
+    @Override
+    public int getInt(String columnName) {
+      return toInt(column(columnName), columnName, row);
+    }
+
+    @Override
+    public long getLong(String columnName) {
+      return toLong(column(columnName), columnName, row);
+    }
+
+    @Override
+    public float getFloat(String columnName) {
+      return toFloat(column(columnName), columnName, row);
+    }
+
+    @Override
+    public double getDouble(String columnName) {
+      return toDouble(column(columnName), columnName, row);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String columnName) {
+      return toBigDecimal(column(columnName), row);
+    }
+
+    @Override
+    public <T> List<T> getArray(String columnName, Class<T[]> castClass) {
+      return toList(getObject(columnName), columnName, castClass);
+    }
+
+    @Override
+    public Object getObject(String columnName) {
+      Column column = column(columnName);
+
+      return column == null ? null : column.get(row);
+    }
+
+    @Override
+    public boolean isNull(String columnName) {
+      Column column = column(columnName);
+
+      return column == null || column.isNull(row);
+    }
+
+    @Override
+    public void fieldNames(Consumer<String> action) {
+      RecordSet.this.fieldNames(action);
+    }
+
+    @Override
+    public int findColumn(String columnName) {
+      Integer index = columnIndex.get(Objects.requireNonNull(columnName, "name must not be null"));
+
+      if (index == null) {
+        throw new RaSqlException("fieldName '" + columnName + "' does not exist.");
+      }
+      return index;
+    }
+
+    @Override
+    public byte[] getBytes(int index) {
+      return toBytes(column(index), columnName[index], row);
+    }
+
+    @Override
+    public String getString(int index) {
+      return RecordSet.this.toString(column(index), row);
+    }
+
+    @Override
+    public int getInt(int index) {
+      return toInt(column(index), columnName[index], row);
+    }
+
+    @Override
+    public long getLong(int index) {
+      return toLong(column(index), columnName[index], row);
+    }
+
+    @Override
+    public float getFloat(int index) {
+      return toFloat(column(index), columnName[index], row);
+    }
+
+    @Override
+    public double getDouble(int index) {
+      return toDouble(column(index), columnName[index], row);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int index) {
+      return toBigDecimal(column(index), row);
+    }
+
+    @Override
+    public Object getObject(int index) {
+      return column(index).get(row);
+    }
+
+    @Override
+    public boolean isNull(int index) {
+      return column(index).isNull(row);
+    }
+  }
 }
@@ -2,6 +2,7 @@ package ra.db.record;
 
 import java.util.Spliterator;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 /**
  * Parallel processing record.
@@ -10,57 +11,91 @@ import java.util.function.Consumer;
  */
 public class RecordSpliterator<T extends Record> implements Spliterator<RowSet> {
   private final T record;
+  private final IntFunction<RowSet> rows;
   private int origin;
   private final int fence;
 
   /**
-   * initialize.
+   * initialize, the rows are read by moving the current row index of the record, so the rows are
+   * processed one at a time.
    *
    * @param record record
    * @param origin origin
    * @param fence fence
    */
   public RecordSpliterator(T record, int origin, int fence) {
+    this(record, origin, fence, null);
+  }
+
+  /**
+   * initialize, each row is read at its own position and the rows are processed without lock.
+   *
+   * @param record record
+   * @param origin origin
+   * @param fence fence
+   * @param rows returns the row of the index
+   */
+  public RecordSpliterator(T record, int origin, int fence, IntFunction<RowSet> rows) {
     this.record = record;
+    this.rows = rows;
     this.origin = origin;
     this.fence = fence;
   }
 
   @Override
   public long estimateSize() {
-    return (fence - origin) / 2;
+    return fence - origin;
   }
 
   @Override
   public int characteristics() {
-    return ORDERED | SIZED | IMMUTABLE | SUBSIZED;
+    return ORDERED | SIZED | IMMUTABLE | SUBSIZED | NONNULL;
   }
 
   @Override
   public boolean tryAdvance(Consumer<? super RowSet> action) {
-    if (origin < fence) {
+    if (origin >= fence) {
+      return false;
+    }
+
+    if (rows != null) {
+      action.accept(rows.apply(origin));
+    } else {
       Row row = new Row(record);
 
       synchronized (record) {
         record.move(origin + 1);
         action.accept(row);
       }
-      origin++;
+    }
+    origin++;
+
+    return true;
+  }
 
-      return true;
+  @Override
+  public void forEachRemaining(Consumer<? super RowSet> action) {
+    if (rows == null) {
+      Spliterator.super.forEachRemaining(action);
+      return;
     }
 
-    return false;
+    int fence = this.fence;
+
+    for (int i = origin; i < fence; i++) {
+      action.accept(rows.apply(i));
+    }
+    origin = fence;
   }
 
   @Override
   public Spliterator<RowSet> trySplit() {
     int lo = origin;
-    int mid = ((lo + fence) >>> 1) & ~1;
+    int mid = (lo + fence) >>> 1;
 
     if (lo < mid) {
       origin = mid;
-      return new RecordSpliterator<T>(this.record, lo, mid);
+      return new RecordSpliterator<T>(this.record, lo, mid, rows);
     }
 
     return null;
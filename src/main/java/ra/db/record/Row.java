@@ -2,6 +2,7 @@ package ra.db.record;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Row of query result.
@@ -9,17 +10,26 @@ import java.util.List;
  * @author Ray Li
  */
 public class Row implements RowSet {
-  private Record record;
+  private RecordCursor record;
 
   /**
    * Initialize.
    *
    * @param record record
    */
-  public Row(Record record) {
+  public Row(RecordCursor record) {
     this.record = record;
   }
 
+  /**
+   * Initialize.
+   *
+   * @param record record
+   */
+  public Row(Record record) {
+    this((RecordCursor) record);
+  }
+
   /**
    * Take the value of that column`s value as a byte array by the column`s name.
    *
@@ -128,4 +138,59 @@ public class Row implements RowSet {
   public boolean isNull(String columnName) {
     return record.isNull(columnName);
   }
+
+  @Override
+  public void fieldNames(Consumer<String> action) {
+    record.fieldNames(action);
+  }
+
+  @Override
+  public int findColumn(String columnName) {
+    return record.findColumn(columnName);
+  }
+
+  @Override
+  public byte[] getBytes(int index) {
+    return record.fieldBytes(index);
+  }
+
+  @Override
+  public String getString(int index) {
+    return record.field(index);
+  }
+
+  @Override
+  public int getInt(int index) {
+    return record.fieldInt(index);
+  }
+
+  @Override
+  public long getLong(int index) {
+    return record.fieldLong(index);
+  }
+
+  @Override
+  public float getFloat(int index) {
+    return record.fieldFloat(index);
+  }
+
+  @Override
+  public double getDouble(int index) {
+    return record.fieldDouble(index);
+  }
+
+  @Override
+  public BigDecimal getBigDecimal(int index) {
+    return record.fieldBigDecimal(index);
+  }
+
+  @Override
+  public Object getObject(int index) {
+    return record.fieldObject(index);
+  }
+
+  @Override
+  public boolean isNull(int index) {
+    return record.isNull(index);
+  }
 }
@@ -0,0 +1,403 @@
+package ra.db.record;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import ra.exception.RaSqlException;
+
+/**
+ * Maps rows to objects, the fields or the constructor of the class are resolved once and each
+ * field is set by a MethodHandle which takes the primitive value of the column without boxing.
+ * Columns are matched to fields by name, ignoring case and underscores, so the column user_name
+ * is mapped to the field userName. The columns which have no field are ignored. A SQL NULL is
+ * mapped to 0 or false of a primitive field or parameter, as {@link RecordSet} reads it.
+ *
+ * <p>The class is created by the constructor without arguments and the fields are set, or if
+ * there is no such constructor, by the public constructor which parameters are matched to columns
+ * by name (the class is compiled with -parameters) or by position.
+ *
+ * <pre>
+ * List&lt;User&gt; users = RowMapper.of(User.class).toList(executor.executeQuery("SELECT ..."));
+ * </pre>
+ *
+ * @author Ray Li
+ * @param <T> type of objects
+ */
+public final class RowMapper<T> {
+  private static final ClassValue<RowMapper<?>> MAPPERS =
+      new ClassValue<RowMapper<?>>() {
+        @Override
+        protected RowMapper<?> computeValue(Class<?> type) {
+          return new RowMapper<>(type);
+        }
+      };
+
+  private final Class<T> type;
+  private final MethodHandle constructor;
+  private final String[] parameterNames;
+  private final Class<?>[] parameterTypes;
+  private final Object[] parameterDefaults;
+  private final Map<String, Field> fields;
+  private final Map<String, Function<RowSet, T>> layouts = new ConcurrentHashMap<>();
+
+  private RowMapper(Class<T> type) {
+    this.type = type;
+
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    try {
+      Constructor<T> noArgs = findNoArgsConstructor(type);
+
+      if (noArgs != null) {
+        noArgs.setAccessible(true);
+        constructor =
+            lookup.unreflectConstructor(noArgs).asType(MethodType.methodType(Object.class));
+        fields = new HashMap<>();
+
+        for (Class<?> cls = type; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+          for (Field field : cls.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+
+            if (!Modifier.isStatic(modifiers)
+                && !Modifier.isFinal(modifiers)
+                && !Modifier.isTransient(modifiers)) {
+              fields.putIfAbsent(normalize(field.getName()), field);
+            }
+          }
+        }
+        parameterNames = null;
+        parameterTypes = null;
+        parameterDefaults = null;
+      } else {
+        Constructor<?> selected = null;
+
+        for (Constructor<?> candidate : type.getConstructors()) {
+          if (selected == null || candidate.getParameterCount() > selected.getParameterCount()) {
+            selected = candidate;
+          }
+        }
+        if (selected == null) {
+          throw new IllegalArgumentException(
+              type + " has neither a constructor without arguments nor a public constructor.");
+        }
+
+        Parameter[] parameters = selected.getParameters();
+
+        parameterTypes = selected.getParameterTypes();
+        parameterNames = new String[parameters.length];
+        parameterDefaults = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+          parameterNames[i] =
+              parameters[i].isNamePresent() ? normalize(parameters[i].getName()) : null;
+          // A SQL NULL is passed as 0 or false to a primitive parameter, as RecordSet reads it.
+          if (parameterTypes[i].isPrimitive()) {
+            parameterDefaults[i] = Array.get(Array.newInstance(parameterTypes[i], 1), 0);
+          }
+        }
+        constructor =
+            lookup
+                .unreflectConstructor(selected)
+                .asSpreader(Object[].class, parameters.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        fields = null;
+      }
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException(type + " can't be accessed.", e);
+    }
+  }
+
+  /**
+   * Returns the mapper of the class, the mapper is created once and shared.
+   *
+   * @param <T> type of objects
+   * @param type class
+   * @return RowMapper
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> RowMapper<T> of(Class<T> type) {
+    return (RowMapper<T>) MAPPERS.get(type);
+  }
+
+  private static <T> Constructor<T> findNoArgsConstructor(Class<T> type) {
+    try {
+      return type.getDeclaredConstructor();
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static String normalize(String name) {
+    return name.replace("_", "").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Returns the function which maps the rows of the cursor, the function is compiled once for
+   * each layout of columns and it is shared by the cursors which have the same layout.
+   *
+   * @param cursor cursor
+   * @return function
+   */
+  public Function<RowSet, T> compile(RecordCursor cursor) {
+    List<String> names = new ArrayList<>();
+
+    cursor.fieldNames(names::add);
+    return layouts.computeIfAbsent(String.join("\u0000", names), key -> compile(names));
+  }
+
+  /**
+   * Returns ordered stream of the objects of the rows.
+   *
+   * @param cursor cursor
+   * @return stream
+   */
+  public Stream<T> stream(RecordCursor cursor) {
+    return cursor.stream().map(compile(cursor));
+  }
+
+  /**
+   * Returns the parallel stream of the objects of the rows.
+   *
+   * @param cursor cursor
+   * @return stream
+   */
+  public Stream<T> parallelStream(RecordCursor cursor) {
+    return cursor.parallelStream().map(compile(cursor));
+  }
+
+  /**
+   * Returns the objects of the rows.
+   *
+   * @param cursor cursor
+   * @return objects
+   */
+  public List<T> toList(RecordCursor cursor) {
+    try (Stream<T> stream = stream(cursor)) {
+      return stream.collect(Collectors.toList());
+    }
+  }
+
+  private Function<RowSet, T> compile(List<String> names) {
+    if (fields != null) {
+      return compileFields(names);
+    }
+    return compileConstructor(names);
+  }
+
+  private Function<RowSet, T> compileFields(List<String> names) {
+    List<FieldSetter> setters = new ArrayList<>();
+
+    for (int i = 0; i < names.size(); i++) {
+      Field field = fields.get(normalize(names.get(i)));
+
+      if (field != null) {
+        setters.add(newSetter(field, i + 1));
+      }
+    }
+
+    FieldSetter[] plan = setters.toArray(new FieldSetter[0]);
+
+    return row -> {
+      try {
+        Object obj = constructor.invokeExact();
+
+        for (FieldSetter setter : plan) {
+          setter.set(obj, row);
+        }
+        return type.cast(obj);
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new RaSqlException("Map row to " + type + " failed.", e);
+      }
+    };
+  }
+
+  private Function<RowSet, T> compileConstructor(List<String> names) {
+    int[] columns = new int[parameterTypes.length];
+    Map<String, Integer> index = new HashMap<>();
+
+    for (int i = 0; i < names.size(); i++) {
+      index.putIfAbsent(normalize(names.get(i)), i + 1);
+    }
+
+    for (int i = 0; i < columns.length; i++) {
+      Integer column = parameterNames[i] == null ? null : index.get(parameterNames[i]);
+
+      if (column == null) {
+        if (parameterNames[i] != null || names.size() != columns.length) {
+          throw new RaSqlException(
+              "The columns " + names + " can't be mapped to the constructor of " + type + ".");
+        }
+        column = i + 1;
+      }
+      columns[i] = column;
+    }
+
+    return row -> {
+      Object[] args = new Object[columns.length];
+
+      for (int i = 0; i < columns.length; i++) {
+        Object value = read(row, columns[i], parameterTypes[i]);
+
+        args[i] = value == null ? parameterDefaults[i] : value;
+      }
+      try {
+        return type.cast(constructor.invokeExact(args));
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new RaSqlException("Map row to " + type + " failed.", e);
+      }
+    };
+  }
+
+  private static FieldSetter newSetter(Field field, int column) {
+    MethodHandle handle;
+
+    try {
+      field.setAccessible(true);
+      handle = MethodHandles.lookup().unreflectSetter(field);
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException(field + " can't be accessed.", e);
+    }
+
+    Class<?> fieldType = field.getType();
+
+    if (fieldType == long.class) {
+      MethodHandle setter =
+          handle.asType(MethodType.methodType(void.class, Object.class, long.class));
+
+      return (obj, row) -> {
+        if (!row.isNull(column)) {
+          setter.invokeExact(obj, row.getLong(column));
+        }
+      };
+    }
+    if (fieldType == int.class) {
+      MethodHandle setter =
+          handle.asType(MethodType.methodType(void.class, Object.class, int.class));
+
+      return (obj, row) -> {
+        if (!row.isNull(column)) {
+          setter.invokeExact(obj, row.getInt(column));
+        }
+      };
+    }
+    if (fieldType == double.class) {
+      MethodHandle setter =
+          handle.asType(MethodType.methodType(void.class, Object.class, double.class));
+
+      return (obj, row) -> {
+        if (!row.isNull(column)) {
+          setter.invokeExact(obj, row.getDouble(column));
+        }
+      };
+    }
+
+    MethodHandle setter =
+        handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+    boolean primitive = fieldType.isPrimitive();
+
+    return (obj, row) -> {
+      Object value = read(row, column, fieldType);
+
+      if (value != null || !primitive) {
+        setter.invokeExact(obj, value);
+      }
+    };
+  }
+
+  /**
+   * Read the value of the column as the type.
+   *
+   * @param row row
+   * @param column column index
+   * @param type type
+   * @return value
+   */
+  private static Object read(RowSet row, int column, Class<?> type) {
+    if (row.isNull(column)) {
+      return null;
+    }
+    if (type == String.class) {
+      return row.getString(column);
+    }
+    if (type == long.class || type == Long.class) {
+      return row.getLong(column);
+    }
+    if (type == int.class || type == Integer.class) {
+      return row.getInt(column);
+    }
+    if (type == double.class || type == Double.class) {
+      return row.getDouble(column);
+    }
+    if (type == float.class || type == Float.class) {
+      return (float) row.getDouble(column);
+    }
+    if (type == short.class || type == Short.class) {
+      long value = row.getLong(column);
+
+      if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+        throw new NumberFormatException("For input string: \"" + value + "\"");
+      }
+      return (short) value;
+    }
+    if (type == byte.class || type == Byte.class) {
+      long value = row.getLong(column);
+
+      if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+        throw new NumberFormatException("For input string: \"" + value + "\"");
+      }
+      return (byte) value;
+    }
+    if (type == char.class || type == Character.class) {
+      String value = row.getString(column);
+
+      if (value.length() != 1) {
+        throw new RaSqlException(
+            "Column " + column + " (\"" + value + "\") can't cast to " + type + ".");
+      }
+      return value.charAt(0);
+    }
+
+    Object value = row.getObject(column);
+
+    if (type == boolean.class || type == Boolean.class) {
+      if (value instanceof Boolean) {
+        return value;
+      }
+      if (value instanceof Number) {
+        return ((Number) value).longValue() != 0;
+      }
+      return Boolean.parseBoolean(value.toString());
+    }
+    if (type == BigDecimal.class && value instanceof Number && !(value instanceof BigDecimal)) {
+      return new BigDecimal(value.toString());
+    }
+    if (type.isPrimitive() || !type.isInstance(value)) {
+      throw new RaSqlException(
+          "Column " + column + " (" + value.getClass() + ") can't cast to " + type + ".");
+    }
+    return value;
+  }
+
+  /** Sets a field by the value of a column. */
+  private interface FieldSetter {
+    void set(Object obj, RowSet row) throws Throwable;
+  }
+}
@@ -2,6 +2,7 @@ package ra.db.record;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Query row.
@@ -90,4 +91,116 @@ public interface RowSet {
    * @return if value are null returns true.
    */
   public boolean isNull(String columnName);
+
+  /**
+   * Get name of columns, the default doesn't provide them.
+   *
+   * @param action Consumer
+   * @throws UnsupportedOperationException if the row doesn't provide the names of columns.
+   */
+  public default void fieldNames(Consumer<String> action) {
+    throw new UnsupportedOperationException("Column names are not provided by " + getClass());
+  }
+
+  /**
+   * Returns the index of the column, the index can be used to read the column repeatedly without
+   * looking up the name again. The defaults of the index accessors resolve the name of the index
+   * by {@link #fieldNames(Consumer)}, the implementations read the column directly.
+   *
+   * @param columnName column name
+   * @return index
+   */
+  public default int findColumn(String columnName) {
+    return FieldIndex.find(this::fieldNames, columnName);
+  }
+
+  /**
+   * Gets value uses the specific column index.
+   *
+   * @param index column index
+   * @return the value of that column as a byte array.
+   */
+  public default byte[] getBytes(int index) {
+    return getBytes(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Gets value uses the specific column index.
+   *
+   * @param index column index
+   * @return the value of that column as a String.
+   */
+  public default String getString(int index) {
+    return getString(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Gets value uses the specific column index.
+   *
+   * @param index column index
+   * @return the value of that column as an int.
+   */
+  public default int getInt(int index) {
+    return getInt(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Gets value uses the specific column index.
+   *
+   * @param index column index
+   * @return the value of that column as a long.
+   */
+  public default long getLong(int index) {
+    return getLong(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Gets value uses the specific column index.
+   *
+   * @param index column index
+   * @return the value of that column as a float.
+   */
+  public default float getFloat(int index) {
+    return getFloat(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Gets value uses the specific column index.
+   *
+   * @param index column index
+   * @return the value of that column as a double.
+   */
+  public default double getDouble(int index) {
+    return getDouble(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Gets value uses the specific column index.
+   *
+   * @param index column index
+   * @return the value of that column as a big decimal.
+   */
+  public default BigDecimal getBigDecimal(int index) {
+    return getBigDecimal(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Gets value uses the specific column index.
+   *
+   * @param index column index
+   * @return the value of that column as a object.
+   */
+  public default Object getObject(int index) {
+    return getObject(FieldIndex.name(this::fieldNames, index));
+  }
+
+  /**
+   * Gets value uses the specific column index.
+   *
+   * @param index column index
+   * @return if value are null returns true.
+   */
+  public default boolean isNull(int index) {
+    return isNull(FieldIndex.name(this::fieldNames, index));
+  }
 }
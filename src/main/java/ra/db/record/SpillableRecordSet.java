@@ -0,0 +1,968 @@
+package ra.db.record;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import ra.db.DatabaseCategory;
+import ra.exception.RaSqlException;
+
+/**
+ * The record which keeps rows in memory up to a budget of bytes, the rows after the budget are
+ * written to a temporary file in a compact binary format and read back by position, so a query
+ * which returns far more rows than expected does not exhaust the heap. The spill file is deleted
+ * when the record is closed, so the record must be closed after use. The file of a record which is
+ * garbage collected without being closed is deleted by a cleaner thread, but the file and its open
+ * channel are kept until the collection happens.
+ *
+ * <p>The values are the objects of {@link JdbcTypeWrapper#getValue}, a spilled value must be a
+ * number, string, bytes, date or {@link Serializable} object, {@link Array} values can't be
+ * spilled.
+ *
+ * @author Ray Li
+ */
+public class SpillableRecordSet implements Record {
+  private static final int ROW_OVERHEAD = 16;
+  private static final byte NULL = 0;
+  private static final byte LONG = 1;
+  private static final byte DOUBLE = 2;
+  private static final byte BOOLEAN = 3;
+  private static final byte STRING = 4;
+  private static final byte BYTES = 5;
+  private static final byte DECIMAL = 6;
+  private static final byte DATE = 7;
+  private static final byte TIMESTAMP = 8;
+  private static final byte BYTE = 9;
+  private static final byte SERIALIZED = 10;
+
+  private final DatabaseCategory dbCategory;
+  private final long memoryBudget;
+  private final File directory;
+  private int cursor = 0;
+  private int count = 0;
+  private String[] columnName = new String[1];
+  private int[] columnTypes = new int[1];
+  private Map<String, Integer> columnIndex = Collections.emptyMap();
+  private Object[][] memory = new Object[0][];
+  private int memoryCount = 0;
+  private long memoryBytes = 0;
+  private File spillFile;
+  private FileChannel spill;
+  private SpillFile spillCleaner;
+  private long[] offsets = new long[0];
+  private int currentIndex = -1;
+  private SpilledRow current;
+
+  /**
+   * Initialize, the spill file is created in the default temporary-file directory.
+   *
+   * @param category database mode
+   * @param memoryBudget estimated bytes of the rows which are kept in memory.
+   */
+  public SpillableRecordSet(DatabaseCategory category, long memoryBudget) {
+    this(category, memoryBudget, null);
+  }
+
+  /**
+   * Initialize.
+   *
+   * @param category database mode
+   * @param memoryBudget estimated bytes of the rows which are kept in memory.
+   * @param directory directory of the spill file, null if uses the default temporary-file
+   *     directory.
+   */
+  public SpillableRecordSet(DatabaseCategory category, long memoryBudget, File directory) {
+    if (memoryBudget < 0) {
+      throw new IllegalArgumentException("memoryBudget must be greater than or equal to 0.");
+    }
+    dbCategory = category;
+    this.memoryBudget = memoryBudget;
+    this.directory = directory;
+  }
+
+  @Override
+  public int getFieldCount() {
+    return columnName.length;
+  }
+
+  @Override
+  public void fieldNames(Consumer<String> consumer) {
+    Objects.requireNonNull(consumer, "consumer must not be null");
+
+    for (int i = 1; i < columnName.length; i++) {
+      consumer.accept(columnName[i]);
+    }
+  }
+
+  /**
+   * Convert the result of a query, the rows after the memory budget are written to the spill
+   * file.
+   *
+   * @param result Result of query.
+   * @throws SQLException SQLException
+   * @throws RaSqlException if the rows can't be written to the spill file.
+   */
+  @Override
+  public void convert(ResultSet result) throws SQLException {
+    close();
+
+    ResultSetMetaData meta = result.getMetaData();
+    int columnNum = meta.getColumnCount();
+    String[] name = new String[columnNum + 1];
+    int[] type = new int[columnNum + 1];
+    Map<String, Integer> index = new HashMap<>();
+
+    for (int i = 1; i <= columnNum; i++) {
+      name[i] = meta.getColumnLabel(i);
+      type[i] = meta.getColumnType(i);
+      index.put(name[i], i);
+    }
+    columnName = name;
+    columnTypes = type;
+    columnIndex = index;
+
+    ByteArrayOutputStream rowBuffer = new ByteArrayOutputStream();
+    DataOutputStream rowOut = new DataOutputStream(rowBuffer);
+    DataOutputStream out = null;
+    long position = 0;
+
+    try {
+      while (result.next()) {
+        Object[] row = new Object[columnNum + 1];
+        long size = ROW_OVERHEAD + 8L * row.length;
+
+        for (int i = 1; i <= columnNum; i++) {
+          Object value = JdbcTypeWrapper.getValue(result, type[i], i);
+
+          row[i] = result.wasNull() ? null : value;
+          size += estimate(row[i]);
+        }
+
+        if (out == null && memoryBytes + size <= memoryBudget) {
+          if (memoryCount >= memory.length) {
+            memory = Arrays.copyOf(memory, Column.grow(memory.length, memoryCount));
+          }
+          memory[memoryCount++] = row;
+          memoryBytes += size;
+        } else {
+          if (out == null) {
+            spillFile = File.createTempFile("ra-record", ".spill", directory);
+            spillCleaner = new SpillFile(this, spillFile);
+            out =
+                new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(spillFile), 65536));
+            offsets = new long[Column.grow(0, 0)];
+          }
+
+          int spilled = count - memoryCount;
+
+          rowBuffer.reset();
+          for (int i = 1; i <= columnNum; i++) {
+            write(rowOut, row[i]);
+          }
+          rowBuffer.writeTo(out);
+          position += rowBuffer.size();
+
+          if (spilled + 1 >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Column.grow(offsets.length, spilled + 1));
+          }
+          offsets[spilled + 1] = position;
+        }
+        count++;
+      }
+
+      memory = Arrays.copyOf(memory, memoryCount);
+      if (out != null) {
+        out.close();
+        out = null;
+        spill = FileChannel.open(spillFile.toPath(), StandardOpenOption.READ);
+        spillCleaner.channel = spill;
+      }
+    } catch (IOException e) {
+      String file = String.valueOf(spillFile);
+
+      closeQuietly(out);
+      close();
+      throw new RaSqlException("Failed to spill the rows to the file, file=" + file, e);
+    } catch (SQLException | RuntimeException e) {
+      closeQuietly(out);
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns estimated heap usage of the rows which are kept in memory.
+   *
+   * @return bytes
+   */
+  public long getSizeInBytes() {
+    return memoryBytes;
+  }
+
+  /**
+   * Returns whether rows have been written to the spill file.
+   *
+   * @return If the rows are spilled returns true.
+   */
+  public boolean isSpilled() {
+    return spillFile != null;
+  }
+
+  /**
+   * Returns count of the rows which are written to the spill file.
+   *
+   * @return count
+   */
+  public int getSpilledCount() {
+    return count - memoryCount;
+  }
+
+  /**
+   * Returns the spill file.
+   *
+   * @return File, null if no row is spilled.
+   */
+  public File getSpillFile() {
+    return spillFile;
+  }
+
+  private SpilledRow current() {
+    if (currentIndex != cursor || current == null) {
+      // Out of the rows, only the missing fields can be read as null like RecordSet.
+      current = new SpilledRow(cursor >= 0 && cursor < count ? readRow(cursor) : null);
+      currentIndex = cursor;
+    }
+    return current;
+  }
+
+  private Object[] readRow(int row) {
+    if (row < 0 || row >= count) {
+      throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + count);
+    }
+    if (row < memoryCount) {
+      return memory[row];
+    }
+
+    int spilled = row - memoryCount;
+    long start = offsets[spilled];
+    ByteBuffer buffer = ByteBuffer.allocate((int) (offsets[spilled + 1] - start));
+
+    try {
+      // Positional reads don't move the channel, so the rows can be read by several threads.
+      while (buffer.hasRemaining()) {
+        if (spill.read(buffer, start + buffer.position()) < 0) {
+          throw new EOFException();
+        }
+      }
+
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.array()));
+      Object[] values = new Object[columnName.length];
+
+      for (int i = 1; i < values.length; i++) {
+        values[i] = read(in);
+      }
+      return values;
+    } catch (IOException e) {
+      throw new RaSqlException(
+          "Failed to read the spilled row " + row + ", file=" + spillFile, e);
+    }
+  }
+
+  private static long estimate(Object value) {
+    if (value == null) {
+      return 0;
+    }
+    if (value instanceof String) {
+      return 40 + 2L * ((String) value).length();
+    }
+    if (value instanceof byte[]) {
+      return 16 + ((byte[]) value).length;
+    }
+    if (value instanceof BigDecimal) {
+      return 64;
+    }
+    return 24;
+  }
+
+  private static void write(DataOutputStream out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof String) {
+      out.writeByte(STRING);
+      writeBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+    } else if (value instanceof byte[]) {
+      out.writeByte(BYTES);
+      writeBytes(out, (byte[]) value);
+    } else if (value instanceof BigDecimal) {
+      out.writeByte(DECIMAL);
+      out.writeInt(((BigDecimal) value).scale());
+      writeBytes(out, ((BigDecimal) value).unscaledValue().toByteArray());
+    } else if (value instanceof Timestamp) {
+      out.writeByte(TIMESTAMP);
+      out.writeLong(((Timestamp) value).getTime());
+      out.writeInt(((Timestamp) value).getNanos());
+    } else if (value instanceof Date) {
+      out.writeByte(DATE);
+      out.writeLong(((Date) value).getTime());
+    } else if (value instanceof Byte) {
+      out.writeByte(BYTE);
+      out.writeByte((Byte) value);
+    } else if (value instanceof Serializable) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+      try (ObjectOutputStream object = new ObjectOutputStream(bytes)) {
+        object.writeObject(value);
+      }
+      out.writeByte(SERIALIZED);
+      writeBytes(out, bytes.toByteArray());
+    } else {
+      throw new NotSerializableException(value.getClass().getName());
+    }
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static Object read(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+
+    switch (tag) {
+      case NULL:
+        return null;
+      case LONG:
+        return in.readLong();
+      case DOUBLE:
+        return in.readDouble();
+      case BOOLEAN:
+        return in.readBoolean();
+      case STRING:
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+      case BYTES:
+        return readBytes(in);
+      case DECIMAL:
+        {
+          int scale = in.readInt();
+
+          return new BigDecimal(new BigInteger(readBytes(in)), scale);
+        }
+      case TIMESTAMP:
+        {
+          Timestamp timestamp = new Timestamp(in.readLong());
+
+          timestamp.setNanos(in.readInt());
+          return timestamp;
+        }
+      case DATE:
+        return new Date(in.readLong());
+      case BYTE:
+        return in.readByte();
+      case SERIALIZED:
+        try (ObjectInputStream object =
+            new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+          return object.readObject();
+        } catch (ClassNotFoundException e) {
+          throw new IOException(e);
+        }
+      default:
+        throw new IOException("Unknown value tag " + tag + ".");
+    }
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static void closeQuietly(DataOutputStream out) {
+    if (out == null) {
+      return;
+    }
+    try {
+      out.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Override
+  public boolean isNull(String name) {
+    return current().isNull(name);
+  }
+
+  @Override
+  public boolean isNull(int index) {
+    return current().isNull(index);
+  }
+
+  @Override
+  public String field(int index) {
+    return current().getString(index);
+  }
+
+  @Override
+  public String field(String name) {
+    return current().getString(name);
+  }
+
+  @Override
+  public byte[] fieldBytes(String name) {
+    return current().getBytes(name);
+  }
+
+  @Override
+  public byte[] fieldBytes(int index) {
+    return current().getBytes(index);
+  }
+
+  @Override
+  public long fieldLong(String name) {
+    return current().getLong(name);
+  }
+
+  @Override
+  public long fieldLong(int index) {
+    return current().getLong(index);
+  }
+
+  @Override
+  public int fieldInt(String name) {
+    return current().getInt(name);
+  }
+
+  @Override
+  public int fieldInt(int index) {
+    return current().getInt(index);
+  }
+
+  @Override
+  public float fieldFloat(String name) {
+    return current().getFloat(name);
+  }
+
+  @Override
+  public float fieldFloat(int index) {
+    return current().getFloat(index);
+  }
+
+  @Override
+  public double fieldDouble(String name) {
+    return current().getDouble(name);
+  }
+
+  @Override
+  public double fieldDouble(int index) {
+    return current().getDouble(index);
+  }
+
+  @Override
+  public BigDecimal fieldBigDecimal(String name) {
+    return current().getBigDecimal(name);
+  }
+
+  @Override
+  public BigDecimal fieldBigDecimal(int index) {
+    return current().getBigDecimal(index);
+  }
+
+  @Override
+  public <T> List<T> fieldArray(String name, Class<T[]> castClass) {
+    return current().getArray(name, castClass);
+  }
+
+  @Override
+  public Object fieldObject(String name) {
+    return current().getObject(name);
+  }
+
+  @Override
+  public Object fieldObject(int index) {
+    return current().getObject(index);
+  }
+
+  @Override
+  public int findColumn(String name) {
+    Integer index = columnIndex.get(Objects.requireNonNull(name, "name must not be null"));
+
+    if (index == null) {
+      throw new RaSqlException("fieldName '" + name + "' does not exist.");
+    }
+    return index;
+  }
+
+  /** Add one up the current row index. */
+  @Override
+  public void next() {
+    cursor++;
+  }
+
+  /** Subtract one from the current row index. */
+  @Override
+  public void previous() {
+    cursor--;
+  }
+
+  /**
+   * Change the current row index.
+   *
+   * @param index Earmark row index.
+   */
+  @Override
+  public void move(int index) {
+    cursor = index - 1;
+  }
+
+  /** Change the current row index to the first index. */
+  @Override
+  public void first() {
+    cursor = 0;
+  }
+
+  /** Change the current row index to the end index. */
+  @Override
+  public void end() {
+    cursor = count - 1;
+  }
+
+  @Override
+  public boolean isBof() {
+    return (cursor < 0) || (count == 0);
+  }
+
+  @Override
+  public boolean isEof() {
+    return cursor > (count - 1);
+  }
+
+  @Override
+  public int getRecordCount() {
+    return count;
+  }
+
+  /**
+   * Take the row data by row data.
+   *
+   * @param action Take the row data.The instance RowSet would be reused.
+   */
+  @Override
+  public void forEach(Consumer<RowSet> action) {
+    Objects.requireNonNull(action);
+    int count = this.count;
+    Row row = new Row(this);
+
+    for (int i = 0; i < count; i++) {
+      action.accept(row);
+      next();
+    }
+  }
+
+  /**
+   * Return the serialization stream, the rows are read without moving the current row index and
+   * the spilled rows are read from the file one at a time.
+   */
+  @Override
+  public Stream<RowSet> stream() {
+    return StreamSupport.stream(
+        new RecordSpliterator<SpillableRecordSet>(this, 0, count, this::getRow), false);
+  }
+
+  /** Return the parallel stream, each row is read at its own position. */
+  @Override
+  public Stream<RowSet> parallelStream() {
+    return StreamSupport.stream(
+        new RecordSpliterator<SpillableRecordSet>(this, 0, count, this::getRow), true);
+  }
+
+  /**
+   * Returns the row of the index, the row does not depend on the current row index.
+   *
+   * @param index row index (range : 0 ~ record count - 1)
+   * @return RowSet
+   */
+  public RowSet getRow(int index) {
+    return new SpilledRow(readRow(index));
+  }
+
+  /** Clear the rows and delete the spill file. */
+  @Override
+  public void close() {
+    memory = new Object[0][];
+    memoryCount = 0;
+    memoryBytes = 0;
+    offsets = new long[0];
+    columnIndex = Collections.emptyMap();
+    count = 0;
+    cursor = 0;
+    currentIndex = -1;
+    current = null;
+
+    if (spillCleaner != null) {
+      spillCleaner.delete();
+      spillCleaner = null;
+    }
+    spill = null;
+    spillFile = null;
+  }
+
+  /**
+   * Returns name of column.
+   *
+   * @param index index (range : 1 ~ column.length - 1)
+   */
+  @Override
+  public String getColumnName(int index) {
+    return columnName[index];
+  }
+
+  @Override
+  public LastInsertId getLastInsertId(Statement statement) throws SQLException {
+    return new RecordSet(dbCategory).getLastInsertId(statement);
+  }
+
+  /**
+   * The spill file of a record, it is deleted when the record is closed or after the record is
+   * garbage collected without being closed.
+   */
+  private static final class SpillFile extends PhantomReference<SpillableRecordSet> {
+    private static final ReferenceQueue<SpillableRecordSet> QUEUE = new ReferenceQueue<>();
+    // The references must be reachable until they are enqueued.
+    private static final Set<SpillFile> PENDING = ConcurrentHashMap.newKeySet();
+
+    static {
+      Thread cleaner = new Thread(SpillFile::clean, "SpillFileCleaner");
+
+      cleaner.setDaemon(true);
+      cleaner.start();
+    }
+
+    private final File file;
+    private volatile FileChannel channel;
+
+    SpillFile(SpillableRecordSet record, File file) {
+      super(record, QUEUE);
+      this.file = file;
+      PENDING.add(this);
+    }
+
+    private static void clean() {
+      while (true) {
+        try {
+          ((SpillFile) QUEUE.remove()).delete();
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }
+
+    /** Close the channel and delete the file, it is done only once. */
+    void delete() {
+      if (!PENDING.remove(this)) {
+        return;
+      }
+
+      FileChannel channel = this.channel;
+
+      if (channel != null) {
+        try {
+          channel.close();
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
+      try {
+        Files.deleteIfExists(file.toPath());
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /** Values of a row, the values are converted as {@link RecordSet}. */
+  private class SpilledRow implements RowSet {
+    private final Object[] values;
+
+    SpilledRow(Object[] values) {
+      this.values = values;
+    }
+
+    private Object value(String columnName) {
+      if (columnName == null) {
+        throw new RaSqlException("fieldName can't be null");
+      }
+
+      Integer index = columnIndex.get(columnName);
+
+      return index == null ? null : value(index);
+    }
+
+    /** Returns the value, a SQL NULL of a number is 0 as {@link RecordSet}. */
+    private Object value(int index) {
+      Object value = raw(index);
+
+      return value == null ? JdbcTypeWrapper.getNullValue(columnTypes[index]) : value;
+    }
+
+    private Object raw(int index) {
+      if (index < 1 || index >= columnName.length) {
+        throw new RaSqlException(
+            "Field index "
+                + index
+                + " is out of range, field count is "
+                + columnName.length
+                + ".");
+      }
+      return values()[index];
+    }
+
+    private Object[] values() {
+      if (values == null) {
+        throw new IndexOutOfBoundsException("Index: " + cursor + ", Size: " + count);
+      }
+      return values;
+    }
+
+    private String toString(Object value) {
+      return value == null ? null : String.valueOf(value);
+    }
+
+    private byte[] toBytes(Object value, String name) {
+      if (value == null) {
+        return null;
+      }
+      if (value instanceof byte[]) {
+        return (byte[]) value;
+      }
+      throw new RaSqlException("fieldName '" + name + "' can't cast to byte[].");
+    }
+
+    private long toLong(Object value, String name) {
+      if (value == null) {
+        throw new RaSqlException(
+            "The value is null, fieldName '" + name + "' cannot be converted to a Long.");
+      }
+      if (value instanceof Long) {
+        return (long) value;
+      }
+      return Long.parseLong(value.toString());
+    }
+
+    private int toInt(Object value, String name) {
+      if (value == null) {
+        throw new RaSqlException(
+            "The value is null, fieldName '" + name + "' cannot be converted to an Integer.");
+      }
+      if (value instanceof Long) {
+        long number = (long) value;
+
+        if (number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+          throw new NumberFormatException("For input string: \"" + number + "\"");
+        }
+        return (int) number;
+      }
+      return Integer.parseInt(value.toString());
+    }
+
+    private float toFloat(Object value, String name) {
+      if (value == null) {
+        throw new RaSqlException(
+            "The value is null, fieldName '" + name + "' cannot be converted to a Float.");
+      }
+      if (value instanceof Long || value instanceof Double) {
+        return ((Number) value).floatValue();
+      }
+      return Float.parseFloat(value.toString());
+    }
+
+    private double toDouble(Object value, String name) {
+      if (value == null) {
+        throw new RaSqlException(
+            "The value is null, fieldName '" + name + "' cannot be converted to a Double.");
+      }
+      if (value instanceof Long || value instanceof Double) {
+        return ((Number) value).doubleValue();
+      }
+      return Double.parseDouble(value.toString());
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+      if (value == null) {
+        return null;
+      }
+      if (value instanceof BigDecimal) {
+        return (BigDecimal) value;
+      }
+      return new BigDecimal(value.toString());
+    }
+
+    @Override
+    public byte[] getBytes(String columnName) {
+      return toBytes(value(columnName), columnName);
+    }
+
+    @Override
+    public byte[] getBytes(int index) {
+      return toBytes(value(index), columnName[index]);
+    }
+
+    @Override
+    public String getString(String columnName) {
+      return toString(value(columnName));
+    }
+
+    @Override
+    public int getInt(String columnName) {
+      return toInt(value(columnName), columnName);
+    }
+
+    @Override
+    public long getLong(String columnName) {
+      return toLong(value(columnName), columnName);
+    }
+
+    @Override
+    public float getFloat(String columnName) {
+      return toFloat(value(columnName), columnName);
+    }
+
+    @Override
+    public float getFloat(int index) {
+      return toFloat(value(index), columnName[index]);
+    }
+
+    @Override
+    public double getDouble(String columnName) {
+      return toDouble(value(columnName), columnName);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String columnName) {
+      return toBigDecimal(value(columnName));
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int index) {
+      return toBigDecimal(value(index));
+    }
+
+    @Override
+    public <T> List<T> getArray(String columnName, Class<T[]> castClass) {
+      Array array = (Array) value(columnName);
+
+      if (array == null) {
+        return null;
+      }
+
+      try {
+        return Arrays.asList(castClass.cast(array.getArray()));
+      } catch (Exception e) {
+        throw new RaSqlException(
+            "fieldName '" + columnName + "' can't cast to " + castClass + ".", e);
+      }
+    }
+
+    @Override
+    public Object getObject(String columnName) {
+      return value(columnName);
+    }
+
+    @Override
+    public boolean isNull(String columnName) {
+      if (columnName == null) {
+        throw new RaSqlException("fieldName can't be null");
+      }
+
+      Integer index = columnIndex.get(columnName);
+
+      return index == null || raw(index) == null;
+    }
+
+    @Override
+    public void fieldNames(Consumer<String> action) {
+      SpillableRecordSet.this.fieldNames(action);
+    }
+
+    @Override
+    public int findColumn(String columnName) {
+      return SpillableRecordSet.this.findColumn(columnName);
+    }
+
+    @Override
+    public String getString(int index) {
+      return toString(value(index));
+    }
+
+    @Override
+    public int getInt(int index) {
+      return toInt(value(index), columnName[index]);
+    }
+
+    @Override
+    public long getLong(int index) {
+      return toLong(value(index), columnName[index]);
+    }
+
+    @Override
+    public double getDouble(int index) {
+      return toDouble(value(index), columnName[index]);
+    }
+
+    @Override
+    public Object getObject(int index) {
+      return value(index);
+    }
+
+    @Override
+    public boolean isNull(int index) {
+      return raw(index) == null;
+    }
+  }
+}
@@ -0,0 +1,616 @@
+package ra.db.record;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import ra.exception.RaSqlException;
+
+/**
+ * Forward-only record which reads rows from an open ResultSet, only the current row is kept in
+ * memory. The ResultSet is closed and the connection is released when the last row has been passed
+ * or the cursor is closed, so the cursor must always be consumed or closed.
+ *
+ * @author Ray Li
+ */
+public class StreamingRecordCursor implements RecordCursor {
+  private volatile ResultSet result;
+  private volatile Iterator<RowSet> rows;
+  private String[] columnName;
+  private int[] columnTypes;
+  private Map<String, Integer> columnIndex;
+  private Object[] row;
+  private boolean[] nulls;
+  private volatile boolean hasRow = false;
+  private int position = 0;
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+  private List<Runnable> closeHandlers;
+
+  /**
+   * Initialize, the first row is read immediately.
+   *
+   * @param result result of query, it is closed with the cursor.
+   * @param release release the statement and the connection after the result is closed.
+   * @throws SQLException SQLException
+   */
+  public StreamingRecordCursor(ResultSet result, Runnable release) throws SQLException {
+    this.result = result;
+    closeHandlers = new ArrayList<>(2);
+    closeHandlers.add(release);
+
+    ResultSetMetaData meta = result.getMetaData();
+    int columnNum = meta.getColumnCount();
+
+    columnName = new String[columnNum + 1];
+    columnTypes = new int[columnNum + 1];
+    columnIndex = new HashMap<>();
+    row = new Object[columnNum + 1];
+    nulls = new boolean[columnNum + 1];
+
+    for (int i = 1; i <= columnNum; i++) {
+      columnName[i] = meta.getColumnLabel(i);
+      columnTypes[i] = meta.getColumnType(i);
+      columnIndex.put(columnName[i], i);
+    }
+
+    fetch();
+  }
+
+  private StreamingRecordCursor(RecordCursor record) {
+    List<String> names = new ArrayList<>();
+
+    record.fieldNames(names::add);
+    closeHandlers = new ArrayList<>(2);
+    closeHandlers.add(
+        () -> {
+          try {
+            record.close();
+          } catch (IOException e) {
+            e.printStackTrace();
+          }
+        });
+    columnName = new String[names.size() + 1];
+    columnIndex = new HashMap<>();
+    row = new Object[names.size() + 1];
+    nulls = new boolean[names.size() + 1];
+
+    for (int i = 1; i <= names.size(); i++) {
+      columnName[i] = names.get(i - 1);
+      columnIndex.put(columnName[i], i);
+    }
+
+    rows = record.stream().iterator();
+    fetch();
+  }
+
+  /**
+   * Returns a cursor which reads the rows of the record one by one, the rows have been kept in
+   * memory by the record, so the cursor doesn't hold a connection. It is used by executors which
+   * can't stream the rows from database.
+   *
+   * @param record record, it is closed with the cursor.
+   * @return StreamingRecordCursor
+   */
+  public static StreamingRecordCursor of(RecordCursor record) {
+    Objects.requireNonNull(record, "record must not be null");
+    return new StreamingRecordCursor(record);
+  }
+
+  /**
+   * Add an action which is run after the cursor is closed.
+   *
+   * @param action action
+   * @return this
+   */
+  public StreamingRecordCursor onClose(Runnable action) {
+    Objects.requireNonNull(action, "action must not be null");
+
+    synchronized (closeHandlers) {
+      if (!closed.get()) {
+        closeHandlers.add(action);
+        return this;
+      }
+    }
+    action.run();
+    return this;
+  }
+
+  private void fetch() {
+    Iterator<RowSet> rows = this.rows;
+    ResultSet result = this.result;
+
+    if (rows != null) {
+      hasRow = rows.hasNext();
+      if (hasRow) {
+        RowSet next = rows.next();
+
+        for (int i = 1; i < row.length; i++) {
+          row[i] = next.getObject(i);
+          nulls[i] = next.isNull(i);
+        }
+      } else {
+        close();
+      }
+      return;
+    }
+
+    if (result == null) {
+      // The cursor has been closed by another thread.
+      hasRow = false;
+      return;
+    }
+
+    try {
+      boolean next = result.next();
+
+      if (next) {
+        for (int i = 1; i < row.length; i++) {
+          row[i] = JdbcTypeWrapper.getValue(result, columnTypes[i], i);
+          nulls[i] = result.wasNull();
+        }
+      }
+      hasRow = next;
+      if (!next) {
+        close();
+      } else if (closed.get()) {
+        // Closed by another thread while reading the row.
+        hasRow = false;
+      }
+    } catch (SQLException e) {
+      hasRow = false;
+      if (closed.get()) {
+        // The ResultSet has been closed by another thread.
+        return;
+      }
+      close();
+      throw new RaSqlException("Fetch next row failed.", e);
+    }
+  }
+
+  /**
+   * Take count in the table`s column.
+   *
+   * @return count in the table`s column.
+   */
+  @Override
+  public int getFieldCount() {
+    return columnName.length;
+  }
+
+  @Override
+  public void fieldNames(Consumer<String> consumer) {
+    Objects.requireNonNull(consumer, "consumer must not be null");
+
+    for (int i = 1; i < columnName.length; i++) {
+      consumer.accept(columnName[i]);
+    }
+  }
+
+  @Override
+  public boolean isNull(String name) {
+    if (name == null) {
+      throw new RaSqlException("fieldName can't be null");
+    }
+
+    Integer index = columnIndex.get(name);
+
+    if (index == null) {
+      checkRow();
+      return true;
+    }
+    return isNull(index.intValue());
+  }
+
+  @Override
+  public boolean isNull(int index) {
+    checkIndex(index);
+    return nulls[index];
+  }
+
+  @Override
+  public String field(int index) {
+    return toString(getObject(index));
+  }
+
+  @Override
+  public String field(String name) {
+    return toString(getObject(name));
+  }
+
+  private static String toString(Object ret) {
+    if (ret == null) {
+      return null;
+    }
+
+    return String.valueOf(ret);
+  }
+
+  @Override
+  public byte[] fieldBytes(String name) {
+    return toBytes(getObject(name), name);
+  }
+
+  @Override
+  public byte[] fieldBytes(int index) {
+    return toBytes(getObject(index), columnName[index]);
+  }
+
+  private static byte[] toBytes(Object obj, String name) {
+    if (obj == null) {
+      return null;
+    }
+    if (obj instanceof byte[]) {
+      return (byte[]) obj;
+    }
+
+    throw new RaSqlException("fieldName '" + name + "' can't cast to byte[].");
+  }
+
+  @Override
+  public long fieldLong(String name) {
+    return toLong(getObject(name), name);
+  }
+
+  @Override
+  public long fieldLong(int index) {
+    return toLong(getObject(index), columnName[index]);
+  }
+
+  private static long toLong(Object obj, String name) {
+    if (obj == null) {
+      throw new RaSqlException(
+          "The value is null, fieldName '" + name + "' cannot be converted to a Long.");
+    }
+
+    if (obj instanceof Long) {
+      return (long) obj;
+    }
+
+    return Long.parseLong(obj.toString());
+  }
+
+  @Override
+  public int fieldInt(String name) {
+    return toInt(getObject(name), name);
+  }
+
+  @Override
+  public int fieldInt(int index) {
+    return toInt(getObject(index), columnName[index]);
+  }
+
+  private static int toInt(Object obj, String name) {
+    if (obj == null) {
+      throw new RaSqlException(
+          "The value is null, fieldName '" + name + "' cannot be converted to an Integer.");
+    }
+
+    if (obj instanceof Long) {
+      long value = (long) obj;
+
+      if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+        return (int) value;
+      }
+    }
+
+    return Integer.parseInt(obj.toString());
+  }
+
+  @Override
+  public float fieldFloat(String name) {
+    return toFloat(getObject(name), name);
+  }
+
+  @Override
+  public float fieldFloat(int index) {
+    return toFloat(getObject(index), columnName[index]);
+  }
+
+  private static float toFloat(Object obj, String name) {
+    if (obj == null) {
+      throw new RaSqlException(
+          "The value is null, fieldName '" + name + "' cannot be converted to a Float.");
+    }
+
+    if (obj instanceof Long || obj instanceof Double) {
+      return ((Number) obj).floatValue();
+    }
+
+    return Float.parseFloat(obj.toString());
+  }
+
+  @Override
+  public double fieldDouble(String name) {
+    return toDouble(getObject(name), name);
+  }
+
+  @Override
+  public double fieldDouble(int index) {
+    return toDouble(getObject(index), columnName[index]);
+  }
+
+  private static double toDouble(Object obj, String name) {
+    if (obj == null) {
+      throw new RaSqlException(
+          "The value is null, fieldName '" + name + "' cannot be converted to a Double.");
+    }
+
+    if (obj instanceof Long || obj instanceof Double) {
+      return ((Number) obj).doubleValue();
+    }
+
+    return Double.parseDouble(obj.toString());
+  }
+
+  @Override
+  public BigDecimal fieldBigDecimal(String name) {
+    return toBigDecimal(getObject(name));
+  }
+
+  @Override
+  public BigDecimal fieldBigDecimal(int index) {
+    return toBigDecimal(getObject(index));
+  }
+
+  private static BigDecimal toBigDecimal(Object obj) {
+    if (obj == null) {
+      return null;
+    }
+
+    if (obj instanceof BigDecimal) {
+      return (BigDecimal) obj;
+    }
+
+    return new BigDecimal(obj.toString());
+  }
+
+  @Override
+  public <T> List<T> fieldArray(String name, Class<T[]> castClass) {
+    Array obj = (Array) getObject(name);
+
+    if (obj == null) {
+      return null;
+    }
+
+    try {
+      Object array = obj.getArray();
+
+      return Arrays.asList(castClass.cast(array));
+    } catch (Exception e) {
+      throw new RaSqlException("fieldName '" + name + "' can't cast to " + castClass + ".", e);
+    }
+  }
+
+  @Override
+  public Object fieldObject(String name) {
+    return getObject(name);
+  }
+
+  @Override
+  public Object fieldObject(int index) {
+    return getObject(index);
+  }
+
+  @Override
+  public int findColumn(String name) {
+    Integer index = columnIndex.get(Objects.requireNonNull(name, "name must not be null"));
+
+    if (index == null) {
+      throw new RaSqlException("fieldName '" + name + "' does not exist.");
+    }
+    return index;
+  }
+
+  private Object getObject(String fieldName) {
+    if (fieldName == null) {
+      throw new RaSqlException("fieldName can't be null");
+    }
+
+    Integer index = columnIndex.get(fieldName);
+
+    if (index == null) {
+      checkRow();
+      return null;
+    }
+
+    return getObject(index);
+  }
+
+  private Object getObject(int index) {
+    checkIndex(index);
+    return row[index];
+  }
+
+  private void checkIndex(int index) {
+    checkRow();
+
+    if (index < 1 || index >= row.length) {
+      throw new RaSqlException(
+          "Field index " + index + " is out of range, field count is " + row.length + ".");
+    }
+  }
+
+  private void checkRow() {
+    if (!hasRow) {
+      throw new RaSqlException("There is no current row, the cursor is at the end.");
+    }
+  }
+
+  /** Read the next row, the cursor is closed after the last row. */
+  @Override
+  public void next() {
+    if (hasRow) {
+      position++;
+      fetch();
+    }
+  }
+
+  /** The cursor is forward-only. */
+  @Override
+  public void previous() {
+    throw new UnsupportedOperationException("StreamingRecordCursor is forward-only.");
+  }
+
+  /** The cursor is forward-only. */
+  @Override
+  public void move(int index) {
+    throw new UnsupportedOperationException("StreamingRecordCursor is forward-only.");
+  }
+
+  /** It is allowed only before the cursor leaves the first row. */
+  @Override
+  public void first() {
+    if (position != 0) {
+      throw new UnsupportedOperationException("StreamingRecordCursor is forward-only.");
+    }
+  }
+
+  /** The cursor is forward-only. */
+  @Override
+  public void end() {
+    throw new UnsupportedOperationException("StreamingRecordCursor is forward-only.");
+  }
+
+  /** Returns true if the result is empty. */
+  @Override
+  public boolean isBof() {
+    return position == 0 && !hasRow;
+  }
+
+  /** Returns true if the last row has been passed or the cursor is closed. */
+  @Override
+  public boolean isEof() {
+    return !hasRow;
+  }
+
+  /** The count is unknown until all rows have been read. */
+  @Override
+  public int getRecordCount() {
+    throw new UnsupportedOperationException(
+        "StreamingRecordCursor does not know count of record, use RecordSet instead.");
+  }
+
+  /**
+   * Returns count of rows have been passed by {@link #next()}.
+   *
+   * @return count
+   */
+  public int getPosition() {
+    return position;
+  }
+
+  /**
+   * Take the remaining rows, the cursor is closed after the last row.
+   *
+   * @param action Take the row data.The instance RowSet would be reused.
+   */
+  @Override
+  public void forEach(Consumer<RowSet> action) {
+    Objects.requireNonNull(action);
+    Row rowSet = new Row(this);
+
+    while (hasRow) {
+      action.accept(rowSet);
+      next();
+    }
+  }
+
+  /**
+   * Return the serialization stream of the remaining rows, closing the stream closes the cursor.
+   */
+  @Override
+  public Stream<RowSet> stream() {
+    Row rowSet = new Row(this);
+    Spliterator<RowSet> spliterator =
+        new Spliterators.AbstractSpliterator<RowSet>(
+            Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+          private boolean started = false;
+
+          @Override
+          public boolean tryAdvance(Consumer<? super RowSet> action) {
+            if (started) {
+              next();
+            }
+            started = true;
+
+            if (!hasRow) {
+              return false;
+            }
+            action.accept(rowSet);
+            return true;
+          }
+
+          @Override
+          public Spliterator<RowSet> trySplit() {
+            return null;
+          }
+        };
+
+    return StreamSupport.stream(spliterator, false).onClose(this::close);
+  }
+
+  /** Rows are read one by one from database, they can't be processed in parallel. */
+  @Override
+  public Stream<RowSet> parallelStream() {
+    throw new UnsupportedOperationException(
+        "StreamingRecordCursor is forward-only, use stream() instead.");
+  }
+
+  /**
+   * Returns true if the ResultSet has been closed.
+   *
+   * @return closed
+   */
+  public boolean isClosed() {
+    return closed.get();
+  }
+
+  /**
+   * Close the ResultSet and release the connection, the remaining rows are discarded. It may be
+   * called by any thread, the close handlers run only once.
+   */
+  @Override
+  public void close() {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+    hasRow = false;
+
+    ResultSet result = this.result;
+
+    this.result = null;
+    rows = null;
+
+    try {
+      if (result != null) {
+        result.close();
+      }
+    } catch (SQLException e) {
+      e.printStackTrace();
+    } finally {
+      List<Runnable> actions;
+
+      synchronized (closeHandlers) {
+        actions = new ArrayList<>(closeHandlers);
+      }
+      for (Runnable action : actions) {
+        action.run();
+      }
+    }
+  }
+}
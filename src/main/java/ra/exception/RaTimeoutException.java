@@ -0,0 +1,24 @@
+package ra.exception;
+
+/**
+ * The statement was cancelled or not executed because its deadline passed.
+ *
+ * @author Ray Li.
+ */
+public class RaTimeoutException extends RaSqlException {
+  private static final long serialVersionUID = -3188291553408630385L;
+
+  public RaTimeoutException(String message) {
+    super(message);
+  }
+
+  /**
+   * Initialize.
+   *
+   * @param message message
+   * @param cause cause
+   */
+  public RaTimeoutException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,17 @@
+package ra.net;
+
+/**
+ * Sendable which can send a message in parts.
+ *
+ * @author Ray Li
+ */
+public interface ChunkSendable<T> extends Sendable<T> {
+  /**
+   * Send a part of message without the end of transmission, the message is completed by the
+   * following {@link #send} or {@link #sendClose}, so a large message doesn't need to be built in
+   * memory at once.
+   *
+   * @param chunk part of message
+   */
+  public abstract void sendChunk(T chunk);
+}
@@ -85,4 +85,29 @@ public class MessageSender {
       e.printStackTrace();
     }
   }
+
+  /**
+   * Sent a part of message to specific user, the message ends at the next {@link #send} or {@link
+   * #sendClose}.
+   *
+   * @param chunk part of message
+   * @param index specific user
+   * @throws UnsupportedOperationException if the service of the user isn't {@link ChunkSendable}.
+   */
+  @SuppressWarnings("unchecked")
+  public void sendChunk(String chunk, int index) {
+    Serviceable<String> net = (Serviceable<String>) this.serviceProvider.getService(index);
+
+    if (!(net instanceof ChunkSendable)) {
+      throw new UnsupportedOperationException(
+          net.getClass().getName() + " doesn't support chunks, index=" + index);
+    }
+
+    try {
+      ((ChunkSendable<String>) net).sendChunk(chunk);
+    } catch (Exception e) {
+      e.printStackTrace();
+      net.onClose();
+    }
+  }
 }
@@ -16,7 +16,8 @@ import ra.net.request.Request;
  *
  * @author Ray Li, Kevin Tsai
  */
-public class NetService extends Thread implements NetServiceable, AutoCloseable {
+public class NetService extends Thread
+    implements NetServiceable, ChunkSendable<String>, AutoCloseable {
   private ServerSocket serverSocket;
   private CommandProcessorListener<NetRequest> processorListener;
   private CommandProcessorProvider<NetRequest> processorProvider;
@@ -172,6 +173,12 @@ public class NetService extends Thread implements NetServiceable, AutoCloseable
     sendProcessor.sendClose(message);
   }
 
+  /** Send a part of message. */
+  @Override
+  public void sendChunk(String chunk) {
+    sendProcessor.sendChunk(chunk);
+  }
+
   /** builder. */
   public static class Builder {
     private ServerSocket serverSocket;
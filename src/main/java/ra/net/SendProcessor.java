@@ -13,7 +13,7 @@ import java.util.concurrent.LinkedBlockingQueue;
  *
  * @author Ray Li, Kevin Tasi
  */
-public class SendProcessor implements Runnable, Sendable<String> {
+public class SendProcessor implements Runnable, ChunkSendable<String> {
   private NetServiceable netServiceable;
   private boolean isRunning = true;
   private BlockingQueue<String> queue = new LinkedBlockingQueue<String>();
@@ -116,7 +116,19 @@ public class SendProcessor implements Runnable, Sendable<String> {
   @Override
   public void send(String message) {
     Objects.requireNonNull(message, "The message requires a non null, message = " + message);
-    queue.add(message);
+    queue.add(TransmissionEnd.appendFeedNewLine(message));
+  }
+
+  /**
+   * Send a part of message, the chunks are written in order and the message ends at the next
+   * {@link #send} or {@link #sendClose}.
+   *
+   * @param chunk part of message
+   */
+  @Override
+  public void sendChunk(String chunk) {
+    Objects.requireNonNull(chunk, "The chunk requires a non null.");
+    queue.add(chunk);
   }
 
   /**
@@ -133,7 +145,7 @@ public class SendProcessor implements Runnable, Sendable<String> {
   private void flushMessage(String msg) throws Exception {
     socket.setSoTimeout(10000);
 
-    bufferedOutputStream.write(TransmissionEnd.appendFeedNewLine(msg).getBytes());
+    bufferedOutputStream.write(msg.getBytes());
     bufferedOutputStream.flush();
     socket.setSoTimeout(timeOut);
   }
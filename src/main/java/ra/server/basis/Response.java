@@ -2,6 +2,7 @@ package ra.server.basis;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import ra.db.record.RecordCursor;
 
 /**
  * Response.
@@ -59,6 +60,25 @@ public class Response {
     sendAdapter.send(json.toString(), index);
   }
 
+  /**
+   * Send the rows of the record as a JSON array, the rows are written in chunks.
+   *
+   * @param record record
+   */
+  public void send(RecordCursor record) {
+    sendAdapter.send(record, index);
+  }
+
+  /**
+   * Returns the writer of a message which is sent in chunks, the message ends when the writer is
+   * closed.
+   *
+   * @return ResponseWriter
+   */
+  public ResponseWriter openWriter() {
+    return new ResponseWriter(sendAdapter, index, false);
+  }
+
   /**
    * Send message and close connection.
    *
@@ -86,6 +106,15 @@ public class Response {
     sendAdapter.sendClose(json, index);
   }
 
+  /**
+   * Send the rows of the record as a JSON array and close connection.
+   *
+   * @param record record
+   */
+  public void sendClose(RecordCursor record) {
+    sendAdapter.sendClose(record, index);
+  }
+
   /**
    * Send message and record log.
    *
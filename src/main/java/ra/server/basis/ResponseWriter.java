@@ -0,0 +1,148 @@
+package ra.server.basis;
+
+import java.io.Writer;
+
+/**
+ * Writes one message to a user in chunks, the text is sent whenever the buffer reaches the chunk
+ * size and the message ends when the writer is closed. The other messages must not be sent to the
+ * user until the writer is closed. A chunk never ends with the first half of a surrogate pair, it
+ * is kept until the next write or the end of the message, because each chunk is encoded separately.
+ *
+ * @author Ray Li
+ */
+public class ResponseWriter extends Writer {
+  /** Default count of characters of a chunk. */
+  public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+  private final SenderAdapter sender;
+  private final int index;
+  private final boolean closeConnection;
+  private final int chunkSize;
+  private final StringBuilder buffer;
+  private boolean closed = false;
+
+  /**
+   * Initialize.
+   *
+   * @param sender sender
+   * @param index index of user
+   * @param closeConnection close the connection after the message is sent.
+   */
+  public ResponseWriter(SenderAdapter sender, int index, boolean closeConnection) {
+    this(sender, index, closeConnection, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Initialize.
+   *
+   * @param sender sender
+   * @param index index of user
+   * @param closeConnection close the connection after the message is sent.
+   * @param chunkSize count of characters of a chunk
+   */
+  public ResponseWriter(SenderAdapter sender, int index, boolean closeConnection, int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunkSize must be greater than 0.");
+    }
+    this.sender = sender;
+    this.index = index;
+    this.closeConnection = closeConnection;
+    this.chunkSize = chunkSize;
+    buffer = new StringBuilder(chunkSize);
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) {
+    checkClosed();
+
+    int end = off + len;
+
+    while (off < end) {
+      int count = Math.min(end - off, room());
+
+      buffer.append(cbuf, off, count);
+      off += count;
+      if (buffer.length() >= chunkSize) {
+        flush();
+      }
+    }
+  }
+
+  @Override
+  public void write(String str, int off, int len) {
+    checkClosed();
+
+    int end = off + len;
+
+    while (off < end) {
+      int count = Math.min(end - off, room());
+
+      buffer.append(str, off, off + count);
+      off += count;
+      if (buffer.length() >= chunkSize) {
+        flush();
+      }
+    }
+  }
+
+  private int room() {
+    // A kept high surrogate may fill a chunk of 1 character.
+    return Math.max(1, chunkSize - buffer.length());
+  }
+
+  /** Send the buffered text as a chunk of the message, except a trailing high surrogate. */
+  @Override
+  public void flush() {
+    checkClosed();
+
+    int length = buffer.length();
+
+    if (length > 0 && Character.isHighSurrogate(buffer.charAt(length - 1))) {
+      length--;
+    }
+    if (length > 0) {
+      sender.sendChunk(buffer.substring(0, length), index);
+      buffer.delete(0, length);
+    }
+  }
+
+  /** End the message, the connection is closed if it is required. */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    String rest = buffer.toString();
+
+    buffer.setLength(0);
+    if (closeConnection) {
+      sender.sendClose(rest, index);
+    } else {
+      sender.send(rest, index);
+    }
+  }
+
+  /**
+   * End the message and close the connection, used when the message can't be completed so the
+   * client doesn't wait for the rest of it.
+   */
+  public void abort() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    String rest = buffer.toString();
+
+    buffer.setLength(0);
+    sender.sendClose(rest, index);
+  }
+
+  private void checkClosed() {
+    if (closed) {
+      throw new IllegalStateException("The writer is closed.");
+    }
+  }
+}
@@ -1,9 +1,12 @@
 package ra.server.basis;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.Optional;
 import org.json.JSONException;
 import org.json.JSONObject;
+import ra.db.record.RecordCursor;
+import ra.db.record.RecordJsonWriter;
 import ra.net.MessageSender;
 import ra.net.User;
 import ra.util.logging.LogEveryDay;
@@ -87,6 +90,45 @@ public class SenderAdapter extends MessageSender {
     commonLog.ifPresent(log -> log.writeln(LOG_TAG_RESPONSE, "" + json, index));
   }
 
+  @Override
+  public void sendChunk(String chunk, int index) {
+    sender.sendChunk(chunk, index);
+    commonLog.ifPresent(log -> log.writeln(LOG_TAG_RESPONSE, chunk, index));
+  }
+
+  /**
+   * Send the rows of the record as a JSON array, the rows are written in chunks instead of building
+   * the whole message.
+   *
+   * @param record record
+   * @param index index
+   */
+  public void send(RecordCursor record, int index) {
+    send(record, index, false);
+  }
+
+  /**
+   * Send the rows of the record as a JSON array and close the connection.
+   *
+   * @param record record
+   * @param index index
+   */
+  public void sendClose(RecordCursor record, int index) {
+    send(record, index, true);
+  }
+
+  private void send(RecordCursor record, int index, boolean closeConnection) {
+    ResponseWriter writer = new ResponseWriter(this, index, closeConnection);
+
+    try {
+      RecordJsonWriter.write(record, writer);
+      writer.close();
+    } catch (IOException | RuntimeException e) {
+      e.printStackTrace();
+      writer.abort();
+    }
+  }
+
   /**
    * Logging after sending error message.
    *
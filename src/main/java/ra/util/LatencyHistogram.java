@@ -0,0 +1,180 @@
+package ra.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values. Each power of two is split into 4 buckets, so a
+ * percentile is within 25% of the recorded value, and recording a value is an increment of one
+ * bucket without allocation.
+ *
+ * @author Ray Li
+ */
+public class LatencyHistogram {
+  private static final int SUB_BITS = 2;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Record a value, negative value is recorded as 0.
+   *
+   * @param value value
+   */
+  public void record(long value) {
+    long v = Math.max(0, value);
+
+    buckets.incrementAndGet(index(v));
+    count.increment();
+    sum.add(v);
+
+    long current = max.get();
+
+    while (v > current && !max.compareAndSet(current, v)) {
+      current = max.get();
+    }
+  }
+
+  static int index(long value) {
+    if (value < SUB_COUNT) {
+      return (int) value;
+    }
+
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+
+    return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+  }
+
+  static long upperBound(int index) {
+    if (index < SUB_COUNT) {
+      return index;
+    }
+
+    int shift = index / SUB_COUNT - 1;
+    long lower = (long) (SUB_COUNT + index % SUB_COUNT) << shift;
+
+    return lower + (1L << shift) - 1;
+  }
+
+  /**
+   * Returns count of recorded values.
+   *
+   * @return count
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /** Clear the recorded values. */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets.set(i, 0);
+    }
+    count.reset();
+    sum.reset();
+    max.set(0);
+  }
+
+  /**
+   * Returns a copy of the recorded values, the values which are recorded while copying may be
+   * partly included.
+   *
+   * @return Snapshot
+   */
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = buckets.get(i);
+    }
+    return new Snapshot(copy, count.sum(), sum.sum(), max.get());
+  }
+
+  /** Recorded values of a histogram. */
+  public static class Snapshot {
+    private final long[] buckets;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    Snapshot(long[] buckets, long count, long sum, long max) {
+      this.buckets = buckets;
+      this.count = count;
+      this.sum = sum;
+      this.max = max;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getSum() {
+      return sum;
+    }
+
+    public long getMax() {
+      return max;
+    }
+
+    /**
+     * Returns the mean of values.
+     *
+     * @return mean, 0 if there is no value.
+     */
+    public double getMean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the value which the percentage of values are less than or equal to.
+     *
+     * @param percentile range : 0 ~ 100
+     * @return value, 0 if there is no value.
+     */
+    public long getPercentile(double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("percentile must be between 0 and 100.");
+      }
+
+      long total = 0;
+
+      for (long bucket : buckets) {
+        total += bucket;
+      }
+      if (total == 0) {
+        return 0;
+      }
+
+      long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+      long seen = 0;
+
+      for (int i = 0; i < buckets.length; i++) {
+        seen += buckets[i];
+        if (seen >= rank) {
+          return Math.min(upperBound(i), max);
+        }
+      }
+      return max;
+    }
+
+    @Override
+    public String toString() {
+      return "count="
+          + count
+          + ",mean="
+          + (long) getMean()
+          + ",p50="
+          + getPercentile(50)
+          + ",p99="
+          + getPercentile(99)
+          + ",max="
+          + max;
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package ra.util.compression;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * Read text files.
+ *
+ * @author Ray Li
+ */
+public class StringFileInput implements StringInput {
+  private BufferedReader bufferedInput;
+
+  /**
+   * Initialize.
+   *
+   * @param file source format
+   * @param charset file charset
+   * @throws IOException IOException
+   */
+  public StringFileInput(File file, String charset) throws IOException {
+    bufferedInput = new BufferedReader(new InputStreamReader(new FileInputStream(file), charset));
+  }
+
+  @Override
+  public String readLine() throws IOException {
+    return bufferedInput.readLine();
+  }
+
+  @Override
+  public int read() throws IOException {
+    return bufferedInput.read();
+  }
+
+  @Override
+  public void close() throws IOException {
+    bufferedInput.close();
+  }
+}
@@ -0,0 +1,139 @@
+package ra.db;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ra.db.parameter.H2Parameters;
+import ra.db.record.RecordCursor;
+import ra.exception.RaConnectException;
+
+/** Test class. */
+public class AsyncStatementExecutorTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  private static DatabaseConnections newH2Connections(String name) {
+    DatabaseConnections connections = new DatabaseConnections();
+
+    connections.connectConcurrentConnection(
+        new H2Parameters.Builder()
+            .setProperties("DATABASE_TO_UPPER", "false")
+            .setProperties("MODE", "MYSQL")
+            .inMemory()
+            .setName(name)
+            .build(),
+        2);
+    return connections;
+  }
+
+  @Test
+  public void testExecuteConcurrently() throws Exception {
+    DatabaseConnections connections = newH2Connections("asyncExecuteConcurrently");
+
+    try (AsyncStatementExecutor async = new AsyncStatementExecutor(connections, 2, 10)) {
+      async
+          .executeUpdate("CREATE TABLE async_test (id bigint auto_increment, amount bigint);")
+          .get(5, TimeUnit.SECONDS);
+
+      CompletableFuture<?>[] inserts = new CompletableFuture<?>[10];
+
+      for (int i = 0; i < inserts.length; i++) {
+        inserts[i] = async.executeUpdate("INSERT INTO async_test SET amount=" + (i + 1));
+      }
+      CompletableFuture.allOf(inserts).get(5, TimeUnit.SECONDS);
+
+      CompletableFuture<RecordCursor> sum =
+          async.prepareExecuteQuery(
+              Prepared.newBuilder("SELECT SUM(amount) AS total FROM async_test WHERE id>?")
+                  .set(1, ParameterValue.int64(0))
+                  .build());
+      CompletableFuture<RecordCursor> count =
+          async.executeQuery("SELECT COUNT(*) AS id FROM async_test");
+
+      long total =
+          sum.thenCombine(count, (left, right) -> left.fieldLong("total") + right.fieldLong("id"))
+              .get(5, TimeUnit.SECONDS);
+
+      assertEquals(65, total);
+      assertEquals("11", async.insert("INSERT INTO async_test SET amount=0").get().toString());
+    } finally {
+      connections.close();
+    }
+  }
+
+  @Test
+  public void testTransactionFailure() throws Exception {
+    DatabaseConnections connections = newH2Connections("asyncTransactionFailure");
+
+    try (AsyncStatementExecutor async = new AsyncStatementExecutor(connections, 1, 1)) {
+      CompletableFuture<Void> future =
+          async.executeTransaction(
+              transaction -> {
+                transaction.executeUpdate("UPDATE not_exist SET amount=1");
+                return true;
+              });
+
+      try {
+        future.get(5, TimeUnit.SECONDS);
+      } catch (ExecutionException e) {
+        assertThat(e.getCause(), instanceOf(RuntimeException.class));
+      }
+      assertTrue(future.isCompletedExceptionally());
+    } finally {
+      connections.close();
+    }
+  }
+
+  @Test
+  public void testRejectWhenQueueIsFull() throws Exception {
+    DatabaseConnections connections = newH2Connections("asyncRejectWhenQueueIsFull");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    try (AsyncStatementExecutor async = new AsyncStatementExecutor(connections, 1, 1)) {
+      CompletableFuture<Void> running =
+          async.executeTransaction(
+              transaction -> {
+                started.countDown();
+                try {
+                  release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+                return false;
+              });
+
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      CompletableFuture<RecordCursor> queued = async.executeQuery("SELECT 1 AS id");
+      CompletableFuture<RecordCursor> rejected = async.executeQuery("SELECT 2 AS id");
+
+      assertEquals(1, async.getQueueSize());
+      assertTrue(rejected.isCompletedExceptionally());
+
+      release.countDown();
+      running.get(5, TimeUnit.SECONDS);
+      assertEquals(1, queued.get(5, TimeUnit.SECONDS).fieldLong("id"));
+
+      exceptionRule.expectCause(instanceOf(RaConnectException.class));
+      rejected.get();
+    } finally {
+      connections.close();
+    }
+  }
+
+  @Test
+  public void testInvalidThreads() {
+    exceptionRule.expect(IllegalArgumentException.class);
+
+    new AsyncStatementExecutor(new DatabaseConnections(), 0, 1);
+  }
+}
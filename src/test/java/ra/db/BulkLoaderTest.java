@@ -0,0 +1,203 @@
+package ra.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ra.db.connection.OnceConnection;
+import ra.db.parameter.H2Parameters;
+import ra.db.record.RecordCursor;
+import ra.exception.RaSqlException;
+import ra.util.compression.StringFileInput;
+
+/** Test class. */
+public class BulkLoaderTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  private static OnceConnection newConnection(String name) {
+    OnceConnection connection =
+        new OnceConnection(
+            new H2Parameters.Builder()
+                .setProperties("DATABASE_TO_UPPER", "false")
+                .setProperties("MODE", "MYSQL")
+                .inMemory()
+                .setName(name)
+                .build());
+
+    connection.connect();
+    connection
+        .createStatementExecutor()
+        .executeUpdate("CREATE TABLE bulk_test (id bigint, name varchar(20));");
+    return connection;
+  }
+
+  @Test
+  public void testLoadStream() {
+    try (OnceConnection connection = newConnection("bulkLoadStream")) {
+      List<BulkLoader.Progress> reports = new ArrayList<>();
+      List<Long> rows = new ArrayList<>();
+      BulkLoader loader =
+          BulkLoader.newBuilder("bulk_test")
+              .setColumns("id", "name")
+              .setBatchSize(1000)
+              .setProgressListener(
+                  1000,
+                  progress -> {
+                    reports.add(progress);
+                    rows.add(progress.getRows());
+                  })
+              .build();
+
+      long count =
+          loader.load(
+              connection,
+              IntStream.rangeClosed(1, 2500).mapToObj(i -> new Object[] {(long) i, "n" + i}));
+
+      RecordCursor record =
+          connection
+              .createStatementExecutor()
+              .executeQuery("SELECT COUNT(*) AS c, SUM(id) AS s FROM bulk_test");
+
+      assertEquals(2500, count);
+      assertEquals(2500, record.fieldLong("c"));
+      assertEquals(3126250, record.fieldLong("s"));
+      assertEquals(Arrays.asList(1000L, 2000L, 2500L), rows);
+      assertTrue(reports.get(2).isDone());
+    }
+  }
+
+  @Test
+  public void testLoadFile() throws IOException {
+    File file = File.createTempFile("bulkLoadFile", ".csv");
+
+    try (OnceConnection connection = newConnection("bulkLoadFile")) {
+      Files.write(file.toPath(), "1,aaa\n2,NULL\n3,c,c\n".getBytes(StandardCharsets.UTF_8));
+
+      try (StringFileInput input = new StringFileInput(file, "UTF-8")) {
+        BulkLoader loader =
+            BulkLoader.newBuilder("bulk_test")
+                .setColumns("id", "name")
+                .setDelimiter(",")
+                .setNullValue("NULL")
+                .build();
+
+        assertEquals(3, loader.load(connection, input));
+      }
+
+      RecordCursor record =
+          connection
+              .createStatementExecutor()
+              .executeQuery("SELECT id, name FROM bulk_test ORDER BY id");
+
+      assertEquals("aaa", record.field("name"));
+      record.next();
+      assertTrue(record.isNull("name"));
+      record.next();
+      assertEquals("c", record.field("name"));
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testFailedBatchIsRolledBack() {
+    try (OnceConnection connection = newConnection("bulkLoadFailed")) {
+      BulkLoader loader = BulkLoader.newBuilder("bulk_test").setBatchSize(2).build();
+
+      try {
+        loader.load(
+            connection,
+            Arrays.asList(
+                    new Object[] {1L, "a"},
+                    new Object[] {2L, "b"},
+                    new Object[] {3L, "c"},
+                    new Object[] {"x", "d"})
+                .iterator());
+      } catch (RaSqlException e) {
+        assertTrue(e.getMessage().contains("loaded=2"));
+      }
+
+      assertEquals(
+          2,
+          connection
+              .createStatementExecutor()
+              .executeQuery("SELECT COUNT(*) AS c FROM bulk_test")
+              .fieldLong("c"));
+    }
+  }
+
+  @Test
+  public void testTabSeparatedInputStream() throws IOException {
+    InputStream input =
+        new BulkLoader.TabSeparatedInputStream(
+            Arrays.asList(
+                    new Object[] {1L, "a\tb", null}, new Object[] {2L, "c\\d\ne", "中"})
+                .iterator(),
+            null,
+            null);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] buffer = new byte[3];
+    int size;
+
+    while ((size = input.read(buffer, 0, buffer.length)) != -1) {
+      output.write(buffer, 0, size);
+    }
+
+    assertEquals(
+        "1\ta\\tb\t\\N\n2\tc\\\\d\\ne\t中\n",
+        new String(output.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testTabSeparatedInputStreamEncodeTypes() throws IOException {
+    Date date = new Date(Timestamp.valueOf("2020-01-02 03:04:05").getTime());
+    InputStream input =
+        new BulkLoader.TabSeparatedInputStream(
+            Collections.singletonList(
+                    new Object[] {
+                      new byte[] {0, 10, (byte) 0xff},
+                      true,
+                      false,
+                      date,
+                      Timestamp.valueOf("2020-01-02 03:04:05.5"),
+                      new BigDecimal("1E+3"),
+                      "ab"
+                    })
+                .iterator(),
+            null,
+            new boolean[] {false, false, false, false, false, false, true});
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    int value;
+
+    while ((value = input.read()) != -1) {
+      output.write(value);
+    }
+
+    assertEquals(
+        "000AFF\t1\t0\t2020-01-02 03:04:05.0\t2020-01-02 03:04:05.5\t1000\t6162\n",
+        new String(output.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testInvalidBatchSize() {
+    exceptionRule.expect(IllegalArgumentException.class);
+
+    BulkLoader.newBuilder("bulk_test").setBatchSize(0).build();
+  }
+}
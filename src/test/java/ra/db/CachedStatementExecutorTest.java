@@ -0,0 +1,150 @@
+package ra.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import ra.db.connection.ConcurrentConnection;
+import ra.db.parameter.H2Parameters;
+import ra.db.record.RecordCursor;
+
+/** Test class. */
+public class CachedStatementExecutorTest {
+
+  private static final H2Parameters.Builder H2_PARAM =
+      new H2Parameters.Builder()
+          .setProperties("DATABASE_TO_UPPER", "false")
+          .setProperties("MODE", "MYSQL")
+          .inMemory()
+          .setName("cachedStatementExecutorTest");
+
+  @Test
+  public void testCacheAndInvalidateByTable() {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      QueryCache cache = new QueryCache(100, 1 << 20, 60000);
+      CachedStatementExecutor executor =
+          new CachedStatementExecutor(connection.createStatementExecutor(), cache);
+
+      executor.executeUpdate("CREATE TABLE cache_a (id bigint auto_increment, amount bigint);");
+      executor.executeUpdate("CREATE TABLE cache_b (id bigint auto_increment, amount bigint);");
+      executor.executeUpdate("INSERT INTO cache_a SET amount=1");
+      executor.executeUpdate("INSERT INTO cache_b SET amount=1");
+
+      assertEquals(1, executor.executeQuery("SELECT SUM(amount) AS s FROM cache_a").fieldLong("s"));
+      assertEquals(1, executor.executeQuery("SELECT SUM(amount) AS s FROM cache_b").fieldLong("s"));
+
+      // Written by another executor, the cached result is returned.
+      connection.createStatementExecutor().executeUpdate("UPDATE cache_a SET amount=5");
+      assertEquals(1, executor.executeQuery("SELECT SUM(amount) AS s FROM cache_a").fieldLong("s"));
+      assertEquals(1, cache.getHitCount());
+
+      executor.insert("INSERT INTO cache_a SET amount=2");
+      assertEquals(1, cache.size());
+      assertEquals(7, executor.executeQuery("SELECT SUM(amount) AS s FROM cache_a").fieldLong("s"));
+      assertEquals(1, executor.executeQuery("SELECT SUM(amount) AS s FROM cache_b").fieldLong("s"));
+      assertEquals(2, cache.getHitCount());
+
+      executor.prepareExecuteBatch(
+          Arrays.asList(
+              Prepared.newBuilder("UPDATE cache_b SET amount=?")
+                  .set(1, ParameterValue.int64(3))
+                  .build()));
+      assertEquals(3, executor.executeQuery("SELECT SUM(amount) AS s FROM cache_b").fieldLong("s"));
+    }
+  }
+
+  @Test
+  public void testIndependentCursorAndTtl() throws IOException {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      QueryCache cache = new QueryCache(100, 1 << 20, 60000);
+      CachedStatementExecutor executor =
+          new CachedStatementExecutor(connection.createStatementExecutor(), cache);
+
+      executor.executeUpdate("CREATE TABLE cache_c (id bigint auto_increment, amount bigint);");
+      executor.executeBatch(
+          Arrays.asList("INSERT INTO cache_c SET amount=1", "INSERT INTO cache_c SET amount=2"));
+
+      Prepared prepared =
+          Prepared.newBuilder("SELECT amount FROM cache_c WHERE id>? ORDER BY id")
+              .set(1, ParameterValue.int64(0))
+              .build();
+      RecordCursor first = executor.prepareExecuteQuery(prepared);
+
+      first.next();
+      first.close();
+
+      RecordCursor second = executor.prepareExecuteQuery(prepared);
+
+      assertEquals(2, second.getRecordCount());
+      assertEquals(1, second.fieldLong("amount"));
+      assertEquals(1, cache.getHitCount());
+
+      // TTL 0 bypasses the cache.
+      executor.prepareExecuteQuery(prepared, 0);
+      assertEquals(1, cache.getHitCount());
+    }
+  }
+
+  @Test
+  public void testCommittedTransactionInvalidateAll() {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      QueryCache cache = new QueryCache(100, 1 << 20, 60000);
+      CachedStatementExecutor executor =
+          new CachedStatementExecutor(connection.createStatementExecutor(), cache);
+
+      executor.executeUpdate("CREATE TABLE cache_d (id bigint auto_increment, amount bigint);");
+      executor.executeQuery("SELECT COUNT(*) AS c FROM cache_d");
+
+      executor.executeTransaction(
+          transaction -> {
+            transaction.executeUpdate("INSERT INTO cache_d SET amount=1");
+            return false;
+          });
+      assertEquals(1, cache.size());
+
+      executor.executeTransaction(
+          transaction -> {
+            transaction.executeUpdate("INSERT INTO cache_d SET amount=1");
+            return true;
+          });
+      assertEquals(0, cache.size());
+      assertEquals(1, executor.executeQuery("SELECT COUNT(*) AS c FROM cache_d").fieldLong("c"));
+      assertTrue(executor.isLive());
+    }
+  }
+
+  @Test
+  public void testExecuteQueriesOnlySendsMisses() {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      QueryCache cache = new QueryCache(100, 1 << 20, 60000);
+      CachedStatementExecutor executor =
+          new CachedStatementExecutor(connection.createStatementExecutor(), cache);
+
+      executor.executeUpdate("CREATE TABLE cache_e (id bigint auto_increment, amount bigint);");
+      executor.executeUpdate("INSERT INTO cache_e SET amount=4");
+      executor.executeQuery("SELECT SUM(amount) AS s FROM cache_e");
+
+      List<RecordCursor> records =
+          executor.executeQueries(
+              Arrays.asList(
+                  "SELECT COUNT(*) AS c FROM cache_e", "SELECT SUM(amount) AS s FROM cache_e"));
+
+      assertEquals(1, records.get(0).fieldLong("c"));
+      assertEquals(4, records.get(1).fieldLong("s"));
+      assertEquals(1, cache.getHitCount());
+      assertEquals(2, cache.size());
+
+      executor.executeQueries(
+          Arrays.asList(
+              "SELECT COUNT(*) AS c FROM cache_e", "SELECT SUM(amount) AS s FROM cache_e"));
+      assertEquals(3, cache.getHitCount());
+    }
+  }
+}
@@ -0,0 +1,354 @@
+package ra.db;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ra.db.connection.MockOnceConnection;
+import ra.db.connection.OnceConnection;
+import ra.db.parameter.H2Parameters;
+import ra.db.parameter.MysqlParameters;
+import ra.db.record.RecordCursor;
+import ra.exception.RaConnectException;
+import ra.exception.RaTimeoutException;
+
+/** Test class. */
+public class ConnectionPoolTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  private static final MysqlParameters MYSQL_PARAM =
+      new MysqlParameters.Builder().setHost("127.0.0.1").setName("test").build();
+
+  @Test
+  public void testOpenMinSize() {
+    AtomicInteger created = new AtomicInteger();
+
+    try (ConnectionPool pool =
+        new ConnectionPool(
+            "test",
+            PoolSettings.newBuilder().setMinSize(3).setMaxSize(5).build(),
+            () -> {
+              created.incrementAndGet();
+              return new MockOnceConnection(MYSQL_PARAM);
+            })) {
+
+      assertEquals(3, created.get());
+      assertEquals(3, pool.getTotalCount());
+      assertEquals(3, pool.getIdleCount());
+    }
+  }
+
+  @Test
+  public void testBorrowAndReturn() {
+    try (ConnectionPool pool =
+        new ConnectionPool(
+            "test",
+            PoolSettings.newBuilder().setMinSize(1).setMaxSize(2).build(),
+            () -> new MockOnceConnection(MYSQL_PARAM))) {
+      ConnectionLease lease1 = pool.borrow();
+      ConnectionLease lease2 = pool.borrow();
+
+      assertNotSame(lease1.getDatabaseConnection(), lease2.getDatabaseConnection());
+      assertEquals(2, pool.getTotalCount());
+      assertEquals(2, pool.getLeasedCount());
+
+      DatabaseConnection connection = lease1.getDatabaseConnection();
+      lease1.close();
+      lease1.close();
+
+      assertEquals(1, pool.getLeasedCount());
+      assertEquals(1, pool.getIdleCount());
+
+      try (ConnectionLease lease3 = pool.borrow()) {
+        assertSame(connection, lease3.getDatabaseConnection());
+      }
+      lease2.close();
+
+      assertEquals(0, pool.getLeasedCount());
+      assertEquals(2, pool.getIdleCount());
+    }
+  }
+
+  @Test
+  public void testUseReturnedLease() {
+    exceptionRule.expect(IllegalStateException.class);
+
+    try (ConnectionPool pool =
+        new ConnectionPool(
+            "test", PoolSettings.newBuilder().build(), () -> new MockOnceConnection(MYSQL_PARAM))) {
+      ConnectionLease lease = pool.borrow();
+
+      lease.close();
+      lease.getStatementExecutor();
+    }
+  }
+
+  @Test
+  public void testAcquireTimeout() {
+    exceptionRule.expect(RaConnectException.class);
+    exceptionRule.expectMessage("acquire timeout");
+
+    try (ConnectionPool pool =
+        new ConnectionPool(
+            "test",
+            PoolSettings.newBuilder().setMinSize(0).setMaxSize(1).setAcquireTimeout(50).build(),
+            () -> new MockOnceConnection(MYSQL_PARAM))) {
+      pool.borrow();
+      pool.borrow();
+    }
+  }
+
+  @Test
+  public void testWaitQueueFull() {
+    exceptionRule.expect(RaConnectException.class);
+    exceptionRule.expectMessage("wait queue is full");
+
+    try (ConnectionPool pool =
+        new ConnectionPool(
+            "test",
+            PoolSettings.newBuilder().setMinSize(0).setMaxSize(1).setMaxWaiting(0).build(),
+            () -> new MockOnceConnection(MYSQL_PARAM))) {
+      pool.borrow();
+      pool.borrow();
+    }
+  }
+
+  @Test
+  public void testWaitForReturnedConnection() throws InterruptedException {
+    try (ConnectionPool pool =
+        new ConnectionPool(
+            "test",
+            PoolSettings.newBuilder().setMinSize(0).setMaxSize(1).build(),
+            () -> new MockOnceConnection(MYSQL_PARAM))) {
+      ConnectionLease lease = pool.borrow();
+      CountDownLatch borrowed = new CountDownLatch(1);
+
+      new Thread(
+              () -> {
+                try (ConnectionLease other = pool.borrow()) {
+                  assertTrue(other.getStatementExecutor().isLive());
+                  borrowed.countDown();
+                }
+              })
+          .start();
+
+      long deadline = System.currentTimeMillis() + 5000;
+
+      while (pool.getWaitingCount() < 1 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+      assertEquals(1, pool.getWaitingCount());
+      lease.close();
+
+      assertTrue(borrowed.await(5, TimeUnit.SECONDS));
+      assertEquals(1, pool.getTotalCount());
+    }
+  }
+
+  @Test
+  public void testShrinkIdleConnections() throws InterruptedException {
+    try (ConnectionPool pool =
+        new ConnectionPool(
+            "test",
+            PoolSettings.newBuilder().setMinSize(1).setMaxSize(3).setIdleTimeout(200).build(),
+            () -> new MockOnceConnection(MYSQL_PARAM))) {
+      ConnectionLease lease1 = pool.borrow();
+      ConnectionLease lease2 = pool.borrow();
+      ConnectionLease lease3 = pool.borrow();
+
+      lease1.close();
+      lease2.close();
+      lease3.close();
+      assertEquals(3, pool.getTotalCount());
+
+      Thread.sleep(800);
+
+      assertEquals(1, pool.getTotalCount());
+    }
+  }
+
+  @Test
+  public void testConnectFailure() {
+    exceptionRule.expect(RaConnectException.class);
+
+    new ConnectionPool(
+        "test",
+        PoolSettings.newBuilder().setMinSize(1).build(),
+        () ->
+            new MockOnceConnection(MYSQL_PARAM) {
+              @Override
+              public boolean connect() {
+                return false;
+              }
+            });
+  }
+
+  @Test
+  public void testBorrowClosedPool() {
+    exceptionRule.expect(RaConnectException.class);
+    exceptionRule.expectMessage("is closed");
+
+    ConnectionPool pool =
+        new ConnectionPool(
+            "test", PoolSettings.newBuilder().build(), () -> new MockOnceConnection(MYSQL_PARAM));
+
+    pool.close();
+    pool.borrow();
+  }
+
+  @Test
+  public void testInvalidSettings() {
+    exceptionRule.expect(IllegalArgumentException.class);
+
+    PoolSettings.newBuilder().setMinSize(5).setMaxSize(2).build();
+  }
+
+  @Test
+  public void testConcurrentStatementsUsingH2() throws Exception {
+    H2Parameters param =
+        new H2Parameters.Builder()
+            .setProperties("DATABASE_TO_UPPER", "false")
+            .setProperties("MODE", "MYSQL")
+            .inMemory()
+            .setName("connectionPoolTest")
+            .build();
+    ExecutorService threads = Executors.newFixedThreadPool(8);
+
+    try (ConnectionPool pool =
+        new ConnectionPool(
+            "h2",
+            PoolSettings.newBuilder().setMinSize(1).setMaxSize(4).build(),
+            () -> new OnceConnection(param))) {
+      StatementExecutor executor = pool.getStatementExecutor();
+
+      executor.executeUpdate("CREATE TABLE pool_test (id bigint auto_increment, amount bigint);");
+
+      CountDownLatch latch = new CountDownLatch(100);
+
+      for (int i = 0; i < 100; i++) {
+        int value = i;
+
+        threads.execute(
+            () -> {
+              try {
+                executor.executeUpdate("INSERT INTO pool_test SET amount=" + value);
+              } finally {
+                latch.countDown();
+              }
+            });
+      }
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+      RecordCursor record = executor.executeQuery("SELECT COUNT(*) AS total FROM pool_test");
+
+      assertEquals(100, record.fieldLong("total"));
+      assertTrue(pool.getTotalCount() <= 4);
+      assertEquals(0, pool.getLeasedCount());
+    } finally {
+      threads.shutdown();
+    }
+  }
+
+  @Test
+  public void testDatabaseConnectionsPoolMode() {
+    DatabaseConnections connections = new DatabaseConnections();
+
+    connections.connectPool(
+        MYSQL_PARAM,
+        PoolSettings.newBuilder().setMinSize(2).build(),
+        () -> new MockOnceConnection(MYSQL_PARAM));
+
+    try (ConnectionLease lease = connections.lease()) {
+      assertThat(lease.getStatementExecutor(), instanceOf(StatementExecutor.class));
+      assertEquals(1, connections.getPool().getLeasedCount());
+    }
+
+    assertTrue(connections.next().isLive());
+
+    connections.close();
+    assertEquals(null, connections.getPool());
+  }
+
+  @Test
+  public void testConnectPoolTwice() {
+    exceptionRule.expect(IllegalStateException.class);
+
+    DatabaseConnections connections = new DatabaseConnections();
+
+    try {
+      connections.connectPool(
+          MYSQL_PARAM,
+          PoolSettings.newBuilder().setMinSize(1).build(),
+          () -> new MockOnceConnection(MYSQL_PARAM));
+      connections.connectPool(
+          MYSQL_PARAM,
+          PoolSettings.newBuilder().setMinSize(1).build(),
+          () -> new MockOnceConnection(MYSQL_PARAM));
+    } finally {
+      connections.close();
+    }
+  }
+
+  @Test
+  public void testReturnAfterClose() {
+    ConnectionPool pool =
+        new ConnectionPool(
+            "test",
+            PoolSettings.newBuilder().setMinSize(1).setMaxSize(1).build(),
+            () -> new MockOnceConnection(MYSQL_PARAM));
+    ConnectionLease lease = pool.borrow();
+
+    pool.close();
+    lease.close();
+
+    assertEquals(0, pool.getIdleCount());
+    assertEquals(0, pool.getTotalCount());
+  }
+
+  @Test
+  public void testLeaseWithoutPoolMode() {
+    exceptionRule.expect(IllegalStateException.class);
+
+    new DatabaseConnections().lease();
+  }
+
+  @Test(timeout = 10000)
+  public void testStatementExecutorWithTimeout() {
+    exceptionRule.expect(RaTimeoutException.class);
+
+    H2Parameters param =
+        new H2Parameters.Builder()
+            .setProperties("DATABASE_TO_UPPER", "false")
+            .inMemory()
+            .setName("connectionPoolTimeout")
+            .build();
+
+    try (ConnectionPool pool =
+        new ConnectionPool(
+            "h2",
+            PoolSettings.newBuilder().setMinSize(1).setMaxSize(1).build(),
+            () -> new OnceConnection(param))) {
+      StatementExecutor executor =
+          pool.getStatementExecutor().withTimeout(200, TimeUnit.MILLISECONDS);
+
+      try {
+        executor.executeQuery(
+            "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 100000) a, SYSTEM_RANGE(1, 100000) b"
+                + " WHERE a.X + b.X = 3");
+      } finally {
+        assertEquals(0, pool.getLeasedCount());
+      }
+    }
+  }
+}
@@ -1,8 +1,17 @@
 package ra.db;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import ra.db.connection.MockOnceConnection;
 import ra.db.parameter.MysqlParameters;
@@ -25,6 +34,95 @@ public class DatabaseConnectionsTest {
     assertNotNull(executor);
   }
 
+  @Test
+  public void testNextRoundRobin() {
+    DatabaseConnections dbConnection = generateDatabaseConnections(3);
+    Set<StatementExecutor> executors = new HashSet<>();
+
+    for (int i = 0; i < 3; i++) {
+      executors.add(dbConnection.next());
+    }
+
+    assertEquals(3, executors.size());
+  }
+
+  @Test
+  public void testNextSkipConnectionNotLive() {
+    DatabaseConnections dbConnection = generateDatabaseConnections(3);
+
+    ((MockOnceConnection) dbConnection.getConnection(0)).setIsLive(false);
+    ((MockOnceConnection) dbConnection.getConnection(2)).setIsLive(false);
+
+    for (int i = 0; i < 6; i++) {
+      assertSame(dbConnection.getStatementExecutor(1), dbConnection.next());
+    }
+  }
+
+  @Test
+  public void testNextAllConnectionsNotLive() {
+    DatabaseConnections dbConnection = generateDatabaseConnections(2);
+
+    ((MockOnceConnection) dbConnection.getConnection(0)).setIsLive(false);
+    ((MockOnceConnection) dbConnection.getConnection(1)).setIsLive(false);
+
+    assertNotNull(dbConnection.next());
+  }
+
+  @Test
+  public void testIsLiveNotAdvanceRoundRobin() {
+    DatabaseConnections dbConnection = generateDatabaseConnections(3);
+
+    for (int i = 0; i < 4; i++) {
+      assertTrue(dbConnection.isLive());
+      assertEquals(0, dbConnection.getInFlightCount());
+    }
+    assertSame(dbConnection.getStatementExecutor(0), dbConnection.next());
+    assertSame(dbConnection.getStatementExecutor(1), dbConnection.next());
+
+    for (int i = 0; i < 3; i++) {
+      ((MockOnceConnection) dbConnection.getConnection(i)).setIsLive(false);
+    }
+    assertFalse(dbConnection.isLive());
+  }
+
+  @Test
+  public void testNextPreferFewestInFlight() throws InterruptedException {
+    DatabaseConnections dbConnection = generateDatabaseConnections(3);
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    StatementExecutor busy = dbConnection.getStatementExecutor(0);
+
+    ((MockOnceConnection) dbConnection.getConnection(0))
+        .getMockConnection()
+        .setExecuteUpdateListener(
+            sql -> {
+              entered.countDown();
+              try {
+                release.await(5, TimeUnit.SECONDS);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return 1;
+            });
+
+    Thread thread = new Thread(() -> busy.executeUpdate("UPDATE test SET a=1"));
+    thread.start();
+
+    try {
+      assertTrue(entered.await(5, TimeUnit.SECONDS));
+      assertEquals(1, busy.getInFlightCount());
+
+      for (int i = 0; i < 6; i++) {
+        assertNotSame(busy, dbConnection.next());
+      }
+    } finally {
+      release.countDown();
+      thread.join();
+    }
+
+    assertEquals(0, busy.getInFlightCount());
+  }
+
   @Test
   public void testClose() {
     Exception exception = null;
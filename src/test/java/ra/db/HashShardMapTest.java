@@ -0,0 +1,31 @@
+package ra.db;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Test class. */
+public class HashShardMapTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  @Test
+  public void testGetShard() {
+    HashShardMap map = new HashShardMap("a", "b", "c");
+
+    assertEquals(Arrays.asList("a", "b", "c"), Arrays.asList(map.getShardNames().toArray()));
+    // Integer types of the same value share the shard.
+    assertEquals(map.getShard(7L), map.getShard(7));
+    assertEquals(map.getShard("user-1"), new HashShardMap("a", "b", "c").getShard("user-1"));
+  }
+
+  @Test
+  public void testDuplicateShards() {
+    exceptionRule.expect(IllegalArgumentException.class);
+    exceptionRule.expectMessage("Duplicate shard names");
+
+    new HashShardMap("a", "a");
+  }
+}
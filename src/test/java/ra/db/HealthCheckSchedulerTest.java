@@ -0,0 +1,173 @@
+package ra.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Test class. */
+public class HealthCheckSchedulerTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  private static KeepAlive newKeepAlive(long interval, Runnable keep) {
+    return new KeepAlive() {
+      @Override
+      public long interval() {
+        return interval;
+      }
+
+      @Override
+      public void keep() {
+        keep.run();
+      }
+    };
+  }
+
+  @Test
+  public void testSharedThreads() throws InterruptedException {
+    try (HealthCheckScheduler scheduler = new HealthCheckScheduler("testShared", 1)) {
+      CountDownLatch latch = new CountDownLatch(20);
+      Set<String> threads = ConcurrentHashMap.newKeySet();
+
+      for (int i = 0; i < 10; i++) {
+        scheduler.register(
+            newKeepAlive(
+                10,
+                () -> {
+                  threads.add(Thread.currentThread().getName());
+                  latch.countDown();
+                }));
+      }
+
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+      assertTrue(threads.stream().allMatch(name -> name.startsWith("testShared-check-")));
+    }
+  }
+
+  @Test
+  public void testBlockedCheckNotDelayOthers() throws InterruptedException {
+    try (HealthCheckScheduler scheduler = new HealthCheckScheduler("testBlocked", 1, 2)) {
+      CountDownLatch release = new CountDownLatch(1);
+      CountDownLatch others = new CountDownLatch(5);
+      AtomicInteger blocked = new AtomicInteger();
+
+      scheduler.register(
+          newKeepAlive(
+              10,
+              () -> {
+                blocked.incrementAndGet();
+                try {
+                  release.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              }));
+      scheduler.register(newKeepAlive(10, others::countDown));
+
+      assertTrue(others.await(5, TimeUnit.SECONDS));
+      // The next check is skipped while the previous check is running.
+      assertEquals(1, blocked.get());
+      release.countDown();
+    }
+  }
+
+  @Test
+  public void testWorkersBounded() throws InterruptedException {
+    try (HealthCheckScheduler scheduler = new HealthCheckScheduler("testBounded", 1, 2)) {
+      CountDownLatch release = new CountDownLatch(1);
+      CountDownLatch started = new CountDownLatch(2);
+      Set<String> threads = ConcurrentHashMap.newKeySet();
+
+      for (int i = 0; i < 10; i++) {
+        scheduler.register(
+            newKeepAlive(
+                10,
+                () -> {
+                  threads.add(Thread.currentThread().getName());
+                  started.countDown();
+                  try {
+                    release.await();
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                }));
+      }
+
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      // The checks which don't get a worker are skipped.
+      Thread.sleep(100);
+      assertEquals(2, threads.size());
+      release.countDown();
+    }
+  }
+
+  @Test
+  public void testSetDefault() {
+    HealthCheckScheduler original = HealthCheckScheduler.getDefault();
+
+    try (HealthCheckScheduler scheduler = new HealthCheckScheduler("testDefault", 4)) {
+      HealthCheckScheduler.setDefault(scheduler);
+      assertSame(scheduler, HealthCheckScheduler.getDefault());
+    } finally {
+      HealthCheckScheduler.setDefault(original);
+    }
+  }
+
+  @Test
+  public void testCancel() throws InterruptedException {
+    try (HealthCheckScheduler scheduler = new HealthCheckScheduler("testCancel", 1)) {
+      AtomicInteger count = new AtomicInteger();
+      CountDownLatch latch = new CountDownLatch(1);
+      ScheduledFuture<?> registration =
+          scheduler.register(
+              newKeepAlive(
+                  10,
+                  () -> {
+                    count.incrementAndGet();
+                    latch.countDown();
+                  }));
+
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+      registration.cancel(false);
+
+      int cancelled = count.get();
+
+      Thread.sleep(50);
+      assertTrue(count.get() <= cancelled + 1);
+      assertEquals(0, scheduler.size());
+    }
+  }
+
+  @Test
+  public void testExceptionDoesNotStopChecks() throws InterruptedException {
+    try (HealthCheckScheduler scheduler = new HealthCheckScheduler("testException", 1)) {
+      CountDownLatch latch = new CountDownLatch(2);
+
+      scheduler.register(
+          newKeepAlive(
+              10,
+              () -> {
+                latch.countDown();
+                throw new IllegalStateException("keep failed");
+              }));
+
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void testInvalidInterval() {
+    exceptionRule.expect(IllegalArgumentException.class);
+
+    HealthCheckScheduler.getDefault().register(newKeepAlive(0, () -> {}));
+  }
+}
@@ -1,14 +1,23 @@
 package ra.db;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import javax.sql.rowset.serial.SerialBlob;
 import javax.sql.rowset.serial.SerialException;
 import org.junit.Test;
@@ -16,9 +25,13 @@ import ra.db.connection.MockOriginalConnection;
 import ra.db.connection.OnceConnection;
 import ra.db.parameter.H2Parameters;
 import ra.db.parameter.MysqlParameters;
+import ra.db.record.LastInsertId;
 import ra.db.record.RecordCursor;
+import ra.db.record.SpillableRecordSet;
+import ra.db.record.StreamingRecordCursor;
 import ra.exception.RaConnectException;
 import ra.exception.RaSqlException;
+import ra.exception.RaTimeoutException;
 import ra.util.Utility;
 
 /** Test class. */
@@ -709,4 +722,510 @@ public class JdbcExecutorTest {
       }
     }
   }
+
+  @Test
+  public void testExecuteBatch() {
+    H2Parameters param =
+        new H2Parameters.Builder()
+            .setProperties("DATABASE_TO_UPPER", "false")
+            .setProperties("MODE", "MYSQL")
+            .inMemory()
+            .setName("executeBatch")
+            .setBatchSize(2)
+            .build();
+
+    try (OnceConnection connection = new OnceConnection(param)) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate(
+          "CREATE TABLE test_table (id bigint auto_increment, columnsTest bigint);");
+
+      int[] ret =
+          executor.executeBatch(
+              Arrays.asList(
+                  "INSERT INTO test_table SET columnsTest=1",
+                  "INSERT INTO test_table SET columnsTest=2",
+                  "INSERT INTO test_table SET columnsTest=3",
+                  "UPDATE test_table SET columnsTest=columnsTest+10"));
+
+      RecordCursor record =
+          executor.executeQuery("SELECT SUM(columnsTest) AS total FROM test_table");
+
+      executor.executeUpdate("DROP TABLE test_table");
+
+      assertArrayEquals(new int[] {1, 1, 1, 3}, ret);
+      assertEquals(36, record.fieldLong("total"));
+      assertEquals(0, executor.executeBatch(new ArrayList<>()).length);
+    }
+  }
+
+  @Test
+  public void testExecuteQueries() {
+    try (OnceConnection connection = new OnceConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate("CREATE TABLE test_table (id bigint, columnsTest bigint);");
+      executor.executeUpdate("INSERT INTO test_table VALUES (1, 10), (2, 20)");
+
+      List<RecordCursor> records =
+          executor.executeQueries(
+              Arrays.asList(
+                  "SELECT columnsTest FROM test_table WHERE id=1;",
+                  "SELECT COUNT(*) AS total FROM test_table",
+                  "SELECT id FROM test_table WHERE id>5"));
+
+      assertEquals(3, records.size());
+      assertEquals(10, records.get(0).fieldLong("columnsTest"));
+      assertEquals(2, records.get(1).fieldLong("total"));
+      assertEquals(0, records.get(2).getRecordCount());
+      assertEquals(0, executor.executeQueries(new ArrayList<>()).size());
+    }
+  }
+
+  @Test
+  public void testExecuteQueriesWithoutResultSet() {
+    try (OnceConnection connection = new OnceConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate("CREATE TABLE test_table (id bigint);");
+
+      try {
+        executor.executeQueries(
+            Arrays.asList("SELECT id FROM test_table", "INSERT INTO test_table VALUES (1)"));
+        fail("Expected RaSqlException.");
+      } catch (RaSqlException e) {
+        assertThat(e.getMessage(), containsString("Expected 2 result sets but 1"));
+      }
+    }
+  }
+
+  @Test
+  public void testPrepareInsertBatch() {
+    H2Parameters param =
+        new H2Parameters.Builder()
+            .setProperties("DATABASE_TO_UPPER", "false")
+            .setProperties("MODE", "MYSQL")
+            .inMemory()
+            .setName("prepareInsertBatch")
+            .setBatchSize(2)
+            .build();
+
+    try (OnceConnection connection = new OnceConnection(param)) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate(
+          "CREATE TABLE test_table (id bigint auto_increment primary key, columnsTest bigint);");
+      executor.executeUpdate("INSERT INTO test_table SET columnsTest=0");
+
+      List<Prepared> prepared = new ArrayList<>();
+
+      for (int i = 1; i <= 5; i++) {
+        prepared.add(
+            Prepared.newBuilder("INSERT INTO test_table (columnsTest) VALUES (?)")
+                .setLong(1, i * 10)
+                .build());
+      }
+      prepared.add(
+          Prepared.newBuilder("INSERT INTO test_table (columnsTest, id) VALUES (?, ?)")
+              .setLong(1, 60)
+              .setLong(2, 100)
+              .build());
+      prepared.add(
+          Prepared.newBuilder("INSERT INTO test_table (columnsTest) VALUES (?)")
+              .setLong(1, 70)
+              .build());
+
+      long[] keys = executor.prepareInsertBatch(prepared);
+
+      assertArrayEquals(new long[] {2, 3, 4, 5, 6, 100, 101}, keys);
+      assertEquals(
+          40,
+          executor
+              .prepareExecuteQuery(
+                  Prepared.newBuilder("SELECT columnsTest FROM test_table WHERE id=?")
+                      .setLong(1, keys[3])
+                      .build())
+              .fieldLong("columnsTest"));
+      assertEquals(0, executor.prepareInsertBatch(new ArrayList<>()).length);
+    }
+  }
+
+  @Test
+  public void testPrepareInsertBatchRollback() {
+    H2Parameters param =
+        new H2Parameters.Builder()
+            .setProperties("DATABASE_TO_UPPER", "false")
+            .setProperties("MODE", "MYSQL")
+            .inMemory()
+            .setName("prepareInsertBatchRollback")
+            .setBatchSize(2)
+            .build();
+
+    try (OnceConnection connection = new OnceConnection(param)) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate(
+          "CREATE TABLE test_table (id bigint auto_increment primary key, columnsTest bigint);");
+
+      List<Prepared> prepared = new ArrayList<>();
+
+      for (int i = 1; i <= 3; i++) {
+        prepared.add(
+            Prepared.newBuilder("INSERT INTO test_table (id, columnsTest) VALUES (?, ?)")
+                .setLong(1, i == 3 ? 1 : i)
+                .setLong(2, i)
+                .build());
+      }
+
+      try {
+        executor.prepareInsertBatch(prepared);
+        fail("Expected RaSqlException.");
+      } catch (RaSqlException e) {
+        assertThat(e.getMessage(), containsString("Insert batch failed, size=3"));
+      }
+      assertEquals(
+          0, executor.executeQuery("SELECT COUNT(*) AS total FROM test_table").fieldLong("total"));
+    }
+  }
+
+  @Test
+  public void testPrepareExecuteBatch() {
+    H2Parameters param =
+        new H2Parameters.Builder()
+            .setProperties("DATABASE_TO_UPPER", "false")
+            .setProperties("MODE", "MYSQL")
+            .inMemory()
+            .setName("prepareExecuteBatch")
+            .setBatchSize(2)
+            .setStatementCacheSize(4)
+            .build();
+
+    try (OnceConnection connection = new OnceConnection(param)) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate(
+          "CREATE TABLE test_table (id bigint auto_increment, columnsTest bigint);");
+
+      List<Prepared> batch = new ArrayList<>();
+
+      for (int i = 1; i <= 5; i++) {
+        batch.add(
+            Prepared.newBuilder("INSERT INTO test_table SET columnsTest=?;")
+                .set(1, ParameterValue.int64(i))
+                .build());
+      }
+      batch.add(
+          Prepared.newBuilder("DELETE FROM test_table WHERE columnsTest>?;")
+              .set(1, ParameterValue.int64(3))
+              .build());
+
+      int[] ret = executor.prepareExecuteBatch(batch);
+
+      RecordCursor record =
+          executor.executeQuery("SELECT SUM(columnsTest) AS total FROM test_table");
+
+      executor.executeUpdate("DROP TABLE test_table");
+
+      assertArrayEquals(new int[] {1, 1, 1, 1, 1, 2}, ret);
+      assertEquals(6, record.fieldLong("total"));
+    }
+  }
+
+  @Test
+  public void testExecuteBatchRollbackFailedBatch() {
+    H2Parameters param =
+        new H2Parameters.Builder()
+            .setProperties("DATABASE_TO_UPPER", "false")
+            .setProperties("MODE", "MYSQL")
+            .inMemory()
+            .setName("executeBatchRollback")
+            .setBatchSize(2)
+            .build();
+
+    try (OnceConnection connection = new OnceConnection(param)) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate(
+          "CREATE TABLE test_table (id bigint auto_increment, columnsTest bigint);");
+
+      try {
+        executor.executeBatch(
+            Arrays.asList(
+                "INSERT INTO test_table SET columnsTest=1",
+                "INSERT INTO test_table SET columnsTest=2",
+                "INSERT INTO test_table SET columnsTest=3",
+                "INSERT INTO not_exist SET columnsTest=4"));
+        fail("Expected RaSqlException.");
+      } catch (Exception e) {
+        assertThat(e, instanceOf(RaSqlException.class));
+      }
+
+      RecordCursor record = executor.executeQuery("SELECT COUNT(*) AS total FROM test_table");
+
+      executor.executeUpdate("DROP TABLE test_table");
+
+      assertEquals(2, record.fieldLong("total"));
+    }
+  }
+
+  @Test
+  public void testPrepareUsingPrimitiveSetters() {
+    try (OnceConnection connection = new OnceConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate(
+          "CREATE TABLE test_table "
+              + "(id bigint, num int, rate double, flag boolean, name varchar(10));");
+      executor.prepareExecuteUpdate(
+          Prepared.newBuilder("INSERT INTO test_table VALUES (?, ?, ?, ?, ?)")
+              .setLong(1, 10000000000L)
+              .setInt(2, 7)
+              .setDouble(3, 0.5)
+              .setBoolean(4, true)
+              .setString(5, "abc")
+              .build());
+      executor.prepareExecuteUpdate(
+          Prepared.newBuilder("INSERT INTO test_table VALUES (?, ?, ?, ?, ?)")
+              .setLong(1, 2)
+              .set(2, ParameterValue.int64((Integer) null))
+              .set(3, ParameterValue.float64((Double) null))
+              .set(4, ParameterValue.bool(null))
+              .setString(5, null)
+              .build());
+
+      RecordCursor record =
+          executor.prepareExecuteQuery(
+              Prepared.newBuilder("SELECT * FROM test_table WHERE flag=? OR id=? ORDER BY id")
+                  .setBoolean(1, true)
+                  .setLong(2, 2)
+                  .build());
+
+      executor.executeUpdate("DROP TABLE test_table");
+
+      assertEquals(2, record.getRecordCount());
+      assertEquals(2, record.fieldLong("id"));
+      assertTrue(record.isNull("num"));
+      assertTrue(record.isNull("rate"));
+      assertTrue(record.isNull("flag"));
+      assertNull(record.field("name"));
+
+      record.next();
+      assertEquals(10000000000L, record.fieldLong("id"));
+      assertEquals(7, record.fieldInt("num"));
+      assertEquals(0.5, record.fieldDouble("rate"), 0);
+      assertEquals("true", record.field("flag"));
+      assertEquals("abc", record.field("name"));
+    }
+  }
+
+  @Test
+  public void testRecordMemoryBudget() throws IOException {
+    try (OnceConnection connection = new OnceConnection(H2_PARAM.build())) {
+      connection.connect();
+      JdbcExecutor executor = new JdbcExecutor(connection);
+
+      executor.setRecordMemoryBudget(1024);
+
+      try (RecordCursor record =
+          executor.executeQuery("SELECT X AS id FROM SYSTEM_RANGE(1, 200)")) {
+        assertThat(record, instanceOf(SpillableRecordSet.class));
+        assertTrue(((SpillableRecordSet) record).isSpilled());
+        assertEquals(200, record.getRecordCount());
+        assertEquals(20100, record.stream().mapToLong(row -> row.getLong("id")).sum());
+      }
+    }
+  }
+
+  private static final String SLOW_QUERY =
+      "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 100000) a, SYSTEM_RANGE(1, 100000) b"
+          + " WHERE a.X + b.X = 3";
+
+  @Test(timeout = 10000)
+  public void testWithTimeout() {
+    try (OnceConnection connection = new OnceConnection(H2_PARAM.build())) {
+      connection.connect();
+      JdbcExecutor executor = new JdbcExecutor(connection);
+      long start = System.currentTimeMillis();
+
+      try {
+        executor.withTimeout(200, TimeUnit.MILLISECONDS).executeQuery(SLOW_QUERY);
+        fail("Expected RaTimeoutException.");
+      } catch (RaTimeoutException e) {
+        // The watchdog cancels the statement before the query timeout of 1 second.
+        assertTrue(System.currentTimeMillis() - start < 1000);
+      }
+
+      assertEquals(0, executor.getQueryTimeout());
+      assertEquals(0, executor.getInFlightCount());
+      assertEquals(1, executor.executeQuery("SELECT 1").fieldInt(1));
+
+      try {
+        executor.withTimeout(5, TimeUnit.SECONDS).executeQuery("SELECT * FROM missing");
+        fail("Expected RaSqlException.");
+      } catch (RaSqlException e) {
+        assertFalse(e instanceof RaTimeoutException);
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testDefaultQueryTimeout() {
+    H2Parameters param =
+        new H2Parameters.Builder()
+            .setProperties("DATABASE_TO_UPPER", "false")
+            .setProperties("MODE", "MYSQL")
+            .inMemory()
+            .setName("defaultQueryTimeout")
+            .setQueryTimeout(200, TimeUnit.MILLISECONDS)
+            .build();
+
+    try (OnceConnection connection = new OnceConnection(param)) {
+      connection.connect();
+      JdbcExecutor executor = new JdbcExecutor(connection);
+
+      assertEquals(200, executor.getQueryTimeout());
+      executor.executeUpdate("CREATE TABLE timeout_t (id bigint auto_increment, amount bigint);");
+
+      try {
+        executor.prepareExecuteQuery(
+            Prepared.newBuilder(SLOW_QUERY + " AND a.X > ?")
+                .set(1, ParameterValue.int64(0))
+                .build());
+        fail("Expected RaTimeoutException.");
+      } catch (RaTimeoutException e) {
+        assertThat(e.getMessage(), containsString("timeout=200ms"));
+      }
+
+      // The whole transaction shares the deadline and is rolled back.
+      try {
+        executor.executeTransaction(
+            transaction -> {
+              transaction.executeUpdate("INSERT INTO timeout_t SET amount=1");
+              transaction.executeQuery(SLOW_QUERY);
+              return true;
+            });
+        fail("Expected RaTimeoutException.");
+      } catch (RaTimeoutException e) {
+        assertEquals(0, executor.executeQuery("SELECT COUNT(*) FROM timeout_t").fieldInt(1));
+      }
+
+      executor.setQueryTimeout(0, TimeUnit.MILLISECONDS);
+      assertEquals(0, executor.getQueryTimeout());
+      executor.executeUpdate("INSERT INTO timeout_t SET amount=1");
+      assertEquals(1, executor.executeQuery("SELECT COUNT(*) FROM timeout_t").fieldInt(1));
+    }
+  }
+
+  /** Only the methods of the first version are implemented, the others are defaults. */
+  private static StatementExecutor baseExecutor(StatementExecutor delegate) {
+    return new StatementExecutor() {
+      @Override
+      public boolean isLive() {
+        return delegate.isLive();
+      }
+
+      @Override
+      public int executeUpdate(String sql) {
+        return delegate.executeUpdate(sql);
+      }
+
+      @Override
+      public int tryExecuteUpdate(String sql) {
+        return delegate.tryExecuteUpdate(sql);
+      }
+
+      @Override
+      public void executeTransaction(TransactionExecutor executor) {
+        delegate.executeTransaction(executor);
+      }
+
+      @Override
+      public LastInsertId insert(String sql) {
+        return delegate.insert(sql);
+      }
+
+      @Override
+      public RecordCursor executeQuery(String sql) {
+        return delegate.executeQuery(sql);
+      }
+
+      @Override
+      public int prepareExecuteUpdate(Prepared prepared) {
+        return delegate.prepareExecuteUpdate(prepared);
+      }
+
+      @Override
+      public RecordCursor prepareExecuteQuery(Prepared prepared) {
+        return delegate.prepareExecuteQuery(prepared);
+      }
+    };
+  }
+
+  @Test
+  public void testDefaultMethods() {
+    try (OnceConnection connection = new OnceConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementExecutor executor = baseExecutor(new JdbcExecutor(connection));
+
+      executor.executeUpdate("CREATE TABLE default_t (id bigint auto_increment, amount bigint);");
+
+      assertEquals(0, executor.getInFlightCount());
+      assertSame(executor, executor.withTimeout(0, TimeUnit.SECONDS));
+      try {
+        executor.withTimeout(1, TimeUnit.SECONDS);
+        fail("Expected UnsupportedOperationException.");
+      } catch (UnsupportedOperationException e) {
+        // The executor doesn't support deadlines.
+      }
+      assertArrayEquals(
+          new int[] {1, 1},
+          executor.executeBatch(
+              Arrays.asList(
+                  "INSERT INTO default_t SET amount=1", "INSERT INTO default_t SET amount=2")));
+      assertArrayEquals(
+          new int[] {1},
+          executor.prepareExecuteBatch(
+              Arrays.asList(
+                  Prepared.newBuilder("INSERT INTO default_t SET amount=?")
+                      .set(1, ParameterValue.int64(3))
+                      .build())));
+      assertArrayEquals(
+          new long[] {4, 5},
+          executor.prepareInsertBatch(
+              Arrays.asList(
+                  Prepared.newBuilder("INSERT INTO default_t SET amount=?")
+                      .set(1, ParameterValue.int64(4))
+                      .build(),
+                  Prepared.newBuilder("INSERT INTO default_t SET amount=?")
+                      .set(1, ParameterValue.int64(5))
+                      .build())));
+
+      List<RecordCursor> records =
+          executor.executeQueries(
+              Arrays.asList("SELECT COUNT(*) FROM default_t", "SELECT MAX(amount) FROM default_t"));
+
+      assertEquals(5, records.get(0).fieldInt(1));
+      assertEquals(5, records.get(1).fieldInt(1));
+
+      try (StreamingRecordCursor cursor =
+          executor.executeStreamingQuery("SELECT id, amount FROM default_t ORDER BY id")) {
+        long sum = 0;
+
+        while (!cursor.isEof()) {
+          sum += cursor.fieldLong("amount");
+          cursor.next();
+        }
+        assertEquals(15, sum);
+        assertTrue(cursor.isClosed());
+      }
+    }
+  }
 }
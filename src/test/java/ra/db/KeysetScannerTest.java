@@ -0,0 +1,164 @@
+package ra.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Test;
+import ra.db.connection.ConcurrentConnection;
+import ra.db.parameter.H2Parameters;
+import ra.db.record.RowSet;
+
+/** Test class. */
+public class KeysetScannerTest {
+
+  private static final H2Parameters.Builder H2_PARAM =
+      new H2Parameters.Builder()
+          .setProperties("DATABASE_TO_UPPER", "false")
+          .setProperties("MODE", "MYSQL")
+          .inMemory()
+          .setName("keysetScannerTest");
+
+  private static void createTable(StatementExecutor executor, int rows) {
+    List<String> inserts = new ArrayList<>();
+
+    executor.executeUpdate("CREATE TABLE scan_table (id bigint primary key, amount bigint);");
+    for (int i = 1; i <= rows; i++) {
+      inserts.add("INSERT INTO scan_table VALUES (" + i + ", " + (i % 3) + ")");
+    }
+    executor.executeBatch(inserts);
+  }
+
+  private static List<Long> ids(KeysetScanner.Scan scan, int limit) {
+    List<Long> ids = new ArrayList<>();
+
+    while (ids.size() < limit && scan.hasNext()) {
+      ids.add(scan.next().getLong(1));
+    }
+    return ids;
+  }
+
+  @Test
+  public void testScanAllPages() {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      createTable(connection.createStatementExecutor(), 25);
+
+      KeysetScanner scanner =
+          KeysetScanner.newBuilder("scan_table", "id")
+              .setColumns("id, amount")
+              .setPageSize(10)
+              .build();
+
+      try (KeysetScanner.Scan scan = scanner.open(connection.createStatementExecutor())) {
+        List<Long> ids = ids(scan, Integer.MAX_VALUE);
+
+        assertEquals(25, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+          assertEquals(i + 1, ids.get(i).longValue());
+        }
+        assertEquals(3, scan.getPageCount());
+        assertEquals(25L, scan.getLastKey());
+        assertFalse(scan.hasNext());
+      }
+    }
+  }
+
+  @Test
+  public void testScanTimestampKey() {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+      List<String> inserts = new ArrayList<>();
+
+      executor.executeUpdate("CREATE TABLE scan_time (created timestamp primary key, id bigint);");
+      for (int i = 1; i <= 12; i++) {
+        inserts.add(
+            "INSERT INTO scan_time VALUES (DATEADD(SECOND, "
+                + i
+                + ", TIMESTAMP '2020-01-01 00:00:00'), "
+                + i
+                + ")");
+      }
+      executor.executeBatch(inserts);
+
+      KeysetScanner scanner =
+          KeysetScanner.newBuilder("scan_time", "created")
+              .setColumns("id, created")
+              .setPageSize(5)
+              .build();
+
+      try (KeysetScanner.Scan scan = scanner.open(executor)) {
+        List<Long> ids = ids(scan, Integer.MAX_VALUE);
+
+        assertEquals(12, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+          assertEquals(i + 1, ids.get(i).longValue());
+        }
+        assertEquals(3, scan.getPageCount());
+      }
+    }
+  }
+
+  @Test
+  public void testResumeFromLastKey() {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      createTable(executor, 20);
+      KeysetScanner scanner =
+          KeysetScanner.newBuilder("scan_table", "id").setPageSize(5).setPrefetch(false).build();
+      Object lastKey;
+
+      try (KeysetScanner.Scan scan = scanner.open(executor)) {
+        assertNull(scan.getLastKey());
+        assertEquals(7, ids(scan, 7).size());
+        lastKey = scan.getLastKey();
+      }
+      assertEquals(7L, lastKey);
+
+      try (KeysetScanner.Scan scan = scanner.open(executor, lastKey)) {
+        List<Long> ids = ids(scan, Integer.MAX_VALUE);
+
+        assertEquals(13, ids.size());
+        assertEquals(8, ids.get(0).longValue());
+        // The last page is not full, so no more page is queried.
+        assertEquals(3, scan.getPageCount());
+      }
+    }
+  }
+
+  @Test
+  public void testStreamWithConditionAndQuery() {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      createTable(executor, 30);
+      KeysetScanner byWhere =
+          KeysetScanner.newBuilder("scan_table", "id").setWhere("amount=0").setPageSize(4).build();
+      KeysetScanner byQuery =
+          KeysetScanner.newBuilder("SELECT id, amount FROM scan_table WHERE amount=0", "id")
+              .setPageSize(4)
+              .setStartAfter(15L)
+              .build();
+
+      try (Stream<RowSet> stream = byWhere.stream(executor)) {
+        List<Long> ids = stream.map(row -> row.getLong("id")).collect(Collectors.toList());
+
+        assertEquals(10, ids.size());
+        assertEquals(3, ids.get(0).longValue());
+        assertEquals(30, ids.get(9).longValue());
+      }
+
+      try (Stream<RowSet> stream = byQuery.stream(executor)) {
+        assertEquals(5, stream.count());
+      }
+    }
+  }
+}
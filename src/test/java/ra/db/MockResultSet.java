@@ -36,6 +36,7 @@ public class MockResultSet extends ResultSetImpl {
   private Map<Integer, String> columnMapping;
   private Map<String, List<Object>> data;
   private int cursor;
+  private boolean wasNull;
 
   /** Initialize. */
   private MockResultSet() {
@@ -209,12 +210,19 @@ public class MockResultSet extends ResultSetImpl {
     if (c < columnData.size()) {
       Object ret = columnData.get(c);
 
+      wasNull = ret == null;
       return ret;
     }
 
+    wasNull = true;
     return null;
   }
 
+  @Override
+  public boolean wasNull() {
+    return wasNull;
+  }
+
   private String checkedCastToString(int columnIndex) throws SQLException {
     Object ret = getObject(columnIndex);
 
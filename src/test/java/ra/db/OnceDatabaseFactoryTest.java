@@ -4,12 +4,15 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 import ra.db.parameter.H2Parameters;
 import ra.db.parameter.MysqlParameters;
 import ra.exception.RaSqlException;
+import ra.ref.LongReference;
 import ra.ref.Reference;
 
 /** Test class. */
@@ -74,4 +77,41 @@ public class OnceDatabaseFactoryTest {
       assertThat(e, instanceOf(RaSqlException.class));
     }
   }
+
+  @Test
+  public void testPooledReuseAndReset() {
+    Reference<StatementExecutor> first = new Reference<>();
+    Reference<StatementExecutor> second = new Reference<>();
+    LongReference count = new LongReference();
+
+    try (OnceDatabaseFactory factory =
+        new OnceDatabaseFactory(
+            new H2Parameters.Builder()
+                    .setProperties("DATABASE_TO_UPPER", "false")
+                    .inMemory()
+                    .setName("oncePooled")
+                ::build,
+            PoolSettings.newBuilder().setMinSize(0).setMaxSize(2).build())) {
+      factory.getAndClose(
+          executor -> {
+            executor.executeUpdate("CREATE TABLE pooled_table (id bigint);");
+            // Leave a transaction open, it is rolled back before the next lease.
+            executor.executeUpdate("SET AUTOCOMMIT FALSE; INSERT INTO pooled_table VALUES (1)");
+            first.set(executor);
+          });
+      factory.getAndClose(
+          executor -> {
+            count.set(executor.executeQuery("SELECT COUNT(*) FROM pooled_table").fieldLong(1));
+            second.set(executor);
+          });
+
+      assertSame(first.get(), second.get());
+      assertTrue(second.get().isLive());
+      assertEquals(0, count.get());
+      assertEquals(1, factory.getConnectionPool().getTotalCount());
+      assertEquals(0, factory.getCount());
+    }
+
+    assertFalse(second.get().isLive());
+  }
 }
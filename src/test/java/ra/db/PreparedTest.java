@@ -2,6 +2,7 @@ package ra.db;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
@@ -49,4 +50,35 @@ public class PreparedTest {
     assertEquals("SELECT * FROM table;", result.getSql());
     assertEquals("value", result.getValues().get(1).getValue());
   }
+
+  @Test
+  public void testPrimitiveSetters() {
+    Prepared obj =
+        Prepared.newBuilder("SELECT * FROM table WHERE a=? AND b=? AND c=? AND d=?;")
+            .setLong(1, 1L)
+            .setInt(2, 2)
+            .setDouble(3, 3.5)
+            .setBoolean(4, true)
+            .build();
+
+    assertEquals(4, obj.getValues().size());
+    assertEquals(Long.class, obj.getValues().get(1).getType());
+    assertEquals(1L, obj.getValues().get(1).getValue());
+    assertEquals(Integer.class, obj.getValues().get(2).getType());
+    assertEquals(3.5, obj.getValues().get(3).getValue());
+    assertEquals(Boolean.TRUE, obj.getValues().get(4).getValue());
+
+    Prepared result = obj.toBuilder().setString(2, "b").build();
+
+    assertEquals("b", result.getValues().get(2).getValue());
+    assertEquals(2, obj.getValues().get(2).getValue());
+  }
+
+  @Test
+  public void testWithoutValues() {
+    Prepared obj = Prepared.newBuilder("SELECT 1").build();
+
+    assertTrue(obj.getValues().isEmpty());
+    assertEquals("SELECT 1", obj.toBuilder().build().getSql());
+  }
 }
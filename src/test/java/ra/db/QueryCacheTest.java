@@ -0,0 +1,158 @@
+package ra.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ra.db.record.RecordSet;
+
+/** Test class. */
+public class QueryCacheTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  private static RecordSet newRecord(long... ids) throws Exception {
+    MockResultSet result =
+        MockResultSet.newBuilder().setColumnLabel("id").setColumnType(Types.BIGINT).build();
+
+    for (long id : ids) {
+      result.addValue("id", id);
+    }
+
+    RecordSet record = new RecordSet(DatabaseCategory.H2);
+
+    record.convert(result);
+    return record;
+  }
+
+  @Test
+  public void testInvalidMaxEntries() {
+    exceptionRule.expect(IllegalArgumentException.class);
+
+    new QueryCache(0, 1024, 1000);
+  }
+
+  @Test
+  public void testTables() {
+    assertEquals(
+        new HashSet<>(Arrays.asList("user", "orders", "item")),
+        QueryCache.tables(
+            "SELECT * FROM `db`.`user` u, orders o JOIN item i ON i.id=o.item_id WHERE u.id=1"));
+    assertEquals(
+        new HashSet<>(Arrays.asList("a", "b")),
+        QueryCache.tables("SELECT * FROM (SELECT id FROM a) t WHERE id IN (SELECT id FROM b)"));
+    assertEquals(
+        Collections.singleton("user"), QueryCache.tables("INSERT INTO user(name) VALUES('a')"));
+    assertEquals(Collections.singleton("user"), QueryCache.tables("UPDATE user SET name='a'"));
+    assertEquals(Collections.singleton("user"), QueryCache.tables("DELETE FROM user WHERE id=1"));
+    assertEquals(Collections.singleton("user"), QueryCache.tables("DROP TABLE IF EXISTS user"));
+    assertEquals(Collections.emptySet(), QueryCache.tables("SELECT 1"));
+  }
+
+  @Test
+  public void testGetReturnsIndependentCursor() throws Exception {
+    QueryCache cache = new QueryCache(10, 1 << 20, 60000);
+    QueryCache.Key key = QueryCache.key("SELECT id FROM test", null);
+
+    cache.put(key, newRecord(1, 2), 60000, cache.getGeneration());
+
+    RecordSet first = cache.get(key);
+    first.next();
+    first.close();
+
+    RecordSet second = cache.get(key);
+
+    assertEquals(2, second.getRecordCount());
+    assertEquals(1, second.fieldLong("id"));
+    assertEquals(2, cache.getHitCount());
+  }
+
+  @Test
+  public void testKeyOfPreparedValues() throws Exception {
+    QueryCache cache = new QueryCache(10, 1 << 20, 60000);
+    String sql = "SELECT id FROM test WHERE id=?";
+
+    cache.put(
+        QueryCache.key(sql, Collections.singletonMap(1, ParameterValue.int64(1))),
+        newRecord(1),
+        60000,
+        cache.getGeneration());
+
+    assertNotNull(
+        cache.get(QueryCache.key(sql, Collections.singletonMap(1, ParameterValue.int64(1)))));
+    assertNull(
+        cache.get(QueryCache.key(sql, Collections.singletonMap(1, ParameterValue.int64(2)))));
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() throws Exception {
+    QueryCache cache = new QueryCache(2, 1 << 20, 60000);
+    QueryCache.Key key1 = QueryCache.key("SELECT id FROM a", null);
+    QueryCache.Key key2 = QueryCache.key("SELECT id FROM b", null);
+    QueryCache.Key key3 = QueryCache.key("SELECT id FROM c", null);
+
+    cache.put(key1, newRecord(1), 60000, cache.getGeneration());
+    cache.put(key2, newRecord(2), 60000, cache.getGeneration());
+    cache.get(key1);
+    cache.put(key3, newRecord(3), 60000, cache.getGeneration());
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    assertNull(cache.get(key2));
+    assertNotNull(cache.get(key1));
+  }
+
+  @Test
+  public void testEvictByBytes() throws Exception {
+    RecordSet record = newRecord(1, 2, 3, 4);
+    long bytes = record.getSizeInBytes() + 2L * "SELECT id FROM a".length();
+    QueryCache cache = new QueryCache(10, bytes + 1, 60000);
+
+    cache.put(QueryCache.key("SELECT id FROM a", null), record, 60000, cache.getGeneration());
+    cache.put(QueryCache.key("SELECT id FROM b", null), newRecord(1), 60000, cache.getGeneration());
+
+    assertEquals(1, cache.size());
+    assertNull(cache.get(QueryCache.key("SELECT id FROM a", null)));
+  }
+
+  @Test
+  public void testExpire() throws Exception {
+    QueryCache cache = new QueryCache(10, 1 << 20, 60000);
+    QueryCache.Key key = QueryCache.key("SELECT id FROM a", null);
+
+    cache.put(key, newRecord(1), 1, cache.getGeneration());
+    Thread.sleep(5);
+
+    assertNull(cache.get(key));
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getSizeInBytes());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    QueryCache cache = new QueryCache(10, 1 << 20, 60000);
+    QueryCache.Key key1 = QueryCache.key("SELECT id FROM a", null);
+    QueryCache.Key key2 = QueryCache.key("SELECT id FROM b", null);
+    long generation = cache.getGeneration();
+
+    cache.put(key1, newRecord(1), 60000, generation);
+    cache.put(key2, newRecord(2), 60000, generation);
+    cache.invalidate("UPDATE a SET id=2");
+
+    assertNull(cache.get(key1));
+    assertNotNull(cache.get(key2));
+
+    // The result was read before the invalidation, it may be stale.
+    cache.put(key1, newRecord(1), 60000, generation);
+    assertNull(cache.get(key1));
+
+    cache.invalidate("CALL refresh()");
+    assertEquals(0, cache.size());
+  }
+}
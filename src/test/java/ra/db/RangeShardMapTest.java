@@ -0,0 +1,43 @@
+package ra.db;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Test class. */
+public class RangeShardMapTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  @Test
+  public void testGetShard() {
+    RangeShardMap map =
+        RangeShardMap.newBuilder().addRange("a", "first").addRange("m", "second").build();
+
+    assertEquals("first", map.getShard("a"));
+    assertEquals("first", map.getShard("lemon"));
+    assertEquals("second", map.getShard("m"));
+    assertEquals("second", map.getShard("zoo"));
+  }
+
+  @Test
+  public void testIntegerKeys() {
+    RangeShardMap map =
+        RangeShardMap.newBuilder().addRange(0L, "first").addRange(1000, "second").build();
+
+    assertEquals("first", map.getShard(5));
+    assertEquals("first", map.getShard((short) 999));
+    assertEquals("second", map.getShard(1000L));
+    assertEquals("second", map.getShard(BigInteger.valueOf(2000)));
+  }
+
+  @Test
+  public void testKeyBelowRanges() {
+    exceptionRule.expect(IllegalArgumentException.class);
+    exceptionRule.expectMessage("No shard keeps the key, key=-1");
+
+    RangeShardMap.newBuilder().addRange(0L, "first").build().getShard(-1L);
+  }
+}
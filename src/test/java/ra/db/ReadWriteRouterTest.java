@@ -0,0 +1,156 @@
+package ra.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ra.db.parameter.H2Parameters;
+import ra.exception.RaTimeoutException;
+
+/** Test class. */
+public class ReadWriteRouterTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  private static DatabaseConnections newH2Connections(String name, String role) {
+    DatabaseConnections connections = new DatabaseConnections();
+
+    connections.connectConcurrentConnection(
+        new H2Parameters.Builder()
+            .setProperties("DATABASE_TO_UPPER", "false")
+            .setProperties("MODE", "MYSQL")
+            .inMemory()
+            .setName(name)
+            .build(),
+        1);
+    connections.next().executeUpdate("CREATE TABLE router_role (name varchar(20));");
+    connections.next().executeUpdate("INSERT INTO router_role SET name='" + role + "'");
+    return connections;
+  }
+
+  @Test
+  public void testRouteReadsToReplicas() {
+    ReadWriteRouter router =
+        ReadWriteRouter.newBuilder()
+            .setPrimary(newH2Connections("routerPrimary", "primary"))
+            .addReplica(newH2Connections("routerReplica1", "replica1"), 3)
+            .addReplica(newH2Connections("routerReplica2", "replica2"), 1)
+            .build();
+
+    try {
+      Map<String, Integer> counts = new HashMap<>();
+
+      for (int i = 0; i < 8; i++) {
+        String name = router.executeQuery("SELECT name FROM router_role").field("name");
+
+        counts.merge(name, 1, Integer::sum);
+      }
+
+      assertEquals(6, counts.get("replica1").intValue());
+      assertEquals(2, counts.get("replica2").intValue());
+
+      router.executeUpdate("UPDATE router_role SET name='written'");
+      assertEquals(
+          "written",
+          router.getPrimary().next().executeQuery("SELECT name FROM router_role").field("name"));
+      assertEquals(
+          "replica1",
+          router.getReplica(0).next().executeQuery("SELECT name FROM router_role").field("name"));
+    } finally {
+      router.close();
+    }
+  }
+
+  @Test
+  public void testReadYourWrites() throws InterruptedException {
+    ReadWriteRouter router =
+        ReadWriteRouter.newBuilder()
+            .setPrimary(newH2Connections("routerRywPrimary", "primary"))
+            .addReplica(newH2Connections("routerRywReplica", "replica"))
+            .setSelection(ReadWriteRouter.Selection.LEAST_IN_FLIGHT)
+            .setReadYourWritesWindow(60000)
+            .build();
+
+    try {
+      assertEquals("replica", router.executeQuery("SELECT name FROM router_role").field("name"));
+
+      router.executeTransaction(
+          transaction -> {
+            transaction.executeUpdate("UPDATE router_role SET name='written'");
+            return true;
+          });
+      assertEquals("written", router.executeQuery("SELECT name FROM router_role").field("name"));
+
+      AtomicReference<String> other = new AtomicReference<>();
+      Thread thread =
+          new Thread(
+              () -> other.set(router.executeQuery("SELECT name FROM router_role").field("name")));
+
+      thread.start();
+      thread.join();
+      assertEquals("replica", other.get());
+    } finally {
+      router.close();
+    }
+  }
+
+  @Test
+  public void testFallbackToPrimary() throws Exception {
+    DatabaseConnections replica = newH2Connections("routerFallbackReplica", "replica");
+    ReadWriteRouter router =
+        ReadWriteRouter.newBuilder()
+            .setPrimary(newH2Connections("routerFallbackPrimary", "primary"))
+            .addReplica(replica)
+            .build();
+
+    try {
+      replica.getConnection(0).close();
+
+      assertEquals("primary", router.executeQuery("SELECT name FROM router_role").field("name"));
+    } finally {
+      router.close();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testWithTimeout() {
+    ReadWriteRouter router =
+        ReadWriteRouter.newBuilder()
+            .setPrimary(newH2Connections("routerTimeoutPrimary", "primary"))
+            .addReplica(newH2Connections("routerTimeoutReplica", "replica"))
+            .build();
+
+    try {
+      ReadWriteRouter timed = router.withTimeout(200, TimeUnit.MILLISECONDS);
+
+      try {
+        timed.executeQuery(
+            "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 100000) a, SYSTEM_RANGE(1, 100000) b"
+                + " WHERE a.X + b.X = 3");
+        fail("Expected RaTimeoutException.");
+      } catch (RaTimeoutException e) {
+        // The query is cancelled on the replica.
+      }
+
+      assertEquals("replica", timed.executeQuery("SELECT name FROM router_role").field("name"));
+      assertEquals(1, timed.executeUpdate("UPDATE router_role SET name='written'"));
+      assertEquals(
+          "written",
+          router.getPrimary().next().executeQuery("SELECT name FROM router_role").field("name"));
+    } finally {
+      router.close();
+    }
+  }
+
+  @Test
+  public void testInvalidWeight() {
+    exceptionRule.expect(IllegalArgumentException.class);
+
+    ReadWriteRouter.newBuilder().addReplica(new DatabaseConnections(), 0);
+  }
+}
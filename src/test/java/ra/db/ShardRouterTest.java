@@ -0,0 +1,150 @@
+package ra.db;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ra.db.parameter.H2Parameters;
+import ra.db.record.RecordCursor;
+import ra.exception.RaSqlException;
+
+/** Test class. */
+public class ShardRouterTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  private static DatabaseConnections newShard(String name) {
+    DatabaseConnections connections = new DatabaseConnections(name);
+
+    connections.connectConcurrentConnection(
+        new H2Parameters.Builder()
+            .setProperties("DATABASE_TO_UPPER", "false")
+            .setProperties("MODE", "MYSQL")
+            .inMemory()
+            .setName("shardRouter_" + name)
+            .build(),
+        1);
+    return connections;
+  }
+
+  private static ShardRouter newRouter(String prefix, ShardMap shardMap) {
+    ShardRouter router =
+        ShardRouter.newBuilder()
+            .addShard(newShard(prefix + "0"))
+            .addShard(newShard(prefix + "1"))
+            .addShard(newShard(prefix + "2"))
+            .setShardMap(shardMap)
+            .build();
+
+    router.executeUpdateAll("CREATE TABLE user_table (id bigint primary key, name varchar(20));");
+    return router;
+  }
+
+  @Test
+  public void testHashRoutingAndFanOut() {
+    ShardRouter router = newRouter("hash", new HashShardMap("hash0", "hash1", "hash2"));
+
+    try {
+      for (long id = 1; id <= 90; id++) {
+        router.shard(id).executeUpdate("INSERT INTO user_table VALUES (" + id + ", 'u" + id + "')");
+      }
+
+      Map<String, Long> counts =
+          router.fanOut(
+              executor -> executor.executeQuery("SELECT COUNT(*) FROM user_table").fieldLong(1));
+
+      assertEquals(3, counts.size());
+      assertEquals(90, counts.values().stream().mapToLong(Long::longValue).sum());
+      for (long count : counts.values()) {
+        // The sequential keys are spread over the shards.
+        assertEquals(true, count > 10);
+      }
+
+      // A key is found on its own shard only.
+      String shard = router.getShardName(42L);
+
+      assertEquals(
+          "u42",
+          router.shard(42L).executeQuery("SELECT name FROM user_table WHERE id=42").field(1));
+      for (String name : router.getShardNames()) {
+        RecordCursor record =
+            router.getShard(name).next().executeQuery("SELECT id FROM user_table WHERE id=42");
+
+        assertEquals(name.equals(shard) ? 1 : 0, record.getRecordCount());
+      }
+
+      List<RecordCursor> all = router.executeQueryAll("SELECT id FROM user_table");
+
+      assertEquals(90, all.stream().mapToInt(RecordCursor::getRecordCount).sum());
+    } finally {
+      router.close();
+    }
+  }
+
+  @Test
+  public void testReconfigureRangeMap() {
+    ShardRouter router =
+        newRouter(
+            "range",
+            RangeShardMap.newBuilder().addRange(0L, "range0").addRange(100L, "range1").build());
+
+    try {
+      router.shard(5L).executeUpdate("INSERT INTO user_table VALUES (5, 'a')");
+      router.shard(150L).executeUpdate("INSERT INTO user_table VALUES (150, 'b')");
+      assertEquals("range1", router.getShardName(150L));
+
+      // Move the keys from 100 to the new shard.
+      ShardMap moved =
+          RangeShardMap.newBuilder()
+              .addRange(0L, "range0")
+              .addRange(100L, "range2")
+              .addRange(1000L, "range1")
+              .build();
+
+      router.setShardMap(moved);
+
+      assertSame(moved, router.getShardMap());
+      assertEquals("range2", router.getShardName(150L));
+      assertEquals("range1", router.getShardName(1000L));
+      assertEquals(
+          0, router.shard(150L).executeQuery("SELECT id FROM user_table").getRecordCount());
+    } finally {
+      router.close();
+    }
+  }
+
+  @Test
+  public void testFanOutFailure() {
+    ShardRouter router = newRouter("failure", new HashShardMap("failure0", "failure1"));
+
+    try {
+      router.getShard("failure2").next().executeUpdate("DROP TABLE user_table");
+      router.executeQueryAll("SELECT id FROM user_table");
+      fail("Expected RaSqlException.");
+    } catch (Exception e) {
+      assertThat(e, instanceOf(RaSqlException.class));
+    } finally {
+      router.close();
+    }
+  }
+
+  @Test
+  public void testUnknownShardOfMap() {
+    exceptionRule.expect(IllegalArgumentException.class);
+    exceptionRule.expectMessage("Shard 'missing' of the shard map does not exist");
+
+    ShardRouter router = newRouter("unknown", new HashShardMap("unknown0"));
+
+    try {
+      router.setShardMap(new HashShardMap("unknown0", "missing"));
+    } finally {
+      router.close();
+    }
+  }
+}
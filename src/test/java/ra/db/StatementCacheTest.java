@@ -0,0 +1,161 @@
+package ra.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ra.db.connection.ConcurrentConnection;
+import ra.db.connection.OnceConnection;
+import ra.db.parameter.H2Parameters;
+import ra.db.record.RecordCursor;
+
+/** Test class. */
+public class StatementCacheTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  private static H2Parameters.Builder newH2Param() {
+    return new H2Parameters.Builder()
+        .setProperties("DATABASE_TO_UPPER", "false")
+        .setProperties("MODE", "MYSQL")
+        .inMemory()
+        .setName("statementCacheTest");
+  }
+
+  @Test
+  public void testInvalidCapacity() {
+    exceptionRule.expect(IllegalArgumentException.class);
+
+    new StatementCache(0);
+  }
+
+  @Test
+  public void testPrepareAndRelease() throws SQLException {
+    try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:")) {
+      StatementCache cache = new StatementCache(2);
+
+      PreparedStatement first = cache.prepare(connection, "SELECT 1");
+      PreparedStatement inUse = cache.prepare(connection, "SELECT 1");
+
+      assertNotSame(first, inUse);
+
+      cache.release("SELECT 1", first);
+      cache.release("SELECT 1", inUse);
+
+      assertTrue(inUse.isClosed());
+      assertFalse(first.isClosed());
+      assertSame(first, cache.prepare(connection, "SELECT 1"));
+      assertEquals(1, cache.getHitCount());
+      assertEquals(2, cache.getMissCount());
+    }
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() throws SQLException {
+    try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:")) {
+      StatementCache cache = new StatementCache(2);
+
+      PreparedStatement statement1 = cache.prepare(connection, "SELECT 1");
+      cache.release("SELECT 1", statement1);
+      cache.release("SELECT 2", cache.prepare(connection, "SELECT 2"));
+      cache.release("SELECT 1", cache.prepare(connection, "SELECT 1"));
+      cache.release("SELECT 3", cache.prepare(connection, "SELECT 3"));
+
+      assertEquals(2, cache.size());
+      assertEquals(1, cache.getEvictionCount());
+      assertFalse(statement1.isClosed());
+      assertSame(statement1, cache.prepare(connection, "SELECT 1"));
+    }
+  }
+
+  @Test
+  public void testReleaseStatementAfterClear() throws SQLException {
+    try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:")) {
+      StatementCache cache = new StatementCache(2);
+      PreparedStatement statement = cache.prepare(connection, "SELECT 1");
+
+      cache.clear();
+      cache.release("SELECT 1", statement);
+
+      assertTrue(statement.isClosed());
+      assertEquals(0, cache.size());
+    }
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    OnceConnection connection = new OnceConnection(newH2Param().build());
+
+    assertNull(connection.getStatementCache());
+  }
+
+  @Test
+  public void testExecutorUseStatementCache() {
+    try (OnceConnection connection =
+        new OnceConnection(newH2Param().setStatementCacheSize(10).build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+      StatementCache cache = connection.getStatementCache();
+
+      executor.executeUpdate("CREATE TABLE cache_test (id bigint auto_increment, amount bigint);");
+
+      for (int i = 0; i < 3; i++) {
+        executor.prepareExecuteUpdate(
+            Prepared.newBuilder("INSERT INTO cache_test SET amount=?;")
+                .set(1, ParameterValue.int64(i))
+                .build());
+      }
+
+      executor.executeTransaction(
+          transaction -> {
+            transaction.prepareExecuteUpdate(
+                Prepared.newBuilder("INSERT INTO cache_test SET amount=?;")
+                    .set(1, ParameterValue.int64(3))
+                    .build());
+            return true;
+          });
+
+      RecordCursor record =
+          executor.prepareExecuteQuery(
+              Prepared.newBuilder("SELECT SUM(amount) AS total FROM cache_test WHERE id >?;")
+                  .set(1, ParameterValue.int64(0))
+                  .build());
+
+      executor.executeUpdate("DROP TABLE cache_test");
+
+      assertEquals(6, record.fieldLong("total"));
+      assertEquals(2, cache.getMissCount());
+      assertEquals(3, cache.getHitCount());
+      assertEquals(2, cache.size());
+    }
+  }
+
+  @Test
+  public void testClearOnReconnect() {
+    try (ConcurrentConnection connection =
+        new ConcurrentConnection(newH2Param().setStatementCacheSize(10).build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.prepareExecuteQuery(
+          Prepared.newBuilder("SELECT ?").set(1, ParameterValue.int64(1)).build());
+      assertEquals(1, connection.getStatementCache().size());
+
+      connection.connect();
+
+      assertEquals(0, connection.getStatementCache().size());
+      executor.prepareExecuteQuery(
+          Prepared.newBuilder("SELECT ?").set(1, ParameterValue.int64(1)).build());
+      assertEquals(2, connection.getStatementCache().getMissCount());
+    }
+  }
+}
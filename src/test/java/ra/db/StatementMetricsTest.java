@@ -0,0 +1,146 @@
+package ra.db;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import ra.db.connection.ConcurrentConnection;
+import ra.db.parameter.H2Parameters;
+import ra.util.Utility;
+import ra.util.logging.LogEveryDay;
+import ra.util.logging.LogSettings;
+
+/** Test class. */
+public class StatementMetricsTest {
+  private static final String ROOT_FOLDER = "./log/";
+
+  @After
+  public void tearDown() throws Exception {
+    Utility.get().deleteFiles(ROOT_FOLDER);
+  }
+
+  private static final H2Parameters.Builder H2_PARAM =
+      new H2Parameters.Builder()
+          .setProperties("DATABASE_TO_UPPER", "false")
+          .setProperties("MODE", "MYSQL")
+          .inMemory()
+          .setName("statementMetricsTest");
+
+  @Test
+  public void testFingerprint() {
+    assertEquals(
+        "SELECT * FROM t1 WHERE id=? AND name=? AND id IN (?)",
+        StatementMetrics.fingerprint(
+            "SELECT  *\n FROM t1 WHERE id=10 AND name='it''s' AND id IN (1, 2.5, 3);"));
+    assertEquals(
+        "INSERT INTO t2 VALUES (?)", StatementMetrics.fingerprint("INSERT INTO t2 VALUES (?, ?)"));
+    assertEquals(
+        StatementMetrics.fingerprint("UPDATE t SET a=1 WHERE id=2"),
+        StatementMetrics.fingerprint("UPDATE t SET a=30 WHERE id=4"));
+  }
+
+  @Test
+  public void testRecordStatements() {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementMetrics metrics = new StatementMetrics(100);
+      JdbcExecutor executor = (JdbcExecutor) connection.createStatementExecutor();
+
+      executor.setMetrics(metrics);
+      executor.executeUpdate("CREATE TABLE metrics_a (id bigint, amount bigint);");
+      for (int i = 0; i < 5; i++) {
+        executor.executeUpdate("INSERT INTO metrics_a VALUES (" + i + ", " + i * 10 + ")");
+      }
+      executor.executeQuery("SELECT * FROM metrics_a WHERE id>1");
+      executor.prepareExecuteQuery(
+          Prepared.newBuilder("SELECT * FROM metrics_a WHERE id>?").setLong(1, 0).build());
+
+      try {
+        executor.executeQuery("SELECT * FROM metrics_missing");
+      } catch (RuntimeException e) {
+        // Recorded as an error.
+      }
+
+      StatementMetrics.Snapshot insert = metrics.snapshot("INSERT INTO metrics_a VALUES (7, 8)");
+
+      assertNotNull(insert);
+      assertEquals(5, insert.getCount());
+      assertEquals(5, insert.getRows());
+      assertEquals(5, insert.getWait().getCount());
+
+      StatementMetrics.Snapshot query = metrics.snapshot("SELECT * FROM metrics_a WHERE id>?");
+
+      assertEquals(2, query.getCount());
+      assertEquals(7, query.getRows());
+      assertEquals(2, query.getMaterialize().getCount());
+      assertEquals(1, metrics.snapshot("SELECT * FROM metrics_missing").getErrorCount());
+      assertNull(metrics.snapshot("SELECT 1"));
+
+      List<StatementMetrics.Snapshot> all = metrics.snapshot();
+
+      assertEquals(4, all.size());
+      for (int i = 1; i < all.size(); i++) {
+        assertTrue(all.get(i - 1).getTotal().getSum() >= all.get(i).getTotal().getSum());
+      }
+
+      metrics.reset();
+      assertEquals(0, metrics.snapshot().size());
+    }
+  }
+
+  @Test
+  public void testLimitFingerprints() {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementMetrics metrics = new StatementMetrics(1);
+      JdbcExecutor executor = (JdbcExecutor) connection.createStatementExecutor();
+
+      executor.setMetrics(metrics);
+      executor.executeQuery("SELECT 1 AS a");
+      executor.executeQuery("SELECT 1 AS b");
+      executor.executeQuery("SELECT 1 AS c");
+
+      assertEquals(1, metrics.snapshot("SELECT 1 AS a").getCount());
+      assertEquals(2, metrics.snapshot("(others)").getCount());
+    }
+  }
+
+  @Test
+  public void testSlowQueryLog() throws IOException {
+    LogSettings settings = new LogSettings();
+
+    settings.setPath(ROOT_FOLDER + "slowQuery");
+
+    LogEveryDay log = new LogEveryDay(true, settings, "UTF-8");
+
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementMetrics metrics = new StatementMetrics(100);
+      JdbcExecutor executor = (JdbcExecutor) connection.createStatementExecutor();
+
+      executor.setMetrics(metrics);
+      metrics.setSlowQueryLog(log, 0);
+      executor.executeQuery("SELECT 1 AS slow");
+      metrics.setSlowQueryLog(null, 0);
+      executor.executeQuery("SELECT 1 AS fast");
+    } finally {
+      log.close();
+    }
+
+    File file = log.getLogRecord().getLogFile();
+    String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+    assertThat(content, containsString("rows=1,failed=false,sql=SELECT 1 AS slow"));
+    assertEquals(-1, content.indexOf("fast"));
+  }
+}
@@ -1,12 +1,14 @@
 package ra.db;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.sql.SQLException;
+import java.util.Arrays;
 import org.junit.Test;
 import ra.db.connection.MockOnceConnection;
 import ra.db.connection.OnceConnection;
@@ -341,4 +343,36 @@ public class TransactionTest {
       executor.executeUpdate(DROP_TABLE_SQL);
     }
   }
+
+  @Test
+  public void testTransactionBatchRollback() {
+    try (OnceConnection connection = new OnceConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate(CREATE_TABLE_SQL);
+
+      executor.executeTransaction(
+          transaction -> {
+            int[] ret =
+                transaction.prepareExecuteBatch(
+                    Arrays.asList(
+                        Prepared.newBuilder("INSERT INTO test_table SET columnsTest=?;")
+                            .set(1, ParameterValue.string("a"))
+                            .build(),
+                        Prepared.newBuilder("INSERT INTO test_table SET columnsTest=?;")
+                            .set(1, ParameterValue.string("b"))
+                            .build()));
+
+            assertArrayEquals(new int[] {1, 1}, ret);
+            return false;
+          });
+
+      RecordCursor record = executor.executeQuery("SELECT COUNT(*) AS total FROM test_table");
+
+      executor.executeUpdate(DROP_TABLE_SQL);
+
+      assertEquals(0, record.fieldLong("total"));
+    }
+  }
 }
@@ -0,0 +1,221 @@
+package ra.db;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ra.db.WriteBehindExecutor.OverflowPolicy;
+import ra.db.connection.ConcurrentConnection;
+import ra.db.parameter.H2Parameters;
+import ra.exception.RaConnectException;
+import ra.exception.RaSqlException;
+
+/** Test class. */
+public class WriteBehindExecutorTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  private static final H2Parameters.Builder H2_PARAM =
+      new H2Parameters.Builder()
+          .setProperties("DATABASE_TO_UPPER", "false")
+          .setProperties("MODE", "MYSQL")
+          .inMemory()
+          .setName("writeBehindExecutorTest");
+
+  @Test
+  public void testGroupCommit() throws Exception {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate("CREATE TABLE wb_counter (id bigint, amount bigint);");
+      executor.executeUpdate("INSERT INTO wb_counter VALUES (1, 0)");
+
+      List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+      try (WriteBehindExecutor writer =
+          WriteBehindExecutor.newBuilder(executor)
+              .setMaxBatchSize(50)
+              .setLingerTime(1000)
+              .build()) {
+        for (int i = 0; i < 100; i++) {
+          futures.add(writer.executeUpdate("UPDATE wb_counter SET amount=amount+1 WHERE id=1"));
+        }
+        futures.add(
+            writer.prepareExecuteUpdate(
+                Prepared.newBuilder("INSERT INTO wb_counter VALUES (?, ?)")
+                    .setLong(1, 2)
+                    .setLong(2, 5)
+                    .build()));
+
+        for (CompletableFuture<Integer> future : futures) {
+          assertEquals(1, future.get(10, TimeUnit.SECONDS).intValue());
+        }
+        assertEquals(101, writer.getStatementCount());
+        assertTrue(writer.getBatchCount() <= 3);
+      }
+
+      assertEquals(
+          105, executor.executeQuery("SELECT SUM(amount) AS s FROM wb_counter").fieldLong("s"));
+      assertEquals(
+          100, executor.executeQuery("SELECT amount FROM wb_counter WHERE id=1").fieldLong(1));
+    }
+  }
+
+  @Test
+  public void testFailedStatementDoesNotFailBatch() throws Exception {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate("CREATE TABLE wb_audit (id bigint, amount bigint);");
+
+      CompletableFuture<Integer> first;
+      CompletableFuture<Integer> failed;
+      CompletableFuture<Integer> last;
+
+      try (WriteBehindExecutor writer =
+          WriteBehindExecutor.newBuilder(executor).setLingerTime(1000).build()) {
+        first = writer.executeUpdate("INSERT INTO wb_audit VALUES (1, 1)");
+        failed = writer.executeUpdate("INSERT INTO wb_missing VALUES (1, 1)");
+        last = writer.executeUpdate("INSERT INTO wb_audit VALUES (2, 2)");
+      }
+
+      assertEquals(1, first.get().intValue());
+      assertEquals(1, last.get().intValue());
+      assertTrue(failed.isCompletedExceptionally());
+      assertEquals(
+          3, executor.executeQuery("SELECT SUM(amount) AS s FROM wb_audit").fieldLong("s"));
+
+      exceptionRule.expect(ExecutionException.class);
+      exceptionRule.expectCause(instanceOf(RaSqlException.class));
+      failed.get();
+    }
+  }
+
+  @Test
+  public void testSubmitWhileClosing() throws Exception {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate("CREATE TABLE wb_closing (id bigint);");
+
+      WriteBehindExecutor writer = WriteBehindExecutor.newBuilder(executor).build();
+      List<CompletableFuture<Integer>> futures = new ArrayList<>();
+      CountDownLatch started = new CountDownLatch(1);
+      Thread submitter =
+          new Thread(
+              () -> {
+                for (int i = 0; i < 2000; i++) {
+                  synchronized (futures) {
+                    futures.add(writer.executeUpdate("INSERT INTO wb_closing VALUES (" + i + ")"));
+                  }
+                  started.countDown();
+                }
+              });
+
+      submitter.start();
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+      writer.close();
+      submitter.join();
+
+      int committed = 0;
+
+      synchronized (futures) {
+        for (CompletableFuture<Integer> future : futures) {
+          // Every statement is either committed or rejected, none is lost.
+          assertTrue(future.isDone());
+          if (!future.isCompletedExceptionally()) {
+            committed++;
+          }
+        }
+      }
+      assertEquals(
+          committed, executor.executeQuery("SELECT COUNT(*) AS c FROM wb_closing").fieldInt("c"));
+    }
+  }
+
+  @Test
+  public void testOverflowPolicies() throws Exception {
+    try (ConcurrentConnection connection = new ConcurrentConnection(H2_PARAM.build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate("CREATE TABLE wb_overflow (id bigint);");
+
+      Semaphore entered = new Semaphore(0);
+      CountDownLatch release = new CountDownLatch(1);
+
+      // Hold the writer threads in the transactions, so the queues are not drained.
+      StatementExecutor slow =
+          new CachedStatementExecutor(executor, new QueryCache(1, 1, 1)) {
+            @Override
+            public void executeTransaction(TransactionExecutor transaction) {
+              entered.release();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              super.executeTransaction(transaction);
+            }
+          };
+
+      try (WriteBehindExecutor failWriter =
+              WriteBehindExecutor.newBuilder(slow)
+                  .setLingerTime(0)
+                  .setQueueCapacity(1)
+                  .setOverflowPolicy(OverflowPolicy.FAIL)
+                  .build();
+          WriteBehindExecutor callerWriter =
+              WriteBehindExecutor.newBuilder(slow)
+                  .setLingerTime(0)
+                  .setQueueCapacity(1)
+                  .setOverflowPolicy(OverflowPolicy.CALLER_RUNS)
+                  .build()) {
+        CompletableFuture<Integer> held;
+        CompletableFuture<Integer> queued;
+        CompletableFuture<Integer> rejected;
+
+        try {
+          held = failWriter.executeUpdate("INSERT INTO wb_overflow VALUES (1)");
+          assertTrue(entered.tryAcquire(10, TimeUnit.SECONDS));
+          queued = failWriter.executeUpdate("INSERT INTO wb_overflow VALUES (2)");
+          rejected = failWriter.executeUpdate("INSERT INTO wb_overflow VALUES (3)");
+
+          assertTrue(rejected.isCompletedExceptionally());
+
+          callerWriter.executeUpdate("INSERT INTO wb_overflow VALUES (4)");
+          assertTrue(entered.tryAcquire(10, TimeUnit.SECONDS));
+          callerWriter.executeUpdate("INSERT INTO wb_overflow VALUES (5)");
+
+          // The queue is full, the statement is executed by this thread.
+          CompletableFuture<Integer> callerRuns =
+              callerWriter.executeUpdate("INSERT INTO wb_overflow VALUES (6)");
+
+          assertTrue(callerRuns.isDone());
+          assertEquals(1, callerRuns.get().intValue());
+        } finally {
+          release.countDown();
+        }
+
+        assertEquals(1, held.get(10, TimeUnit.SECONDS).intValue());
+        assertEquals(1, queued.get(10, TimeUnit.SECONDS).intValue());
+
+        exceptionRule.expect(ExecutionException.class);
+        exceptionRule.expectCause(instanceOf(RaConnectException.class));
+        rejected.get();
+      }
+    }
+  }
+}
@@ -378,4 +378,63 @@ public class ConcurrentConnectionTest {
     }
     assertEquals(2, connectCount.get());
   }
+
+  @Test
+  public void testKeepSkipRecentlyActive() {
+    AtomicInteger pingCount = new AtomicInteger(0);
+    MysqlParameters param =
+        new MysqlParameters.Builder().setHost("127.0.0.1").setName("test").build();
+
+    try (ConcurrentConnection db =
+        new ConcurrentConnection(param) {
+          @Override
+          public Connection tryGetConnection(DatabaseParameters param) throws RaSqlException {
+            return new MockConnection();
+          }
+
+          @Override
+          public boolean ping() {
+            pingCount.incrementAndGet();
+            return true;
+          }
+        }) {
+      db.connect();
+      db.keep();
+      assertEquals(1, pingCount.get());
+
+      db.createStatementExecutor().executeUpdate("UPDATE test SET a=1");
+      assertTrue(db.getLastActiveTime() > 0);
+
+      db.keep();
+      assertEquals(1, pingCount.get());
+    }
+  }
+
+  @Test
+  public void testReconnectBackoff() {
+    AtomicInteger connectCount = new AtomicInteger(0);
+    MysqlParameters param =
+        new MysqlParameters.Builder().setHost("127.0.0.1").setName("test").build();
+
+    try (ConcurrentConnection db =
+        new ConcurrentConnection(param) {
+          @Override
+          public Connection tryGetConnection(DatabaseParameters param) throws RaSqlException {
+            if (connectCount.incrementAndGet() > 1) {
+              throw new RaSqlException("connect failed");
+            }
+            return new MockConnection();
+          }
+        }) {
+      db.connect();
+      db.keep();
+
+      assertFalse(db.isLive());
+      assertEquals(2, connectCount.get());
+
+      // The next reconnection is delayed.
+      db.keep();
+      assertEquals(2, connectCount.get());
+    }
+  }
 }
@@ -2,8 +2,10 @@ package ra.db.parameter;
 
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Properties;
 import org.hamcrest.CoreMatchers;
@@ -84,6 +86,7 @@ public class MysqlParametersTest {
             .setProperties("test", "vvvv")
             .setUser("user")
             .setPort(78)
+            .setStatementCacheSize(32)
             .build();
 
     MysqlParameters newParam = obj.toBuilder().build();
@@ -93,7 +96,17 @@ public class MysqlParametersTest {
     assertEquals("xxx", newParam.getPassword());
     assertEquals(78, newParam.getPort());
     assertEquals("user", newParam.getUser());
+    assertEquals(32, newParam.getStatementCacheSize());
     assertEquals("jdbc:mysql://", newParam.getUrlSchema());
     assertNotNull(newParam.getDatabaseUrl());
   }
+
+  @Test
+  public void testMultiStatements() {
+    MysqlParameters.Builder builder = new MysqlParameters.Builder().setHost("127.0.0.1");
+
+    assertFalse(builder.build().isMultiStatementsEnabled());
+    assertTrue(builder.setAllowMultiQueries(true).build().isMultiStatementsEnabled());
+    assertFalse(builder.setAllowMultiQueries(false).build().isMultiStatementsEnabled());
+  }
 }
@@ -0,0 +1,68 @@
+package ra.db.record;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import ra.db.DatabaseCategory;
+
+/** Test class. */
+public class RecordJsonWriterTest {
+
+  private static String toJson(String sql) throws SQLException, IOException {
+    try (Connection connection =
+            DriverManager.getConnection("jdbc:h2:mem:;DATABASE_TO_UPPER=false");
+        Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery(sql);
+        RecordSet record = new RecordSet(DatabaseCategory.H2)) {
+      StringWriter out = new StringWriter();
+
+      record.convert(result);
+      record.end();
+      RecordJsonWriter.write(record, out);
+
+      // The current row isn't moved.
+      if (record.getRecordCount() > 0) {
+        assertEquals(record.getRecordCount(), record.fieldLong(1));
+      }
+      return out.toString();
+    }
+  }
+
+  @Test
+  public void testWriteTypes() throws SQLException, IOException {
+    String text =
+        toJson(
+            "SELECT X AS id, 'a\"b\\c' || CHAR(10) || CHAR(1) AS text, X * 0.5 AS score,"
+                + " CAST(X AS DECIMAL(10, 2)) AS amount, X = 1 AS first,"
+                + " CAST(NULL AS VARCHAR) AS empty, X'0102' AS data,"
+                + " DATE '2020-01-02' AS created_on FROM SYSTEM_RANGE(1, 2)");
+    JSONArray json = new JSONArray(text);
+    JSONObject row = json.getJSONObject(0);
+
+    assertEquals(2, json.length());
+    assertTrue(text.startsWith("[{\"id\":1,"));
+    assertEquals("a\"b\\c\n\u0001", row.getString("text"));
+    assertEquals(0.5, row.getDouble("score"), 0);
+    assertEquals("1.00", row.get("amount").toString());
+    assertEquals(true, row.getBoolean("first"));
+    assertEquals(false, json.getJSONObject(1).getBoolean("first"));
+    assertTrue(row.isNull("empty"));
+    assertEquals("AQI=", row.getString("data"));
+    assertEquals("2020-01-02", row.getString("created_on"));
+  }
+
+  @Test
+  public void testWriteEmpty() throws SQLException, IOException {
+    assertEquals("[]", toJson("SELECT X AS id FROM SYSTEM_RANGE(1, 0)"));
+  }
+}
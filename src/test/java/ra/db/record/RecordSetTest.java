@@ -10,11 +10,18 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -840,4 +847,336 @@ public class RecordSetTest {
       assertEquals("xxxxgggraea", record.field("stringColumn"));
     }
   }
+
+  @Test
+  public void testPrimitiveColumnsUsingH2() throws SQLException {
+    try (Connection connection =
+            DriverManager.getConnection("jdbc:h2:mem:;DATABASE_TO_UPPER=false");
+        Statement statement = connection.createStatement();
+        RecordSet record = new RecordSet(DatabaseCategory.H2)) {
+      statement.executeUpdate(
+          "CREATE TABLE column_test (id bigint, age smallint, score double, flag boolean)");
+      statement.executeUpdate("INSERT INTO column_test VALUES (1, 20, 1.5, true)");
+      statement.executeUpdate("INSERT INTO column_test VALUES (NULL, NULL, NULL, NULL)");
+
+      try (ResultSet result =
+          statement.executeQuery("SELECT * FROM column_test ORDER BY id NULLS LAST")) {
+        record.convert(result);
+      }
+
+      assertEquals(2, record.getRecordCount());
+      assertEquals(1L, record.fieldLong("id"));
+      assertEquals(20L, record.fieldObject("age"));
+      assertEquals(1.5, record.fieldDouble("score"), 0);
+      assertEquals(Boolean.TRUE, record.fieldObject("flag"));
+      assertTrue(record.getSizeInBytes() > 0);
+
+      record.next();
+      assertTrue(record.isNull("id"));
+      assertTrue(record.isNull("age"));
+      assertTrue(record.isNull("score"));
+      assertTrue(record.isNull("flag"));
+      assertEquals(0L, record.fieldLong("id"));
+      assertEquals(0, record.fieldInt("age"));
+      assertEquals(0.0, record.fieldDouble("score"), 0);
+      assertEquals("0", record.field("id"));
+      assertEquals(Boolean.FALSE, record.fieldObject("flag"));
+    }
+  }
+
+  @Test
+  public void testStringAndBytesColumnsUsingH2() throws SQLException {
+    try (Connection connection =
+            DriverManager.getConnection("jdbc:h2:mem:;DATABASE_TO_UPPER=false");
+        Statement statement = connection.createStatement();
+        RecordSet record = new RecordSet(DatabaseCategory.H2)) {
+      statement.executeUpdate(
+          "CREATE TABLE text_test (id int, name varchar(20), data varbinary(8))");
+      statement.executeUpdate("INSERT INTO text_test VALUES (1, 'ray', X'0102')");
+      statement.executeUpdate("INSERT INTO text_test VALUES (2, NULL, NULL)");
+      statement.executeUpdate("INSERT INTO text_test VALUES (3, '', X'')");
+      statement.executeUpdate("INSERT INTO text_test VALUES (4, '\u9673', X'FF')");
+
+      try (ResultSet result = statement.executeQuery("SELECT * FROM text_test ORDER BY id")) {
+        record.convert(result);
+      }
+
+      assertEquals(4, record.getRecordCount());
+      assertEquals("ray", record.field("name"));
+      assertArrayEquals(new byte[] {1, 2}, record.fieldBytes("data"));
+
+      record.next();
+      assertTrue(record.isNull("name"));
+      assertTrue(record.isNull("data"));
+      assertNull(record.field("name"));
+      assertNull(record.fieldBytes("data"));
+
+      record.next();
+      assertFalse(record.isNull("name"));
+      assertEquals("", record.field("name"));
+      assertArrayEquals(new byte[0], record.fieldBytes("data"));
+
+      record.next();
+      assertEquals("\u9673", record.field("name"));
+      assertArrayEquals(new byte[] {(byte) 0xFF}, record.fieldBytes("data"));
+      // The values are kept in the buffers of the columns, not in String or byte[] objects.
+      assertThat(Column.of(Types.VARCHAR), instanceOf(Column.StringColumn.class));
+      assertThat(Column.of(Types.VARBINARY), instanceOf(Column.BytesColumn.class));
+    }
+  }
+
+  @Test
+  public void testPrimitiveColumnNullValueIsZero() throws SQLException {
+    try (Connection connection =
+            DriverManager.getConnection("jdbc:h2:mem:;DATABASE_TO_UPPER=false");
+        Statement statement = connection.createStatement();
+        RecordSet record = new RecordSet(DatabaseCategory.H2)) {
+      statement.executeUpdate("CREATE TABLE empty_test (id bigint)");
+
+      try (ResultSet result = statement.executeQuery("SELECT MAX(id) AS id FROM empty_test")) {
+        record.convert(result);
+      }
+
+      assertEquals(0L, record.fieldLong("id"));
+      assertEquals(0, record.fieldInt("id"));
+      assertTrue(record.isNull("id"));
+      assertTrue(record.isNull(1));
+    }
+  }
+
+  @Test
+  public void testFieldUsingColumnIndex() throws SQLException {
+    try (RecordSet record = new RecordSet(DatabaseCategory.MYSQL);
+        MockResultSet result =
+            MockResultSet.newBuilder()
+                .setColumnLabel("id", "score", "name")
+                .setColumnType(Types.BIGINT, Types.DOUBLE, Types.VARCHAR)
+                .build()) {
+      result.addValue("id", 10L);
+      result.addValue("score", 2.5);
+      result.addValue("name", "aaa");
+      result.addValue("id", 20L);
+      result.addValue("score", 3.5);
+      result.addValue("name", "bbb");
+
+      record.convert(result);
+
+      int id = record.findColumn("id");
+      int score = record.findColumn("score");
+      int name = record.findColumn("name");
+      long total = 0;
+
+      assertEquals(1, id);
+      assertEquals(10, record.fieldInt(id));
+      assertEquals(2.5f, record.fieldFloat(score), 0);
+      assertEquals("aaa", record.field(name));
+      assertEquals("aaa", record.fieldObject(name));
+      assertFalse(record.isNull(name));
+
+      record.forEach(
+          row -> {
+            assertEquals(row.getLong("id"), row.getLong(id));
+            assertEquals(row.getDouble("score"), row.getDouble(score), 0);
+          });
+
+      record.first();
+      while (!record.isEof()) {
+        total += record.fieldLong(id);
+        record.next();
+      }
+      assertEquals(30, total);
+    }
+  }
+
+  @Test
+  public void testDefaultIndexAccessors() throws SQLException {
+    try (RecordSet record = new RecordSet(DatabaseCategory.MYSQL);
+        MockResultSet result =
+            MockResultSet.newBuilder()
+                .setColumnLabel("id", "score", "name")
+                .setColumnType(Types.BIGINT, Types.DOUBLE, Types.VARCHAR)
+                .build()) {
+      result.addValue("id", 10L);
+      result.addValue("score", 2.5);
+      result.addValue("name", "aaa");
+
+      record.convert(result);
+
+      RowSet row = record.stream().findFirst().get();
+      // Only the methods by column name are implemented, the others are defaults.
+      RowSet named =
+          new RowSet() {
+            @Override
+            public byte[] getBytes(String columnName) {
+              return row.getBytes(columnName);
+            }
+
+            @Override
+            public String getString(String columnName) {
+              return row.getString(columnName);
+            }
+
+            @Override
+            public int getInt(String columnName) {
+              return row.getInt(columnName);
+            }
+
+            @Override
+            public long getLong(String columnName) {
+              return row.getLong(columnName);
+            }
+
+            @Override
+            public float getFloat(String columnName) {
+              return row.getFloat(columnName);
+            }
+
+            @Override
+            public double getDouble(String columnName) {
+              return row.getDouble(columnName);
+            }
+
+            @Override
+            public BigDecimal getBigDecimal(String columnName) {
+              return row.getBigDecimal(columnName);
+            }
+
+            @Override
+            public <T> List<T> getArray(String columnName, Class<T[]> castClass) {
+              return row.getArray(columnName, castClass);
+            }
+
+            @Override
+            public Object getObject(String columnName) {
+              return row.getObject(columnName);
+            }
+
+            @Override
+            public boolean isNull(String columnName) {
+              return row.isNull(columnName);
+            }
+
+            @Override
+            public void fieldNames(Consumer<String> action) {
+              row.fieldNames(action);
+            }
+          };
+
+      for (RowSet each : Arrays.asList(row, named)) {
+        assertEquals(2, each.findColumn("score"));
+        assertEquals(10, each.getInt(1));
+        assertEquals(10L, each.getLong(1));
+        assertEquals(2.5f, each.getFloat(2), 0);
+        assertEquals(2.5, each.getDouble(2), 0);
+        assertEquals(new BigDecimal("2.5"), each.getBigDecimal(2));
+        assertEquals("aaa", each.getString(3));
+        assertEquals("aaa", each.getObject(3));
+        assertFalse(each.isNull(3));
+      }
+    }
+  }
+
+  @Test
+  public void testDefaultIndexOutOfRange() throws SQLException {
+    exceptionRule.expect(RaSqlException.class);
+    exceptionRule.expectMessage("Field index 3 is out of range, field count is 2.");
+
+    try (RecordSet record = new RecordSet(DatabaseCategory.MYSQL);
+        MockResultSet result = BUILDER_ID_NAME.build()) {
+      result.addValue("id", 1);
+      result.addValue("name", "aaa");
+      record.convert(result);
+
+      Row row = new Row(record);
+
+      FieldIndex.name(row::fieldNames, 3);
+    }
+  }
+
+  @Test
+  public void testFindColumnNotExist() throws SQLException {
+    exceptionRule.expect(RaSqlException.class);
+    exceptionRule.expectMessage("fieldName 'age' does not exist.");
+
+    try (RecordSet record = new RecordSet(DatabaseCategory.MYSQL);
+        MockResultSet result = BUILDER_ID_NAME.build()) {
+      record.convert(result);
+
+      record.findColumn("age");
+    }
+  }
+
+  @Test
+  public void testFieldIntOverflow() throws SQLException {
+    exceptionRule.expect(NumberFormatException.class);
+
+    try (RecordSet record = new RecordSet(DatabaseCategory.MYSQL);
+        MockResultSet result =
+            MockResultSet.newBuilder().setColumnLabel("id").setColumnType(Types.BIGINT).build()) {
+      result.addValue("id", Long.MAX_VALUE);
+      record.convert(result);
+
+      record.fieldInt(1);
+    }
+  }
+
+  @Test
+  public void testParallelStreamUsingPositionRows() throws SQLException {
+    try (RecordSet record = new RecordSet(DatabaseCategory.MYSQL);
+        MockResultSet result = BUILDER_ID_NAME.build()) {
+      for (int i = 1; i <= 10000; i++) {
+        result.addValue("id", i);
+        result.addValue("name", "name" + i);
+      }
+
+      record.convert(result);
+
+      List<RowSet> rows = record.parallelStream().collect(Collectors.toList());
+
+      assertEquals(10000, rows.size());
+      assertEquals(1, rows.get(0).getLong("id"));
+      assertEquals("name10000", rows.get(9999).getString("name"));
+      assertEquals(50005000L, record.parallelStream().mapToLong(row -> row.getLong(1)).sum());
+      assertEquals(0, record.stream().filter(row -> row.isNull("id")).count());
+      assertEquals(1, record.fieldLong("id"));
+    }
+  }
+
+  @Test
+  public void testSpliteratorEstimateSize() throws SQLException {
+    try (RecordSet record = new RecordSet(DatabaseCategory.MYSQL);
+        MockResultSet result = BUILDER_ID_NAME.build()) {
+      for (int i = 1; i <= 10; i++) {
+        result.addValue("id", i);
+        result.addValue("name", "name" + i);
+      }
+
+      record.convert(result);
+
+      Spliterator<RowSet> spliterator = record.stream().spliterator();
+
+      assertEquals(10, spliterator.estimateSize());
+      assertEquals(5, spliterator.trySplit().estimateSize());
+      assertEquals(5, spliterator.estimateSize());
+    }
+  }
+
+  @Test
+  public void testGetRowAfterClose() throws SQLException {
+    RowSet row;
+
+    try (RecordSet record = new RecordSet(DatabaseCategory.MYSQL);
+        MockResultSet result = BUILDER_ID_NAME.build()) {
+      result.addValue("id", 1);
+      result.addValue("name", "aaa");
+      result.addValue("id", 2);
+      result.addValue("name", "bbb");
+
+      record.convert(result);
+      row = record.getRow(1);
+    }
+
+    assertEquals(2, row.getInt("id"));
+    assertEquals("bbb", row.getString(row.findColumn("name")));
+  }
 }
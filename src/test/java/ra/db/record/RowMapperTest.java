@@ -0,0 +1,189 @@
+package ra.db.record;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ra.db.DatabaseCategory;
+import ra.exception.RaSqlException;
+
+/** Test class. */
+public class RowMapperTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  public static class Account {
+    private long id;
+    private int age;
+    private double score;
+    private boolean active;
+    private String userName;
+    private Long parentId;
+    private BigDecimal balance;
+  }
+
+  public static class Point {
+    private final long x;
+    private final String label;
+
+    public Point(long x, String label) {
+      this.x = x;
+      this.label = label;
+    }
+  }
+
+  public static class Small {
+    private short level;
+    private byte flag;
+    private char grade;
+  }
+
+  public static class Sample {
+    private final long count;
+    private final double rate;
+    private final boolean valid;
+
+    public Sample(long count, double rate, boolean valid) {
+      this.count = count;
+      this.rate = rate;
+      this.valid = valid;
+    }
+  }
+
+  private static RecordSet query(String... sqls) throws SQLException {
+    try (Connection connection =
+            DriverManager.getConnection("jdbc:h2:mem:;DATABASE_TO_UPPER=false");
+        Statement statement = connection.createStatement()) {
+      for (int i = 0; i < sqls.length - 1; i++) {
+        statement.executeUpdate(sqls[i]);
+      }
+
+      RecordSet record = new RecordSet(DatabaseCategory.H2);
+
+      try (ResultSet result = statement.executeQuery(sqls[sqls.length - 1])) {
+        record.convert(result);
+      }
+      return record;
+    }
+  }
+
+  private static RecordSet queryAccounts() throws SQLException {
+    return query(
+        "CREATE TABLE account (id bigint, age int, score double, active boolean,"
+            + " user_name varchar(20), parent_id bigint, balance decimal(10,2), extra int)",
+        "INSERT INTO account VALUES (1, 20, 1.5, true, 'ray', 7, 10.25, 9)",
+        "INSERT INTO account VALUES (2, NULL, NULL, NULL, NULL, NULL, NULL, NULL)",
+        "SELECT * FROM account ORDER BY id");
+  }
+
+  @Test
+  public void testMapFields() throws SQLException {
+    try (RecordSet record = queryAccounts()) {
+      List<Account> accounts = RowMapper.of(Account.class).toList(record);
+
+      assertEquals(2, accounts.size());
+
+      Account account = accounts.get(0);
+
+      assertEquals(1, account.id);
+      assertEquals(20, account.age);
+      assertEquals(1.5, account.score, 0);
+      assertTrue(account.active);
+      assertEquals("ray", account.userName);
+      assertEquals(Long.valueOf(7), account.parentId);
+      assertEquals(new BigDecimal("10.25"), account.balance);
+    }
+  }
+
+  @Test
+  public void testMapNullValues() throws SQLException {
+    try (RecordSet record = queryAccounts()) {
+      Account account = record.stream(Account.class).collect(Collectors.toList()).get(1);
+
+      assertEquals(2, account.id);
+      assertEquals(0, account.age);
+      assertEquals(0, account.score, 0);
+      assertFalse(account.active);
+      assertNull(account.userName);
+      assertNull(account.parentId);
+      assertNull(account.balance);
+    }
+  }
+
+  @Test
+  public void testMapConstructor() throws SQLException {
+    try (RecordSet record =
+        query(
+            "CREATE TABLE point (x bigint, label varchar(20))",
+            "INSERT INTO point VALUES (3, 'a')",
+            "SELECT x, label FROM point")) {
+      Point point = RowMapper.of(Point.class).toList(record).get(0);
+
+      assertEquals(3, point.x);
+      assertEquals("a", point.label);
+    }
+  }
+
+  @Test
+  public void testMapNullToPrimitiveParameters() throws SQLException {
+    try (RecordSet record =
+        query(
+            "CREATE TABLE sample (count bigint, rate double, valid boolean)",
+            "INSERT INTO sample VALUES (NULL, NULL, NULL)",
+            "SELECT count, rate, valid FROM sample")) {
+      Sample sample = RowMapper.of(Sample.class).toList(record).get(0);
+
+      assertEquals(0, sample.count);
+      assertEquals(0, sample.rate, 0);
+      assertFalse(sample.valid);
+    }
+  }
+
+  @Test
+  public void testMapSmallTypes() throws SQLException {
+    try (RecordSet record =
+        query(
+            "CREATE TABLE small (level smallint, flag tinyint, grade char(1))",
+            "INSERT INTO small VALUES (300, -5, 'A')",
+            "SELECT level, flag, grade FROM small")) {
+      Small small = RowMapper.of(Small.class).toList(record).get(0);
+
+      assertEquals(300, small.level);
+      assertEquals(-5, small.flag);
+      assertEquals('A', small.grade);
+    }
+  }
+
+  @Test
+  public void testCompileOncePerLayout() throws SQLException {
+    try (RecordSet first = queryAccounts();
+        RecordSet second = queryAccounts()) {
+      RowMapper<Account> mapper = RowMapper.of(Account.class);
+
+      assertSame(mapper, RowMapper.of(Account.class));
+      assertSame(mapper.compile(first), mapper.compile(second));
+    }
+  }
+
+  @Test
+  public void testMapIncompatibleType() throws SQLException {
+    exceptionRule.expect(RaSqlException.class);
+    exceptionRule.expectMessage("can't cast to");
+
+    try (RecordSet record = query("SELECT CAST('2020-01-01' AS DATE) AS balance")) {
+      RowMapper.of(Account.class).toList(record);
+    }
+  }
+}
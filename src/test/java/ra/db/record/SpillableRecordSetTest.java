@@ -0,0 +1,163 @@
+package ra.db.record;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import ra.db.DatabaseCategory;
+
+/** Test class. */
+public class SpillableRecordSetTest {
+
+  private static final String QUERY =
+      "SELECT X AS id, 'name' || X AS name, X * 1.5 AS score,"
+          + " CAST(X AS DECIMAL(10, 2)) / 4 AS amount, X % 2 = 0 AS even,"
+          + " CASE WHEN X % 10 = 0 THEN NULL ELSE X END AS maybe,"
+          + " CAST(X AS BINARY VARYING(8)) AS data,"
+          + " TIMESTAMP '2020-01-01 00:00:00.123456789' AS created"
+          + " FROM SYSTEM_RANGE(1, 100)";
+
+  @Test
+  public void testSpillKeepsCursorSemantics() throws SQLException {
+    try (Connection connection =
+            DriverManager.getConnection("jdbc:h2:mem:;DATABASE_TO_UPPER=false");
+        Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery(QUERY);
+        SpillableRecordSet record = new SpillableRecordSet(DatabaseCategory.H2, 4096)) {
+      record.convert(result);
+
+      File file = record.getSpillFile();
+
+      assertTrue(record.isSpilled());
+      assertTrue(file.exists());
+      assertEquals(100, record.getRecordCount());
+      assertTrue(record.getSpilledCount() > 0 && record.getSpilledCount() < 100);
+      assertTrue(record.getSizeInBytes() <= 4096);
+
+      for (int i = 1; !record.isEof(); i++) {
+        assertEquals(i, record.fieldLong("id"));
+        assertEquals("name" + i, record.field(2));
+        assertEquals(i * 1.5, record.fieldDouble("score"), 0);
+        assertEquals(0, BigDecimal.valueOf(i * 25, 2).compareTo(record.fieldBigDecimal(4)));
+        assertEquals(i % 2 == 0, record.fieldObject("even"));
+        assertEquals(i % 10 == 0, record.isNull("maybe"));
+        assertEquals(
+            Timestamp.valueOf("2020-01-01 00:00:00.123456789"), record.fieldObject("created"));
+        record.next();
+      }
+
+      record.end();
+      assertEquals(100, record.fieldInt("id"));
+      record.previous();
+      assertEquals(99, record.fieldInt(1));
+      record.move(3);
+      assertEquals(3, record.fieldLong(1));
+      assertArrayEquals((byte[]) record.getRow(2).getObject("data"), record.fieldBytes("data"));
+      record.first();
+      assertFalse(record.isBof());
+      assertEquals(1, record.fieldLong("id"));
+
+      record.close();
+
+      assertFalse(file.exists());
+      assertNull(record.getSpillFile());
+      assertEquals(0, record.getRecordCount());
+    }
+  }
+
+  @Test
+  public void testStream() throws SQLException {
+    try (Connection connection =
+            DriverManager.getConnection("jdbc:h2:mem:;DATABASE_TO_UPPER=false");
+        Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery(QUERY);
+        SpillableRecordSet record = new SpillableRecordSet(DatabaseCategory.H2, 2048)) {
+      record.convert(result);
+
+      List<Long> ids = record.stream().map(row -> row.getLong("id")).collect(Collectors.toList());
+
+      assertEquals(100, ids.size());
+      for (int i = 0; i < ids.size(); i++) {
+        assertEquals(i + 1, ids.get(i).longValue());
+      }
+      assertEquals(5050, record.parallelStream().mapToLong(row -> row.getLong(1)).sum());
+      assertEquals(10, record.stream().filter(row -> row.isNull("maybe")).count());
+      // The stream doesn't move the current row.
+      assertEquals(1, record.fieldLong("id"));
+    }
+  }
+
+  @Test
+  public void testWithinBudget() throws SQLException {
+    try (Connection connection =
+            DriverManager.getConnection("jdbc:h2:mem:;DATABASE_TO_UPPER=false");
+        Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery(QUERY);
+        SpillableRecordSet record =
+            new SpillableRecordSet(DatabaseCategory.H2, Long.MAX_VALUE)) {
+      record.convert(result);
+
+      assertFalse(record.isSpilled());
+      assertEquals(0, record.getSpilledCount());
+      assertEquals(100, record.getRecordCount());
+      record.end();
+      assertEquals("name100", record.field("name"));
+      assertNull(record.field("missing"));
+    }
+  }
+
+  /** Returns the spill file of a record which is not closed and not reachable. */
+  private static File spillWithoutClose() throws SQLException {
+    try (Connection connection =
+            DriverManager.getConnection("jdbc:h2:mem:;DATABASE_TO_UPPER=false");
+        Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery(QUERY)) {
+      SpillableRecordSet record = new SpillableRecordSet(DatabaseCategory.H2, 0);
+
+      record.convert(result);
+      return record.getSpillFile();
+    }
+  }
+
+  @Test
+  public void testUnclosedRecordIsCleaned() throws SQLException, InterruptedException {
+    File file = spillWithoutClose();
+
+    assertTrue(file.exists());
+    for (int i = 0; i < 100 && file.exists(); i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void testNullToLong() throws SQLException {
+    try (Connection connection =
+            DriverManager.getConnection("jdbc:h2:mem:;DATABASE_TO_UPPER=false");
+        Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery(QUERY);
+        SpillableRecordSet record = new SpillableRecordSet(DatabaseCategory.H2, 0)) {
+      record.convert(result);
+
+      assertEquals(100, record.getSpilledCount());
+      record.move(10);
+      assertEquals(0L, record.fieldLong("maybe"));
+      assertTrue(record.isNull("maybe"));
+      assertEquals("0", record.field("maybe"));
+    }
+  }
+}
@@ -0,0 +1,255 @@
+package ra.db.record;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import ra.db.ConnectionPool;
+import ra.db.MockResultSet;
+import ra.db.ParameterValue;
+import ra.db.PoolSettings;
+import ra.db.Prepared;
+import ra.db.StatementExecutor;
+import ra.db.connection.ConcurrentConnection;
+import ra.db.connection.OnceConnection;
+import ra.db.parameter.H2Parameters;
+
+/** Test class. */
+public class StreamingRecordCursorTest {
+  @Rule public ExpectedException exceptionRule = ExpectedException.none();
+
+  private static H2Parameters.Builder newH2Param() {
+    return new H2Parameters.Builder()
+        .setProperties("DATABASE_TO_UPPER", "false")
+        .setProperties("MODE", "MYSQL")
+        .inMemory()
+        .setName("streamingRecordCursorTest");
+  }
+
+  private static MockResultSet newResultSet() {
+    MockResultSet result =
+        MockResultSet.newBuilder()
+            .setColumnLabel("id", "name")
+            .setColumnType(Types.BIGINT, Types.VARCHAR)
+            .build();
+
+    result.addValue("id", 1L);
+    result.addValue("name", "aaa");
+    result.addValue("id", 2L);
+    result.addValue("name", "bbb");
+    return result;
+  }
+
+  @Test
+  public void testReadForward() throws SQLException {
+    AtomicInteger released = new AtomicInteger();
+    StreamingRecordCursor cursor =
+        new StreamingRecordCursor(newResultSet(), released::incrementAndGet);
+
+    assertFalse(cursor.isBof());
+    assertEquals(1L, cursor.fieldLong("id"));
+    assertEquals("aaa", cursor.field("name"));
+
+    cursor.next();
+    assertEquals(2, cursor.fieldInt(cursor.findColumn("id")));
+    assertEquals("bbb", cursor.field(2));
+    assertEquals(0, released.get());
+
+    cursor.next();
+    assertTrue(cursor.isEof());
+    assertTrue(cursor.isClosed());
+    assertEquals(2, cursor.getPosition());
+    assertEquals(1, released.get());
+
+    cursor.close();
+    assertEquals(1, released.get());
+  }
+
+  @Test(timeout = 10000)
+  public void testConcurrentCloseReleaseOnce() throws Exception {
+    ExecutorService threads = Executors.newFixedThreadPool(4);
+
+    try {
+      for (int n = 0; n < 100; n++) {
+        AtomicInteger released = new AtomicInteger();
+        StreamingRecordCursor cursor =
+            new StreamingRecordCursor(newResultSet(), released::incrementAndGet);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> closes = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+          closes.add(
+              threads.submit(
+                  () -> {
+                    start.await();
+                    cursor.close();
+                    return null;
+                  }));
+        }
+        start.countDown();
+        for (Future<?> close : closes) {
+          close.get();
+        }
+
+        assertEquals(1, released.get());
+        assertTrue(cursor.isEof());
+        cursor.next();
+        assertTrue(cursor.isEof());
+      }
+    } finally {
+      threads.shutdown();
+    }
+  }
+
+  @Test
+  public void testPreviousUnsupported() throws SQLException {
+    exceptionRule.expect(UnsupportedOperationException.class);
+
+    try (StreamingRecordCursor cursor = new StreamingRecordCursor(newResultSet(), () -> {})) {
+      cursor.next();
+      cursor.previous();
+    }
+  }
+
+  @Test
+  public void testStreamCloseCursor() throws SQLException {
+    AtomicInteger released = new AtomicInteger();
+    StreamingRecordCursor cursor =
+        new StreamingRecordCursor(newResultSet(), released::incrementAndGet);
+
+    try (Stream<RowSet> stream = cursor.stream()) {
+      assertEquals("aaa", stream.findFirst().get().getString("name"));
+    }
+
+    assertTrue(cursor.isClosed());
+    assertEquals(1, released.get());
+  }
+
+  @Test
+  public void testStreamingQueryUsingH2() {
+    try (ConcurrentConnection connection =
+        new ConcurrentConnection(newH2Param().setName("streamingH2").build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate("CREATE TABLE stream_test (id bigint auto_increment, amount bigint);");
+
+      for (int i = 1; i <= 10; i++) {
+        executor.executeUpdate("INSERT INTO stream_test SET amount=" + i);
+      }
+
+      long total = 0;
+
+      try (StreamingRecordCursor cursor =
+          executor.prepareExecuteStreamingQuery(
+              Prepared.newBuilder("SELECT amount FROM stream_test WHERE id>? ORDER BY id")
+                  .set(1, ParameterValue.int64(0))
+                  .build())) {
+        assertEquals(1, executor.getInFlightCount());
+
+        while (!cursor.isEof()) {
+          total += cursor.fieldLong("amount");
+          cursor.next();
+        }
+      }
+
+      assertEquals(55, total);
+      assertEquals(0, executor.getInFlightCount());
+      assertEquals(
+          "1,2,3",
+          executor
+              .executeStreamingQuery("SELECT amount FROM stream_test WHERE amount<=3 ORDER BY id")
+              .stream()
+              .map(row -> row.getString("amount"))
+              .collect(Collectors.joining(",")));
+
+      executor.executeUpdate("DROP TABLE stream_test");
+    }
+  }
+
+  @Test
+  public void testNullNumberIsZero() {
+    try (ConcurrentConnection connection =
+        new ConcurrentConnection(newH2Param().setName("streamingNull").build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+
+      executor.executeUpdate("CREATE TABLE null_test (id bigint, score double)");
+
+      String sql = "SELECT MAX(id) AS id, MAX(score) AS score FROM null_test";
+
+      try (StreamingRecordCursor cursor = executor.executeStreamingQuery(sql)) {
+        assertEquals(0L, cursor.fieldLong("id"));
+        assertEquals(0.0, cursor.fieldDouble("score"), 0);
+        assertTrue(cursor.isNull("id"));
+        assertTrue(cursor.isNull(2));
+      }
+
+      try (StreamingRecordCursor cursor =
+          StreamingRecordCursor.of(executor.executeQuery(sql))) {
+        assertEquals(0L, cursor.fieldLong("id"));
+        assertTrue(cursor.isNull("id"));
+        assertTrue(cursor.isNull("missing"));
+      }
+    }
+  }
+
+  @Test
+  public void testStreamingQueryHoldLease() {
+    H2Parameters param = newH2Param().setName("streamingPool").build();
+
+    try (ConnectionPool pool =
+        new ConnectionPool(
+            "stream",
+            PoolSettings.newBuilder().setMinSize(1).setMaxSize(2).build(),
+            () -> new OnceConnection(param))) {
+      StatementExecutor executor = pool.getStatementExecutor();
+
+      try (StreamingRecordCursor cursor = executor.executeStreamingQuery("SELECT 1 AS id")) {
+        assertEquals(1, pool.getLeasedCount());
+        assertEquals(1, cursor.fieldLong("id"));
+      }
+
+      assertEquals(0, pool.getLeasedCount());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testCloseOnAnotherThread() throws Exception {
+    try (ConcurrentConnection connection =
+        new ConcurrentConnection(newH2Param().setName("streamingThread").build())) {
+      connection.connect();
+      StatementExecutor executor = connection.createStatementExecutor();
+      StreamingRecordCursor cursor =
+          executor.executeStreamingQuery("SELECT X AS id FROM SYSTEM_RANGE(1, 10)");
+      ExecutorService thread = Executors.newSingleThreadExecutor();
+
+      try {
+        thread.submit(cursor::close).get();
+        // The connection is released, so another thread can execute statements.
+        long id =
+            thread.submit(() -> executor.executeQuery("SELECT 1 AS id").fieldLong("id")).get();
+
+        assertEquals(1, id);
+      } finally {
+        thread.shutdown();
+      }
+      assertTrue(cursor.isClosed());
+      assertEquals(0, executor.getInFlightCount());
+    }
+  }
+}
@@ -1,12 +1,16 @@
 package ra.net;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import org.junit.Test;
 import test.mock.MockSocket;
+import test.mock.NetObject;
 
 /** Test class. */
 public class SendProcessorTest {
@@ -33,4 +37,27 @@ public class SendProcessorTest {
 
     assertFalse(obj.getSendCompilete());
   }
+
+  @Test
+  public void testSendChunk() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    SendProcessor obj =
+        new SendProcessor(
+            new NetObject(),
+            new MockSocket() {
+              @Override
+              public OutputStream getOutputStream() {
+                return output;
+              }
+            },
+            10000);
+
+    obj.send("first");
+    obj.sendChunk("[1,");
+    obj.sendChunk("2,");
+    obj.sendClose("3]");
+    obj.run();
+
+    assertEquals("first\f\n[1,2,3]\f\n", output.toString());
+  }
 }
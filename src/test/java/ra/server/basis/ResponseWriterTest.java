@@ -0,0 +1,120 @@
+package ra.server.basis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.json.JSONArray;
+import org.junit.Test;
+import ra.db.DatabaseCategory;
+import ra.db.record.RecordSet;
+import ra.net.MessageSender;
+
+/** Test class. */
+public class ResponseWriterTest {
+
+  /** Records the chunks and the end of the message. */
+  private static class MockChunkSender extends MessageSender {
+    private List<String> chunks = new ArrayList<>();
+    private String last;
+    private boolean closed = false;
+
+    @Override
+    public void sendChunk(String chunk, int index) {
+      chunks.add(chunk);
+    }
+
+    @Override
+    public void send(String message, int index) {
+      last = message;
+    }
+
+    @Override
+    public void sendClose(String message, int index) {
+      last = message;
+      closed = true;
+    }
+
+    String getMessage() {
+      return String.join("", chunks) + last;
+    }
+  }
+
+  @Test
+  public void testChunks() throws IOException {
+    MockChunkSender sender = new MockChunkSender();
+
+    try (ResponseWriter writer = new ResponseWriter(new SenderAdapter(sender), 1, false, 4)) {
+      writer.write("abcdef");
+      writer.write(new char[] {'g', 'h', 'i', 'j'}, 1, 3);
+      writer.write("k");
+    }
+
+    assertEquals(Arrays.asList("abcd", "efhi"), sender.chunks);
+    assertEquals("jk", sender.last);
+    assertEquals(false, sender.closed);
+  }
+
+  @Test
+  public void testSurrogatePairNotSplit() throws IOException {
+    MockChunkSender sender = new MockChunkSender();
+    String emoji = new String(Character.toChars(0x1F600));
+
+    try (ResponseWriter writer = new ResponseWriter(new SenderAdapter(sender), 1, false, 2)) {
+      writer.write("a" + emoji + "b");
+      writer.write(emoji);
+      writer.write("c".toCharArray(), 0, 1);
+    }
+
+    for (String chunk : sender.chunks) {
+      assertFalse(Character.isHighSurrogate(chunk.charAt(chunk.length() - 1)));
+    }
+    assertEquals("a" + emoji + "b" + emoji + "c", sender.getMessage());
+  }
+
+  @Test
+  public void testSurrogatePairChunkSizeOne() throws IOException {
+    MockChunkSender sender = new MockChunkSender();
+    String emoji = new String(Character.toChars(0x1F600));
+
+    try (ResponseWriter writer = new ResponseWriter(new SenderAdapter(sender), 1, false, 1)) {
+      writer.write(emoji + "x" + emoji);
+    }
+
+    assertEquals(Arrays.asList(emoji, "x", emoji), sender.chunks);
+    assertEquals("", sender.last);
+  }
+
+  @Test
+  public void testSendRecord() throws SQLException {
+    MockChunkSender sender = new MockChunkSender();
+    Response response = new Response(1, new SenderAdapter(sender));
+
+    try (Connection connection =
+            DriverManager.getConnection("jdbc:h2:mem:;DATABASE_TO_UPPER=false");
+        Statement statement = connection.createStatement();
+        ResultSet result =
+            statement.executeQuery(
+                "SELECT X AS id, 'name' || X AS name FROM SYSTEM_RANGE(1, 2000)");
+        RecordSet record = new RecordSet(DatabaseCategory.H2)) {
+      record.convert(result);
+      response.sendClose(record);
+    }
+
+    JSONArray json = new JSONArray(sender.getMessage());
+
+    assertEquals(true, sender.closed);
+    assertEquals(true, sender.chunks.size() > 1);
+    assertEquals(2000, json.length());
+    assertEquals(2000, json.getJSONObject(1999).getLong("id"));
+    assertEquals("name1", json.getJSONObject(0).getString("name"));
+  }
+}
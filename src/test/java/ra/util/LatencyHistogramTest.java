@@ -0,0 +1,50 @@
+package ra.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/** Test class. */
+public class LatencyHistogramTest {
+
+  @Test
+  public void testBucketBounds() {
+    long[] values = {0, 1, 3, 4, 5, 7, 8, 9, 15, 16, 1000, 123456789L, Long.MAX_VALUE};
+
+    for (long value : values) {
+      int index = LatencyHistogram.index(value);
+
+      assertTrue(value <= LatencyHistogram.upperBound(index));
+      assertTrue(index == 0 || value > LatencyHistogram.upperBound(index - 1));
+    }
+  }
+
+  @Test
+  public void testPercentile() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+    histogram.record(-1);
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+    assertEquals(1001, snapshot.getCount());
+    assertEquals(500500, snapshot.getSum());
+    assertEquals(1000, snapshot.getMax());
+    assertEquals(0, snapshot.getPercentile(0));
+    assertEquals(1000, snapshot.getPercentile(100));
+
+    long p50 = snapshot.getPercentile(50);
+    long p99 = snapshot.getPercentile(99);
+
+    assertTrue(p50 >= 500 && p50 <= 500 * 1.25);
+    assertTrue(p99 >= 990 && p99 <= 1000);
+
+    histogram.reset();
+    assertEquals(0, histogram.snapshot().getPercentile(99));
+    assertEquals(0, histogram.getCount());
+  }
+}